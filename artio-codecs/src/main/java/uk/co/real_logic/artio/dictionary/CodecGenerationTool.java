@@ -15,6 +15,7 @@
  */
 package uk.co.real_logic.artio.dictionary;
 
+import org.agrona.generation.OutputManager;
 import org.agrona.generation.PackageOutputManager;
 import uk.co.real_logic.artio.builder.Validation;
 import uk.co.real_logic.artio.dictionary.generation.*;
@@ -26,6 +27,13 @@ import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.*;
 
 public final class CodecGenerationTool
 {
+    /**
+     * Set this system property to true in order to generate decoders that lazily decode field values.
+     *
+     * @see DecoderGenerator#DecoderGenerator(Dictionary, int, String, OutputManager, Class, boolean)
+     */
+    public static final String LAZY_DECODING_PROP = "fix.codecs.lazy_decoding";
+
     public static void main(final String[] args) throws Exception
     {
         final String outputPath = args[0];
@@ -55,7 +63,7 @@ public final class CodecGenerationTool
                 new PackageOutputManager(outputPath, ENCODER_PACKAGE), Validation.class);
 
             final DecoderGenerator decoderGenerator = new DecoderGenerator(
-                dictionary, 1, DECODER_PACKAGE, decoder, Validation.class);
+                dictionary, 1, DECODER_PACKAGE, decoder, Validation.class, Boolean.getBoolean(LAZY_DECODING_PROP));
             final PrinterGenerator printerGenerator = new PrinterGenerator(dictionary, DECODER_PACKAGE, decoder);
             final AcceptorGenerator acceptorGenerator = new AcceptorGenerator(dictionary, DECODER_PACKAGE, decoder);
 
@@ -22,6 +22,7 @@ import uk.co.real_logic.artio.builder.Decoder;
 import uk.co.real_logic.artio.dictionary.ir.*;
 import uk.co.real_logic.artio.dictionary.ir.Field.Type;
 import uk.co.real_logic.artio.fields.*;
+import uk.co.real_logic.artio.util.BufferAsciiSequence;
 
 import java.io.IOException;
 import java.io.Writer;
@@ -36,6 +37,7 @@ import static uk.co.real_logic.artio.dictionary.generation.ConstantGenerator.con
 import static uk.co.real_logic.artio.dictionary.generation.ConstantGenerator.sizeHashSet;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.rethrown;
 import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.fileHeader;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.importFor;
 import static uk.co.real_logic.sbe.generation.java.JavaUtil.formatPropertyName;
 
 // TODO: optimisations
@@ -83,6 +85,7 @@ public class DecoderGenerator extends Generator
     private Aggregate currentAggregate = null;
 
     private final int initialBufferSize;
+    private final boolean lazyDecoding;
 
     private String allFieldsDictionary;
 
@@ -92,9 +95,36 @@ public class DecoderGenerator extends Generator
         final String builderPackage,
         final OutputManager outputManager,
         final Class<?> validationClass)
+    {
+        this(dictionary, initialBufferSize, builderPackage, outputManager, validationClass, false);
+    }
+
+    /**
+     * Create a decoder generator.
+     *
+     * Lazy decoders only record the offset and length of string, temporal and float fields when
+     * <code>decode()</code> is called. Their values are copied out of the buffer the first time that their getter is
+     * called, and string based fields can also be read without copying through a {@link BufferAsciiSequence}. This
+     * means that the buffer passed to <code>decode()</code> must not be modified whilst the decoder is being read.
+     *
+     * @param dictionary the dictionary to generate decoders for.
+     * @param initialBufferSize the initial size of the arrays that field values are copied into.
+     * @param builderPackage the package to generate decoders into.
+     * @param outputManager the output manager that generated sources are written to.
+     * @param validationClass the class that defines whether codec validation is enabled.
+     * @param lazyDecoding true to generate decoders that lazily decode field values, false to decode them eagerly.
+     */
+    public DecoderGenerator(
+        final Dictionary dictionary,
+        final int initialBufferSize,
+        final String builderPackage,
+        final OutputManager outputManager,
+        final Class<?> validationClass,
+        final boolean lazyDecoding)
     {
         super(dictionary, builderPackage, outputManager, validationClass);
         this.initialBufferSize = initialBufferSize;
+        this.lazyDecoding = lazyDecoding;
     }
 
     public void generate()
@@ -142,10 +172,24 @@ public class DecoderGenerator extends Generator
                 out.append(fileHeader(builderPackage));
 
                 generateImports("Decoder", type, out);
+                lazyDecodingImports(out);
                 generateAggregateClass(aggregate, type, className, out);
             });
     }
 
+    private void lazyDecodingImports(final Writer out) throws IOException
+    {
+        if (lazyDecoding)
+        {
+            out.append(importFor(BufferAsciiSequence.class));
+        }
+    }
+
+    private boolean isLazilyDecoded(final Type type)
+    {
+        return lazyDecoding && (type.hasLengthField() || type.isFloatBased());
+    }
+
     private void generateAggregateClass(
         final Aggregate aggregate,
         final AggregateType type,
@@ -173,6 +217,10 @@ public class DecoderGenerator extends Generator
         }
         groupMethods(out, aggregate);
         headerMethods(out, aggregate, type);
+        if (lazyDecoding)
+        {
+            out.append("    private AsciiBuffer buffer;\n\n");
+        }
         getters(out, aggregate.entries());
         out.append(decodeMethod(aggregate.entries(), aggregate, type));
         out.append(completeResetMethod(isMessage, aggregate.entries(), resetValidation()));
@@ -208,7 +256,25 @@ public class DecoderGenerator extends Generator
 
     protected String resetRequiredFloat(final String name)
     {
-        return resetByMethod(name);
+        return lazyDecoding ? resetLazilyDecodedValue(name, "        %2$s.reset();\n") : resetByMethod(name);
+    }
+
+    protected String resetLength(final String name)
+    {
+        return lazyDecoding ? resetLazilyDecodedValue(name, "        %2$sLength = 0;\n") : super.resetLength(name);
+    }
+
+    private String resetLazilyDecodedValue(final String name, final String resetValue)
+    {
+        // Stops a value from a previously decoded message being decoded by its getter after the reset.
+        return String.format(
+            "    public void %1$s()\n" +
+            "    {\n" +
+            resetValue +
+            "        %2$sDecoded = true;\n" +
+            "    }\n\n",
+            nameOfResetMethod(name),
+            formatPropertyName(name));
     }
 
     protected String resetRequiredInt(final Field field)
@@ -398,7 +464,7 @@ public class DecoderGenerator extends Generator
             "        }\n",
             optionalCheck,
             valuesField,
-            propertyName,
+            isLazilyDecoded(type) ? propertyName + "()" : propertyName,
             tagNumber,
             isPrimitive ? "" : ", " + propertyName + "Length");
     }
@@ -428,6 +494,7 @@ public class DecoderGenerator extends Generator
                 out.append(fileHeader(builderPackage));
 
                 generateImports("Decoder", AggregateType.COMPONENT, out);
+                lazyDecodingImports(out);
                 out.append(String.format(
                     "\npublic interface %1$s\n" +
                     "{\n\n",
@@ -488,14 +555,19 @@ public class DecoderGenerator extends Generator
         final String optional = !entry.required() ?
             String.format("    public boolean has%1$s();\n", name) : "";
 
+        final String sequence = isLazilyDecoded(type) && type.isStringBased() ?
+            String.format("    public BufferAsciiSequence %1$s(BufferAsciiSequence sequence);\n", fieldName) : "";
+
         return String.format(
             "    public %1$s %2$s();\n" +
             "%3$s" +
-            "%4$s",
+            "%4$s" +
+            "%5$s",
             javaTypeOf(type),
             fieldName,
             optional,
-            length);
+            length,
+            sequence);
     }
 
     private void getter(final Entry entry, final Writer out) throws IOException
@@ -639,13 +711,16 @@ public class DecoderGenerator extends Generator
         final String fieldName = formatPropertyName(name);
         final Type type = field.type();
         final String optionalCheck = optionalCheck(entry);
+        final boolean isLazilyDecoded = isLazilyDecoded(type);
+        final String value = isLazilyDecoded ? fieldName + "()" : fieldName;
 
         final String asStringBody = String.format(
             entry.required() ?
-                "new String(%1$s, 0, %1$sLength)" :
-                "has%2$s ? new String(%1$s, 0, %1$sLength) : null",
-            fieldName,
-            name);
+                "new String(%1$s, 0, %3$sLength)" :
+                "has%2$s ? new String(%1$s, 0, %3$sLength) : null",
+            value,
+            name,
+            fieldName);
 
         final String suffix = type.isStringBased() ?
             String.format(
@@ -664,6 +739,11 @@ public class DecoderGenerator extends Generator
                 asStringBody) :
             "";
 
+        if (isLazilyDecoded)
+        {
+            return lazyFieldGetter(entry, field, suffix);
+        }
+
         return String.format(
             "    private %s %s%s;\n\n" +
             "%s" +
@@ -683,6 +763,57 @@ public class DecoderGenerator extends Generator
             suffix);
     }
 
+    private String lazyFieldGetter(final Entry entry, final Field field, final String suffix)
+    {
+        final String fieldName = formatPropertyName(field.name());
+        final Type type = field.type();
+        final String optionalCheck = optionalCheck(entry);
+
+        // Float fields don't have a public length, so it needs declaring here.
+        final String length = type.isStringBased() ? "" : String.format("    private int %1$sLength;\n\n", fieldName);
+
+        final String sequenceGetter = type.isStringBased() ?
+            String.format(
+                "    public BufferAsciiSequence %1$s(final BufferAsciiSequence sequence)\n" +
+                "    {\n" +
+                "%2$s" +
+                "        return sequence.wrap(buffer, %1$sOffset, %1$sLength);\n" +
+                "    }\n\n",
+                fieldName,
+                optionalCheck) :
+            "";
+
+        return String.format(
+            "    private %1$s %2$s%3$s;\n\n" +
+            "    private int %2$sOffset;\n\n" +
+            "%4$s" +
+            "    private boolean %2$sDecoded = true;\n\n" +
+            "%5$s" +
+            "    public %1$s %2$s()\n" +
+            "    {\n" +
+            "%6$s" +
+            "        if (!%2$sDecoded)\n" +
+            "        {\n" +
+            "            %2$s = buffer.%7$s);\n" +
+            "            %2$sDecoded = true;\n" +
+            "        }\n" +
+            "        return %2$s;\n" +
+            "    }\n\n" +
+            "%8$s" +
+            "%9$s\n" +
+            "%10$s",
+            javaTypeOf(type),
+            fieldName,
+            fieldInitialisation(type),
+            length,
+            hasField(entry),
+            optionalCheck,
+            decodeMethodFor(type, fieldName, fieldName + "Offset", fieldName + "Length"),
+            sequenceGetter,
+            optionalGetter(entry),
+            suffix);
+    }
+
     private String fieldInitialisation(final Type type)
     {
         switch (type)
@@ -817,6 +948,7 @@ public class DecoderGenerator extends Generator
             "            missingRequiredFields.copy(" + REQUIRED_FIELDS + ");\n" +
             "            alreadyVisitedFields.clear();\n" +
             "        }\n" +
+            (lazyDecoding ? "        this.buffer = buffer;\n" : "") +
             "        final int end = offset + length;\n" +
             "        int position = offset;\n" +
             (hasCommonCompounds ? "        position += header.decode(buffer, position, length);\n" : "") +
@@ -1012,6 +1144,22 @@ public class DecoderGenerator extends Generator
         final String name = entry.name();
         final String fieldName = formatPropertyName(name);
 
+        if (isLazilyDecoded(field.type()))
+        {
+            return String.format(
+                "            case %1$d:\n" +
+                "%2$s" +
+                "                %3$sOffset = valueOffset;\n" +
+                "                %3$sLength = valueLength;\n" +
+                "                %3$sDecoded = false;\n" +
+                "%4$s" +
+                "                break;\n",
+                tag,
+                optionalAssign(entry),
+                fieldName,
+                suffix);
+        }
+
         return String.format(
             "            case %d:\n" +
             "%s" +
@@ -1022,7 +1170,7 @@ public class DecoderGenerator extends Generator
             tag,
             optionalAssign(entry),
             fieldName,
-            decodeMethodFor(field.type(), fieldName),
+            decodeMethodFor(field.type(), fieldName, "valueOffset", "valueLength"),
             storeLengthForArrays(field.type(), fieldName),
             suffix);
     }
@@ -1039,7 +1187,8 @@ public class DecoderGenerator extends Generator
         return entry.required() ? "" : String.format("                has%s = true;\n", entry.name());
     }
 
-    private String decodeMethodFor(final Type type, final String fieldName)
+    private String decodeMethodFor(
+        final Type type, final String fieldName, final String offsetName, final String lengthName)
     {
         switch (type)
         {
@@ -1056,20 +1205,20 @@ public class DecoderGenerator extends Generator
             case QTY:
             case PERCENTAGE:
             case AMT:
-                return String.format("getFloat(%s, valueOffset, valueLength", fieldName);
+                return String.format("getFloat(%s, %s, %s", fieldName, offsetName, lengthName);
 
             case CHAR:
-                return "getChar(valueOffset";
+                return "getChar(" + offsetName;
 
             case STRING:
             case MULTIPLEVALUESTRING:
             case CURRENCY:
             case EXCHANGE:
             case COUNTRY:
-                return String.format("getChars(%s, valueOffset, valueLength", fieldName);
+                return String.format("getChars(%s, %s, %s", fieldName, offsetName, lengthName);
 
             case BOOLEAN:
-                return "getBoolean(valueOffset";
+                return "getBoolean(" + offsetName;
 
             case DATA:
             case UTCTIMESTAMP:
@@ -1077,7 +1226,7 @@ public class DecoderGenerator extends Generator
             case UTCTIMEONLY:
             case UTCDATEONLY:
             case MONTHYEAR:
-                return String.format("getBytes(%s, valueOffset, valueLength", fieldName);
+                return String.format("getBytes(%s, %s, %s", fieldName, offsetName, lengthName);
 
             default:
                 throw new UnsupportedOperationException("Unknown type: " + type);
@@ -1089,6 +1238,20 @@ public class DecoderGenerator extends Generator
         return String.format("new String(%s, 0, %1$sLength)", fieldName);
     }
 
+    protected String fieldToString(final Field field)
+    {
+        final Type type = field.type();
+        if (isLazilyDecoded(type))
+        {
+            final String fieldName = formatPropertyName(field.name());
+            return type.isStringBased() ?
+                String.format("new String(%s(), 0, %1$sLength)", fieldName) :
+                fieldName + "()";
+        }
+
+        return super.fieldToString(field);
+    }
+
     protected boolean hasFlag(final Entry entry, final Field field)
     {
         return !entry.required();
@@ -1096,7 +1259,7 @@ public class DecoderGenerator extends Generator
 
     protected String resetTemporalValue(final String name)
     {
-        return resetNothing(name);
+        return lazyDecoding ? resetLazilyDecodedValue(name, "") : resetNothing(name);
     }
 
     protected String resetComponents(final List<Entry> entries, final StringBuilder methods)
@@ -74,7 +74,7 @@ public final class UtcTimestampEncoder
 
     public int update(final long epochMillis)
     {
-        if (epochMillis > startOfNextDayInMs || epochMillis < beginningOfDayInMs)
+        if (epochMillis >= startOfNextDayInMs || epochMillis < beginningOfDayInMs)
         {
             return initialise(epochMillis);
         }
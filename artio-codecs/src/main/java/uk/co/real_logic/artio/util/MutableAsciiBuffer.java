@@ -21,7 +21,9 @@ import uk.co.real_logic.artio.fields.*;
 
 import java.nio.ByteBuffer;
 
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
 
 public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffer
 {
@@ -45,6 +47,11 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
         999999999_999999999L, Long.MAX_VALUE
     };
 
+    private static final long LOW_BITS = 0x0101_0101_0101_0101L;
+    private static final long HIGH_BITS = 0x8080_8080_8080_8080L;
+    private static final long LOW_BYTE_OF_SHORTS = 0x00FF_00FF_00FF_00FFL;
+    private static final long LOW_BIT_OF_SHORTS = 0x0001_0001_0001_0001L;
+
     private static final byte[] MIN_INTEGER_VALUE = String.valueOf(Integer.MIN_VALUE).getBytes(US_ASCII);
     private static final byte[] MIN_LONG_VALUE = String.valueOf(Long.MIN_VALUE).getBytes(US_ASCII);
 
@@ -337,24 +344,57 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
 
     public int scan(final int startInclusive, final int endInclusive, final byte terminator)
     {
-        int indexValue = UNKNOWN_INDEX;
-        for (int i = startInclusive; i <= endInclusive; i++)
+        int index = startInclusive;
+
+        // Compare eight bytes at a time, the lowest set high bit of found marks the first matching byte.
+        final int lastWordStart = Math.min(endInclusive, capacity() - 1) - (SIZE_OF_LONG - 1);
+        if (index <= lastWordStart)
         {
-            final byte value = getByte(i);
-            if (value == terminator)
+            final long pattern = (terminator & 0xFFL) * LOW_BITS;
+            do
             {
-                indexValue = i;
-                break;
+                final long word = getLong(index, LITTLE_ENDIAN) ^ pattern;
+                final long found = (word - LOW_BITS) & ~word & HIGH_BITS;
+                if (found != 0)
+                {
+                    return index + (Long.numberOfTrailingZeros(found) >> 3);
+                }
+
+                index += SIZE_OF_LONG;
+            }
+            while (index <= lastWordStart);
+        }
+
+        for (; index <= endInclusive; index++)
+        {
+            if (getByte(index) == terminator)
+            {
+                return index;
             }
         }
 
-        return indexValue;
+        return UNKNOWN_INDEX;
     }
 
     public int computeChecksum(final int offset, final int end)
     {
         int total = 0;
-        for (int index = offset; index < end; index++)
+        int index = offset;
+
+        // Sums eight bytes at a time. Bytes are signed, so those with the high bit set are 256 less than their
+        // unsigned value.
+        final int lastWordStart = Math.min(end, capacity()) - SIZE_OF_LONG;
+        while (index <= lastWordStart)
+        {
+            final long word = getLong(index, LITTLE_ENDIAN);
+            final long pairSums = (word & LOW_BYTE_OF_SHORTS) + ((word >>> 8) & LOW_BYTE_OF_SHORTS);
+            final int unsignedSum = (int)((pairSums * LOW_BIT_OF_SHORTS) >>> 48);
+            total += unsignedSum - (Long.bitCount(word & HIGH_BITS) << 8);
+
+            index += SIZE_OF_LONG;
+        }
+
+        for (; index < end; index++)
         {
             total += (int)getByte(index);
         }
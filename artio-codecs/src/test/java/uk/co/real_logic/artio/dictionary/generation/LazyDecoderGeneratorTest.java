@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.agrona.generation.StringWriterOutputManager;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import uk.co.real_logic.artio.builder.Decoder;
+import uk.co.real_logic.artio.fields.DecimalFloat;
+import uk.co.real_logic.artio.util.BufferAsciiSequence;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.agrona.generation.CompilerUtil.compileInMemory;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.*;
+import static uk.co.real_logic.artio.dictionary.ExampleDictionary.*;
+import static uk.co.real_logic.artio.dictionary.generation.DecoderGenerator.CODEC_LOGGING;
+import static uk.co.real_logic.artio.fields.DecimalFloat.MISSING_FLOAT;
+import static uk.co.real_logic.artio.util.Reflection.get;
+import static uk.co.real_logic.artio.util.Reflection.getField;
+
+public class LazyDecoderGeneratorTest
+{
+    private static final char[] ABC = "abc".toCharArray();
+    private static final char[] AB = "ab".toCharArray();
+    private static final String ON_BEHALF_OF_COMP_ID = "onBehalfOfCompID";
+
+    private static Class<?> heartbeat;
+
+    private MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[8 * 1024]);
+
+    @BeforeClass
+    public static void generate() throws Exception
+    {
+        final StringWriterOutputManager outputManager = new StringWriterOutputManager();
+        final ConstantGenerator constantGenerator = new ConstantGenerator(
+            MESSAGE_EXAMPLE, TEST_PACKAGE, outputManager);
+        final DecoderGenerator decoderGenerator = new DecoderGenerator(
+            MESSAGE_EXAMPLE, 1, TEST_PACKAGE, outputManager, ValidationOn.class, true);
+
+        constantGenerator.generate();
+        decoderGenerator.generate();
+        final Map<String, CharSequence> sources = outputManager.getSources();
+
+        heartbeat = compileInMemory(HEARTBEAT_DECODER, sources);
+        if (heartbeat == null || CODEC_LOGGING)
+        {
+            System.out.println("sources = " + sources);
+        }
+    }
+
+    @Test
+    public void decodesValues() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(DERIVED_FIELDS_MESSAGE);
+
+        assertArrayEquals(ABC, getOnBehalfOfCompId(decoder));
+        assertEquals(2, get(decoder, INT_FIELD));
+        assertEquals(new DecimalFloat(11, 1), get(decoder, FLOAT_FIELD));
+
+        assertValid(decoder);
+    }
+
+    @Test
+    public void shouldNotDecodeValuesUntilTheyAreRead() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(DERIVED_FIELDS_MESSAGE);
+
+        assertFalse(isDecoded(decoder, ON_BEHALF_OF_COMP_ID));
+        assertFalse(isDecoded(decoder, FLOAT_FIELD));
+
+        getOnBehalfOfCompId(decoder);
+
+        assertTrue(isDecoded(decoder, ON_BEHALF_OF_COMP_ID));
+        assertFalse(isDecoded(decoder, FLOAT_FIELD));
+    }
+
+    @Test
+    public void shouldReadStringsWithoutCopying() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(DERIVED_FIELDS_MESSAGE);
+
+        final BufferAsciiSequence sequence = (BufferAsciiSequence)heartbeat
+            .getMethod(ON_BEHALF_OF_COMP_ID, BufferAsciiSequence.class)
+            .invoke(decoder, new BufferAsciiSequence());
+
+        assertEquals("abc", sequence.toString());
+        assertFalse(isDecoded(decoder, ON_BEHALF_OF_COMP_ID));
+    }
+
+    @Test
+    public void shouldDecodeShorterStringsAfterLongerStrings() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(DERIVED_FIELDS_MESSAGE);
+
+        assertArrayEquals(ABC, getOnBehalfOfCompId(decoder));
+
+        decode(SHORTER_STRING_MESSAGE, decoder);
+
+        assertArrayEquals(AB, getOnBehalfOfCompId(decoder));
+    }
+
+    @Test
+    public void shouldNotDecodeValuesOfPreviousMessageAfterReset() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(ENCODED_MESSAGE);
+
+        decoder.reset();
+
+        assertEquals(MISSING_FLOAT, get(decoder, FLOAT_FIELD));
+        assertEquals(0, get(decoder, ON_BEHALF_OF_COMP_ID + "Length"));
+        assertFalse((boolean)get(decoder, "hasTestReqID"));
+    }
+
+    @Test
+    public void shouldIncludeOptionalFieldsInToString() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(ENCODED_MESSAGE);
+
+        assertThat(decoder.toString(), containsString(STRING_ENCODED_MESSAGE_EXAMPLE));
+    }
+
+    private boolean isDecoded(final Decoder decoder, final String name) throws Exception
+    {
+        return (boolean)getField(decoder, name + "Decoded");
+    }
+
+    private char[] getOnBehalfOfCompId(final Decoder decoder) throws Exception
+    {
+        final char[] value = (char[])get(decoder, ON_BEHALF_OF_COMP_ID);
+        final int length = (int)get(decoder, ON_BEHALF_OF_COMP_ID + "Length");
+        return Arrays.copyOf(value, length);
+    }
+
+    private Decoder decodeHeartbeat(final String example) throws Exception
+    {
+        final Decoder decoder = (Decoder)heartbeat.newInstance();
+        decode(example, decoder);
+        return decoder;
+    }
+
+    private void decode(final String example, final Decoder decoder)
+    {
+        buffer.putAscii(1, example);
+        decoder.decode(buffer, 1, example.length());
+    }
+
+    private void assertValid(final Decoder decoder)
+    {
+        final boolean isValid = decoder.validate();
+        assertTrue(String.format(
+            "Decoder fails validation due to: %s for tag: %d", decoder.rejectReason(), decoder.invalidTagId()),
+            isValid);
+    }
+}
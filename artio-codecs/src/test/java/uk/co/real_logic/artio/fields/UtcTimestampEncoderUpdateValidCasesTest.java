@@ -21,6 +21,7 @@ import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static org.junit.Assert.assertEquals;
@@ -39,14 +40,24 @@ public class UtcTimestampEncoderUpdateValidCasesTest
     @Parameters(name = "{0}, {1}")
     public static Iterable<Object[]> data()
     {
-        return UtcTimestampDecoderValidCasesTest
+        final Stream<Object[]> allPairs = UtcTimestampDecoderValidCasesTest
             .data()
             .stream()
             .flatMap(x -> UtcTimestampDecoderValidCasesTest
                 .data()
                 .stream()
-                .map(y -> new Object[]{x[0], toEpochMillis(y[0])}))
-            .collect(Collectors.toList());
+                .map(y -> new Object[]{x[0], toEpochMillis(y[0])}));
+
+        return Stream.concat(allPairs, dayBoundaryPairs()).collect(Collectors.toList());
+    }
+
+    private static Stream<Object[]> dayBoundaryPairs()
+    {
+        return Stream.of(
+            new Object[]{"20150226-00:00:00", toEpochMillis("20150225-23:59:59.999")},
+            new Object[]{"20150226-00:00:00", toEpochMillis("20150225-00:00:00")},
+            new Object[]{"20150225-23:59:59.999", toEpochMillis("20150226-00:00:00")}
+        );
     }
 
     public UtcTimestampEncoderUpdateValidCasesTest(final String timestamp, final long otherEpochMillis)
@@ -26,6 +26,7 @@ import java.util.Arrays;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static uk.co.real_logic.artio.util.CustomMatchers.sequenceEqualsAscii;
+import static uk.co.real_logic.artio.util.MutableAsciiBuffer.UNKNOWN_INDEX;
 
 @RunWith(Theories.class)
 public class MutableAsciiBufferTest
@@ -119,6 +120,60 @@ public class MutableAsciiBufferTest
         assertThat(string, sequenceEqualsAscii(String.valueOf(Long.MIN_VALUE), 1, length));
     }
 
+    @Test
+    public void shouldScanForTerminatorAtEveryOffsetAndAlignment()
+    {
+        final byte terminator = 1;
+        for (int start = 0; start < 16; start++)
+        {
+            for (int offset = 0; offset < 24; offset++)
+            {
+                Arrays.fill(string.byteArray(), 0, 64, (byte)'A');
+                string.putByte(start + offset, terminator);
+                string.putByte(start + offset + 3, terminator);
+
+                assertEquals(start + offset, string.scan(start, start + 40, terminator));
+                assertEquals(UNKNOWN_INDEX, string.scan(start, start + offset - 1, terminator));
+            }
+        }
+    }
+
+    @Test
+    public void shouldScanForTerminatorWithinRange()
+    {
+        Arrays.fill(string.byteArray(), (byte)'A');
+        final int end = string.capacity() - 1;
+        string.putByte(end, (byte)'=');
+
+        assertEquals(end, string.scan(end - 20, end, (byte)'='));
+        assertEquals(UNKNOWN_INDEX, string.scan(end - 20, end - 1, (byte)'='));
+        assertEquals(UNKNOWN_INDEX, string.scan(0, end, (byte)0x80));
+    }
+
+    @Test
+    public void shouldComputeChecksumOfSignedBytesAtEveryOffsetAndLength()
+    {
+        for (int i = 0; i < 64; i++)
+        {
+            string.putByte(i, (byte)(i * 37 + 90));
+        }
+
+        for (int offset = 0; offset < 16; offset++)
+        {
+            for (int end = offset; end <= 64; end++)
+            {
+                int total = 0;
+                for (int i = offset; i < end; i++)
+                {
+                    total += string.getByte(i);
+                }
+
+                assertEquals(
+                    "offset = " + offset + ", end = " + end, total % 256, string.computeChecksum(offset, end));
+            }
+        }
+    }
+
     @DataPoints
     public static int[][] valuesAndLengths()
     {
@@ -18,6 +18,7 @@ package uk.co.real_logic.artio;
 import org.agrona.CloseHelper;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.agrona.concurrent.status.CountersManager;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
 
 public class FixCounters implements AutoCloseable
 {
@@ -25,6 +26,10 @@ public class FixCounters implements AutoCloseable
     private final AtomicCounter failedInboundPublications;
     private final AtomicCounter failedOutboundPublications;
     private final AtomicCounter failedReplayPublications;
+    private final AtomicCounter replayQueueDepth;
+    private final AtomicCounter lastReplayLatencyInNs;
+    private final AtomicCounter outboundBatchedWrites;
+    private final AtomicCounter outboundBatchedMessages;
 
     private AtomicCounter failedRaftPublications = null;
 
@@ -34,6 +39,10 @@ public class FixCounters implements AutoCloseable
         failedInboundPublications = countersManager.newCounter("Failed offer to inbound publication");
         failedOutboundPublications = countersManager.newCounter("Failed offer to outbound publication");
         failedReplayPublications = countersManager.newCounter("Failed offer to replay publication");
+        replayQueueDepth = countersManager.newCounter("Resend requests queued for replay");
+        lastReplayLatencyInNs = countersManager.newCounter("Latency of last resend request replay in ns");
+        outboundBatchedWrites = countersManager.newCounter("Batched writes of outbound messages");
+        outboundBatchedMessages = countersManager.newCounter("Outbound messages sent in batched writes");
     }
 
     public AtomicCounter failedInboundPublications()
@@ -51,6 +60,26 @@ public class FixCounters implements AutoCloseable
         return failedReplayPublications;
     }
 
+    public AtomicCounter replayQueueDepth()
+    {
+        return replayQueueDepth;
+    }
+
+    public AtomicCounter lastReplayLatencyInNs()
+    {
+        return lastReplayLatencyInNs;
+    }
+
+    public AtomicCounter outboundBatchedWrites()
+    {
+        return outboundBatchedWrites;
+    }
+
+    public AtomicCounter outboundBatchedMessages()
+    {
+        return outboundBatchedMessages;
+    }
+
     public AtomicCounter failedRaftPublications()
     {
         if (failedRaftPublications == null)
@@ -61,11 +90,21 @@ public class FixCounters implements AutoCloseable
         return failedRaftPublications;
     }
 
+    public AtomicCounter unflushedArchiveBytes(final StreamIdentifier streamId)
+    {
+        return newCounter("Unflushed archive bytes for stream " + streamId.streamId() + " " + streamId.channel());
+    }
+
     public AtomicCounter messagesRead(final long connectionId, final String address)
     {
         return newCounter("Messages Read from " + address + " id = " + connectionId);
     }
 
+    public AtomicCounter deferredReads(final long connectionId, final String address)
+    {
+        return newCounter("Reads deferred by the read budget for " + address + " id = " + connectionId);
+    }
+
     public AtomicCounter bytesInBuffer(final long connectionId, final String address)
     {
         return newCounter("Quarantined bytes for " + address + " id = " + connectionId);
@@ -96,6 +135,10 @@ public class FixCounters implements AutoCloseable
         failedInboundPublications.close();
         failedOutboundPublications.close();
         failedReplayPublications.close();
+        replayQueueDepth.close();
+        lastReplayLatencyInNs.close();
+        outboundBatchedWrites.close();
+        outboundBatchedMessages.close();
         CloseHelper.close(failedRaftPublications);
     }
 
@@ -21,10 +21,18 @@ import org.agrona.concurrent.AtomicBuffer;
 import java.nio.ByteBuffer;
 import java.util.zip.CRC32;
 
-// TODO: optimisation: write and checksum only needed bytes
+import static uk.co.real_logic.artio.engine.SectorBitSet.NO_SECTOR;
+
+/**
+ * Maintains the checksums at the end of each sector of a buffer.
+ * <p>
+ * Writers mark the sectors that they modify as dirty and {@link #updateDirtyChecksums()} only recomputes
+ * the checksums of those sectors, rather than hashing the whole buffer.
+ */
 public class ChecksumFramer extends SectorFramer
 {
     private final CRC32 crc32 = new CRC32();
+    private final SectorBitSet dirtySectors;
     private final AtomicBuffer buffer;
     private final ChecksumConsumer saveChecksumFunc;
     private final ErrorHandler errorHandler;
@@ -46,6 +54,45 @@ public class ChecksumFramer extends SectorFramer
         this.errorReportingOffset = errorReportingOffset;
         this.fileName = fileName;
         validateChecksumFunc = this::validateChecksum;
+        dirtySectors = new SectorBitSet(capacity / SECTOR_SIZE);
+    }
+
+    /**
+     * Mark the sector containing the given offset as needing its checksum updated.
+     *
+     * @param offset the offset within the buffer that has been written to.
+     */
+    public void markDirty(final int offset)
+    {
+        dirtySectors.addOffset(offset);
+    }
+
+    public void markAllDirty()
+    {
+        dirtySectors.addAll();
+    }
+
+    /**
+     * Recompute the checksums of the sectors that have been marked dirty since the last update.
+     */
+    public void updateDirtyChecksums()
+    {
+        final SectorBitSet dirtySectors = this.dirtySectors;
+        final byte[] inMemoryBytes = buffer.byteArray();
+        final ByteBuffer inMemoryByteBuffer = buffer.byteBuffer();
+
+        for (int sector = dirtySectors.nextSector(0); sector != NO_SECTOR; sector = dirtySectors.nextSector(sector + 1))
+        {
+            final int sectorStart = sector * SECTOR_SIZE;
+            final int sectorChecksum = checksumSector(inMemoryBytes, inMemoryByteBuffer, sectorStart);
+            buffer.putInt(sectorStart + SECTOR_DATA_LENGTH, sectorChecksum);
+        }
+        dirtySectors.clear();
+
+        if (inMemoryByteBuffer != null)
+        {
+            inMemoryByteBuffer.clear();
+        }
     }
 
     public void validateCheckSums()
@@ -56,6 +103,7 @@ public class ChecksumFramer extends SectorFramer
     public void updateChecksums()
     {
         withChecksums(saveChecksumFunc);
+        dirtySectors.clear();
     }
 
     private void validateChecksum(final int checksumOffset, final int calculatedChecksum)
@@ -76,19 +124,7 @@ public class ChecksumFramer extends SectorFramer
         {
             final int sectorStart = sectorEnd - SECTOR_SIZE;
             final int checksumOffset = sectorEnd - CHECKSUM_SIZE;
-
-            crc32.reset();
-            if (inMemoryBytes != null)
-            {
-                crc32.update(inMemoryBytes, sectorStart, SECTOR_DATA_LENGTH);
-            }
-            else
-            {
-                ByteBufferUtil.limit(inMemoryByteBuffer, sectorStart + SECTOR_DATA_LENGTH);
-                ByteBufferUtil.position(inMemoryByteBuffer, sectorStart);
-                crc32.update(inMemoryByteBuffer);
-            }
-            final int sectorChecksum = (int)crc32.getValue();
+            final int sectorChecksum = checksumSector(inMemoryBytes, inMemoryByteBuffer, sectorStart);
             consumer.accept(checksumOffset, sectorChecksum);
         }
 
@@ -98,6 +134,23 @@ public class ChecksumFramer extends SectorFramer
         }
     }
 
+    private int checksumSector(final byte[] inMemoryBytes, final ByteBuffer inMemoryByteBuffer, final int sectorStart)
+    {
+        final CRC32 crc32 = this.crc32;
+        crc32.reset();
+        if (inMemoryBytes != null)
+        {
+            crc32.update(inMemoryBytes, sectorStart, SECTOR_DATA_LENGTH);
+        }
+        else
+        {
+            ByteBufferUtil.limit(inMemoryByteBuffer, sectorStart + SECTOR_DATA_LENGTH);
+            ByteBufferUtil.position(inMemoryByteBuffer, sectorStart);
+            crc32.update(inMemoryByteBuffer);
+        }
+        return (int)crc32.getValue();
+    }
+
     private interface ChecksumConsumer
     {
         void accept(int checksumOffset, int sectorChecksum);
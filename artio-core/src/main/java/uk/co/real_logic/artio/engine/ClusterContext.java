@@ -19,7 +19,6 @@ import io.aeron.Aeron;
 import io.aeron.ExclusivePublication;
 import io.aeron.Subscription;
 import org.agrona.ErrorHandler;
-import org.agrona.concurrent.CompositeAgent;
 import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.StreamInformation;
 import uk.co.real_logic.artio.engine.logger.ArchiveReader;
@@ -30,11 +29,12 @@ import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.protocol.Streams;
 import uk.co.real_logic.artio.replication.*;
 
+import java.util.Collections;
+
 import static uk.co.real_logic.artio.GatewayProcess.INBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.closeAll;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.suppressingClose;
-import static uk.co.real_logic.artio.engine.logger.LoggerUtil.newArchiveMetaData;
 import static uk.co.real_logic.artio.replication.ClusterConfiguration.DEFAULT_DATA_STREAM_ID;
 
 class ClusterContext extends EngineContext
@@ -93,7 +93,8 @@ class ClusterContext extends EngineContext
 
             localOutboundArchiver.positionHandler(positionSender);
 
-            archivingAgent = new CompositeAgent(
+            Collections.addAll(
+                archivingAgents,
                 inboundIndexer,
                 outboundIndexer,
                 clusterAgent,
@@ -101,6 +102,8 @@ class ClusterContext extends EngineContext
                 localInboundArchiver,
                 localOutboundArchiver,
                 positionSender);
+
+            newCatchupReader();
         }
         catch (final Exception e)
         {
@@ -121,13 +124,7 @@ class ClusterContext extends EngineContext
         final String clusterAeronChannel,
         final EngineDescriptorStore engineDescriptorStore)
     {
-        final int cacheNumSets = configuration.loggerCacheNumSets();
-        final int cacheSetSize = configuration.loggerCacheSetSize();
-        final String logFileDir = configuration.logFileDir();
-
-        final Archiver archiver = new Archiver(
-            newArchiveMetaData(logFileDir), cacheNumSets, cacheSetSize, dataStream, configuration.agentNamePrefix(),
-            outboundClusterCompletionPosition());
+        final Archiver archiver = archiver(dataStream, outboundClusterCompletionPosition());
 
         final ClusterConfiguration clusterConfiguration = new ClusterConfiguration()
             .nodeId(configuration.nodeId())
@@ -162,7 +159,7 @@ class ClusterContext extends EngineContext
 
     public ReplayQuery inboundReplayQuery()
     {
-        return newReplayQuery(inboundArchiveReader(), configuration.framerIdleStrategy());
+        return newReplayQuery(inboundArchiveReader(), configuration.archiverIdleStrategy());
     }
 
     public ClusterableStreams streams()
@@ -22,8 +22,10 @@ import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.CommonConfiguration;
 import uk.co.real_logic.artio.engine.framer.TcpChannelSupplier;
+import uk.co.real_logic.artio.engine.logger.ArchiveDurability;
 import uk.co.real_logic.artio.replication.ClusterConfiguration;
 import uk.co.real_logic.artio.replication.RoleHandler;
+import uk.co.real_logic.artio.validation.ReceivePriorityStrategy;
 import uk.co.real_logic.artio.validation.SessionPersistenceStrategy;
 
 import java.io.File;
@@ -34,6 +36,7 @@ import java.util.function.Function;
 
 import static java.lang.Integer.getInteger;
 import static java.lang.System.getProperty;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.INITIAL_RECORD_OFFSET;
 import static uk.co.real_logic.artio.validation.SessionPersistenceStrategy.alwaysLocallyArchive;
@@ -63,6 +66,35 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for size of logging index files
      */
     public static final String REPLAY_INDEX_FILE_SIZE_PROP = "logging.index.size";
+    /**
+     * Property name for the minimum interval, in nanoseconds, between time index records of an Aeron session.
+     * 0 disables the time index.
+     */
+    public static final String TIME_INDEX_INTERVAL_PROP = "logging.time_index.interval";
+    /**
+     * Property name for how the archive makes messages durable, the name of an {@link ArchiveDurability}.
+     */
+    public static final String ARCHIVE_DURABILITY_PROP = "logging.archive.durability";
+    /**
+     * Property name for the number of unflushed bytes that triggers a flush of the archive when its durability isn't
+     * {@link ArchiveDurability#SYNCHRONOUS}.
+     */
+    public static final String ARCHIVE_MAX_UNFLUSHED_BYTES_PROP = "logging.archive.max_unflushed_bytes";
+    /**
+     * Property name for the maximum interval, in milliseconds, that archived bytes are left unflushed for when the
+     * archive's durability isn't {@link ArchiveDurability#SYNCHRONOUS}.
+     */
+    public static final String ARCHIVE_FLUSH_INTERVAL_PROP = "logging.archive.flush_interval";
+    /**
+     * Property name for the number of created and sized term files that each archiver keeps ready for when it rolls
+     * onto a new term. 0 creates term files as they're needed.
+     */
+    public static final String ARCHIVE_TERM_FILE_POOL_SIZE_PROP = "logging.archive.term_file_pool_size";
+    /**
+     * Property name for whether pooled term files are written through when they're created, so that the file
+     * system allocates their blocks ahead of archiving.
+     */
+    public static final String ARCHIVE_PRE_TOUCH_TERM_FILES_PROP = "logging.archive.pre_touch_term_files";
 
     // Care needs to be taken when setting the fragment limits, and buffer sizes
     // The inbound bytes received and buffer sizes should always be set low enough
@@ -85,6 +117,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the size in bytes of the receiver end point's framing buffer.
      */
     public static final String RECEIVER_BUFFER_SIZE_PROP = "fix.core.receiver_buffer_size";
+    /**
+     * Property name for the max number of bytes to read from a single TCP Connection in one poll, 0 means that
+     * a connection can read as much as its framing buffer has space for.
+     */
+    public static final String RECEIVER_READ_BUDGET_PROP = "fix.core.receiver_read_budget";
     /**
      * Property name for the size in bytes of the TCP socket's receive buffer.
      */
@@ -105,10 +142,54 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the maximum number of bytes to allow in the quarantine buffer before disconnection
      */
     public static final String SENDER_MAX_BYTES_IN_BUFFER_PROP = "fix.core.sender_max_bytes_in_buffer";
+    /**
+     * Property name for whether the bytes that a slow consumer hasn't accepted are queued off-heap for each
+     * connection, rather than resent from the outbound stream. Defaults to false.
+     */
+    public static final String SLOW_CONSUMER_SPILL_PROP = "fix.core.slow_consumer_spill";
     /**
      * Property name for the timeout before a connection that hasn't sent a logon is disconnected
      */
     public static final String NO_LOGON_DISCONNECT_TIMEOUT_PROP = "fix.core.no_logon_disconnect";
+    /**
+     * Property name for the maximum number of messages that the replayer resends for one resend request before
+     * moving on to the next queued resend request.
+     */
+    public static final String REPLAY_BATCH_SIZE_PROP = "fix.core.replay_batch_size";
+    /**
+     * Property name for the maximum number of resend requests that the replayer queues before it stops reading
+     * further resend requests until some have been replayed.
+     */
+    public static final String REPLAY_QUEUE_CAPACITY_PROP = "fix.core.replay_queue_capacity";
+    /**
+     * Property name for the number of records the replay index writes between updates of the checksums of its
+     * indexed position file.
+     *
+     * Above 1, an engine that crashes can leave the checksums of that file stale for up to this many records.
+     * The indexed positions themselves are still written, but the next engine start reports each stale sector to
+     * the error handler as a {@link uk.co.real_logic.artio.FileSystemCorruptionException}.
+     */
+    public static final String INDEX_CHECKSUM_FLUSH_INTERVAL_PROP = "fix.core.index_checksum_flush_interval";
+    /**
+     * Property name for the size of the buffer that the framer copies consecutive outbound messages for a
+     * connection into, in order to write them to the TCP connection together. 0 disables batching.
+     */
+    public static final String SENDER_BATCH_BUFFER_SIZE_PROP = "fix.core.sender_batch_buffer_size";
+    /**
+     * Property name for the number of threads that run the authentication strategy for logons off the framer
+     * thread. 0 authenticates logons on the framer thread.
+     */
+    public static final String AUTHENTICATION_THREAD_COUNT_PROP = "fix.core.authentication_threads";
+    /**
+     * Property name for the number of bytes of archived inbound messages that are read for a catchup replay before
+     * they are handed to the framer to republish.
+     */
+    public static final String CATCHUP_SLICE_SIZE_PROP = "fix.core.catchup_slice_size";
+    /**
+     * Property name for the maximum number of catchup replays that are read from the inbound archive at the same
+     * time.
+     */
+    public static final String MAX_CONCURRENT_CATCHUPS_PROP = "fix.core.max_concurrent_catchups";
 
     // ------------------------------------------------
     //          Configuration Defaults
@@ -123,12 +204,25 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final int DEFAULT_REPLAY_FRAGMENT_LIMIT = 5;
     public static final int DEFAULT_INBOUND_BYTES_RECEIVED_LIMIT = 8 * 1024;
     public static final int DEFAULT_RECEIVER_BUFFER_SIZE = 16 * 1024;
+    public static final int DEFAULT_RECEIVER_READ_BUDGET = 0;
     public static final int DEFAULT_RECEIVER_SOCKET_BUFFER_SIZE = 1024 * 1024;
     public static final int DEFAULT_SENDER_SOCKET_BUFFER_SIZE = 1024 * 1024;
     public static final int DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE = 8 * 1024 * 1024;
     public static final int DEFAULT_SESSION_ID_BUFFER_SIZE = 4 * 1024 * 1024;
     public static final int DEFAULT_SENDER_MAX_BYTES_IN_BUFFER = 4 * 1024 * 1024;
     public static final int DEFAULT_NO_LOGON_DISCONNECT_TIMEOUT = (int)SECONDS.toMillis(5);
+    public static final int DEFAULT_REPLAY_BATCH_SIZE = 64;
+    public static final int DEFAULT_REPLAY_QUEUE_CAPACITY = 1024;
+    public static final int DEFAULT_INDEX_CHECKSUM_FLUSH_INTERVAL = 1;
+    public static final int DEFAULT_SENDER_BATCH_BUFFER_SIZE = 64 * 1024;
+    public static final int DEFAULT_AUTHENTICATION_THREAD_COUNT = 0;
+    public static final int DEFAULT_CATCHUP_SLICE_SIZE = 64 * 1024;
+    public static final int DEFAULT_MAX_CONCURRENT_CATCHUPS = 64;
+    public static final long DEFAULT_TIME_INDEX_INTERVAL_IN_NS = SECONDS.toNanos(1);
+    public static final ArchiveDurability DEFAULT_ARCHIVE_DURABILITY = ArchiveDurability.SYNCHRONOUS;
+    public static final int DEFAULT_ARCHIVE_MAX_UNFLUSHED_BYTES = 1024 * 1024;
+    public static final long DEFAULT_ARCHIVE_FLUSH_INTERVAL_IN_MS = 100;
+    public static final int DEFAULT_ARCHIVE_TERM_FILE_POOL_SIZE = 2;
     public static final int DEFAULT_CLUSTER_TIMEOUT_IN_MS = 1000;
     public static final String DEFAULT_SESSION_ID_FILE = "session_id_buffer";
     public static final String DEFAULT_SEQUENCE_NUMBERS_SENT_FILE = "sequence_numbers_sent";
@@ -139,6 +233,16 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private String host = null;
     private int port;
     private int replayIndexFileSize = getInteger(REPLAY_INDEX_FILE_SIZE_PROP, DEFAULT_REPLAY_INDEX_FILE_SIZE);
+    private long timeIndexIntervalInNs = Long.getLong(TIME_INDEX_INTERVAL_PROP, DEFAULT_TIME_INDEX_INTERVAL_IN_NS);
+    private ArchiveDurability archiveDurability =
+        ArchiveDurability.valueOf(getProperty(ARCHIVE_DURABILITY_PROP, DEFAULT_ARCHIVE_DURABILITY.name()));
+    private int archiveMaxUnflushedBytes =
+        getInteger(ARCHIVE_MAX_UNFLUSHED_BYTES_PROP, DEFAULT_ARCHIVE_MAX_UNFLUSHED_BYTES);
+    private long archiveFlushIntervalInMs =
+        Long.getLong(ARCHIVE_FLUSH_INTERVAL_PROP, DEFAULT_ARCHIVE_FLUSH_INTERVAL_IN_MS);
+    private int archiveTermFilePoolSize =
+        getInteger(ARCHIVE_TERM_FILE_POOL_SIZE_PROP, DEFAULT_ARCHIVE_TERM_FILE_POOL_SIZE);
+    private boolean archivePreTouchTermFiles = Boolean.getBoolean(ARCHIVE_PRE_TOUCH_TERM_FILES_PROP);
     private String logFileDir = getProperty(LOG_FILE_DIR_PROP, DEFAULT_LOG_FILE_DIR);
     private int loggerCacheNumSets = DEFAULT_LOGGER_CACHE_NUM_SETS;
     private int loggerCacheSetSize = DEFAULT_LOGGER_CACHE_SET_SIZE;
@@ -164,6 +268,8 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         getInteger(INBOUND_BYTES_RECEIVED_LIMIT_PROP, DEFAULT_INBOUND_BYTES_RECEIVED_LIMIT);
     private int receiverBufferSize =
         getInteger(RECEIVER_BUFFER_SIZE_PROP, DEFAULT_RECEIVER_BUFFER_SIZE);
+    private int receiverReadBudget =
+        getInteger(RECEIVER_READ_BUDGET_PROP, DEFAULT_RECEIVER_READ_BUDGET);
     private int receiverSocketBufferSize =
         getInteger(RECEIVER_SOCKET_BUFFER_SIZE_PROP, DEFAULT_RECEIVER_SOCKET_BUFFER_SIZE);
     private int senderSocketBufferSize =
@@ -174,13 +280,27 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         getInteger(SESSION_ID_BUFFER_SIZE_PROP, DEFAULT_SESSION_ID_BUFFER_SIZE);
     private int senderMaxBytesInBuffer =
         getInteger(SENDER_MAX_BYTES_IN_BUFFER_PROP, DEFAULT_SENDER_MAX_BYTES_IN_BUFFER);
+    private boolean slowConsumerSpill = Boolean.getBoolean(SLOW_CONSUMER_SPILL_PROP);
     private int noLogonDisconnectTimeoutInMs =
         getInteger(NO_LOGON_DISCONNECT_TIMEOUT_PROP, DEFAULT_NO_LOGON_DISCONNECT_TIMEOUT);
+    private int replayBatchSize =
+        getInteger(REPLAY_BATCH_SIZE_PROP, DEFAULT_REPLAY_BATCH_SIZE);
+    private int replayQueueCapacity =
+        getInteger(REPLAY_QUEUE_CAPACITY_PROP, DEFAULT_REPLAY_QUEUE_CAPACITY);
+    private int indexChecksumFlushInterval =
+        getInteger(INDEX_CHECKSUM_FLUSH_INTERVAL_PROP, DEFAULT_INDEX_CHECKSUM_FLUSH_INTERVAL);
+    private int senderBatchBufferSize =
+        getInteger(SENDER_BATCH_BUFFER_SIZE_PROP, DEFAULT_SENDER_BATCH_BUFFER_SIZE);
+    private int authenticationThreadCount =
+        getInteger(AUTHENTICATION_THREAD_COUNT_PROP, DEFAULT_AUTHENTICATION_THREAD_COUNT);
+    private int catchupSliceSizeInBytes = getInteger(CATCHUP_SLICE_SIZE_PROP, DEFAULT_CATCHUP_SLICE_SIZE);
+    private int maxConcurrentCatchups = getInteger(MAX_CONCURRENT_CATCHUPS_PROP, DEFAULT_MAX_CONCURRENT_CATCHUPS);
 
     private String libraryAeronChannel = null;
     private Function<EngineConfiguration, TcpChannelSupplier> channelSupplierFactory = TcpChannelSupplier::new;
     private RoleHandler roleHandler = ClusterConfiguration.DEFAULT_NODE_HANDLER;
     private SessionPersistenceStrategy sessionPersistenceStrategy;
+    private ReceivePriorityStrategy receivePriorityStrategy = ReceivePriorityStrategy.samePriority();
     private long slowConsumerTimeoutInMs = DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS;
     private EngineScheduler scheduler = new DefaultEngineScheduler();
 
@@ -268,6 +388,98 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the minimum interval between the records that the indexer writes to the time index of archived
+     * messages for each Aeron session. The time index lets
+     * {@link uk.co.real_logic.artio.engine.logger.FixArchiveScanner} seek to the messages of a time range rather
+     * than scanning the whole archive, a shorter interval means that it reads less surplus data around the range
+     * but makes the index bigger. The interval is in the units of {@link #nanoClock()}, which timestamps the
+     * messages. 0 disables the time index.
+     *
+     * @param timeIndexIntervalInNs the minimum interval between time index records of an Aeron session.
+     * @return this
+     * @see EngineConfiguration#TIME_INDEX_INTERVAL_PROP
+     */
+    public EngineConfiguration timeIndexIntervalInNs(final long timeIndexIntervalInNs)
+    {
+        this.timeIndexIntervalInNs = timeIndexIntervalInNs;
+        return this;
+    }
+
+    /**
+     * Sets how the archive makes messages durable. {@link ArchiveDurability#SYNCHRONOUS} writes each block of
+     * messages through to storage, the other modes batch up flushes so that the archiver isn't bound by the latency
+     * of the storage device, at the cost of losing up to {@link #archiveMaxUnflushedBytes(int)} bytes or
+     * {@link #archiveFlushIntervalInMs(long)} of messages per archived stream if the machine fails.
+     *
+     * @param archiveDurability how the archive makes messages durable.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_DURABILITY_PROP
+     */
+    public EngineConfiguration archiveDurability(final ArchiveDurability archiveDurability)
+    {
+        this.archiveDurability = archiveDurability;
+        return this;
+    }
+
+    /**
+     * Sets the number of archived bytes, across all the Aeron sessions of an archived stream, that can be left
+     * unflushed before the archive is flushed. Only used when the archive's durability isn't
+     * {@link ArchiveDurability#SYNCHRONOUS}.
+     *
+     * @param archiveMaxUnflushedBytes the number of unflushed bytes that triggers a flush.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_MAX_UNFLUSHED_BYTES_PROP
+     */
+    public EngineConfiguration archiveMaxUnflushedBytes(final int archiveMaxUnflushedBytes)
+    {
+        this.archiveMaxUnflushedBytes = archiveMaxUnflushedBytes;
+        return this;
+    }
+
+    /**
+     * Sets the maximum interval that archived bytes are left unflushed for. Only used when the archive's durability
+     * isn't {@link ArchiveDurability#SYNCHRONOUS}.
+     *
+     * @param archiveFlushIntervalInMs the maximum interval between flushes whilst there are unflushed bytes.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_FLUSH_INTERVAL_PROP
+     */
+    public EngineConfiguration archiveFlushIntervalInMs(final long archiveFlushIntervalInMs)
+    {
+        this.archiveFlushIntervalInMs = archiveFlushIntervalInMs;
+        return this;
+    }
+
+    /**
+     * Sets the number of term files that each archiver creates and sizes ahead of time, whilst it's idle, so that
+     * rolling onto a new term is a rename rather than creating a file on the archiving thread. Unused pooled
+     * files are deleted when the engine closes.
+     *
+     * @param archiveTermFilePoolSize the number of term files to keep ready, 0 disables the pool.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_TERM_FILE_POOL_SIZE_PROP
+     */
+    public EngineConfiguration archiveTermFilePoolSize(final int archiveTermFilePoolSize)
+    {
+        this.archiveTermFilePoolSize = archiveTermFilePoolSize;
+        return this;
+    }
+
+    /**
+     * Sets whether pooled term files are written through with zeros when they're created. This stops the file
+     * system allocating blocks whilst messages are archived into them, at the cost of writing each term twice.
+     *
+     * @param archivePreTouchTermFiles true to write through pooled term files.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_PRE_TOUCH_TERM_FILES_PROP
+     */
+    public EngineConfiguration archivePreTouchTermFiles(final boolean archivePreTouchTermFiles)
+    {
+        this.archivePreTouchTermFiles = archivePreTouchTermFiles;
+        return this;
+    }
+
     /**
      * Sets the set size of the logger's caches.
      * <p>
@@ -397,12 +609,127 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the bytes limit for reading from a single TCP Connection in one poll. The framer polls each connection
+     * in turn until the {@link #inboundBytesReceivedLimit(int)} is reached, so without a per connection budget a
+     * busy connection can fill its whole framing buffer on every poll and leave little of the limit for the
+     * others. Reads that are cut short by the budget are counted as deferrals for the connection.
+     *
+     * @param receiverReadBudget the bytes limit for reading from a single TCP Connection, or 0 for no limit.
+     * @return this
+     * @see EngineConfiguration#RECEIVER_READ_BUDGET_PROP
+     */
+    public EngineConfiguration receiverReadBudget(final int receiverReadBudget)
+    {
+        this.receiverReadBudget = receiverReadBudget;
+        return this;
+    }
+
+    /**
+     * Sets the strategy that decides which priority class an accepted session's connection is read in. Within a
+     * duty cycle connections with a higher priority are read before those with a lower priority, for example
+     * order entry sessions ahead of drop copy sessions.
+     *
+     * @param receivePriorityStrategy the strategy that decides the priority of a session's reads.
+     * @return this
+     */
+    public EngineConfiguration receivePriorityStrategy(final ReceivePriorityStrategy receivePriorityStrategy)
+    {
+        this.receivePriorityStrategy = receivePriorityStrategy;
+        return this;
+    }
+
     public EngineConfiguration senderMaxBytesInBuffer(final int senderMaxBytesInBuffer)
     {
         this.senderMaxBytesInBuffer = senderMaxBytesInBuffer;
         return this;
     }
 
+    /**
+     * Sets whether the bytes that a slow consumer hasn't accepted are queued in an off-heap spill buffer of up to
+     * {@link #senderMaxBytesInBuffer(int)} bytes for its connection. The buffer is only allocated while a connection
+     * is behind, growing with its backlog, and the connection is disconnected if its backlog outgrows the maximum.
+     * This means that a slow consumer never blocks the outbound or replay streams for the other connections.
+     * <p>
+     * When disabled, the default, the backlog is left on the outbound and replay streams, whose positions are
+     * blocked until it has been resent, which avoids allocating memory per slow connection.
+     *
+     * @param slowConsumerSpill true to queue a slow consumer's backlog in a spill buffer, false to resend it from
+     *                          the streams.
+     * @return this
+     * @see EngineConfiguration#SLOW_CONSUMER_SPILL_PROP
+     */
+    public EngineConfiguration slowConsumerSpill(final boolean slowConsumerSpill)
+    {
+        this.slowConsumerSpill = slowConsumerSpill;
+        return this;
+    }
+
+    /**
+     * Sets the size of the buffer that the framer copies consecutive outbound messages for a connection into when
+     * it polls the outbound stream, so that they are written to the TCP connection with a single write. A message
+     * is only copied once another message for the same connection follows it, so one that is sent on its own is
+     * written straight from the outbound stream. Messages larger than this are written on their own. 0 disables
+     * batching.
+     *
+     * @param senderBatchBufferSize the size of the outbound batch buffer in bytes.
+     * @return this
+     * @see EngineConfiguration#SENDER_BATCH_BUFFER_SIZE_PROP
+     */
+    public EngineConfiguration senderBatchBufferSize(final int senderBatchBufferSize)
+    {
+        this.senderBatchBufferSize = senderBatchBufferSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of threads that run the {@link uk.co.real_logic.artio.validation.AuthenticationStrategy} for
+     * logons. When this is greater than 0 the framer hands each logon to a worker thread and stops reading from its
+     * connection until the decision comes back, so an authentication strategy that blocks or does expensive work
+     * doesn't hold up other connections. The strategy must then be safe to call from several threads at once.
+     * 0 runs the strategy on the framer thread.
+     *
+     * @param authenticationThreadCount the number of threads to authenticate logons on.
+     * @return this
+     * @see EngineConfiguration#AUTHENTICATION_THREAD_COUNT_PROP
+     */
+    public EngineConfiguration authenticationThreadCount(final int authenticationThreadCount)
+    {
+        this.authenticationThreadCount = authenticationThreadCount;
+        return this;
+    }
+
+    /**
+     * Sets the size of the slices that a catchup replay is read from the inbound archive in. When a library requests
+     * a session with messages to catch up on, the archive is read on the archiving thread and the framer republishes
+     * at most one slice per catchup on each duty cycle. A message that is bigger than a slice is still replayed, in
+     * a slice of its own.
+     *
+     * @param catchupSliceSizeInBytes the size of a catchup slice in bytes.
+     * @return this
+     * @see EngineConfiguration#CATCHUP_SLICE_SIZE_PROP
+     */
+    public EngineConfiguration catchupSliceSizeInBytes(final int catchupSliceSizeInBytes)
+    {
+        this.catchupSliceSizeInBytes = catchupSliceSizeInBytes;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of catchup replays that are read at the same time. When a library takes over many
+     * sessions at once, for example after another library has timed out, their catchups are read side by side up
+     * to this limit, and each one holds a slice buffer while it's being read. Further catchups wait for a free slot.
+     *
+     * @param maxConcurrentCatchups the maximum number of catchup replays that are read at the same time.
+     * @return this
+     * @see EngineConfiguration#MAX_CONCURRENT_CATCHUPS_PROP
+     */
+    public EngineConfiguration maxConcurrentCatchups(final int maxConcurrentCatchups)
+    {
+        this.maxConcurrentCatchups = maxConcurrentCatchups;
+        return this;
+    }
+
     /**
      * Set the timeout in milliseconds for TCP connections which don't send a logon message.
      *
@@ -415,6 +742,54 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the maximum number of messages that the replayer resends for one resend request before moving on to
+     * the next queued resend request. Smaller batches share the replay publication more fairly between sessions
+     * that are being resent concurrently, at the cost of more index lookups.
+     *
+     * @param replayBatchSize the maximum number of messages to resend for a resend request at once.
+     * @return this
+     * @see EngineConfiguration#REPLAY_BATCH_SIZE_PROP
+     */
+    public EngineConfiguration replayBatchSize(final int replayBatchSize)
+    {
+        this.replayBatchSize = replayBatchSize;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of resend requests that the replayer queues. Once it is reached the replayer stops
+     * reading resend requests from its subscription until some of the queued ones have been replayed, which
+     * bounds the memory that a flood of resend requests can use.
+     *
+     * @param replayQueueCapacity the maximum number of resend requests that the replayer queues.
+     * @return this
+     * @see EngineConfiguration#REPLAY_QUEUE_CAPACITY_PROP
+     */
+    public EngineConfiguration replayQueueCapacity(final int replayQueueCapacity)
+    {
+        this.replayQueueCapacity = replayQueueCapacity;
+        return this;
+    }
+
+    /**
+     * Sets the number of records that the replay index writes between updates of the checksums of its indexed
+     * position file. Only the sectors modified since the last update are checksummed, so a larger interval
+     * amortises that cost over more records. The checksums aren't rewritten when the engine crashes, so above 1
+     * a restart after a crash can report a {@link uk.co.real_logic.artio.FileSystemCorruptionException} for
+     * positions indexed since the last update, even though those positions are intact. Keep the default of 1 if
+     * such reports need to mean real corruption.
+     *
+     * @param indexChecksumFlushInterval the number of records to index between checksum updates.
+     * @return this
+     * @see EngineConfiguration#INDEX_CHECKSUM_FLUSH_INTERVAL_PROP
+     */
+    public EngineConfiguration indexChecksumFlushInterval(final int indexChecksumFlushInterval)
+    {
+        this.indexChecksumFlushInterval = indexChecksumFlushInterval;
+        return this;
+    }
+
     /**
      * Sets the aeron channel to use for clustered communications.
      *
@@ -536,6 +911,41 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return replayIndexFileSize;
     }
 
+    public long timeIndexIntervalInNs()
+    {
+        return timeIndexIntervalInNs;
+    }
+
+    public ArchiveDurability archiveDurability()
+    {
+        return archiveDurability;
+    }
+
+    public int archiveMaxUnflushedBytes()
+    {
+        return archiveMaxUnflushedBytes;
+    }
+
+    public long archiveFlushIntervalInMs()
+    {
+        return archiveFlushIntervalInMs;
+    }
+
+    public long archiveFlushIntervalInNs()
+    {
+        return MILLISECONDS.toNanos(archiveFlushIntervalInMs);
+    }
+
+    public int archiveTermFilePoolSize()
+    {
+        return archiveTermFilePoolSize;
+    }
+
+    public boolean archivePreTouchTermFiles()
+    {
+        return archivePreTouchTermFiles;
+    }
+
     public int loggerCacheSetSize()
     {
         return loggerCacheSetSize;
@@ -581,6 +991,31 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return inboundBytesReceivedLimit;
     }
 
+    public int receiverReadBudget()
+    {
+        return receiverReadBudget;
+    }
+
+    public ReceivePriorityStrategy receivePriorityStrategy()
+    {
+        return receivePriorityStrategy;
+    }
+
+    public int replayBatchSize()
+    {
+        return replayBatchSize;
+    }
+
+    public int replayQueueCapacity()
+    {
+        return replayQueueCapacity;
+    }
+
+    public int indexChecksumFlushInterval()
+    {
+        return indexChecksumFlushInterval;
+    }
+
     public MappedFile sentSequenceNumberIndex()
     {
         return sentSequenceNumberIndex;
@@ -611,6 +1046,31 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return senderMaxBytesInBuffer;
     }
 
+    public boolean slowConsumerSpill()
+    {
+        return slowConsumerSpill;
+    }
+
+    public int senderBatchBufferSize()
+    {
+        return senderBatchBufferSize;
+    }
+
+    public int authenticationThreadCount()
+    {
+        return authenticationThreadCount;
+    }
+
+    public int catchupSliceSizeInBytes()
+    {
+        return catchupSliceSizeInBytes;
+    }
+
+    public int maxConcurrentCatchups()
+    {
+        return maxConcurrentCatchups;
+    }
+
     public int noLogonDisconnectTimeoutInMs()
     {
         return noLogonDisconnectTimeoutInMs;
@@ -710,6 +1170,78 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
                 sessionBufferSize()));
         }
 
+        if (replayBatchSize() < 1)
+        {
+            throw new IllegalArgumentException(String.format(
+                "replayBatchSize(%d) must be at least 1", replayBatchSize()));
+        }
+
+        if (replayQueueCapacity() < 1)
+        {
+            throw new IllegalArgumentException(String.format(
+                "replayQueueCapacity(%d) must be at least 1", replayQueueCapacity()));
+        }
+
+        if (indexChecksumFlushInterval() < 1)
+        {
+            throw new IllegalArgumentException(String.format(
+                "indexChecksumFlushInterval(%d) must be at least 1", indexChecksumFlushInterval()));
+        }
+
+        if (senderBatchBufferSize() < 0)
+        {
+            throw new IllegalArgumentException(String.format(
+                "senderBatchBufferSize(%d) must not be negative", senderBatchBufferSize()));
+        }
+
+        if (timeIndexIntervalInNs() < 0)
+        {
+            throw new IllegalArgumentException(String.format(
+                "timeIndexIntervalInNs(%d) must not be negative", timeIndexIntervalInNs()));
+        }
+
+        if (archiveMaxUnflushedBytes() < 0)
+        {
+            throw new IllegalArgumentException(String.format(
+                "archiveMaxUnflushedBytes(%d) must not be negative", archiveMaxUnflushedBytes()));
+        }
+
+        if (archiveFlushIntervalInMs() < 0)
+        {
+            throw new IllegalArgumentException(String.format(
+                "archiveFlushIntervalInMs(%d) must not be negative", archiveFlushIntervalInMs()));
+        }
+
+        if (archiveTermFilePoolSize() < 0)
+        {
+            throw new IllegalArgumentException(String.format(
+                "archiveTermFilePoolSize(%d) must not be negative", archiveTermFilePoolSize()));
+        }
+
+        if (authenticationThreadCount() < 0)
+        {
+            throw new IllegalArgumentException(String.format(
+                "authenticationThreadCount(%d) must not be negative", authenticationThreadCount()));
+        }
+
+        if (catchupSliceSizeInBytes() <= 0)
+        {
+            throw new IllegalArgumentException(String.format(
+                "catchupSliceSizeInBytes(%d) must be positive", catchupSliceSizeInBytes()));
+        }
+
+        if (receiverReadBudget() < 0)
+        {
+            throw new IllegalArgumentException(String.format(
+                "receiverReadBudget(%d) must not be negative", receiverReadBudget()));
+        }
+
+        if (maxConcurrentCatchups() <= 0)
+        {
+            throw new IllegalArgumentException(String.format(
+                "maxConcurrentCatchups(%d) must be positive", maxConcurrentCatchups()));
+        }
+
         if (sentSequenceNumberIndex() == null)
         {
             sentSequenceNumberIndex = mapFile(DEFAULT_SEQUENCE_NUMBERS_SENT_FILE, sequenceNumberIndexSize);
@@ -27,6 +27,7 @@ import org.agrona.concurrent.NanoClock;
 import org.agrona.concurrent.SystemEpochClock;
 import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.StreamInformation;
+import uk.co.real_logic.artio.engine.framer.CatchupReader;
 import uk.co.real_logic.artio.engine.logger.*;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.protocol.Streams;
@@ -37,7 +38,6 @@ import uk.co.real_logic.artio.replication.StreamIdentifier;
 import java.util.ArrayList;
 import java.util.List;
 
-import static java.util.Arrays.asList;
 import static uk.co.real_logic.artio.GatewayProcess.INBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.suppressingClose;
@@ -59,10 +59,12 @@ public abstract class EngineContext implements AutoCloseable
 
     protected Streams inboundLibraryStreams;
     protected Streams outboundLibraryStreams;
-    // Indexers are owned by the archivingAgent
+    // Indexers are owned by the archivingAgents
     protected Indexer inboundIndexer;
     protected Indexer outboundIndexer;
-    protected Agent archivingAgent;
+    protected final List<Agent> archivingAgents = new ArrayList<>();
+    // Null if inbound messages are not logged, owned by the archivingAgents
+    protected CatchupReader catchupReader;
 
     public static EngineContext of(
         final EngineConfiguration configuration,
@@ -156,6 +158,7 @@ public abstract class EngineContext implements AutoCloseable
             cacheSetSize,
             LoggerUtil::map,
             ReplayIndexDescriptor.replayPositionBuffer(logFileDir, streamId),
+            configuration.indexChecksumFlushInterval(),
             errorHandler);
     }
 
@@ -205,7 +208,14 @@ public abstract class EngineContext implements AutoCloseable
             configuration.loggerCacheSetSize(),
             streamId,
             configuration.agentNamePrefix(),
-            completionPosition);
+            completionPosition)
+            .durability(
+                configuration.archiveDurability(),
+                configuration.archiveMaxUnflushedBytes(),
+                configuration.archiveFlushIntervalInNs(),
+                nanoClock,
+                fixCounters.unflushedArchiveBytes(streamId))
+            .termFilePool(configuration.archiveTermFilePoolSize(), configuration.archivePreTouchTermFiles());
     }
 
     protected Replayer newReplayer(
@@ -220,7 +230,12 @@ public abstract class EngineContext implements AutoCloseable
             configuration.outboundMaxClaimAttempts(),
             inboundLibraryStreams.subscription("replayer"),
             configuration.agentNamePrefix(),
-            new SystemEpochClock());
+            new SystemEpochClock(),
+            nanoClock,
+            configuration.replayBatchSize(),
+            configuration.replayQueueCapacity(),
+            fixCounters.replayQueueDepth(),
+            fixCounters.lastReplayLatencyInNs());
     }
 
     protected void newIndexers(
@@ -232,10 +247,12 @@ public abstract class EngineContext implements AutoCloseable
         final int cacheNumSets = configuration.loggerCacheNumSets();
         final String logFileDir = configuration.logFileDir();
 
+        final List<Index> inboundIndices = new ArrayList<>();
+        inboundIndices.add(newReplayIndex(cacheSetSize, cacheNumSets, logFileDir, INBOUND_LIBRARY_STREAM));
+        inboundIndices.add(receivedSequenceNumberIndex);
+        addTimeIndex(inboundIndices, logFileDir, INBOUND_LIBRARY_STREAM);
         inboundIndexer = new Indexer(
-            asList(
-                newReplayIndex(cacheSetSize, cacheNumSets, logFileDir, INBOUND_LIBRARY_STREAM),
-                receivedSequenceNumberIndex),
+            inboundIndices,
             inboundArchiveReader,
             inboundLibraryStreams.subscription("inboundIndexer"),
             configuration.agentNamePrefix(),
@@ -244,6 +261,7 @@ public abstract class EngineContext implements AutoCloseable
         final List<Index> outboundIndices = new ArrayList<>();
         outboundIndices.add(newReplayIndex(cacheSetSize, cacheNumSets, logFileDir, OUTBOUND_LIBRARY_STREAM));
         outboundIndices.add(sentSequenceNumberIndex);
+        addTimeIndex(outboundIndices, logFileDir, OUTBOUND_LIBRARY_STREAM);
         if (extraOutboundIndex != null)
         {
             outboundIndices.add(extraOutboundIndex);
@@ -256,6 +274,15 @@ public abstract class EngineContext implements AutoCloseable
             outboundLibraryCompletionPosition);
     }
 
+    private void addTimeIndex(final List<Index> indices, final String logFileDir, final int streamId)
+    {
+        final long timeIndexIntervalInNs = configuration.timeIndexIntervalInNs();
+        if (timeIndexIntervalInNs > 0)
+        {
+            indices.add(new TimeIndexWriter(logFileDir, streamId, timeIndexIntervalInNs, errorHandler));
+        }
+    }
+
     public abstract Streams outboundLibraryStreams();
 
     public abstract Streams inboundLibraryStreams();
@@ -274,6 +301,27 @@ public abstract class EngineContext implements AutoCloseable
 
     public abstract ReplayQuery inboundReplayQuery();
 
+    protected void newCatchupReader()
+    {
+        // The catchup reader has its own replay query so that it can run on a different thread to the framer.
+        final ReplayQuery inboundReplayQuery = inboundReplayQuery();
+        if (inboundReplayQuery != null)
+        {
+            catchupReader = new CatchupReader(
+                inboundReplayQuery,
+                configuration.catchupSliceSizeInBytes(),
+                configuration.maxConcurrentCatchups(),
+                new SystemEpochClock(),
+                configuration.agentNamePrefix());
+            archivingAgents.add(catchupReader);
+        }
+    }
+
+    public CatchupReader catchupReader()
+    {
+        return catchupReader;
+    }
+
     public abstract ClusterableStreams streams();
 
     public abstract GatewayPublication inboundLibraryPublication();
@@ -300,8 +348,8 @@ public abstract class EngineContext implements AutoCloseable
         outboundClusterCompletionPosition.completeDuringStartup();
     }
 
-    Agent archivingAgent()
+    List<Agent> archivingAgents()
     {
-        return archivingAgent;
+        return archivingAgents;
     }
 }
@@ -19,6 +19,9 @@ import io.aeron.Aeron;
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.CompositeAgent;
+
+import java.util.List;
 
 /**
  * Interface for determining how an Engine's Agents are allocated to threads.
@@ -44,6 +47,33 @@ public interface EngineScheduler extends AutoCloseable
         Agent monitoringAgent,
         Agent conductorAgent);
 
+    /**
+     * Invoked by the FIX Engine to start the threads.
+     * Should only return once they are started.
+     *
+     * The archiving agents, for example archivers, indexers and the replayer, are independent of each other and
+     * can be run on different threads. By default they're combined into a single agent and passed to
+     * {@link #launch(EngineConfiguration, ErrorHandler, Agent, Agent, Agent, Agent)}.
+     *
+     * @param configuration the engine's configuration object.
+     * @param errorHandler the ErrorHandler used by the engine.
+     * @param framer the framer agent to schedule.
+     * @param archivingAgents the archiving agents to schedule.
+     * @param monitoringAgent the monitoring agent to schedule.
+     * @param conductorAgent if aeron has useConductorInvoker enable it
+     *                       is the agent for the conductor, otherwise null.
+     */
+    default void launch(
+        EngineConfiguration configuration,
+        ErrorHandler errorHandler,
+        Agent framer,
+        List<Agent> archivingAgents,
+        Agent monitoringAgent,
+        Agent conductorAgent)
+    {
+        launch(configuration, errorHandler, framer, combine(archivingAgents), monitoringAgent, conductorAgent);
+    }
+
     /**
      * Invoked by the FIX Engine to stop the threads. Should only return once they are completed stopped.
      */
@@ -62,6 +92,11 @@ public interface EngineScheduler extends AutoCloseable
         throw new IllegalStateException("Cannot re-use scheduler for multiple launch attempts");
     }
 
+    static Agent combine(List<Agent> agents)
+    {
+        return agents.size() == 1 ? agents.get(0) : new CompositeAgent(agents);
+    }
+
     static void awaitRunnerStart(AgentRunner runner)
     {
         if (runner != null)
@@ -258,7 +258,7 @@ public final class FixEngine extends GatewayProcess
             configuration,
             errorHandler,
             framerContext.framer(),
-            engineContext.archivingAgent(),
+            engineContext.archivingAgents(),
             monitoringAgent,
             conductorAgent());
 
@@ -26,7 +26,6 @@ import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.dictionary.IntDictionary;
 import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
 import uk.co.real_logic.artio.messages.FixMessageDecoder;
-import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.otf.OtfParser;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
@@ -323,8 +322,8 @@ public class PossDupEnabler
         // Update the sending time
         updateSendingTime(srcOffset);
 
-        updateFrameBodyLength(messageLength, writeBuffer, writeOffset, totalLengthDelta);
         final int messageClaimOffset = srcToClaim(messageOffset, srcOffset, writeOffset);
+        updateFrameBodyLength(messageLength, writeBuffer, messageClaimOffset, totalLengthDelta);
         updateBodyLengthAndChecksum(
             srcOffset, messageClaimOffset, writeBuffer, writeOffset, newBodyLength, writeOffset + newLength);
 
@@ -344,10 +343,13 @@ public class PossDupEnabler
     }
 
     private void updateFrameBodyLength(
-        final int messageLength, final MutableDirectBuffer claimBuffer, final int claimOffset, final int lengthDelta)
+        final int messageLength,
+        final MutableDirectBuffer claimBuffer,
+        final int messageClaimOffset,
+        final int lengthDelta)
     {
-        final int frameBodyLengthOffset =
-            claimOffset + MessageHeaderDecoder.ENCODED_LENGTH + FixMessageDecoder.BLOCK_LENGTH;
+        // The frame's body length immediately precedes the message, whatever the block length of the frame.
+        final int frameBodyLengthOffset = messageClaimOffset - FixMessageDecoder.bodyHeaderLength();
         final short frameBodyLength = (short)(messageLength + lengthDelta);
         claimBuffer.putShort(frameBodyLengthOffset, frameBodyLength, LITTLE_ENDIAN);
     }
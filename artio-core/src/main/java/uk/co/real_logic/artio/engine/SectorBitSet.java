@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import java.util.Arrays;
+
+import static uk.co.real_logic.artio.engine.SectorFramer.SECTOR_SIZE;
+
+/**
+ * A set of the sectors of a buffer, used to keep track of which sectors have been written to.
+ */
+public final class SectorBitSet
+{
+    public static final int NO_SECTOR = -1;
+
+    private static final int SECTORS_PER_WORD_SHIFT = 6;
+
+    private final long[] words;
+    private final int sectorCount;
+
+    public SectorBitSet(final int sectorCount)
+    {
+        this.sectorCount = sectorCount;
+        words = new long[(sectorCount + Long.SIZE - 1) >> SECTORS_PER_WORD_SHIFT];
+    }
+
+    /**
+     * Add the sector containing the given offset, offsets beyond the last sector are ignored.
+     *
+     * @param offset the offset within the buffer that has been written to.
+     */
+    public void addOffset(final int offset)
+    {
+        final int sector = offset / SECTOR_SIZE;
+        if (sector < sectorCount)
+        {
+            words[sector >> SECTORS_PER_WORD_SHIFT] |= 1L << sector;
+        }
+    }
+
+    public void addAll()
+    {
+        final long[] words = this.words;
+        final int lastWord = words.length - 1;
+        if (lastWord < 0)
+        {
+            return;
+        }
+
+        for (int i = 0; i < lastWord; i++)
+        {
+            words[i] = -1L;
+        }
+
+        final int sectorsInLastWord = sectorCount - (lastWord << SECTORS_PER_WORD_SHIFT);
+        words[lastWord] = sectorsInLastWord == Long.SIZE ? -1L : (1L << sectorsInLastWord) - 1;
+    }
+
+    public void addAll(final SectorBitSet other)
+    {
+        final long[] words = this.words;
+        final long[] otherWords = other.words;
+        for (int i = 0; i < words.length; i++)
+        {
+            words[i] |= otherWords[i];
+        }
+    }
+
+    public void copyFrom(final SectorBitSet other)
+    {
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    public void clear()
+    {
+        Arrays.fill(words, 0);
+    }
+
+    /**
+     * Find the next sector in the set, in order to iterate over it with a loop like:
+     * <code>for (int s = set.nextSector(0); s != NO_SECTOR; s = set.nextSector(s + 1))</code>
+     *
+     * @param fromSector the first sector to look at.
+     * @return the first sector in the set that is at least fromSector or {@link #NO_SECTOR} if there isn't one.
+     */
+    public int nextSector(final int fromSector)
+    {
+        final long[] words = this.words;
+        int wordIndex = fromSector >> SECTORS_PER_WORD_SHIFT;
+        if (wordIndex >= words.length)
+        {
+            return NO_SECTOR;
+        }
+
+        long word = words[wordIndex] & (-1L << fromSector);
+        while (word == 0)
+        {
+            wordIndex++;
+            if (wordIndex == words.length)
+            {
+                return NO_SECTOR;
+            }
+
+            word = words[wordIndex];
+        }
+
+        return (wordIndex << SECTORS_PER_WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import io.aeron.Aeron;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.IdleStrategy;
+import uk.co.real_logic.artio.CommonConfiguration;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+import uk.co.real_logic.artio.engine.logger.Archiver;
+import uk.co.real_logic.artio.engine.logger.Indexer;
+import uk.co.real_logic.artio.engine.logger.Replayer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import static uk.co.real_logic.artio.CommonConfiguration.backoffIdleStrategy;
+
+/**
+ * A scheduler that runs the framer on its own thread and splits the archiving agents, ie: archivers, indexers
+ * and the replayer, over several threads. This stops a large resend request from delaying the archiving and
+ * indexing of live messages, and vice versa.
+ *
+ * Archiving agents are grouped by a function, agents in the same group share a thread. By default each
+ * archiving agent has its own thread. Threads are created by a {@link ThreadFactory} so that they can be pinned
+ * to cores.
+ *
+ * NB: Ensure that a new instance is created for each engine.
+ */
+public class ShardedArchivingEngineScheduler implements EngineScheduler
+{
+    private static final int OTHER_GROUP = 3;
+
+    private final List<AgentRunner> archivingRunners = new ArrayList<>();
+    private final ToIntFunction<Agent> archivingGroup;
+    private final Supplier<IdleStrategy> archivingIdleStrategySupplier;
+    private final ThreadFactory threadFactory;
+
+    private AgentRunner framerRunner;
+    private AgentRunner monitoringRunner;
+
+    /**
+     * Groups archivers, indexers and the replayer by type, so that there's a thread for the archivers,
+     * one for the indexers and one for the replayer. Any other archiving agents share a fourth thread.
+     *
+     * @param agent the archiving agent to find the group of.
+     * @return the group of the agent.
+     */
+    public static int groupByType(final Agent agent)
+    {
+        if (agent instanceof Archiver)
+        {
+            return 0;
+        }
+        else if (agent instanceof Indexer)
+        {
+            return 1;
+        }
+        else if (agent instanceof Replayer)
+        {
+            return 2;
+        }
+
+        return OTHER_GROUP;
+    }
+
+    public ShardedArchivingEngineScheduler()
+    {
+        this(null, CommonConfiguration::backoffIdleStrategy, Thread::new);
+    }
+
+    /**
+     * Create the scheduler.
+     *
+     * @param archivingGroup the function that groups archiving agents onto threads, or null for a thread per agent.
+     * @param archivingIdleStrategySupplier supplies an idle strategy for each archiving thread, since idle
+     *                                      strategies can't be shared between threads.
+     * @param threadFactory the factory used to create each thread.
+     */
+    public ShardedArchivingEngineScheduler(
+        final ToIntFunction<Agent> archivingGroup,
+        final Supplier<IdleStrategy> archivingIdleStrategySupplier,
+        final ThreadFactory threadFactory)
+    {
+        this.archivingGroup = archivingGroup;
+        this.archivingIdleStrategySupplier = archivingIdleStrategySupplier;
+        this.threadFactory = threadFactory;
+    }
+
+    public void launch(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent framer,
+        final Agent archivingAgent,
+        final Agent monitoringAgent,
+        final Agent conductorAgent)
+    {
+        launch(configuration, errorHandler, framer, Collections.singletonList(archivingAgent), monitoringAgent,
+            conductorAgent);
+    }
+
+    public void launch(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent framer,
+        final List<Agent> archivingAgents,
+        final Agent monitoringAgent,
+        final Agent conductorAgent)
+    {
+        if (framerRunner != null)
+        {
+            EngineScheduler.fail();
+        }
+
+        framerRunner = new AgentRunner(configuration.framerIdleStrategy(), errorHandler, null, framer);
+        start(framerRunner, framer);
+
+        for (final List<Agent> group : groupArchivingAgents(archivingAgents))
+        {
+            final Agent agent = EngineScheduler.combine(group);
+            final AgentRunner runner = new AgentRunner(
+                archivingIdleStrategySupplier.get(), errorHandler, null, agent);
+            archivingRunners.add(runner);
+            start(runner, agent);
+        }
+
+        if (monitoringAgent != null)
+        {
+            monitoringRunner = new AgentRunner(backoffIdleStrategy(), errorHandler, null, monitoringAgent);
+            start(monitoringRunner, monitoringAgent);
+        }
+    }
+
+    private Iterable<List<Agent>> groupArchivingAgents(final List<Agent> archivingAgents)
+    {
+        final Map<Integer, List<Agent>> groups = new TreeMap<>();
+        for (int i = 0; i < archivingAgents.size(); i++)
+        {
+            final Agent agent = archivingAgents.get(i);
+            final int group = archivingGroup == null ? i : archivingGroup.applyAsInt(agent);
+            groups.computeIfAbsent(group, (ignore) -> new ArrayList<>()).add(agent);
+        }
+
+        return groups.values();
+    }
+
+    private void start(final AgentRunner runner, final Agent agent)
+    {
+        final Thread thread = threadFactory.newThread(runner);
+        thread.setName(agent.roleName());
+        thread.start();
+    }
+
+    public void close()
+    {
+        EngineScheduler.awaitRunnerStart(framerRunner);
+        archivingRunners.forEach(EngineScheduler::awaitRunnerStart);
+        EngineScheduler.awaitRunnerStart(monitoringRunner);
+
+        // The framer must be closed first: archiving agents wait for its completion positions when closing.
+        final List<AutoCloseable> runners = new ArrayList<>();
+        runners.add(framerRunner);
+        runners.addAll(archivingRunners);
+        runners.add(monitoringRunner);
+        Exceptions.closeAll(runners);
+    }
+
+    public void configure(final Aeron.Context aeronContext)
+    {
+    }
+}
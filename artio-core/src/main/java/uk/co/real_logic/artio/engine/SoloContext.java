@@ -19,8 +19,6 @@ import io.aeron.Aeron;
 import io.aeron.ExclusivePublication;
 import io.aeron.Subscription;
 import org.agrona.ErrorHandler;
-import org.agrona.concurrent.Agent;
-import org.agrona.concurrent.CompositeAgent;
 import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.StreamInformation;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
@@ -72,6 +70,7 @@ class SoloContext extends EngineContext
             newStreams(node);
             newArchival();
             newArchivingAgent();
+            newCatchupReader();
         }
         catch (final Exception e)
         {
@@ -98,17 +97,16 @@ class SoloContext extends EngineContext
                 outboundArchiveReader,
                 new SoloPositionSender(inboundLibraryPublication()));
 
-            final Replayer replayer = newReplayer(replayPublication, outboundArchiveReader);
+            // The replayer has its own archive reader so that it can run on a different thread to the indexers.
+            final Replayer replayer = newReplayer(replayPublication, archiveReader(outboundStreamId));
 
             archiverSubscription(inboundArchiver, inboundStreamId);
             archiverSubscription(outboundArchiver, outboundStreamId);
 
-            final List<Agent> agents = new ArrayList<>(archivers);
-            agents.add(inboundIndexer);
-            agents.add(outboundIndexer);
-            agents.add(replayer);
-
-            archivingAgent = new CompositeAgent(agents);
+            archivingAgents.addAll(archivers);
+            archivingAgents.add(inboundIndexer);
+            archivingAgents.add(outboundIndexer);
+            archivingAgents.add(replayer);
         }
         else
         {
@@ -120,10 +118,10 @@ class SoloContext extends EngineContext
                     nanoClock,
                     configuration.outboundMaxClaimAttempts()
                 );
-            archivingAgent = new GapFiller(
+            archivingAgents.add(new GapFiller(
                 inboundLibraryStreams.subscription("replayer"),
                 replayGatewayPublication,
-                configuration.agentNamePrefix());
+                configuration.agentNamePrefix()));
         }
     }
 
@@ -185,7 +183,7 @@ class SoloContext extends EngineContext
         }
 
         final ArchiveReader archiveReader = archiveReader(inboundStreamId);
-        return newReplayQuery(archiveReader, configuration.framerIdleStrategy());
+        return newReplayQuery(archiveReader, configuration.archiverIdleStrategy());
     }
 
     public GatewayPublication inboundLibraryPublication()
@@ -6,10 +6,12 @@ final class AuthenticationResult
         new AuthenticationResult(AuthenticationError.DUPLICATE_SESSION);
     static final AuthenticationResult FAILED_AUTHENTICATION =
         new AuthenticationResult(AuthenticationError.FAILED_AUTHENTICATION);
+    static final AuthenticationResult PENDING =
+        new AuthenticationResult(AuthenticationError.PENDING);
 
     enum AuthenticationError
     {
-        DUPLICATE_SESSION, FAILED_AUTHENTICATION
+        DUPLICATE_SESSION, FAILED_AUTHENTICATION, PENDING
     }
 
     final GatewaySession session;
@@ -49,6 +51,11 @@ final class AuthenticationResult
         return null != error && AuthenticationError.DUPLICATE_SESSION == error;
     }
 
+    boolean isPending()
+    {
+        return PENDING == this;
+    }
+
     boolean isValid()
     {
         return null != session;
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import uk.co.real_logic.artio.messages.GroupSizeEncodingEncoder;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.aeron.Publication.BACK_PRESSURED;
+import static uk.co.real_logic.artio.protocol.GatewayPublication.AVAILABLE_SESSIONS_LENGTH;
+
+/**
+ * Notifies a library of many sessions that the engine manages, packing as many sessions as fit into a single
+ * message into each message rather than sending a ManageSession message per session.
+ */
+class AvailableSessionsNotification implements Continuation
+{
+    // Bounded by the size of the group's count field, whose largest value is reserved as its null value.
+    private static final int MAX_SESSIONS_PER_MESSAGE = GroupSizeEncodingEncoder.numInGroupMaxValue();
+
+    private final GatewayPublication publication;
+    private final int libraryId;
+    private final List<GatewaySession> sessions;
+    private final int[] lastSentSequenceNumbers;
+    private final int[] lastReceivedSequenceNumbers;
+    private final int[] sequenceIndices;
+    private final int[] encodedLengths;
+
+    private int fromIndex;
+
+    AvailableSessionsNotification(final GatewayPublication publication, final int libraryId, final int capacity)
+    {
+        this.publication = publication;
+        this.libraryId = libraryId;
+        sessions = new ArrayList<>(capacity);
+        lastSentSequenceNumbers = new int[capacity];
+        lastReceivedSequenceNumbers = new int[capacity];
+        sequenceIndices = new int[capacity];
+        encodedLengths = new int[capacity];
+    }
+
+    void add(final GatewaySession session, final int lastSentSequenceNumber, final int lastReceivedSequenceNumber)
+    {
+        // Sessions that haven't logged on yet aren't available to libraries.
+        if (session.sessionKey() == null)
+        {
+            return;
+        }
+
+        final int index = sessions.size();
+        sessions.add(session);
+        lastSentSequenceNumbers[index] = lastSentSequenceNumber;
+        lastReceivedSequenceNumbers[index] = lastReceivedSequenceNumber;
+        sequenceIndices[index] = session.sequenceIndex();
+        encodedLengths[index] = GatewayPublication.availableSessionLength(session.sessionKey());
+    }
+
+    boolean isEmpty()
+    {
+        return sessions.isEmpty();
+    }
+
+    public long attempt()
+    {
+        final int size = sessions.size();
+        final int fromIndex = this.fromIndex;
+        if (fromIndex >= size)
+        {
+            return COMPLETE;
+        }
+
+        final int maxLength = publication.maxPayloadLength();
+        final int maxIndex = Math.min(size, fromIndex + MAX_SESSIONS_PER_MESSAGE);
+        int length = AVAILABLE_SESSIONS_LENGTH + encodedLengths[fromIndex];
+        int toIndex = fromIndex + 1;
+        while (toIndex < maxIndex && length + encodedLengths[toIndex] <= maxLength)
+        {
+            length += encodedLengths[toIndex];
+            toIndex++;
+        }
+
+        final long position = publication.saveAvailableSessions(
+            libraryId,
+            sessions,
+            lastSentSequenceNumbers,
+            lastReceivedSequenceNumbers,
+            sequenceIndices,
+            fromIndex,
+            toIndex);
+
+        if (position < 0)
+        {
+            return position;
+        }
+
+        this.fromIndex = toIndex;
+
+        return toIndex < size ? BACK_PRESSURED : position;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
+import uk.co.real_logic.artio.engine.logger.ReplayQuery;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the inbound archive for the catchup replays that the framer has started, so that the framer never queries
+ * the archive itself. Each replay is read in slices of roughly <code>sliceSizeInBytes</code>, which are handed back
+ * to the framer to be republished on the inbound library publication.
+ *
+ * Up to <code>maxConcurrentCatchups</code> replays are read at the same time, in the order that they were requested,
+ * so that a library that requests many sessions at once, for example after taking over from a library that has
+ * timed out, doesn't wait for each catchup in turn. Slice buffers are reused between replays, including those of
+ * replays that are abandoned because the framer hasn't finished them in time.
+ */
+public class CatchupReader implements Agent
+{
+    private static final int PENDING_REPLAYS_CAPACITY = 64;
+
+    private final OneToOneConcurrentArrayQueue<CatchupReplayer> pendingReplays =
+        new OneToOneConcurrentArrayQueue<>(PENDING_REPLAYS_CAPACITY);
+    private final List<CatchupReplayer> replays = new ArrayList<>();
+    private final ArrayDeque<ExpandableArrayBuffer> freeSliceBuffers = new ArrayDeque<>();
+    private final ReplayQuery inboundMessages;
+    private final int sliceSizeInBytes;
+    private final int maxConcurrentCatchups;
+    private final EpochClock clock;
+    private final String agentNamePrefix;
+
+    public CatchupReader(
+        final ReplayQuery inboundMessages,
+        final int sliceSizeInBytes,
+        final int maxConcurrentCatchups,
+        final EpochClock clock,
+        final String agentNamePrefix)
+    {
+        this.inboundMessages = inboundMessages;
+        this.sliceSizeInBytes = sliceSizeInBytes;
+        this.maxConcurrentCatchups = maxConcurrentCatchups;
+        this.clock = clock;
+        this.agentNamePrefix = agentNamePrefix;
+    }
+
+    // Called on the framer thread
+    boolean enqueue(final CatchupReplayer replayer)
+    {
+        return pendingReplays.offer(replayer);
+    }
+
+    int sliceSizeInBytes()
+    {
+        return sliceSizeInBytes;
+    }
+
+    ExpandableArrayBuffer acquireSliceBuffer()
+    {
+        final ExpandableArrayBuffer sliceBuffer = freeSliceBuffers.poll();
+        return sliceBuffer == null ? new ExpandableArrayBuffer(sliceSizeInBytes) : sliceBuffer;
+    }
+
+    public int doWork()
+    {
+        int work = pendingReplays.drainTo(replays, PENDING_REPLAYS_CAPACITY);
+
+        final List<CatchupReplayer> replays = this.replays;
+        if (!replays.isEmpty())
+        {
+            final long timeInMs = clock.time();
+            int activeCatchups = 0;
+            int i = 0;
+            while (i < replays.size())
+            {
+                final CatchupReplayer replayer = replays.get(i);
+                // Either the framer has republished the final slice or the replay has been abandoned, for example
+                // because its library has gone, so its slot and slice buffer can be reused.
+                if (replayer.isReplayed() || replayer.isAbandoned(timeInMs))
+                {
+                    final ExpandableArrayBuffer sliceBuffer = replayer.releaseSliceBuffer();
+                    if (sliceBuffer != null)
+                    {
+                        freeSliceBuffers.add(sliceBuffer);
+                    }
+                    replays.remove(i);
+                    work++;
+                    continue;
+                }
+
+                if (activeCatchups < maxConcurrentCatchups)
+                {
+                    work += replayer.readSlice(inboundMessages, timeInMs);
+                    activeCatchups++;
+                }
+
+                i++;
+            }
+        }
+
+        return work;
+    }
+
+    public void onClose()
+    {
+        inboundMessages.close();
+    }
+
+    public String roleName()
+    {
+        return agentNamePrefix + "CatchupReader";
+    }
+}
@@ -21,6 +21,7 @@ import io.aeron.logbuffer.ExclusiveBufferClaim;
 import io.aeron.logbuffer.Header;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
+import org.agrona.ExpandableArrayBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.EpochClock;
 import uk.co.real_logic.artio.DebugLogger;
@@ -41,14 +42,31 @@ import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static io.aeron.Publication.BACK_PRESSURED;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static org.agrona.BitUtil.SIZE_OF_INT;
 import static uk.co.real_logic.artio.LogTag.CATCHUP;
 import static uk.co.real_logic.artio.messages.MessageStatus.CATCHUP_REPLAY;
 import static uk.co.real_logic.artio.messages.SessionReplyStatus.MISSING_MESSAGES;
 import static uk.co.real_logic.artio.messages.SessionReplyStatus.OK;
 
+/**
+ * Replays the archived inbound messages that a library has missed when it requests a session.
+ *
+ * The archive is read by the {@link CatchupReader} agent, which copies up to a slice's worth of messages into a
+ * slice buffer that it lends to this replayer and then marks the slice as ready. Each attempt on the framer thread
+ * claims the ready slice, republishes it onto the inbound library publication and hands the buffer back to the
+ * reader. Only the reader thread touches the read position and the framer thread only touches the slice once it has
+ * claimed it, so <code>sliceState</code> is the only field that is written by both threads.
+ *
+ * A replay that isn't finished a catchup timeout after the reader should have stopped reading is abandoned by
+ * whichever thread notices first, for example because the library has gone away and the framer no longer attempts
+ * it, or because the reader never got round to it. Either way the framer replies that messages are missing if it
+ * attempts the replay again and the reader frees the slice buffer.
+ */
 public class CatchupReplayer implements ControlledFragmentHandler, Continuation
 {
     private static final int ENCODE_BUFFER_SIZE = 8 * 1024;
@@ -63,8 +81,21 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
         SEND_OK
     }
 
+    private enum ReadOutcome
+    {
+        IN_PROGRESS,
+        COMPLETE,
+        MISSING
+    }
+
     private static final int OUT_OF_RANGE = -1;
 
+    // Slice states: the reader owns the slice buffer when it is empty or abandoned and the framer when it is replaying.
+    private static final int SLICE_EMPTY = 0;
+    private static final int SLICE_READY = 1;
+    private static final int SLICE_REPLAYING = 2;
+    private static final int SLICE_ABANDONED = 3;
+
     private final MessageHeaderDecoder messageHeaderDecoder = new MessageHeaderDecoder();
     private final FixMessageDecoder messageDecoder = new FixMessageDecoder();
     private final FixMessageEncoder messageEncoder = new FixMessageEncoder();
@@ -72,10 +103,9 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
     private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
     private final HeaderDecoder headerDecoder = new HeaderDecoder();
     private final ExclusiveBufferClaim bufferClaim = new ExclusiveBufferClaim();
-    private final ControlledFragmentAssembler assembler = new ControlledFragmentAssembler(this);
 
     private final PossDupEnabler possDupEnabler;
-    private final ReplayQuery inboundMessages;
+    private final CatchupReader catchupReader;
     private final GatewayPublication inboundPublication;
     private final ErrorHandler errorHandler;
     private final long correlationId;
@@ -85,10 +115,29 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
     private final int currentSequenceIndex;
     private final GatewaySession session;
     private final long catchupEndTimeInMs;
-
+    private final long abandonTimeInMs;
+    private final EpochClock clock;
+
+    // Only used on the catchup reader's thread
+    private final MessageHeaderDecoder readMessageHeaderDecoder = new MessageHeaderDecoder();
+    private final FixMessageDecoder readMessageDecoder = new FixMessageDecoder();
+    private final AsciiBuffer readAsciiBuffer = new MutableAsciiBuffer();
+    private final HeaderDecoder readHeaderDecoder = new HeaderDecoder();
+    private final ControlledFragmentAssembler readAssembler = new ControlledFragmentAssembler(this::onArchivedMessage);
+    private int readFromSequenceNumber;
+    private int readFromSequenceIndex;
+    private boolean sliceFull;
+
+    // Written by the catchup reader's thread before the slice is marked ready
+    private ExpandableArrayBuffer sliceBuffer;
+    private int sliceLength;
+    private ReadOutcome readOutcome = ReadOutcome.IN_PROGRESS;
+    private final AtomicInteger sliceState = new AtomicInteger(SLICE_EMPTY);
+
+    private int sliceOffset;
     private int replayFromSequenceNumber;
     private int replayFromSequenceIndex;
-    private boolean abortedReplay;
+    private boolean enqueued;
     private State state = State.REPLAYING;
 
     private SequenceResetEncoder sequenceResetEncoder;
@@ -98,7 +147,7 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
     private int heartbeatRangeSequenceNumberStart = OUT_OF_RANGE;
 
     CatchupReplayer(
-        final ReplayQuery inboundMessages,
+        final CatchupReader catchupReader,
         final GatewayPublication inboundPublication,
         final ErrorHandler errorHandler,
         final long correlationId,
@@ -112,7 +161,7 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
         final long catchupTimeout,
         final EpochClock clock)
     {
-        this.inboundMessages = inboundMessages;
+        this.catchupReader = catchupReader;
         this.inboundPublication = inboundPublication;
         this.errorHandler = errorHandler;
         this.correlationId = correlationId;
@@ -124,6 +173,10 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
         this.replayFromSequenceIndex = replayFromSequenceIndex;
         this.session = session;
         this.catchupEndTimeInMs = clock.time() + catchupTimeout;
+        this.abandonTimeInMs = catchupEndTimeInMs + catchupTimeout;
+        this.clock = clock;
+        this.readFromSequenceNumber = replayFromSequenceNumber;
+        this.readFromSequenceIndex = replayFromSequenceIndex;
 
         possDupEnabler = new PossDupEnabler(
             bufferClaim,
@@ -161,17 +214,19 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
         final int srcLength,
         final Header header)
     {
-        final int messageLength = srcLength - FRAME_LENGTH;
-        final int messageOffset = srcOffset + FRAME_LENGTH;
-
         messageHeaderDecoder.wrap(srcBuffer, srcOffset);
+        final int actingBlockLength = messageHeaderDecoder.blockLength();
 
         messageDecoder.wrap(
             srcBuffer,
             srcOffset + MessageHeaderDecoder.ENCODED_LENGTH,
-            messageHeaderDecoder.blockLength(),
+            actingBlockLength,
             messageHeaderDecoder.version());
 
+        final int messageOffset =
+            srcOffset + MessageHeaderDecoder.ENCODED_LENGTH + actingBlockLength + FixMessageDecoder.bodyHeaderLength();
+        final int messageLength = srcLength - (messageOffset - srcOffset);
+
         asciiBuffer.wrap(srcBuffer, messageOffset, messageLength);
         headerDecoder.decode(asciiBuffer, 0, messageLength);
 
@@ -244,7 +299,7 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
             encodeBuffer, encodedOffset, encodedLength,
             libraryId, SequenceResetDecoder.MESSAGE_TYPE,
             messageDecoder.session(), replayFromSequenceIndex, libraryId,
-            CATCHUP_REPLAY) > 0;
+            CATCHUP_REPLAY, heartbeatRangeSequenceNumberStart) > 0;
 
         if (sent)
         {
@@ -273,11 +328,141 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
         }
         else
         {
-            abortedReplay = true;
             return ABORT;
         }
     }
 
+    // Called on the catchup reader's thread
+    int readSlice(final ReplayQuery inboundMessages, final long timeInMs)
+    {
+        if (sliceState.get() != SLICE_EMPTY || readComplete())
+        {
+            return 0;
+        }
+
+        if (sliceBuffer == null)
+        {
+            sliceBuffer = catchupReader.acquireSliceBuffer();
+        }
+
+        sliceLength = 0;
+        sliceFull = false;
+        try
+        {
+            DebugLogger.log(CATCHUP,
+                "Querying for %d, currently at (%d, %d)%n",
+                session.sessionId(), lastReceivedSeqNum, currentSequenceIndex);
+
+            inboundMessages.query(
+                readAssembler,
+                session.sessionId(),
+                readFromSequenceNumber,
+                readFromSequenceIndex,
+                lastReceivedSeqNum,
+                currentSequenceIndex);
+        }
+        catch (final IllegalStateException e)
+        {
+            // Missing file, just retry the next time round.
+        }
+
+        final boolean moreToRead = sliceFull || readIncomplete();
+        if (!moreToRead)
+        {
+            readOutcome = ReadOutcome.COMPLETE;
+        }
+        else if (timeInMs > catchupEndTimeInMs)
+        {
+            readOutcome = ReadOutcome.MISSING;
+        }
+
+        // Fails if the replay has been abandoned while reading, in which case the reader evicts it.
+        if ((sliceLength > 0 || readComplete()) && sliceState.compareAndSet(SLICE_EMPTY, SLICE_READY))
+        {
+            return 1;
+        }
+
+        return 0;
+    }
+
+    // Called on the catchup reader's thread
+    boolean readComplete()
+    {
+        return readOutcome != ReadOutcome.IN_PROGRESS;
+    }
+
+    // Called on the catchup reader's thread
+    boolean isReplayed()
+    {
+        return readComplete() && sliceState.get() == SLICE_EMPTY;
+    }
+
+    // Called on the catchup reader's thread, abandons a replay that the framer hasn't finished in time.
+    boolean isAbandoned(final long timeInMs)
+    {
+        final int sliceState = this.sliceState.get();
+        if (sliceState == SLICE_ABANDONED)
+        {
+            return true;
+        }
+
+        return sliceState != SLICE_REPLAYING &&
+            timeInMs > abandonTimeInMs &&
+            this.sliceState.compareAndSet(sliceState, SLICE_ABANDONED);
+    }
+
+    // Called on the catchup reader's thread once the replay is either replayed or abandoned
+    ExpandableArrayBuffer releaseSliceBuffer()
+    {
+        final ExpandableArrayBuffer sliceBuffer = this.sliceBuffer;
+        this.sliceBuffer = null;
+        return sliceBuffer;
+    }
+
+    private Action onArchivedMessage(
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int srcLength,
+        final Header header)
+    {
+        final int sliceLength = this.sliceLength;
+        final int newSliceLength = sliceLength + SIZE_OF_INT + srcLength;
+        // Always take at least one message so that messages bigger than a slice still get replayed.
+        if (sliceLength > 0 && newSliceLength > catchupReader.sliceSizeInBytes())
+        {
+            sliceFull = true;
+            return ABORT;
+        }
+
+        readMessageHeaderDecoder.wrap(srcBuffer, srcOffset);
+        final int actingBlockLength = readMessageHeaderDecoder.blockLength();
+        readMessageDecoder.wrap(
+            srcBuffer,
+            srcOffset + MessageHeaderDecoder.ENCODED_LENGTH,
+            actingBlockLength,
+            readMessageHeaderDecoder.version());
+        final int messageOffset =
+            srcOffset + MessageHeaderDecoder.ENCODED_LENGTH + actingBlockLength + FixMessageDecoder.bodyHeaderLength();
+        final int messageLength = srcLength - (messageOffset - srcOffset);
+        readAsciiBuffer.wrap(srcBuffer, messageOffset, messageLength);
+        readHeaderDecoder.decode(readAsciiBuffer, 0, messageLength);
+
+        final ExpandableArrayBuffer sliceBuffer = this.sliceBuffer;
+        sliceBuffer.putInt(sliceLength, srcLength);
+        sliceBuffer.putBytes(sliceLength + SIZE_OF_INT, srcBuffer, srcOffset, srcLength);
+        this.sliceLength = newSliceLength;
+
+        readFromSequenceNumber = readHeaderDecoder.msgSeqNum() + 1;
+        readFromSequenceIndex = readMessageDecoder.sequenceIndex();
+
+        return CONTINUE;
+    }
+
+    private boolean readIncomplete()
+    {
+        return readFromSequenceIndex < currentSequenceIndex || readFromSequenceNumber < lastReceivedSeqNum;
+    }
+
     public long attempt()
     {
         DebugLogger.log(CATCHUP, "Attempt replay for %d%n", session.sessionId());
@@ -292,45 +477,40 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
                 }
 
                 // Know at this point that we've indexed up to the latest message.
-                // adding 1 to convert to inclusive numbering
-                abortedReplay = false;
-                try
+                if (!enqueued)
                 {
-                    DebugLogger.log(CATCHUP,
-                        "Querying for %d, currently at (%d, %d)%n",
-                        session.sessionId(), lastReceivedSeqNum, currentSequenceIndex);
-
-                    inboundMessages.query(
-                        assembler,
-                        session.sessionId(),
-                        replayFromSequenceNumber,
-                        replayFromSequenceIndex,
-                        lastReceivedSeqNum,
-                        currentSequenceIndex);
+                    if (catchupReader.enqueue(this))
+                    {
+                        enqueued = true;
+                    }
+                    else if (clock.time() > catchupEndTimeInMs)
+                    {
+                        state = State.SEND_MISSING;
+                        return sendMissingMessages();
+                    }
+
+                    return BACK_PRESSURED;
                 }
-                catch (final IllegalStateException e)
+
+                if (clock.time() > abandonTimeInMs)
                 {
-                    // Missing file, just retry the next time round.
-                    abortedReplay = true;
+                    return abandon();
                 }
 
-                if (abortedReplay || replayIncomplete())
+                final int sliceState = this.sliceState.get();
+                if (sliceState == SLICE_REPLAYING ||
+                    (sliceState == SLICE_READY && this.sliceState.compareAndSet(SLICE_READY, SLICE_REPLAYING)))
                 {
-                    if (System.currentTimeMillis() > catchupEndTimeInMs)
-                    {
-                        state = State.SEND_MISSING;
-                        return sendMissingMessages();
-                    }
-                    else
-                    {
-                        return BACK_PRESSURED;
-                    }
+                    return replaySlice();
                 }
-                else
+
+                if (sliceState == SLICE_ABANDONED)
                 {
-                    state = State.SEND_OK;
-                    return sendOk(inboundPublication, correlationId, session);
+                    state = State.SEND_MISSING;
+                    return sendMissingMessages();
                 }
+
+                return BACK_PRESSURED;
             }
 
             case SEND_MISSING:
@@ -351,14 +531,70 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
         }
     }
 
-    private boolean replayIncomplete()
+    private long replaySlice()
     {
-        return replayFromSequenceIndex < currentSequenceIndex || replayFromSequenceNumber < lastReceivedSeqNum;
+        final ExpandableArrayBuffer sliceBuffer = this.sliceBuffer;
+        final int sliceLength = this.sliceLength;
+        int sliceOffset = this.sliceOffset;
+        while (sliceOffset < sliceLength)
+        {
+            final int length = sliceBuffer.getInt(sliceOffset);
+            if (onFragment(sliceBuffer, sliceOffset + SIZE_OF_INT, length, null) == ABORT)
+            {
+                // Resume from the aborted message on the next attempt.
+                this.sliceOffset = sliceOffset;
+                return BACK_PRESSURED;
+            }
+
+            sliceOffset += SIZE_OF_INT + length;
+        }
+        this.sliceOffset = 0;
+
+        // Hand the slice back to the reader, which also frees it for another catchup once the read is complete.
+        final ReadOutcome readOutcome = this.readOutcome;
+        sliceState.set(SLICE_EMPTY);
+
+        switch (readOutcome)
+        {
+            case COMPLETE:
+            {
+                state = State.SEND_OK;
+                return sendOk(inboundPublication, correlationId, session);
+            }
+
+            case MISSING:
+            {
+                state = State.SEND_MISSING;
+                return sendMissingMessages();
+            }
+
+            default:
+            {
+                return BACK_PRESSURED;
+            }
+        }
+    }
+
+    private long abandon()
+    {
+        final int sliceState = this.sliceState.get();
+        if (sliceState == SLICE_REPLAYING)
+        {
+            this.sliceState.set(SLICE_ABANDONED);
+        }
+        else if (sliceState != SLICE_ABANDONED && !this.sliceState.compareAndSet(sliceState, SLICE_ABANDONED))
+        {
+            // The reader has just marked a slice as ready or abandoned the replay itself, so try again.
+            return BACK_PRESSURED;
+        }
+
+        state = State.SEND_MISSING;
+        return sendMissingMessages();
     }
 
     private boolean notLoggingInboundMessages()
     {
-        return inboundMessages == null;
+        return catchupReader == null;
     }
 
     private long sendOk(
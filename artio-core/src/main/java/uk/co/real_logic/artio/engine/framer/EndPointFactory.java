@@ -74,6 +74,7 @@ class EndPointFactory
         return new ReceiverEndPoint(
             channel,
             configuration.receiverBufferSize(),
+            configuration.receiverReadBudget(),
             inboundLibraryPublication,
             inboundClusterablePublication,
             connectionId,
@@ -83,6 +84,7 @@ class EndPointFactory
             sentSequenceNumberIndex,
             receivedSequenceNumberIndex,
             fixCounters.messagesRead(connectionId, channel.remoteAddress()),
+            fixCounters.deferredReads(connectionId, channel.remoteAddress()),
             framer,
             errorHandler,
             libraryId,
@@ -112,6 +114,7 @@ class EndPointFactory
             errorHandler,
             framer,
             configuration.senderMaxBytesInBuffer(),
+            configuration.slowConsumerSpill(),
             configuration.slowConsumerTimeoutInMs(),
             System.currentTimeMillis()
         );
@@ -42,7 +42,6 @@ import uk.co.real_logic.artio.engine.EngineDescriptorStore;
 import uk.co.real_logic.artio.engine.SessionInfo;
 import uk.co.real_logic.artio.engine.framer.SubscriptionSlowPeeker.LibrarySlowPeeker;
 import uk.co.real_logic.artio.engine.framer.TcpChannelSupplier.NewChannelHandler;
-import uk.co.real_logic.artio.engine.logger.ReplayQuery;
 import uk.co.real_logic.artio.engine.logger.SequenceNumberIndexReader;
 import uk.co.real_logic.artio.messages.*;
 import uk.co.real_logic.artio.protocol.*;
@@ -69,6 +68,7 @@ import java.util.function.Predicate;
 import static io.aeron.Publication.BACK_PRESSURED;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static io.aeron.logbuffer.FrameDescriptor.UNFRAGMENTED;
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.util.Collections.emptyList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -85,7 +85,6 @@ import static uk.co.real_logic.artio.library.FixLibrary.NO_MESSAGE_REPLAY;
 import static uk.co.real_logic.artio.messages.ConnectionType.ACCEPTOR;
 import static uk.co.real_logic.artio.messages.ConnectionType.INITIATOR;
 import static uk.co.real_logic.artio.messages.GatewayError.*;
-import static uk.co.real_logic.artio.messages.LogonStatus.LIBRARY_NOTIFICATION;
 import static uk.co.real_logic.artio.messages.SequenceNumberType.DETERMINE_AT_LOGON;
 import static uk.co.real_logic.artio.messages.SequenceNumberType.TRANSIENT;
 import static uk.co.real_logic.artio.messages.SessionReplyStatus.*;
@@ -163,7 +162,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     /**
      * Null if inbound messages are not logged
      */
-    private final ReplayQuery inboundMessages;
+    private final CatchupReader catchupReader;
     private final ErrorHandler errorHandler;
     private final GatewayPublication outboundPublication;
     // Both connection id to library id maps
@@ -186,7 +185,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         final Subscription slowSubscription,
         final Image replayImage,
         final Image replaySlowImage,
-        final ReplayQuery inboundMessages,
+        final CatchupReader catchupReader,
         final GatewayPublication outboundPublication,
         final GatewayPublication inboundPublication,
         final QueuedPipe<AdminCommand> adminCommands,
@@ -203,6 +202,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         final CompletionPosition outboundLibraryCompletionPosition,
         final CompletionPosition outboundClusterCompletionPosition,
         final FinalImagePositions finalImagePositions,
+        final OutboundBatch outboundBatch,
         final AgentInvoker conductorAgentInvoker)
     {
         this.clock = clock;
@@ -214,7 +214,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         this.librarySubscription = librarySubscription;
         this.replayImage = replayImage;
         this.gatewaySessions = gatewaySessions;
-        this.inboundMessages = inboundMessages;
+        this.catchupReader = catchupReader;
         this.errorHandler = errorHandler;
         this.outboundPublication = outboundPublication;
         this.inboundPublication = inboundPublication;
@@ -223,7 +223,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         this.inboundCompletionPosition = inboundCompletionPosition;
         this.outboundLibraryCompletionPosition = outboundLibraryCompletionPosition;
         this.outboundClusterCompletionPosition = outboundClusterCompletionPosition;
-        this.senderEndPoints = new SenderEndPoints(errorHandler);
+        this.senderEndPoints = new SenderEndPoints(errorHandler, outboundBatch);
         this.conductorAgentInvoker = conductorAgentInvoker;
         this.senderEndPointAssembler = new ControlledFragmentAssembler(senderEndPoints, 0, true);
         this.sessionIdStrategy = sessionIdStrategy;
@@ -261,10 +261,21 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         else
         {
             engineBlockablePosition = getOutboundSlowPeeker(outboundPublication);
-            librarySubscriber = new ControlledFragmentAssembler(
+            final ControlledFragmentAssembler libraryAssembler = new ControlledFragmentAssembler(
                 ProtocolSubscription.of(this, new EngineProtocolSubscription(this)),
                 0,
                 true);
+            // Fragmented messages are reassembled into buffers that are reused, so the outbound batch copies any
+            // message that it refers to before a fragment can overwrite it.
+            librarySubscriber = (buffer, offset, length, header) ->
+            {
+                if ((header.flags() & UNFRAGMENTED) != UNFRAGMENTED)
+                {
+                    outboundBatch.copyReferencedMessage();
+                }
+
+                return libraryAssembler.onFragment(buffer, offset, length, header);
+            };
             clusterSubscriber = null;
             clusterSlowPeeker = null;
         }
@@ -362,10 +373,12 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         return retryManager.attemptSteps() +
             sendOutboundMessages() +
             sendReplayMessages() +
+            senderEndPoints.drainSpillBuffers() +
             pollEndPoints() +
             pollNewConnections(timeInMs) +
             pollLibraries(timeInMs) +
             gatewaySessions.pollSessions(timeInMs) +
+            gatewaySessions.pollAuthentications() +
             senderEndPoints.checkTimeouts(timeInMs) +
             adminCommands.drain(onAdminCommand) +
             checkDutyCycle();
@@ -410,6 +423,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     {
         int messagesRead =
             librarySubscription.controlledPoll(librarySubscriber, outboundLibraryFragmentLimit);
+        senderEndPoints.flushBatch();
         messagesRead +=
             librarySlowPeeker.peek(senderEndPointAssembler);
 
@@ -417,6 +431,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         {
             messagesRead +=
                 clusterSubscription.poll(clusterSubscriber, outboundLibraryFragmentLimit);
+            senderEndPoints.flushBatch();
             messagesRead +=
                 clusterSlowPeeker.peek(senderEndPoints);
         }
@@ -496,6 +511,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private void acquireLibrarySessions(final LiveLibraryInfo library)
     {
         final List<GatewaySession> sessions = library.gatewaySessions();
+        final AvailableSessionsNotification notification = new AvailableSessionsNotification(
+            inboundPublication, ENGINE_LIBRARY_ID, sessions.size());
         for (int i = 0, size = sessions.size(); i < size; i++)
         {
             final GatewaySession session = sessions.get(i);
@@ -519,12 +536,12 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
                 session.password(),
                 engineBlockablePosition);
 
-            schedule(() -> saveManageSession(
-                ENGINE_LIBRARY_ID,
-                session,
-                sentSequenceNumber,
-                receivedSequenceNumber,
-                LogonStatus.LIBRARY_NOTIFICATION));
+            notification.add(session, sentSequenceNumber, receivedSequenceNumber);
+        }
+
+        if (!notification.isEmpty())
+        {
+            schedule(notification);
         }
 
         finalImagePositions.removePosition(library.aeronSessionId());
@@ -893,6 +910,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
     public Action onDisconnect(final int libraryId, final long connectionId, final DisconnectReason reason)
     {
+        // Messages sent before the disconnect may still be batched up.
+        senderEndPoints.flushBatch();
         receiverEndPoints.removeConnection(connectionId, reason);
         senderEndPoints.removeConnection(connectionId);
         final LiveLibraryInfo library = idToLibrary.get(libraryId);
@@ -961,11 +980,18 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
             return COMPLETE;
         });
 
-        for (final GatewaySession gatewaySession : gatewaySessions.sessions())
+        final List<GatewaySession> sessions = gatewaySessions.sessions();
+        final AvailableSessionsNotification notification = new AvailableSessionsNotification(
+            inboundPublication, libraryId, sessions.size());
+        for (int i = 0, size = sessions.size(); i < size; i++)
+        {
+            // TODO(Nick): UNK_SESSION is the wrong constant to use?
+            notification.add(sessions.get(i), UNK_SESSION, UNK_SESSION);
+        }
+
+        if (!notification.isEmpty())
         {
-            unitsOfWork.add(
-                // TODO(Nick): UNK_SESSION is the wrong constant to use?
-                () -> saveManageSession(libraryId, gatewaySession, UNK_SESSION, UNK_SESSION, LIBRARY_NOTIFICATION));
+            unitsOfWork.add(notification);
         }
 
         return retryManager.firstAttempt(correlationId, new UnitOfWork(unitsOfWork));
@@ -1203,7 +1229,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
             continuations.add(
                 new CatchupReplayer(
-                    inboundMessages,
+                    catchupReader,
                     inboundPublication,
                     errorHandler,
                     correlationId,
@@ -1364,10 +1390,10 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     {
         Exceptions.closeAll(
             this::quiesce,
-            inboundMessages,
             receiverEndPoints,
             senderEndPoints,
-            channelSupplier);
+            channelSupplier,
+            gatewaySessions);
     }
 
     private void quiesce()
@@ -1411,6 +1437,11 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         }
     }
 
+    void onReceivePriorityChanged(final ReceiverEndPoint receiverEndPoint)
+    {
+        receiverEndPoints.onReceivePriorityChanged(receiverEndPoint);
+    }
+
     void slowStatus(final int libraryId, final long connectionId, final boolean hasBecomeSlow)
     {
         if (hasBecomeSlow)
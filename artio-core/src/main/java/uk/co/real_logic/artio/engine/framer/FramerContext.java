@@ -97,7 +97,9 @@ public class FramerContext
                 configuration.reasonableTransmissionTimeInMs(),
                 errorHandler,
                 sessionContexts,
-                configuration.sessionPersistenceStrategy());
+                configuration.sessionPersistenceStrategy(),
+                configuration.receivePriorityStrategy(),
+                configuration.authenticationThreadCount());
 
         final EndPointFactory endPointFactory = new EndPointFactory(
                 configuration,
@@ -115,6 +117,12 @@ public class FramerContext
             configuration.receivedSequenceNumberBuffer(), errorHandler);
 
         final FinalImagePositions finalImagePositions = new FinalImagePositions();
+        final OutboundBatch outboundBatch = new OutboundBatch(
+            configuration.senderBatchBufferSize(),
+            configuration.outboundLibraryFragmentLimit(),
+            fixCounters.outboundBatchedWrites(),
+            fixCounters.outboundBatchedMessages(),
+            !configuration.isClustered());
 
         framer = new Framer(
             clock,
@@ -131,7 +139,7 @@ public class FramerContext
                     "outboundSlowSubscription", null),
             replayImage,
             slowReplayImage,
-            engineContext.inboundReplayQuery(),
+            engineContext.catchupReader(),
             outboundPublication,
             inboundLibraryPublication,
             adminCommands,
@@ -148,6 +156,7 @@ public class FramerContext
             engineContext.outboundLibraryCompletionPosition(),
             engineContext.outboundClusterCompletionPosition(),
             finalImagePositions,
+            outboundBatch,
                 conductorAgentInvoker);
     }
 
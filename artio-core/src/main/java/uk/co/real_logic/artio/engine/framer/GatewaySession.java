@@ -25,6 +25,7 @@ import uk.co.real_logic.artio.session.SessionLogonListener;
 import uk.co.real_logic.artio.session.SessionParser;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 import uk.co.real_logic.artio.validation.PersistenceLevel;
+import uk.co.real_logic.artio.validation.ReceivePriorityStrategy;
 
 import java.util.function.Consumer;
 
@@ -54,6 +55,7 @@ class GatewaySession implements SessionInfo
     private long disconnectTimeout = NO_TIMEOUT;
 
     private PersistenceLevel persistenceLevel;
+    private int receivePriority = ReceivePriorityStrategy.DEFAULT_PRIORITY;
     private Consumer<GatewaySession> onGatewaySessionLogon;
     private SessionLogonListener logonListener = this::onSessionLogon;
 
@@ -98,6 +100,11 @@ class GatewaySession implements SessionInfo
         return sessionKey;
     }
 
+    ReceiverEndPoint receiverEndPoint()
+    {
+        return receiverEndPoint;
+    }
+
     void manage(final SessionParser sessionParser, final Session session, final BlockablePosition blockablePosition)
     {
         this.sessionParser = sessionParser;
@@ -286,4 +293,14 @@ class GatewaySession implements SessionInfo
     {
         return this.persistenceLevel;
     }
+
+    void receivePriority(final int receivePriority)
+    {
+        this.receivePriority = receivePriority;
+    }
+
+    int receivePriority()
+    {
+        return receivePriority;
+    }
 }
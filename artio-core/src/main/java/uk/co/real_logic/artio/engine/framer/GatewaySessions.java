@@ -18,6 +18,7 @@ package uk.co.real_logic.artio.engine.framer;
 import org.agrona.ErrorHandler;
 import org.agrona.LangUtil;
 import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.ManyToOneConcurrentLinkedQueue;
 import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.FixCounters;
@@ -33,10 +34,15 @@ import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 import uk.co.real_logic.artio.validation.AuthenticationStrategy;
 import uk.co.real_logic.artio.validation.MessageValidationStrategy;
 import uk.co.real_logic.artio.validation.PersistenceLevel;
+import uk.co.real_logic.artio.validation.ReceivePriorityStrategy;
 import uk.co.real_logic.artio.validation.SessionPersistenceStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static uk.co.real_logic.artio.LogTag.FIX_MESSAGE;
 import static uk.co.real_logic.artio.engine.framer.SessionContexts.DUPLICATE_SESSION;
@@ -45,8 +51,9 @@ import static uk.co.real_logic.artio.validation.SessionPersistenceStrategy.reset
 /**
  * Keeps track of which sessions managed by the gateway
  */
-class GatewaySessions
+class GatewaySessions implements AutoCloseable
 {
+    private final Queue<PendingLogon> authenticatedLogons = new ManyToOneConcurrentLinkedQueue<>();
     private final List<GatewaySession> sessions = new ArrayList<>();
     private final EpochClock clock;
     private final GatewayPublication outboundPublication;
@@ -60,6 +67,8 @@ class GatewaySessions
     private final long reasonableTransmissionTimeInMs;
     private final SessionContexts sessionContexts;
     private final SessionPersistenceStrategy sessionPersistenceStrategy;
+    private final ReceivePriorityStrategy receivePriorityStrategy;
+    private final ExecutorService authenticationExecutor;
 
     private ErrorHandler errorHandler;
 
@@ -76,7 +85,9 @@ class GatewaySessions
         final long reasonableTransmissionTimeInMs,
         final ErrorHandler errorHandler,
         final SessionContexts sessionContexts,
-        final SessionPersistenceStrategy sessionPersistenceStrategy)
+        final SessionPersistenceStrategy sessionPersistenceStrategy,
+        final ReceivePriorityStrategy receivePriorityStrategy,
+        final int authenticationThreadCount)
     {
         this.clock = clock;
         this.outboundPublication = outboundPublication;
@@ -91,6 +102,24 @@ class GatewaySessions
         this.errorHandler = errorHandler;
         this.sessionContexts = sessionContexts;
         this.sessionPersistenceStrategy = sessionPersistenceStrategy;
+        this.receivePriorityStrategy = receivePriorityStrategy;
+        this.authenticationExecutor = newAuthenticationExecutor(authenticationThreadCount);
+    }
+
+    private static ExecutorService newAuthenticationExecutor(final int authenticationThreadCount)
+    {
+        if (authenticationThreadCount == 0)
+        {
+            return null;
+        }
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(authenticationThreadCount, (runnable) ->
+        {
+            final Thread thread = new Thread(runnable, "Authentication-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     void acquire(
@@ -236,6 +265,17 @@ class GatewaySessions
         return null;
     }
 
+    boolean authenticatesAsynchronously()
+    {
+        return authenticationExecutor != null;
+    }
+
+    /**
+     * Authenticate a logon and initiate its session. When authenticating asynchronously this returns
+     * {@link AuthenticationResult#PENDING} once the logon has been handed to an authentication thread, the result
+     * is given to the receiver end point of the gateway session when {@link #pollAuthentications()} picks it up.
+     * The logon decoder and the buffer that it has decoded must not be touched until then.
+     */
     AuthenticationResult authenticateAndInitiate(
         final LogonDecoder logon,
         final long connectionId,
@@ -245,29 +285,97 @@ class GatewaySessions
     {
         final CompositeKey compositeKey = sessionIdStrategy.onAcceptLogon(logon.header());
         final SessionContext sessionContext = sessionContexts.onLogon(compositeKey);
-        final long sessionId = sessionContext.sessionId();
         if (sessionContext == DUPLICATE_SESSION)
         {
             return AuthenticationResult.DUPLICATE_SESSION;
         }
 
-        boolean authenticated;
+        if (authenticatesAsynchronously())
+        {
+            authenticationExecutor.execute(new PendingLogon(
+                logon,
+                connectionId,
+                sentSequenceNumberIndex,
+                receivedSequenceNumberIndex,
+                gatewaySession,
+                compositeKey,
+                sessionContext));
+
+            return AuthenticationResult.PENDING;
+        }
+
+        return initiate(
+            authenticate(logon, connectionId),
+            logon,
+            connectionId,
+            sentSequenceNumberIndex,
+            receivedSequenceNumberIndex,
+            gatewaySession,
+            compositeKey,
+            sessionContext);
+    }
+
+    int pollAuthentications()
+    {
+        int eventsProcessed = 0;
+        PendingLogon pendingLogon;
+        while ((pendingLogon = authenticatedLogons.poll()) != null)
+        {
+            final GatewaySession gatewaySession = pendingLogon.gatewaySession;
+            final ReceiverEndPoint receiverEndPoint = gatewaySession.receiverEndPoint();
+            if (receiverEndPoint.hasDisconnected())
+            {
+                sessionContexts.onDisconnect(pendingLogon.sessionContext.sessionId());
+            }
+            else
+            {
+                receiverEndPoint.onAuthenticationResult(initiate(
+                    pendingLogon.authenticated,
+                    pendingLogon.logon,
+                    pendingLogon.connectionId,
+                    pendingLogon.sentSequenceNumberIndex,
+                    pendingLogon.receivedSequenceNumberIndex,
+                    gatewaySession,
+                    pendingLogon.compositeKey,
+                    pendingLogon.sessionContext));
+            }
+
+            eventsProcessed++;
+        }
+
+        return eventsProcessed;
+    }
+
+    private boolean authenticate(final LogonDecoder logon, final long connectionId)
+    {
         try
         {
-            authenticated = authenticationStrategy.authenticate(logon);
+            return authenticationStrategy.authenticate(logon);
         }
         catch (final Throwable throwable)
         {
             // TODO(Nick): Maybe this should go back to also logging the message that was being decoded.
             onStrategyError("authentication", throwable, connectionId);
-            authenticated = false;
+            return false;
         }
+    }
 
+    private AuthenticationResult initiate(
+        final boolean authenticated,
+        final LogonDecoder logon,
+        final long connectionId,
+        final SequenceNumberIndexReader sentSequenceNumberIndex,
+        final SequenceNumberIndexReader receivedSequenceNumberIndex,
+        final GatewaySession gatewaySession,
+        final CompositeKey compositeKey,
+        final SessionContext sessionContext)
+    {
         if (!authenticated)
         {
             return AuthenticationResult.FAILED_AUTHENTICATION;
         }
 
+        final long sessionId = sessionContext.sessionId();
         PersistenceLevel persistenceLevel;
         try
         {
@@ -282,6 +390,20 @@ class GatewaySessions
             persistenceLevel = PersistenceLevel.LOCAL_ARCHIVE;
         }
 
+        int receivePriority;
+        try
+        {
+            receivePriority = receivePriorityStrategy.getReceivePriority(logon);
+        }
+        catch (final Throwable throwable)
+        {
+            final String message =
+                String.format("Exception thrown by receive priority strategy for connectionId=%d, " +
+                              "defaulted to DEFAULT_PRIORITY", connectionId);
+            errorHandler.onError(new FixGatewayException(message, throwable));
+            receivePriority = ReceivePriorityStrategy.DEFAULT_PRIORITY;
+        }
+
         final boolean resetSeqNumFlag = logon.hasResetSeqNumFlag() && logon.resetSeqNumFlag();
         final boolean resetSeqNum = resetSequenceNumbersUponLogon(persistenceLevel) || resetSeqNumFlag;
         final int sentSequenceNumber = sequenceNumber(sentSequenceNumberIndex, resetSeqNum, sessionId);
@@ -294,6 +416,7 @@ class GatewaySessions
         gatewaySession.onLogon(sessionId, sessionContext, compositeKey, username, password, logon.heartBtInt());
         gatewaySession.acceptorSequenceNumbers(sentSequenceNumber, receivedSequenceNumber);
         gatewaySession.persistenceLevel(persistenceLevel);
+        gatewaySession.receivePriority(receivePriority);
 
         return AuthenticationResult.authenticatedSession(gatewaySession, sentSequenceNumber, receivedSequenceNumber);
     }
@@ -320,6 +443,14 @@ class GatewaySessions
         onError(new FixGatewayException(message, throwable));
     }
 
+    public void close()
+    {
+        if (authenticationExecutor != null)
+        {
+            authenticationExecutor.shutdownNow();
+        }
+    }
+
     private void onError(final Throwable throwable)
     {
         // Library code should throw the exception to make users aware of it
@@ -333,4 +464,42 @@ class GatewaySessions
             errorHandler.onError(throwable);
         }
     }
+
+    private final class PendingLogon implements Runnable
+    {
+        private final LogonDecoder logon;
+        private final long connectionId;
+        private final SequenceNumberIndexReader sentSequenceNumberIndex;
+        private final SequenceNumberIndexReader receivedSequenceNumberIndex;
+        private final GatewaySession gatewaySession;
+        private final CompositeKey compositeKey;
+        private final SessionContext sessionContext;
+
+        // Written by the authentication thread, the queue publishes it to the framer thread.
+        private boolean authenticated;
+
+        private PendingLogon(
+            final LogonDecoder logon,
+            final long connectionId,
+            final SequenceNumberIndexReader sentSequenceNumberIndex,
+            final SequenceNumberIndexReader receivedSequenceNumberIndex,
+            final GatewaySession gatewaySession,
+            final CompositeKey compositeKey,
+            final SessionContext sessionContext)
+        {
+            this.logon = logon;
+            this.connectionId = connectionId;
+            this.sentSequenceNumberIndex = sentSequenceNumberIndex;
+            this.receivedSequenceNumberIndex = receivedSequenceNumberIndex;
+            this.gatewaySession = gatewaySession;
+            this.compositeKey = compositeKey;
+            this.sessionContext = sessionContext;
+        }
+
+        public void run()
+        {
+            authenticated = authenticate(logon, connectionId);
+            authenticatedLogons.offer(this);
+        }
+    }
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.BitUtil;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link TcpChannelSupplier} whose connections are in-memory pipes rather than sockets, so that the framer,
+ * library and archiving pipeline can be benchmarked without the noise of the kernel's network stack.
+ *
+ * Install it with {@link EngineConfiguration#channelSupplierFactory(java.util.function.Function)}, keeping a
+ * reference to it so that the load generator can call {@link #connect()} to create accepted connections and
+ * {@link #pollInitiated()} to pick up the other end of connections that the engine initiates. The engine's
+ * bind address isn't used and can be left unset.
+ */
+public class LoopbackChannelSupplier extends TcpChannelSupplier
+{
+    public static final int DEFAULT_PIPE_CAPACITY = 1024 * 1024;
+    public static final int DEFAULT_PENDING_CONNECTIONS = 1024;
+
+    private static final String LOOPBACK_ADDRESS_PREFIX = "loopback:";
+
+    private final ManyToOneConcurrentArrayQueue<LoopbackTcpChannel> pendingAccepts;
+    private final ManyToOneConcurrentArrayQueue<LoopbackTcpChannel> pendingInitiated;
+    private final List<LoopbackTcpChannel> initiatedChannels = new ArrayList<>();
+    private final List<InitiatedChannelHandler> initiatedHandlers = new ArrayList<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final int pipeCapacity;
+
+    public LoopbackChannelSupplier(final EngineConfiguration configuration)
+    {
+        this(configuration, DEFAULT_PIPE_CAPACITY);
+    }
+
+    /**
+     * Create the supplier.
+     *
+     * @param configuration the configuration of the engine that it will be installed into.
+     * @param pipeCapacity the number of bytes buffered in each direction of each connection, a power of two.
+     */
+    public LoopbackChannelSupplier(final EngineConfiguration configuration, final int pipeCapacity)
+    {
+        super(configuration);
+        if (!BitUtil.isPowerOfTwo(pipeCapacity))
+        {
+            throw new IllegalArgumentException("Loopback capacity must be a power of two, but was " + pipeCapacity);
+        }
+
+        this.pipeCapacity = pipeCapacity;
+        pendingAccepts = new ManyToOneConcurrentArrayQueue<>(DEFAULT_PENDING_CONNECTIONS);
+        pendingInitiated = new ManyToOneConcurrentArrayQueue<>(DEFAULT_PENDING_CONNECTIONS);
+    }
+
+    /**
+     * Connect to the engine as if it were accepting a TCP connection. May be called from any thread.
+     *
+     * @return the load generator's end of the connection.
+     */
+    public LoopbackTcpChannel connect()
+    {
+        final int connection = connectionCount.incrementAndGet();
+        final LoopbackPipe toEngine = new LoopbackPipe(pipeCapacity);
+        final LoopbackPipe fromEngine = new LoopbackPipe(pipeCapacity);
+        final LoopbackTcpChannel engineEnd =
+            new LoopbackTcpChannel(LOOPBACK_ADDRESS_PREFIX + connection, toEngine, fromEngine);
+
+        if (!pendingAccepts.offer(engineEnd))
+        {
+            throw new IllegalStateException("Too many loopback connections waiting to be accepted by the engine");
+        }
+
+        return new LoopbackTcpChannel(LOOPBACK_ADDRESS_PREFIX + "engine", fromEngine, toEngine);
+    }
+
+    /**
+     * Poll for the load generator's end of a connection that the engine has initiated. May be called from any
+     * thread.
+     *
+     * @return the load generator's end of the connection, or null if there isn't one waiting.
+     */
+    public LoopbackTcpChannel pollInitiated()
+    {
+        return pendingInitiated.poll();
+    }
+
+    public int pollSelector(final long timeInMs, final NewChannelHandler handler) throws IOException
+    {
+        int newConnections = 0;
+
+        LoopbackTcpChannel channel;
+        while ((channel = pendingAccepts.poll()) != null)
+        {
+            handler.onNewChannel(timeInMs, channel);
+            newConnections++;
+        }
+
+        // Initiated connections complete on the next poll, as with sockets.
+        final List<LoopbackTcpChannel> initiatedChannels = this.initiatedChannels;
+        final List<InitiatedChannelHandler> initiatedHandlers = this.initiatedHandlers;
+        for (int i = 0; i < initiatedChannels.size(); i++)
+        {
+            initiatedHandlers.get(i).onInitiatedChannel(initiatedChannels.get(i), null);
+            newConnections++;
+        }
+        initiatedChannels.clear();
+        initiatedHandlers.clear();
+
+        return newConnections;
+    }
+
+    public void open(final InetSocketAddress address, final InitiatedChannelHandler channelHandler)
+        throws IOException
+    {
+        final LoopbackPipe toEngine = new LoopbackPipe(pipeCapacity);
+        final LoopbackPipe fromEngine = new LoopbackPipe(pipeCapacity);
+        final LoopbackTcpChannel generatorEnd =
+            new LoopbackTcpChannel(LOOPBACK_ADDRESS_PREFIX + "engine", fromEngine, toEngine);
+
+        if (!pendingInitiated.offer(generatorEnd))
+        {
+            channelHandler.onInitiatedChannel(
+                null, new IOException("Too many loopback connections waiting for the load generator"));
+            return;
+        }
+
+        initiatedChannels.add(new LoopbackTcpChannel(address.toString(), toEngine, fromEngine));
+        initiatedHandlers.add(channelHandler);
+    }
+
+    public void close()
+    {
+        // Narrowed from the socket supplier's close, which can throw, so that this can be used in a
+        // try-with-resources block without having to handle an InterruptedException.
+        try
+        {
+            super.close();
+        }
+        catch (final Exception ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+
+        pendingAccepts.clear();
+        pendingInitiated.clear();
+        initiatedChannels.clear();
+        initiatedHandlers.clear();
+    }
+}
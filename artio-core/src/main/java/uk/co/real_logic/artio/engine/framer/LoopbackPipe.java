@@ -0,0 +1,164 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.BitUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.engine.ByteBufferUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+
+import static org.agrona.BitUtil.CACHE_LINE_LENGTH;
+
+/**
+ * A single producer, single consumer byte stream held in memory, used for one direction of a loopback
+ * connection. The head and tail positions are kept in a padded trailer after the data so that the
+ * producer and consumer don't contend on the same cache line.
+ */
+final class LoopbackPipe
+{
+    static final int END_OF_STREAM = -1;
+
+    private static final int HEAD_POSITION_OFFSET = CACHE_LINE_LENGTH * 2;
+    private static final int TAIL_POSITION_OFFSET = CACHE_LINE_LENGTH * 4;
+    private static final int TRAILER_LENGTH = CACHE_LINE_LENGTH * 6;
+
+    private final int capacity;
+    private final int mask;
+    private final int headPositionIndex;
+    private final int tailPositionIndex;
+    private final UnsafeBuffer positions;
+
+    // Each side has its own view of the data so that neither touches the other's position and limit.
+    private final ByteBuffer producerView;
+    private final ByteBuffer consumerView;
+
+    private volatile boolean closed;
+
+    LoopbackPipe(final int capacity)
+    {
+        if (!BitUtil.isPowerOfTwo(capacity))
+        {
+            throw new IllegalArgumentException("Loopback capacity must be a power of two, but was " + capacity);
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(capacity + TRAILER_LENGTH);
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.headPositionIndex = capacity + HEAD_POSITION_OFFSET;
+        this.tailPositionIndex = capacity + TAIL_POSITION_OFFSET;
+        this.positions = new UnsafeBuffer(buffer);
+        this.producerView = buffer.duplicate();
+        this.consumerView = buffer.duplicate();
+    }
+
+    /**
+     * Copies as much of src as there is space for, only called by the producer.
+     *
+     * @param src the bytes to write, its position is advanced by the amount written.
+     * @return the number of bytes written.
+     * @throws ClosedChannelException if either end has been closed.
+     */
+    int write(final ByteBuffer src) throws ClosedChannelException
+    {
+        if (closed)
+        {
+            throw new ClosedChannelException();
+        }
+
+        final long tail = positions.getLong(tailPositionIndex);
+        final long head = positions.getLongVolatile(headPositionIndex);
+        final int length = Math.min(src.remaining(), capacity - (int)(tail - head));
+        if (length > 0)
+        {
+            final int index = (int)tail & mask;
+            final int firstChunk = Math.min(length, capacity - index);
+            copyIn(src, index, firstChunk);
+            if (firstChunk < length)
+            {
+                copyIn(src, 0, length - firstChunk);
+            }
+
+            positions.putLongOrdered(tailPositionIndex, tail + length);
+        }
+
+        return length;
+    }
+
+    /**
+     * Copies as much data as is available and fits into dst, only called by the consumer.
+     *
+     * @param dst the buffer to read into, its position is advanced by the amount read.
+     * @return the number of bytes read, or {@link #END_OF_STREAM} once the pipe is closed and drained.
+     */
+    int read(final ByteBuffer dst)
+    {
+        final long head = positions.getLong(headPositionIndex);
+        final long tail = positions.getLongVolatile(tailPositionIndex);
+        final int available = (int)(tail - head);
+        if (available == 0)
+        {
+            // Re-check the tail as the producer may have written between reading it and closing.
+            return closed && positions.getLongVolatile(tailPositionIndex) == head ? END_OF_STREAM : 0;
+        }
+
+        final int length = Math.min(dst.remaining(), available);
+        if (length > 0)
+        {
+            final int index = (int)head & mask;
+            final int firstChunk = Math.min(length, capacity - index);
+            copyOut(dst, index, firstChunk);
+            if (firstChunk < length)
+            {
+                copyOut(dst, 0, length - firstChunk);
+            }
+
+            positions.putLongOrdered(headPositionIndex, head + length);
+        }
+
+        return length;
+    }
+
+    void close()
+    {
+        closed = true;
+    }
+
+    boolean isClosed()
+    {
+        return closed;
+    }
+
+    private void copyIn(final ByteBuffer src, final int index, final int length)
+    {
+        final ByteBuffer producerView = this.producerView;
+        final int srcLimit = src.limit();
+        ByteBufferUtil.limit(src, src.position() + length);
+        ByteBufferUtil.limit(producerView, index + length);
+        ByteBufferUtil.position(producerView, index);
+        producerView.put(src);
+        ByteBufferUtil.limit(src, srcLimit);
+    }
+
+    private void copyOut(final ByteBuffer dst, final int index, final int length)
+    {
+        final ByteBuffer consumerView = this.consumerView;
+        ByteBufferUtil.limit(consumerView, index + length);
+        ByteBufferUtil.position(consumerView, index);
+        dst.put(consumerView);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+/**
+ * One end of an in-memory connection created by a {@link LoopbackChannelSupplier}. Reads and writes never block
+ * and never make system calls. Each end may be used by a different thread, but a single end should only be
+ * read by one thread and written by one thread.
+ *
+ * Also a {@link ByteChannel} so that load generators can use the end they are given in place of a socket.
+ */
+public final class LoopbackTcpChannel extends TcpChannel implements ByteChannel
+{
+    private final LoopbackPipe inbound;
+    private final LoopbackPipe outbound;
+
+    LoopbackTcpChannel(final String remoteAddress, final LoopbackPipe inbound, final LoopbackPipe outbound)
+    {
+        super(remoteAddress);
+        this.inbound = inbound;
+        this.outbound = outbound;
+    }
+
+    public SelectionKey register(final Selector sel, final int ops, final Object att)
+    {
+        return null;
+    }
+
+    public int write(final ByteBuffer src) throws IOException
+    {
+        return outbound.write(src);
+    }
+
+    public int read(final ByteBuffer dst)
+    {
+        return inbound.read(dst);
+    }
+
+    public boolean isOpen()
+    {
+        return !inbound.isClosed();
+    }
+
+    public void close()
+    {
+        inbound.close();
+        outbound.close();
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import uk.co.real_logic.artio.engine.ByteBufferUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Consecutive outbound messages for a single connection that are copied together so that they can be written
+ * to its channel with a single write, rather than one write per message.
+ * <p>
+ * The first message of a batch can be referred to in the buffer it was received in rather than copied, so a batch
+ * that only ever holds one message is written straight from that buffer. It's copied once a second message is
+ * added, or when {@link #copyReferencedMessage()} is called because the buffer is about to be reused.
+ * <p>
+ * Only accessed on the Framer thread.
+ */
+final class OutboundBatch
+{
+    private final ByteBuffer byteBuffer;
+    private final UnsafeBuffer buffer;
+    private final int[] bodyLengths;
+    private final long[] positions;
+    private final AtomicCounter batchedWrites;
+    private final AtomicCounter batchedMessages;
+    private final boolean referenceFirstMessage;
+
+    private SenderEndPoint endPoint;
+    private DirectBuffer referencedBuffer;
+    private int referencedOffset;
+    private int messageCount;
+    private int bytes;
+    private long timeInMs;
+
+    OutboundBatch(
+        final int capacity,
+        final int maxMessages,
+        final AtomicCounter batchedWrites,
+        final AtomicCounter batchedMessages,
+        final boolean referenceFirstMessage)
+    {
+        byteBuffer = ByteBuffer.allocateDirect(capacity);
+        buffer = new UnsafeBuffer(byteBuffer);
+        bodyLengths = new int[maxMessages];
+        positions = new long[maxMessages];
+        this.batchedWrites = batchedWrites;
+        this.batchedMessages = batchedMessages;
+        this.referenceFirstMessage = referenceFirstMessage;
+    }
+
+    SenderEndPoint endPoint()
+    {
+        return endPoint;
+    }
+
+    boolean hasCapacityFor(final int bodyLength)
+    {
+        return messageCount < positions.length && bytes + bodyLength <= buffer.capacity();
+    }
+
+    void add(
+        final SenderEndPoint endPoint,
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int bodyLength,
+        final long position,
+        final long timeInMs)
+    {
+        this.endPoint = endPoint;
+        this.timeInMs = timeInMs;
+
+        if (messageCount == 0 && referenceFirstMessage && srcBuffer.byteBuffer() != null)
+        {
+            referencedBuffer = srcBuffer;
+            referencedOffset = srcOffset;
+        }
+        else
+        {
+            copyReferencedMessage();
+            buffer.putBytes(bytes, srcBuffer, srcOffset, bodyLength);
+        }
+        bytes += bodyLength;
+        bodyLengths[messageCount] = bodyLength;
+        positions[messageCount] = position;
+        messageCount++;
+    }
+
+    /**
+     * Copy the batch's message out of the buffer it was received in, if it's still being referred to there.
+     */
+    void copyReferencedMessage()
+    {
+        final DirectBuffer referencedBuffer = this.referencedBuffer;
+        if (referencedBuffer != null)
+        {
+            buffer.putBytes(0, referencedBuffer, referencedOffset, bytes);
+            this.referencedBuffer = null;
+        }
+    }
+
+    /**
+     * Detach the batch from its end point, so that the end point can be removed whilst the batch is being written.
+     *
+     * @return the end point that the batch was being accumulated for, or null if the batch is empty.
+     */
+    SenderEndPoint detach()
+    {
+        final SenderEndPoint endPoint = this.endPoint;
+        this.endPoint = null;
+        return endPoint;
+    }
+
+    ByteBuffer byteBuffer()
+    {
+        final DirectBuffer referencedBuffer = this.referencedBuffer;
+        if (referencedBuffer != null)
+        {
+            final ByteBuffer byteBuffer = referencedBuffer.byteBuffer();
+            ByteBufferUtil.limit(byteBuffer, referencedOffset + bytes);
+            ByteBufferUtil.position(byteBuffer, referencedOffset);
+            return byteBuffer;
+        }
+
+        final ByteBuffer byteBuffer = this.byteBuffer;
+        ByteBufferUtil.limit(byteBuffer, bytes);
+        ByteBufferUtil.position(byteBuffer, 0);
+        return byteBuffer;
+    }
+
+    void onWritten()
+    {
+        batchedWrites.increment();
+        batchedMessages.addOrdered(messageCount);
+    }
+
+    DirectBuffer buffer()
+    {
+        final DirectBuffer referencedBuffer = this.referencedBuffer;
+        return referencedBuffer != null ? referencedBuffer : buffer;
+    }
+
+    int offset()
+    {
+        return referencedBuffer != null ? referencedOffset : 0;
+    }
+
+    boolean isReferencingMessage()
+    {
+        return referencedBuffer != null;
+    }
+
+    int bytes()
+    {
+        return bytes;
+    }
+
+    int messageCount()
+    {
+        return messageCount;
+    }
+
+    int bodyLength(final int index)
+    {
+        return bodyLengths[index];
+    }
+
+    long position(final int index)
+    {
+        return positions[index];
+    }
+
+    long timeInMs()
+    {
+        return timeInMs;
+    }
+
+    void reset()
+    {
+        endPoint = null;
+        referencedBuffer = null;
+        messageCount = 0;
+        bytes = 0;
+        byteBuffer.clear();
+    }
+}
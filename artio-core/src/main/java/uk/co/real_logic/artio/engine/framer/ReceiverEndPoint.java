@@ -28,6 +28,7 @@ import uk.co.real_logic.artio.messages.*;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 import uk.co.real_logic.artio.validation.PersistenceLevel;
+import uk.co.real_logic.artio.validation.ReceivePriorityStrategy;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -54,6 +55,11 @@ import static uk.co.real_logic.artio.validation.PersistenceLevel.REPLICATED;
  * The receiver end point frames the TCP FIX messages into Aeron fragments.
  * It also handles backpressure coming from the Aeron stream and applies it to
  * its own TCP connections.
+ * <p>
+ * Unframed data is kept in the region of the buffer between {@code startOfData} and {@code usedBufferData}, so
+ * framed messages are always contiguous and saved straight from the buffer. Rather than copying a partial message
+ * back to the start of the buffer after every read, the buffer is only compacted once there's less free space
+ * after the unframed data than there is before it, and it's reset for free whenever all of its data is framed.
  */
 class ReceiverEndPoint
 {
@@ -72,6 +78,8 @@ class ReceiverEndPoint
     private static final int MIN_CHECKSUM_SIZE = " 10=".length() + 1;
     private static final int SOCKET_DISCONNECTED = -1;
     private static final int UNKNOWN_MESSAGE_TYPE = -1;
+    private static final int UNKNOWN_MSG_SEQ_NUM = FixMessageEncoder.msgSeqNumNullValue();
+    private static final int MAX_MSG_SEQ_NUM_DIGITS = 9;
 
     private final LogonDecoder logon = new LogonDecoder();
 
@@ -83,10 +91,12 @@ class ReceiverEndPoint
     private final SequenceNumberIndexReader sentSequenceNumberIndex;
     private final SequenceNumberIndexReader receivedSequenceNumberIndex;
     private final AtomicCounter messagesRead;
+    private final AtomicCounter deferredReads;
     private final Framer framer;
     private final ErrorHandler errorHandler;
     private final MutableAsciiBuffer buffer;
     private final ByteBuffer byteBuffer;
+    private final int readBudget;
     private final LongHashSet replicatedConnectionIds;
     private final GatewaySessions gatewaySessions;
 
@@ -95,14 +105,18 @@ class ReceiverEndPoint
     private GatewaySession gatewaySession;
     private long sessionId;
     private int sequenceIndex;
+    private int startOfData = 0;
     private int usedBufferData = 0;
     private boolean hasDisconnected = false;
     private SelectionKey selectionKey;
     private boolean isPaused = false;
+    private boolean isAuthenticating = false;
+    private int receivePriority = ReceivePriorityStrategy.DEFAULT_PRIORITY;
 
     ReceiverEndPoint(
         final TcpChannel channel,
         final int bufferSize,
+        final int readBudget,
         final GatewayPublication libraryPublication,
         final GatewayPublication clusterablePublication,
         final long connectionId,
@@ -112,6 +126,7 @@ class ReceiverEndPoint
         final SequenceNumberIndexReader sentSequenceNumberIndex,
         final SequenceNumberIndexReader receivedSequenceNumberIndex,
         final AtomicCounter messagesRead,
+        final AtomicCounter deferredReads,
         final Framer framer,
         final ErrorHandler errorHandler,
         final int libraryId,
@@ -135,6 +150,8 @@ class ReceiverEndPoint
         this.sentSequenceNumberIndex = sentSequenceNumberIndex;
         this.receivedSequenceNumberIndex = receivedSequenceNumberIndex;
         this.messagesRead = messagesRead;
+        this.deferredReads = deferredReads;
+        this.readBudget = readBudget;
         this.framer = framer;
         this.errorHandler = errorHandler;
         this.libraryId = libraryId;
@@ -156,9 +173,14 @@ class ReceiverEndPoint
         return connectionId;
     }
 
+    int receivePriority()
+    {
+        return receivePriority;
+    }
+
     int pollForData()
     {
-        if (isPaused || hasDisconnected())
+        if (isPaused || isAuthenticating || hasDisconnected())
         {
             return 0;
         }
@@ -187,12 +209,40 @@ class ReceiverEndPoint
 
     private int readData() throws IOException
     {
-        final int dataRead = channel.read(byteBuffer);
+        final ByteBuffer byteBuffer = this.byteBuffer;
+        final int readBudget = this.readBudget;
+        // Cap the read so that a busy connection can't take all of the framer's inbound bytes received limit.
+        final boolean isBudgeted = readBudget > 0 && byteBuffer.remaining() > readBudget;
+        if (isBudgeted)
+        {
+            ByteBufferUtil.limit(byteBuffer, byteBuffer.position() + readBudget);
+        }
+
+        final int dataRead;
+        try
+        {
+            dataRead = channel.read(byteBuffer);
+        }
+        finally
+        {
+            if (isBudgeted)
+            {
+                ByteBufferUtil.limit(byteBuffer, byteBuffer.capacity());
+            }
+        }
+
         if (dataRead != SOCKET_DISCONNECTED)
         {
+            final int startOfRead = usedBufferData;
+            if (isBudgeted && dataRead == readBudget)
+            {
+                // Data may well be left in the socket, it gets read on the next poll instead.
+                deferredReads.increment();
+            }
+
             if (dataRead > 0)
             {
-                DebugLogger.log(FIX_MESSAGE, "Read     %s%n", buffer, 0, dataRead);
+                DebugLogger.log(FIX_MESSAGE, "Read     %s%n", buffer, startOfRead, dataRead);
             }
             usedBufferData += dataRead;
         }
@@ -206,7 +256,8 @@ class ReceiverEndPoint
 
     private int frameMessages()
     {
-        int offset = 0;
+        final int startOfFrame = startOfData;
+        int offset = startOfFrame;
         while (true)
         {
             final int startOfBodyLength = offset + START_OF_BODY_LENGTH;
@@ -221,7 +272,7 @@ class ReceiverEndPoint
                 if (invalidBodyLengthTag(offset))
                 {
                     invalidateMessage(offset);
-                    return offset;
+                    return offset - startOfFrame;
                 }
 
                 final int endOfBodyLength = scanEndOfBodyLength(startOfBodyLength);
@@ -243,7 +294,7 @@ class ReceiverEndPoint
                 {
                     if (saveInvalidMessage(offset, startOfChecksumTag))
                     {
-                        return offset;
+                        return offset - startOfFrame;
                     }
                     close(INVALID_BODY_LENGTH);
                     removeEndpointFromFramer();
@@ -265,20 +316,21 @@ class ReceiverEndPoint
                 {
                     if (saveInvalidChecksumMessage(offset, messageType, length))
                     {
-                        return offset;
+                        return offset - startOfFrame;
                     }
                 }
                 else
                 {
                     if (UNKNOWN == sessionId && checkSessionId(offset, length))
                     {
-                        return offset;
+                        return offset - startOfFrame;
                     }
 
                     messagesRead.orderedIncrement();
-                    if (saveMessage(offset, messageType, length))
+                    final int msgSeqNum = scanMsgSeqNum(endOfBodyLength, startOfChecksumTag);
+                    if (saveMessage(offset, messageType, length, msgSeqNum))
                     {
-                        return offset;
+                        return offset - startOfFrame;
                     }
                 }
 
@@ -287,7 +339,7 @@ class ReceiverEndPoint
             catch (final IllegalArgumentException ex)
             {
                 saveInvalidMessage(offset);
-                return offset;
+                return offset - startOfFrame;
             }
             catch (final Exception ex)
             {
@@ -296,8 +348,8 @@ class ReceiverEndPoint
             }
         }
 
-        moveRemainingDataToBufferStart(offset);
-        return offset;
+        consumeFramedData(offset);
+        return offset - startOfFrame;
     }
 
     private boolean validateChecksum(
@@ -329,6 +381,12 @@ class ReceiverEndPoint
             return false;
         }
 
+        if (gatewaySessions.authenticatesAsynchronously())
+        {
+            // The logon stays at the start of the data until it has been authenticated, then gets framed again.
+            startOfData = offset;
+        }
+
         logon.decode(buffer, offset, length);
 
         final AuthenticationResult authResult = gatewaySessions.authenticateAndInitiate(logon,
@@ -337,6 +395,26 @@ class ReceiverEndPoint
                                                                                   receivedSequenceNumberIndex,
                                                                                   gatewaySession);
 
+        if (authResult.isPending())
+        {
+            isAuthenticating = true;
+            return true;
+        }
+
+        return onAuthenticated(authResult);
+    }
+
+    void onAuthenticationResult(final AuthenticationResult authResult)
+    {
+        isAuthenticating = false;
+        if (!onAuthenticated(authResult))
+        {
+            frameMessages();
+        }
+    }
+
+    private boolean onAuthenticated(final AuthenticationResult authResult)
+    {
         if (authResult.isDuplicateSession())
         {
             close(DisconnectReason.DUPLICATE_SESSION);
@@ -356,6 +434,13 @@ class ReceiverEndPoint
 
         choosePublication(gatewaySession.persistenceLevel());
 
+        final int receivePriority = gatewaySession.receivePriority();
+        if (receivePriority != this.receivePriority)
+        {
+            this.receivePriority = receivePriority;
+            framer.onReceivePriorityChanged(this);
+        }
+
         return false;
     }
 
@@ -364,13 +449,13 @@ class ReceiverEndPoint
         final boolean backPressured = Pressure.isBackPressured(position);
         if (backPressured)
         {
-            moveRemainingDataToBufferStart(offset);
+            consumeFramedData(offset);
         }
 
         return backPressured;
     }
 
-    private boolean saveMessage(final int offset, final int messageType, final int length)
+    private boolean saveMessage(final int offset, final int messageType, final int length, final int msgSeqNum)
     {
         final long position = publication.saveMessage(buffer,
                                                       offset,
@@ -380,10 +465,11 @@ class ReceiverEndPoint
                                                       sessionId,
                                                       sequenceIndex,
                                                       connectionId,
-                                                      OK);
+                                                      OK,
+                                                      msgSeqNum);
         if (Pressure.isBackPressured(position))
         {
-            moveRemainingDataToBufferStart(offset);
+            consumeFramedData(offset);
             return true;
         }
         else
@@ -411,6 +497,51 @@ class ReceiverEndPoint
         return buffer.getMessageType(start + 1, 2);
     }
 
+    // Carried in the FixMessage frame so that the indexers and replayer needn't decode the header again.
+    // Missing or malformed values are left for the session to validate.
+    private int scanMsgSeqNum(final int endOfBodyLength, final int startOfChecksumTag)
+    {
+        final MutableAsciiBuffer buffer = this.buffer;
+        int startOfField = endOfBodyLength + 1;
+        while (startOfField < startOfChecksumTag)
+        {
+            final int endOfField = buffer.scan(startOfField, startOfChecksumTag, START_OF_HEADER);
+            if (buffer.getByte(startOfField) == '3' &&
+                buffer.getByte(startOfField + 1) == '4' &&
+                buffer.getByte(startOfField + 2) == '=')
+            {
+                return parseMsgSeqNum(startOfField + 3, endOfField);
+            }
+
+            startOfField = endOfField + 1;
+        }
+
+        return UNKNOWN_MSG_SEQ_NUM;
+    }
+
+    private int parseMsgSeqNum(final int startOfValue, final int endOfField)
+    {
+        final int digits = endOfField - startOfValue;
+        if (digits <= 0 || digits > MAX_MSG_SEQ_NUM_DIGITS)
+        {
+            return UNKNOWN_MSG_SEQ_NUM;
+        }
+
+        int msgSeqNum = 0;
+        for (int index = startOfValue; index < endOfField; index++)
+        {
+            final byte value = buffer.getByte(index);
+            if (value < '0' || value > '9')
+            {
+                return UNKNOWN_MSG_SEQ_NUM;
+            }
+
+            msgSeqNum = msgSeqNum * 10 + (value - '0');
+        }
+
+        return msgSeqNum;
+    }
+
     private int getBodyLength(final int offset, final int endOfBodyLength)
     {
         return buffer.getNatural(offset + START_OF_BODY_LENGTH, endOfBodyLength);
@@ -429,10 +560,24 @@ class ReceiverEndPoint
         }
     }
 
-    private void moveRemainingDataToBufferStart(final int offset)
+    private void consumeFramedData(final int offset)
     {
-        usedBufferData -= offset;
-        buffer.putBytes(0, buffer, offset, usedBufferData);
+        if (offset == usedBufferData)
+        {
+            startOfData = 0;
+            usedBufferData = 0;
+        }
+        else
+        {
+            startOfData = offset;
+            if (byteBuffer.capacity() - usedBufferData < offset)
+            {
+                usedBufferData -= offset;
+                buffer.putBytes(0, buffer, offset, usedBufferData);
+                startOfData = 0;
+            }
+        }
+
         // position set to ensure that back pressure is applied to TCP when read(byteBuffer) called.
         ByteBufferUtil.position(byteBuffer, usedBufferData);
     }
@@ -453,7 +598,8 @@ class ReceiverEndPoint
                 sessionId,
                 sequenceIndex,
                 connectionId,
-                INVALID_BODYLENGTH));
+                INVALID_BODYLENGTH,
+                UNKNOWN_MSG_SEQ_NUM));
     }
 
     private boolean saveInvalidMessage(final int offset)
@@ -461,13 +607,14 @@ class ReceiverEndPoint
         final boolean backpressured = stashIfBackpressured(offset,
             libraryPublication.saveMessage(buffer,
                 offset,
-                usedBufferData,
+                usedBufferData - offset,
                 libraryId,
                 INVALID_MESSAGE_TYPE,
                 sessionId,
                 sequenceIndex,
                 connectionId,
-                INVALID));
+                INVALID,
+                UNKNOWN_MSG_SEQ_NUM));
 
         if (!backpressured)
         {
@@ -478,7 +625,7 @@ class ReceiverEndPoint
 
     private void clearBuffer()
     {
-        moveRemainingDataToBufferStart(usedBufferData);
+        consumeFramedData(usedBufferData);
     }
 
     private boolean saveInvalidChecksumMessage(final int offset, final int messageType, final int length)
@@ -492,7 +639,8 @@ class ReceiverEndPoint
                 sessionId,
                 sequenceIndex,
                 connectionId,
-                INVALID_CHECKSUM));
+                INVALID_CHECKSUM,
+                UNKNOWN_MSG_SEQ_NUM));
     }
 
     public void close(final DisconnectReason reason)
@@ -511,6 +659,7 @@ class ReceiverEndPoint
         {
             channel.close();
             messagesRead.close();
+            deferredReads.close();
         }
         catch (final Exception ex)
         {
@@ -559,9 +708,15 @@ class ReceiverEndPoint
         return hasDisconnected;
     }
 
-    public void register(final Selector selector) throws IOException
+    public boolean register(final Selector selector) throws IOException
     {
         selectionKey = channel.register(selector, OP_READ, this);
+        return isSelectable();
+    }
+
+    boolean isSelectable()
+    {
+        return selectionKey != null;
     }
 
     public int libraryId()
@@ -22,21 +22,46 @@ import uk.co.real_logic.artio.messages.DisconnectReason;
 
 import java.io.IOException;
 import java.nio.channels.SelectionKey;
+import java.util.Arrays;
 import java.util.stream.Stream;
 
 import static org.agrona.collections.ArrayUtil.UNKNOWN_INDEX;
 import static uk.co.real_logic.artio.messages.DisconnectReason.ENGINE_SHUTDOWN;
 
+/**
+ * Polls the receiver end points in descending order of their receive priority. End points of the same priority are
+ * polled from a rotating starting offset, so that none of them always gets first use of the framer's inbound bytes
+ * received limit.
+ */
 class ReceiverEndPoints extends TransportPoller
 {
+    /**
+     * The number of end points that are polled by iterating over them before the selector is used instead.
+     */
+    static final int POLL_ITERATION_THRESHOLD = ITERATION_THRESHOLD;
+
     private ReceiverEndPoint[] endPoints = new ReceiverEndPoint[0];
+    private ReceiverEndPoint[] selectedEndPoints = new ReceiverEndPoint[0];
+    private int unselectableEndPoints = 0;
+    private boolean hasMultiplePriorities = false;
+    private int roundRobinOffset = 0;
 
     void add(final ReceiverEndPoint endPoint)
     {
         try
         {
-            endPoints = ArrayUtil.add(endPoints, endPoint);
-            endPoint.register(selector);
+            final ReceiverEndPoint[] endPoints = ArrayUtil.add(this.endPoints, endPoint);
+            sortEndPoints(endPoints);
+            this.endPoints = endPoints;
+            if (selectedEndPoints.length < endPoints.length)
+            {
+                selectedEndPoints = new ReceiverEndPoint[endPoints.length];
+            }
+
+            if (!endPoint.register(selector))
+            {
+                unselectableEndPoints++;
+            }
         }
         catch (final IOException ex)
         {
@@ -57,6 +82,10 @@ class ReceiverEndPoints extends TransportPoller
             {
                 index = i;
                 endPoint.close(reason);
+                if (!endPoint.isSelectable())
+                {
+                    unselectableEndPoints--;
+                }
             }
         }
 
@@ -65,6 +94,40 @@ class ReceiverEndPoints extends TransportPoller
         selectNowToForceProcessing();
     }
 
+    // Copies rather than sorting in place as the end points may be being iterated when a priority changes.
+    void onReceivePriorityChanged(final ReceiverEndPoint endPoint)
+    {
+        final ReceiverEndPoint[] endPoints = this.endPoints.clone();
+        sortEndPoints(endPoints);
+        this.endPoints = endPoints;
+    }
+
+    private void sortEndPoints(final ReceiverEndPoint[] endPoints)
+    {
+        sortByPriority(endPoints, endPoints.length);
+
+        final int length = endPoints.length;
+        hasMultiplePriorities = length > 1 &&
+            endPoints[0].receivePriority() != endPoints[length - 1].receivePriority();
+    }
+
+    // Insertion sort: it's stable, allocation free and the end points are normally already close to sorted.
+    private static void sortByPriority(final ReceiverEndPoint[] endPoints, final int length)
+    {
+        for (int i = 1; i < length; i++)
+        {
+            final ReceiverEndPoint endPoint = endPoints[i];
+            final int priority = endPoint.receivePriority();
+            int j = i - 1;
+            while (j >= 0 && endPoints[j].receivePriority() < priority)
+            {
+                endPoints[j + 1] = endPoints[j];
+                j--;
+            }
+            endPoints[j + 1] = endPoint;
+        }
+    }
+
     private void selectNowToForceProcessing()
     {
         try
@@ -84,24 +147,31 @@ class ReceiverEndPoints extends TransportPoller
         {
             final ReceiverEndPoint[] endPoints = this.endPoints;
             final int numEndPoints = endPoints.length;
-            if (numEndPoints <= ITERATION_THRESHOLD)
+            // End points that can't be selected, such as loopback channels, are only seen by iterating.
+            if (numEndPoints <= POLL_ITERATION_THRESHOLD || unselectableEndPoints > 0)
             {
-                for (int i = numEndPoints - 1; i >= 0; i--)
-                {
-                    bytesReceived += endPoints[i].pollForData();
-                }
+                bytesReceived = pollInPriorityOrder(endPoints, numEndPoints);
             }
             else
             {
                 selector.selectNow();
 
+                final ReceiverEndPoint[] selectedEndPoints = this.selectedEndPoints;
                 final SelectionKey[] keys = selectedKeySet.keys();
-                for (int i = selectedKeySet.size() - 1; i >= 0; i--)
+                final int selectedCount = selectedKeySet.size();
+                for (int i = 0; i < selectedCount; i++)
                 {
-                    bytesReceived += ((ReceiverEndPoint)keys[i].attachment()).pollForData();
+                    selectedEndPoints[i] = (ReceiverEndPoint)keys[i].attachment();
                 }
-
                 selectedKeySet.reset();
+
+                if (hasMultiplePriorities)
+                {
+                    sortByPriority(selectedEndPoints, selectedCount);
+                }
+
+                bytesReceived = pollInPriorityOrder(selectedEndPoints, selectedCount);
+                Arrays.fill(selectedEndPoints, 0, selectedCount, null);
             }
         }
         catch (final IOException ex)
@@ -112,6 +182,42 @@ class ReceiverEndPoints extends TransportPoller
         return bytesReceived;
     }
 
+    private int pollInPriorityOrder(final ReceiverEndPoint[] endPoints, final int count)
+    {
+        final int offset = roundRobinOffset;
+
+        int bytesReceived = 0;
+        int start = 0;
+        while (start < count)
+        {
+            final int priority = endPoints[start].receivePriority();
+            int end = start + 1;
+            while (end < count && endPoints[end].receivePriority() == priority)
+            {
+                end++;
+            }
+
+            final int classSize = end - start;
+            final int first = offset % classSize;
+            for (int i = 0; i < classSize; i++)
+            {
+                int index = first + i;
+                if (index >= classSize)
+                {
+                    index -= classSize;
+                }
+
+                bytesReceived += endPoints[start + index].pollForData();
+            }
+
+            start = end;
+        }
+
+        roundRobinOffset = offset == Integer.MAX_VALUE ? 0 : offset + 1;
+
+        return bytesReceived;
+    }
+
     public void close()
     {
         Stream.of(endPoints).forEach(receiverEndPoint -> receiverEndPoint.close(ENGINE_SHUTDOWN));
@@ -35,8 +35,17 @@ import static uk.co.real_logic.artio.messages.DisconnectReason.EXCEPTION;
 import static uk.co.real_logic.artio.messages.DisconnectReason.SLOW_CONSUMER;
 import static uk.co.real_logic.artio.protocol.GatewayPublication.FRAME_SIZE;
 
+/**
+ * Writes outbound messages to a TCP connection.
+ * <p>
+ * When the connection can't keep up, the bytes that it hasn't accepted are either queued in a per connection
+ * {@link SpillBuffer} and written out ahead of later messages, or, when spilling is disabled, left on the outbound
+ * and replay streams whose positions are blocked until the slow peekers have resent them.
+ */
 class SenderEndPoint implements AutoCloseable
 {
+    static final int DRAIN_FAILED = -1;
+
     private final long connectionId;
     private final TcpChannel channel;
     private final AtomicCounter bytesInBuffer;
@@ -45,6 +54,7 @@ class SenderEndPoint implements AutoCloseable
     private final Framer framer;
     private final int maxBytesInBuffer;
     private final long slowConsumerTimeoutInMs;
+    private final SpillBuffer spillBuffer;
 
     private final StreamTracker outboundTracker;
     private final StreamTracker replayTracker;
@@ -64,6 +74,7 @@ class SenderEndPoint implements AutoCloseable
         final ErrorHandler errorHandler,
         final Framer framer,
         final int maxBytesInBuffer,
+        final boolean slowConsumerSpill,
         final long slowConsumerTimeoutInMs,
         final long timeInMs)
     {
@@ -76,6 +87,7 @@ class SenderEndPoint implements AutoCloseable
         this.framer = framer;
         this.maxBytesInBuffer = maxBytesInBuffer;
         this.slowConsumerTimeoutInMs = slowConsumerTimeoutInMs;
+        spillBuffer = slowConsumerSpill ? new SpillBuffer(maxBytesInBuffer) : null;
 
         outboundTracker = new StreamTracker(outboundBlockablePosition);
         replayTracker = new StreamTracker(replayBlockablePosition);
@@ -125,6 +137,92 @@ class SenderEndPoint implements AutoCloseable
         return attemptSlowMessage(buffer, offsetAfterHeader, length, position, bodyLength, timeInMs, replayTracker);
     }
 
+    /**
+     * Add an outbound message to a batch of consecutive messages for this end point, which is written out
+     * by {@link #writeBatch(OutboundBatch)}.
+     *
+     * @return true if the message has been dealt with, false if it should be sent with
+     * {@link #onOutboundMessage(int, DirectBuffer, int, int, long, long)} instead.
+     */
+    boolean batchOutboundMessage(
+        final int libraryId,
+        final DirectBuffer directBuffer,
+        final int offset,
+        final int bodyLength,
+        final long position,
+        final long timeInMs,
+        final OutboundBatch batch)
+    {
+        if (isWrongLibraryId(libraryId))
+        {
+            invalidLibraryAttempts.increment();
+            return true;
+        }
+
+        if (isSlowConsumer() || !batch.hasCapacityFor(bodyLength))
+        {
+            return false;
+        }
+
+        batch.add(this, directBuffer, offset, bodyLength, position, timeInMs);
+        return true;
+    }
+
+    void writeBatch(final OutboundBatch batch)
+    {
+        try
+        {
+            final ByteBuffer buffer = batch.byteBuffer();
+            final int written = channel.write(buffer);
+            DebugLogger.log(FIX_MESSAGE, "Written  %s%n", buffer, written);
+            updateSendingTimeoutTimeInMs(batch.timeInMs(), written);
+            batch.onWritten();
+
+            final int messageCount = batch.messageCount();
+            if (spillBuffer != null)
+            {
+                outboundTracker.sentPosition = batch.position(messageCount - 1);
+                final int unwritten = batch.bytes() - written;
+                if (unwritten > 0)
+                {
+                    spill(batch.buffer(), batch.offset() + written, unwritten);
+                }
+
+                return;
+            }
+
+            // Account for each message as if it had been written individually, so that a partial write leaves
+            // the outbound stream in the same slow consumer state.
+            int remaining = written;
+            for (int i = 0; i < messageCount; i++)
+            {
+                final int bodyLength = batch.bodyLength(i);
+                final long position = batch.position(i);
+                if (isSlowConsumer())
+                {
+                    if (!onSlowConsumerMessage(bodyLength))
+                    {
+                        return;
+                    }
+                }
+                else if (remaining >= bodyLength)
+                {
+                    outboundTracker.sentPosition = position;
+                    remaining -= bodyLength;
+                }
+                else
+                {
+                    becomeSlowConsumer(remaining, bodyLength, position, outboundTracker);
+                    remaining = 0;
+                }
+            }
+        }
+        catch (final IOException ex)
+        {
+            onError(ex);
+        }
+    }
+
     private void attemptFramedMessage(
         final DirectBuffer directBuffer,
         final int offset,
@@ -133,15 +231,16 @@ class SenderEndPoint implements AutoCloseable
         final long position,
         final StreamTracker tracker)
     {
-        if (isSlowConsumer())
+        if (spillBuffer != null)
         {
-            final long bytesInBuffer = bytesInBufferWeak() + bodyLength;
-            if (bytesInBuffer > maxBytesInBuffer)
-            {
-                removeEndpoint(SLOW_CONSUMER);
-            }
+            spillOrWriteFramedMessage(directBuffer, offset, bodyLength, timeInMs, position, tracker);
+
+            return;
+        }
 
-            this.bytesInBuffer.setOrdered(bytesInBuffer);
+        if (isSlowConsumer())
+        {
+            onSlowConsumerMessage(bodyLength);
 
             return;
         }
@@ -165,6 +264,116 @@ class SenderEndPoint implements AutoCloseable
         }
     }
 
+    private void spillOrWriteFramedMessage(
+        final DirectBuffer directBuffer,
+        final int offset,
+        final int bodyLength,
+        final long timeInMs,
+        final long position,
+        final StreamTracker tracker)
+    {
+        try
+        {
+            // Anything already spilt has to reach the connection first.
+            writeSpilledBytes(timeInMs);
+
+            int written = 0;
+            if (spillBuffer.isEmpty())
+            {
+                written = writeFramedMessage(directBuffer, offset, bodyLength, timeInMs);
+            }
+
+            if (written < bodyLength)
+            {
+                spill(directBuffer, offset + written, bodyLength - written);
+            }
+
+            tracker.sentPosition = position;
+        }
+        catch (final IOException ex)
+        {
+            onError(ex);
+        }
+    }
+
+    private void spill(final DirectBuffer directBuffer, final int offset, final int length)
+    {
+        final SpillBuffer spillBuffer = this.spillBuffer;
+        final boolean wasEmpty = spillBuffer.isEmpty();
+        if (!spillBuffer.append(directBuffer, offset, length))
+        {
+            bytesInBuffer.setOrdered(spillBuffer.size() + length);
+            removeEndpoint(SLOW_CONSUMER);
+
+            return;
+        }
+
+        bytesInBuffer.setOrdered(spillBuffer.size());
+        if (wasEmpty)
+        {
+            sendSlowStatus(true);
+        }
+    }
+
+    /**
+     * Write out bytes that a slow connection hasn't yet accepted. Called on every duty cycle so that the spill
+     * buffer drains even when no more messages are sent to the connection.
+     *
+     * @param timeInMs the current time.
+     * @return the number of bytes written, or {@link #DRAIN_FAILED} if the write failed, in which case the caller
+     *         should disconnect this end point once it has finished iterating over the end points.
+     */
+    int drainSpillBuffer(final long timeInMs)
+    {
+        if (spillBuffer == null || spillBuffer.isEmpty())
+        {
+            return 0;
+        }
+
+        try
+        {
+            return writeSpilledBytes(timeInMs);
+        }
+        catch (final IOException ex)
+        {
+            reportError(ex);
+            return DRAIN_FAILED;
+        }
+    }
+
+    private int writeSpilledBytes(final long timeInMs) throws IOException
+    {
+        final SpillBuffer spillBuffer = this.spillBuffer;
+        if (spillBuffer.isEmpty())
+        {
+            return 0;
+        }
+
+        final int written = spillBuffer.writeTo(channel);
+        updateSendingTimeoutTimeInMs(timeInMs, written);
+        bytesInBuffer.setOrdered(spillBuffer.size());
+        if (spillBuffer.isEmpty())
+        {
+            becomeNormalConsumer();
+        }
+
+        return written;
+    }
+
+    private boolean onSlowConsumerMessage(final int bodyLength)
+    {
+        final long bytesInBuffer = bytesInBufferWeak() + bodyLength;
+        final boolean isBelowLimit = bytesInBuffer <= maxBytesInBuffer;
+        if (!isBelowLimit)
+        {
+            removeEndpoint(SLOW_CONSUMER);
+        }
+
+        this.bytesInBuffer.setOrdered(bytesInBuffer);
+
+        return isBelowLimit;
+    }
+
     private int writeFramedMessage(
         final DirectBuffer directBuffer,
         final int offset,
@@ -192,10 +401,15 @@ class SenderEndPoint implements AutoCloseable
     }
 
     private void onError(final Exception ex)
+    {
+        reportError(ex);
+        removeEndpoint(EXCEPTION);
+    }
+
+    private void reportError(final Exception ex)
     {
         errorHandler.onError(new Exception(String.format(
             "Exception reported for sessionId=%d,connectionId=%d", sessionId, connectionId), ex));
-        removeEndpoint(EXCEPTION);
     }
 
     private void becomeSlowConsumer(
@@ -218,7 +432,7 @@ class SenderEndPoint implements AutoCloseable
         framer.slowStatus(libraryId, connectionId, hasBecomeSlow);
     }
 
-    private void removeEndpoint(final DisconnectReason reason)
+    void removeEndpoint(final DisconnectReason reason)
     {
         framer.onDisconnect(libraryId, connectionId, reason);
     }
@@ -243,6 +457,10 @@ class SenderEndPoint implements AutoCloseable
     {
         bytesInBuffer.close();
         invalidLibraryAttempts.close();
+        if (spillBuffer != null)
+        {
+            spillBuffer.close();
+        }
     }
 
     Action onSlowOutboundMessage(
@@ -273,7 +491,8 @@ class SenderEndPoint implements AutoCloseable
         final long timeInMs,
         final StreamTracker tracker)
     {
-        if (!isSlowConsumer())
+        // Spilt bytes are written from the spill buffer, so there's nothing to resend from the stream.
+        if (spillBuffer != null || !isSlowConsumer())
         {
             return CONTINUE;
         }
@@ -26,9 +26,13 @@ import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.replication.ClusterFragmentHandler;
 import uk.co.real_logic.artio.replication.ClusterHeader;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.LongToIntFunction;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static uk.co.real_logic.artio.engine.framer.SenderEndPoint.DRAIN_FAILED;
+import static uk.co.real_logic.artio.messages.DisconnectReason.EXCEPTION;
 
 class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler, ClusterFragmentHandler
 {
@@ -38,7 +42,9 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler, Clust
     private final FixMessageDecoder fixMessage = new FixMessageDecoder();
     private final Long2ObjectHashMap<SenderEndPoint> connectionIdToSenderEndpoint = new Long2ObjectHashMap<>();
     private final ErrorHandler errorHandler;
+    private final OutboundBatch outboundBatch;
     private final LongToIntFunction libraryLookup = this::libraryLookup;
+    private final List<SenderEndPoint> failedEndPoints = new ArrayList<>();
 
     private int libraryLookup(final long sessionId)
     {
@@ -55,9 +61,10 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler, Clust
 
     private long timeInMs;
 
-    SenderEndPoints(final ErrorHandler errorHandler)
+    SenderEndPoints(final ErrorHandler errorHandler, final OutboundBatch outboundBatch)
     {
         this.errorHandler = errorHandler;
+        this.outboundBatch = outboundBatch;
     }
 
     public void add(final SenderEndPoint senderEndPoint)
@@ -85,8 +92,39 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler, Clust
         final SenderEndPoint endPoint = connectionIdToSenderEndpoint.get(connectionId);
         if (endPoint != null)
         {
-            endPoint.onOutboundMessage(libraryId, buffer, offset, length, position, timeInMs);
+            final OutboundBatch outboundBatch = this.outboundBatch;
+            if (outboundBatch.endPoint() != endPoint || !outboundBatch.hasCapacityFor(length))
+            {
+                flushBatch();
+            }
+
+            if (!endPoint.batchOutboundMessage(libraryId, buffer, offset, length, position, timeInMs, outboundBatch))
+            {
+                endPoint.onOutboundMessage(libraryId, buffer, offset, length, position, timeInMs);
+            }
+        }
+    }
+
+    /**
+     * Write out any outbound messages that have been batched up for a connection. This needs to be called after
+     * polling the outbound stream and before anything else that writes to, or closes, a connection.
+     *
+     * @return the number of messages written.
+     */
+    int flushBatch()
+    {
+        final OutboundBatch outboundBatch = this.outboundBatch;
+        final SenderEndPoint endPoint = outboundBatch.detach();
+        if (endPoint == null)
+        {
+            return 0;
         }
+
+        final int messageCount = outboundBatch.messageCount();
+        endPoint.writeBatch(outboundBatch);
+        outboundBatch.reset();
+
+        return messageCount;
     }
 
     Action onReplayMessage(
@@ -180,6 +218,37 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler, Clust
         this.timeInMs = timeInMs;
     }
 
+    int drainSpillBuffers()
+    {
+        final long timeInMs = this.timeInMs;
+        final List<SenderEndPoint> failedEndPoints = this.failedEndPoints;
+        int bytesWritten = 0;
+        for (final SenderEndPoint senderEndPoint : connectionIdToSenderEndpoint.values())
+        {
+            final int written = senderEndPoint.drainSpillBuffer(timeInMs);
+            if (written == DRAIN_FAILED)
+            {
+                failedEndPoints.add(senderEndPoint);
+            }
+            else
+            {
+                bytesWritten += written;
+            }
+        }
+
+        // Disconnecting removes the end point from the map, so can't be done while iterating over it.
+        if (!failedEndPoints.isEmpty())
+        {
+            for (int i = 0, size = failedEndPoints.size(); i < size; i++)
+            {
+                failedEndPoints.get(i).removeEndpoint(EXCEPTION);
+            }
+            failedEndPoints.clear();
+        }
+
+        return bytesWritten;
+    }
+
     int checkTimeouts(final long timeInMs)
     {
         int count = 0;
@@ -23,8 +23,8 @@ import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.decoder.HeaderDecoder;
 import uk.co.real_logic.artio.decoder.LogonDecoder;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
+import uk.co.real_logic.artio.engine.ChecksumFramer;
 import uk.co.real_logic.artio.engine.MappedFile;
-import uk.co.real_logic.artio.engine.SectorFramer;
 import uk.co.real_logic.artio.engine.logger.LoggerUtil;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
@@ -85,7 +85,7 @@ public class SessionContexts
     private final Map<CompositeKey, SessionContext> compositeToContext = new HashMap<>();
 
     private final CRC32 crc32 = new CRC32();
-    private final SectorFramer sectorFramer;
+    private final ChecksumFramer checksumFramer;
     private final ByteBuffer byteBuffer;
 
     private final AtomicBuffer buffer;
@@ -102,7 +102,7 @@ public class SessionContexts
         this.mappedFile = mappedFile;
         this.buffer = mappedFile.buffer();
         this.byteBuffer = this.buffer.byteBuffer();
-        sectorFramer = new SectorFramer(buffer.capacity());
+        checksumFramer = new ChecksumFramer(buffer, buffer.capacity(), errorHandler, 0, "session ids");
         this.idStrategy = idStrategy;
         this.errorHandler = errorHandler;
         loadBuffer();
@@ -185,7 +185,8 @@ public class SessionContexts
             actingBlockLength,
             errorHandler))
         {
-            updateChecksum(0, FIRST_CHECKSUM_LOCATION);
+            checksumFramer.markDirty(0);
+            checksumFramer.updateDirtyChecksums();
             mappedFile.force();
         }
     }
@@ -248,7 +249,7 @@ public class SessionContexts
         {
             if (filePosition != OUT_OF_SPACE)
             {
-                filePosition = sectorFramer.claim(filePosition, BLOCK_LENGTH + compositeKeyLength);
+                filePosition = checksumFramer.claim(filePosition, BLOCK_LENGTH + compositeKeyLength);
                 keyPosition = filePosition;
                 if (filePosition == OUT_OF_SPACE)
                 {
@@ -268,7 +269,8 @@ public class SessionContexts
                     buffer.putBytes(filePosition, compositeKeyBuffer, 0, compositeKeyLength);
                     filePosition += compositeKeyLength;
 
-                    updateChecksum(sectorFramer.sectorStart(), sectorFramer.checksumOffset());
+                    checksumFramer.markDirty(keyPosition);
+                    checksumFramer.updateDirtyChecksums();
                     mappedFile.force();
                 }
             }
@@ -286,19 +288,6 @@ public class SessionContexts
             .forEach(SessionContext::onSequenceReset);
     }
 
-    // TODO: optimisation, more efficient checksumming, only checksum new data
-    private void updateChecksum(final int start, final int checksumOffset)
-    {
-        final int endOfData = checksumOffset;
-        byteBuffer.clear();
-        ByteBufferUtil.position(byteBuffer, start);
-        ByteBufferUtil.limit(byteBuffer, endOfData);
-        crc32.reset();
-        crc32.update(byteBuffer);
-        final int checksumValue = (int)crc32.getValue();
-        buffer.putInt(checksumOffset, checksumValue);
-    }
-
     public void onDisconnect(final long sessionId)
     {
         currentlyAuthenticatedSessionIds.remove(sessionId);
@@ -368,9 +357,8 @@ public class SessionContexts
             .sequenceIndex(sequenceIndex)
             .logonTime(logonTime);
 
-        final int start = nextSectorStart(filePosition) - SECTOR_SIZE;
-        final int checksumOffset = start + SECTOR_DATA_LENGTH;
-        updateChecksum(start, checksumOffset);
+        checksumFramer.markDirty(filePosition);
+        checksumFramer.updateDirtyChecksums();
 
         mappedFile.force();
     }
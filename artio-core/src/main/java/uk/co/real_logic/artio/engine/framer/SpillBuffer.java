@@ -0,0 +1,164 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.engine.ByteBufferUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Bounded off-heap queue of the bytes that a slow TCP connection hasn't yet accepted, in the order that they should
+ * be written. Its memory is only allocated once a connection falls behind, starting small and doubling up to the
+ * maximum as the backlog grows, and is freed again as soon as the backlog has been written, since most connections
+ * never fall behind and those that do normally catch up quickly.
+ * <p>
+ * Only accessed on the Framer thread.
+ */
+final class SpillBuffer implements AutoCloseable
+{
+    static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private final int maxCapacity;
+
+    private ByteBuffer byteBuffer;
+    private UnsafeBuffer buffer;
+    private int start = 0;
+    private int end = 0;
+
+    SpillBuffer(final int maxCapacity)
+    {
+        this.maxCapacity = maxCapacity;
+    }
+
+    boolean isEmpty()
+    {
+        return start == end;
+    }
+
+    int size()
+    {
+        return end - start;
+    }
+
+    int capacity()
+    {
+        return buffer == null ? 0 : buffer.capacity();
+    }
+
+    /**
+     * Add bytes to the end of the queue.
+     *
+     * @return true if the bytes have been added, false if they would take the queue over its maximum capacity.
+     */
+    boolean append(final DirectBuffer srcBuffer, final int srcOffset, final int length)
+    {
+        final int size = size();
+        final int requiredCapacity = size + length;
+        if (requiredCapacity > maxCapacity)
+        {
+            return false;
+        }
+
+        if (buffer == null || requiredCapacity > buffer.capacity())
+        {
+            grow(requiredCapacity);
+        }
+        else if (end + length > buffer.capacity())
+        {
+            // Only move the queued bytes back to the start when they would otherwise run off the end.
+            buffer.putBytes(0, buffer, start, size);
+            start = 0;
+            end = size;
+        }
+
+        buffer.putBytes(end, srcBuffer, srcOffset, length);
+        end += length;
+
+        return true;
+    }
+
+    private void grow(final int requiredCapacity)
+    {
+        int newCapacity = Math.max(capacity(), Math.min(INITIAL_CAPACITY, maxCapacity));
+        while (newCapacity < requiredCapacity)
+        {
+            newCapacity = newCapacity > maxCapacity / 2 ? maxCapacity : newCapacity * 2;
+        }
+
+        final ByteBuffer newByteBuffer = ByteBuffer.allocateDirect(newCapacity);
+        final UnsafeBuffer newBuffer = new UnsafeBuffer(newByteBuffer);
+        final int size = size();
+        if (size > 0)
+        {
+            newBuffer.putBytes(0, buffer, start, size);
+        }
+
+        free();
+        byteBuffer = newByteBuffer;
+        buffer = newBuffer;
+        start = 0;
+        end = size;
+    }
+
+    /**
+     * Write as much of the queue to a channel as it will accept, freeing the queue's memory if it all is.
+     *
+     * @return the number of bytes written.
+     */
+    int writeTo(final TcpChannel channel) throws IOException
+    {
+        if (isEmpty())
+        {
+            return 0;
+        }
+
+        final ByteBuffer byteBuffer = this.byteBuffer;
+        ByteBufferUtil.limit(byteBuffer, end);
+        ByteBufferUtil.position(byteBuffer, start);
+
+        final int written = channel.write(byteBuffer);
+        start += written;
+        if (start == end)
+        {
+            free();
+            start = 0;
+            end = 0;
+        }
+
+        return written;
+    }
+
+    public void close()
+    {
+        free();
+        start = 0;
+        end = 0;
+    }
+
+    private void free()
+    {
+        if (byteBuffer != null)
+        {
+            IoUtil.unmap(byteBuffer);
+            byteBuffer = null;
+            buffer = null;
+        }
+    }
+}
@@ -35,11 +35,23 @@ public class TcpChannel implements AutoCloseable
         remoteAddress = socketChannel.getRemoteAddress().toString();
     }
 
+    /**
+     * Constructor for channels that aren't backed by a socket, these must override all of the IO methods.
+     *
+     * @param remoteAddress the address reported for the other end of the channel.
+     */
+    protected TcpChannel(final String remoteAddress)
+    {
+        this.socketChannel = null;
+        this.remoteAddress = remoteAddress;
+    }
+
     public String remoteAddress()
     {
         return remoteAddress;
     }
 
+    // Returns null for channels that can't be selected, their end points are polled on every duty cycle instead.
     public SelectionKey register(final Selector sel, final int ops, final Object att) throws ClosedChannelException
     {
         return socketChannel.register(sel, ops, att);
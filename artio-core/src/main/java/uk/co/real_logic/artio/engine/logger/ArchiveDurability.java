@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+/**
+ * How the {@link Archiver} makes archived messages durable.
+ *
+ * In the modes that defer flushing messages to storage the archiver only reports a position as archived once it has
+ * been flushed, and flushes whenever the number of unflushed bytes reaches a maximum or an interval passes.
+ *
+ * @see uk.co.real_logic.artio.engine.EngineConfiguration#archiveDurability(ArchiveDurability)
+ */
+public enum ArchiveDurability
+{
+    /**
+     * Every block of messages is synchronously written through to storage before the archiver moves on.
+     * Archiver throughput is bounded by the latency of the storage device.
+     */
+    SYNCHRONOUS,
+
+    /**
+     * Blocks of messages are transferred into the term files and periodically flushed to storage in a batch.
+     */
+    PERIODIC,
+
+    /**
+     * Term files are memory mapped and blocks of messages are copied into them, leaving writing them out to the
+     * operating system up until they are periodically flushed.
+     */
+    MAPPED
+}
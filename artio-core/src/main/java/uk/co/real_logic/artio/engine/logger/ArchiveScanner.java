@@ -25,6 +25,7 @@ import uk.co.real_logic.artio.replication.StreamIdentifier;
 
 import java.io.File;
 import java.nio.ByteBuffer;
+import java.util.function.IntPredicate;
 
 /**
  * Support for enumerating/filtering/compressing archives.
@@ -43,10 +44,24 @@ public class ArchiveScanner
         final StreamIdentifier streamId,
         final FragmentHandler handler,
         final ErrorHandler errorHandler)
+    {
+        forEachFragment(streamId, handler, errorHandler, (aeronSessionId) -> true);
+    }
+
+    public void forEachFragment(
+        final StreamIdentifier streamId,
+        final FragmentHandler handler,
+        final ErrorHandler errorHandler,
+        final IntPredicate aeronSessionIdFilter)
     {
         final UnsafeBuffer termBuffer = new UnsafeBuffer(0, 0);
         for (final File logFile : directoryDescriptor.listLogFiles(streamId))
         {
+            if (!aeronSessionIdFilter.test(LogDirectoryDescriptor.computeSessionId(logFile)))
+            {
+                continue;
+            }
+
             final ByteBuffer byteBuffer = LoggerUtil.mapExistingFile(logFile);
             if (byteBuffer.capacity() > 0)
             {
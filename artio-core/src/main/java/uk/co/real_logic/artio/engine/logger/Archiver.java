@@ -21,11 +21,14 @@ import io.aeron.logbuffer.RawBlockHandler;
 import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
 import org.agrona.LangUtil;
 import org.agrona.collections.Int2ObjectCache;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.NanoClock;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
 import uk.co.real_logic.artio.engine.CompletionPosition;
 import uk.co.real_logic.artio.replication.ReservedValue;
@@ -35,13 +38,19 @@ import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.IntFunction;
 import java.util.zip.CRC32;
 
 import static io.aeron.driver.Configuration.TERM_BUFFER_LENGTH_DEFAULT;
 import static io.aeron.logbuffer.LogBufferDescriptor.computePosition;
 import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static uk.co.real_logic.artio.engine.logger.ArchiveDurability.MAPPED;
+import static uk.co.real_logic.artio.engine.logger.ArchiveDurability.SYNCHRONOUS;
 
 public class Archiver implements Agent, RawBlockHandler
 {
@@ -63,9 +72,19 @@ public class Archiver implements Agent, RawBlockHandler
     private final LogDirectoryDescriptor directoryDescriptor;
     private final CRC32 checksum = new CRC32();
     private final DataHeaderFlyweight header = new DataHeaderFlyweight();
+    private final List<SessionArchiver> unflushedSessions = new ArrayList<>();
 
     private ArchivedPositionHandler positionHandler = (aeronSessionId, endPosition, length) -> {};
 
+    private ArchiveDurability durability = SYNCHRONOUS;
+    private int maxUnflushedBytes;
+    private long flushIntervalInNs;
+    private NanoClock nanoClock;
+    private AtomicCounter unflushedBytesCounter;
+    private long totalUnflushedBytes;
+    private long nextFlushTimeInNs;
+    private TermFilePool termFilePool;
+
     private boolean isClosed = false;
     private Subscription subscription;
 
@@ -91,6 +110,49 @@ public class Archiver implements Agent, RawBlockHandler
         return this;
     }
 
+    /**
+     * Configure how archived messages are made durable, should be called before the archiver starts archiving.
+     * In any mode other than {@link ArchiveDurability#SYNCHRONOUS} the {@link ArchivedPositionHandler} and
+     * {@link #positionOf(int)} only see positions that have been flushed to storage.
+     *
+     * @param durability how archived messages are made durable.
+     * @param maxUnflushedBytes the number of unflushed bytes, across all Aeron sessions, that triggers a flush.
+     * @param flushIntervalInNs the maximum time that archived bytes can be left unflushed for.
+     * @param nanoClock the clock that the flush interval is measured with.
+     * @param unflushedBytesCounter a counter that is updated with the number of unflushed bytes.
+     * @return this
+     */
+    public Archiver durability(
+        final ArchiveDurability durability,
+        final int maxUnflushedBytes,
+        final long flushIntervalInNs,
+        final NanoClock nanoClock,
+        final AtomicCounter unflushedBytesCounter)
+    {
+        this.durability = durability;
+        this.maxUnflushedBytes = maxUnflushedBytes;
+        this.flushIntervalInNs = flushIntervalInNs;
+        this.nanoClock = nanoClock;
+        this.unflushedBytesCounter = unflushedBytesCounter;
+        return this;
+    }
+
+    /**
+     * Keep a pool of created and sized term files ready, so that rolling onto a new term renames a pooled file
+     * rather than creating one. Should be called before the archiver starts archiving.
+     *
+     * @param termFilePoolSize the number of term files to keep ready, 0 disables the pool.
+     * @param preTouch true to write through the whole of each pooled file when creating it.
+     * @return this
+     */
+    public Archiver termFilePool(final int termFilePoolSize, final boolean preTouch)
+    {
+        CloseHelper.close(termFilePool);
+        termFilePool = termFilePoolSize > 0 ?
+            new TermFilePool(directoryDescriptor, streamId, termFilePoolSize, preTouch) : null;
+        return this;
+    }
+
     public Archiver subscription(final Subscription subscription)
     {
         // Clear to ensure not holding references to old subscription objects
@@ -106,7 +168,39 @@ public class Archiver implements Agent, RawBlockHandler
             return 0;
         }
 
-        return (int)subscription.rawPoll(this, POLL_LENGTH);
+        return afterPoll((int)subscription.rawPoll(this, POLL_LENGTH));
+    }
+
+    private int afterPoll(final int bytesPolled)
+    {
+        final int work = bytesPolled + flushOnInterval();
+        if (work == 0 && termFilePool != null)
+        {
+            return termFilePool.topUp();
+        }
+
+        return work;
+    }
+
+    private int flushOnInterval()
+    {
+        if (totalUnflushedBytes > 0 && nanoClock.nanoTime() >= nextFlushTimeInNs)
+        {
+            flush();
+            return 1;
+        }
+
+        return 0;
+    }
+
+    private void flush()
+    {
+        final List<SessionArchiver> unflushedSessions = this.unflushedSessions;
+        for (int i = 0, size = unflushedSessions.size(); i < size; i++)
+        {
+            unflushedSessions.get(i).flush();
+        }
+        unflushedSessions.clear();
     }
 
     private SessionArchiver newSessionArchiver(final int sessionId)
@@ -120,6 +214,10 @@ public class Archiver implements Agent, RawBlockHandler
         final int initialTermId = image.initialTermId();
         final int termBufferLength = image.termBufferLength();
         metaData.write(streamId, sessionId, initialTermId, termBufferLength);
+        if (termFilePool != null)
+        {
+            termFilePool.termLength(termBufferLength);
+        }
         return new SessionArchiver(sessionId, image);
     }
 
@@ -174,8 +272,11 @@ public class Archiver implements Agent, RawBlockHandler
             quiesce();
 
             sessionIdToArchive.clear();
+            unflushedSessions.clear();
             metaData.close();
             CloseHelper.close(subscription);
+            CloseHelper.close(unflushedBytesCounter);
+            CloseHelper.close(termFilePool);
 
             isClosed = true;
         }
@@ -222,9 +323,16 @@ public class Archiver implements Agent, RawBlockHandler
         private final int positionBitsToShift;
         private final int initialTermId;
 
+        private final UnsafeBuffer currentMappedTermBuffer = new UnsafeBuffer(0, 0);
+
         private int currentTermId = UNKNOWN;
         private RandomAccessFile currentLogFile;
         private FileChannel currentLogChannel;
+        private MappedByteBuffer currentMappedTerm;
+
+        private long writtenPosition;
+        private long durablePosition;
+        private int unflushedBytes;
 
         protected SessionArchiver(final int sessionId, final Image image)
         {
@@ -233,11 +341,13 @@ public class Archiver implements Agent, RawBlockHandler
             termBufferLength = image.termBufferLength();
             positionBitsToShift = Integer.numberOfTrailingZeros(termBufferLength);
             initialTermId = image.initialTermId();
+            writtenPosition = image.position();
+            durablePosition = writtenPosition;
         }
 
         public int poll()
         {
-            return image.rawPoll(this, POLL_LENGTH);
+            return afterPoll(image.rawPoll(this, POLL_LENGTH));
         }
 
         public void onBlock(
@@ -257,30 +367,107 @@ public class Archiver implements Agent, RawBlockHandler
                     final File location = logFile(termId);
                     currentLogFile = openFile(location);
                     currentLogChannel = currentLogFile.getChannel();
+                    if (durability == MAPPED)
+                    {
+                        currentMappedTerm = currentLogChannel.map(READ_WRITE, 0, termBufferLength);
+                        currentMappedTermBuffer.wrap(currentMappedTerm);
+                    }
                     currentTermId = termId;
                 }
 
                 writeChecksumForBlock(termBuffer, termOffset, length);
 
-                final long transferred = fileChannel.transferTo(fileOffset, length, currentLogChannel);
                 final long endPosition = computePosition(
                     termId, termOffset + length, positionBitsToShift, initialTermId);
+                if (durability == MAPPED)
+                {
+                    currentMappedTermBuffer.putBytes(termOffset, termBuffer, termOffset, length);
+                    onWritten(endPosition, length);
+                }
+                else
+                {
+                    final long transferred = fileChannel.transferTo(fileOffset, length, currentLogChannel);
+                    onWritten(endPosition, length);
+
+                    if (transferred != length)
+                    {
+                        final File location = logFile(termId);
+                        throw new IllegalStateException(String.format(
+                            "Failed to transfer %d bytes to %s, only transferred %d bytes",
+                            length,
+                            location,
+                            transferred));
+                    }
+                }
+            }
+            catch (final IOException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+        }
+
+        private void onWritten(final long endPosition, final int length)
+        {
+            if (durability == SYNCHRONOUS)
+            {
                 positionHandler.onArchivedPosition(sessionId, endPosition, length);
+                return;
+            }
 
-                if (transferred != length)
+            writtenPosition = endPosition;
+            if (unflushedBytes == 0)
+            {
+                unflushedSessions.add(this);
+            }
+            unflushedBytes += length;
+
+            if (totalUnflushedBytes == 0)
+            {
+                nextFlushTimeInNs = nanoClock.nanoTime() + flushIntervalInNs;
+            }
+            totalUnflushedBytes += length;
+
+            if (totalUnflushedBytes >= maxUnflushedBytes)
+            {
+                Archiver.this.flush();
+            }
+            else
+            {
+                unflushedBytesCounter.setOrdered(totalUnflushedBytes);
+            }
+        }
+
+        void flush()
+        {
+            if (unflushedBytes == 0)
+            {
+                return;
+            }
+
+            try
+            {
+                if (currentMappedTerm != null)
                 {
-                    final File location = logFile(termId);
-                    throw new IllegalStateException(String.format(
-                        "Failed to transfer %d bytes to %s, only transferred %d bytes",
-                        length,
-                        location,
-                        transferred));
+                    currentMappedTerm.force();
+                }
+                else
+                {
+                    currentLogChannel.force(false);
                 }
             }
             catch (final IOException ex)
             {
                 LangUtil.rethrowUnchecked(ex);
             }
+
+            totalUnflushedBytes -= unflushedBytes;
+            unflushedBytesCounter.setOrdered(totalUnflushedBytes);
+            unflushedBytes = 0;
+
+            final long previousDurablePosition = durablePosition;
+            durablePosition = writtenPosition;
+            positionHandler.onArchivedPosition(
+                sessionId, durablePosition, (int)(durablePosition - previousDurablePosition));
         }
 
         private void writeChecksumForBlock(final UnsafeBuffer termBuffer, final int termOffset, final int length)
@@ -328,7 +515,7 @@ public class Archiver implements Agent, RawBlockHandler
 
         public long archivedPosition()
         {
-            return image.position();
+            return durability == SYNCHRONOUS ? image.position() : durablePosition;
         }
 
         public boolean patch(
@@ -373,6 +560,10 @@ public class Archiver implements Agent, RawBlockHandler
 
                 writeToFile(
                     bodyBuffer, readOffset, bodyLength, termWriteOffset, patchTermLogChannel, patchTermLogFile);
+                if (durability != SYNCHRONOUS)
+                {
+                    patchTermLogChannel.force(false);
+                }
 
                 close(patchTermLogChannel);
 
@@ -387,12 +578,23 @@ public class Archiver implements Agent, RawBlockHandler
 
         public void close()
         {
+            flush();
+            if (currentMappedTerm != null)
+            {
+                IoUtil.unmap(currentMappedTerm);
+                currentMappedTerm = null;
+            }
             CloseHelper.close(currentLogChannel);
         }
 
         private RandomAccessFile openFile(final File location) throws IOException
         {
-            final RandomAccessFile file = new RandomAccessFile(location, "rwd");
+            if (termFilePool != null && !location.exists())
+            {
+                termFilePool.claim(location, termBufferLength);
+            }
+
+            final RandomAccessFile file = new RandomAccessFile(location, durability == SYNCHRONOUS ? "rwd" : "rw");
             file.setLength(termBufferLength);
             return file;
         }
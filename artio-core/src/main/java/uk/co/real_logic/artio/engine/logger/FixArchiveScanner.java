@@ -15,6 +15,7 @@
  */
 package uk.co.real_logic.artio.engine.logger;
 
+import io.aeron.logbuffer.ControlledFragmentHandler;
 import io.aeron.logbuffer.FragmentHandler;
 import io.aeron.logbuffer.Header;
 import org.agrona.DirectBuffer;
@@ -23,9 +24,15 @@ import uk.co.real_logic.artio.messages.FixMessageDecoder;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.replication.StreamIdentifier;
 
+import java.io.File;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 import static uk.co.real_logic.artio.GatewayProcess.INBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.engine.logger.FixArchiveScanner.MessageType.SENT;
+import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.between;
+import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.filterBy;
+import static uk.co.real_logic.artio.replication.ReservedValue.NO_FILTER;
 
 /**
  * Scan the archive for fix messages. Can be combined with predicates to create rich queries.
@@ -36,10 +43,19 @@ import static uk.co.real_logic.artio.engine.logger.FixArchiveScanner.MessageType
  */
 public class FixArchiveScanner
 {
+    private static final int CACHE_NUM_SETS = 8;
+    private static final int CACHE_SET_SIZE = 4;
+
     private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
     private final FixMessageDecoder fixMessage = new FixMessageDecoder();
     private final LogEntryHandler logEntryHandler = new LogEntryHandler();
+    private final ControlledFragmentHandler controlledLogEntryHandler = (buffer, offset, length, header) ->
+    {
+        logEntryHandler.onFragment(buffer, offset, length, header);
+        return CONTINUE;
+    };
 
+    private final String logFileDir;
     private final ArchiveScanner archiveScanner;
 
     private FixMessageConsumer handler;
@@ -55,6 +71,7 @@ public class FixArchiveScanner
 
     public FixArchiveScanner(final String logFileDir)
     {
+        this.logFileDir = logFileDir;
         archiveScanner = new ArchiveScanner(logFileDir);
     }
 
@@ -65,9 +82,66 @@ public class FixArchiveScanner
         final ErrorHandler errorHandler)
     {
         this.handler = handler;
-        final StreamIdentifier id = new StreamIdentifier(
+        archiveScanner.forEachFragment(streamId(aeronChannel, messageType), logEntryHandler, errorHandler);
+    }
+
+    /**
+     * Scan the archive for the fix messages with a timestamp in a range. If the engine wrote a time index for the
+     * stream then only the parts of the archive that can hold messages in the range are read, otherwise the whole
+     * archive is scanned.
+     *
+     * @param aeronChannel the channel that the engine archived messages from.
+     * @param messageType whether to scan sent or received messages.
+     * @param handler the consumer of the messages in the range.
+     * @param errorHandler the handler of errors encountered whilst reading the archive.
+     * @param beginTimestampInclusive the earliest timestamp of a message to pass to the handler.
+     * @param endTimestampExclusive the timestamp after the latest message to pass to the handler.
+     * @see FixMessagePredicates#between(long, long)
+     */
+    public void scan(
+        final String aeronChannel,
+        final MessageType messageType,
+        final FixMessageConsumer handler,
+        final ErrorHandler errorHandler,
+        final long beginTimestampInclusive,
+        final long endTimestampExclusive)
+    {
+        final FixMessageConsumer rangeHandler = filterBy(
+            handler, between(beginTimestampInclusive, endTimestampExclusive));
+        final StreamIdentifier id = streamId(aeronChannel, messageType);
+        final File timeIndexFile = TimeIndexDescriptor.timeIndexFile(logFileDir, id.streamId());
+        if (!timeIndexFile.exists())
+        {
+            scan(aeronChannel, messageType, rangeHandler, errorHandler);
+            return;
+        }
+
+        this.handler = rangeHandler;
+        final TimeIndexReader timeIndex = new TimeIndexReader(
+            timeIndexFile, beginTimestampInclusive, endTimestampExclusive);
+        try (ArchiveReader archiveReader = new ArchiveReader(
+            LoggerUtil.newArchiveMetaData(logFileDir), CACHE_NUM_SETS, CACHE_SET_SIZE, id, NO_FILTER))
+        {
+            timeIndex.forEachRange((aeronSessionId, beginPosition, endPosition) ->
+            {
+                final long position = archiveReader.readUpTo(
+                    aeronSessionId, beginPosition, endPosition, controlledLogEntryHandler);
+                if (position == ArchiveReader.CORRUPT_LOG)
+                {
+                    errorHandler.onError(new IllegalStateException(
+                        "Corrupt archive for aeronSessionId=" + aeronSessionId + " after " + beginPosition));
+                }
+            });
+        }
+
+        archiveScanner.forEachFragment(
+            id, logEntryHandler, errorHandler, (aeronSessionId) -> !timeIndex.canSeek(aeronSessionId));
+    }
+
+    static StreamIdentifier streamId(final String aeronChannel, final MessageType messageType)
+    {
+        return new StreamIdentifier(
             aeronChannel, messageType == SENT ? OUTBOUND_LIBRARY_STREAM : INBOUND_LIBRARY_STREAM);
-        archiveScanner.forEachFragment(id, logEntryHandler, errorHandler);
     }
 
     class LogEntryHandler implements FragmentHandler
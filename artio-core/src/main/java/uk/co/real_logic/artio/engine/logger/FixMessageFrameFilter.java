@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.DirectBuffer;
+import org.agrona.collections.IntHashSet;
+import uk.co.real_logic.artio.dictionary.generation.GenerationUtil;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * Filters archived fix messages by the fixed length fields of their FixMessage frame: the session, the message type
+ * and the timestamp. The fields are read straight out of the archived frame, before any decoder is wrapped over it
+ * or any of the FIX body is parsed.
+ *
+ * Once configured a filter can be shared between the threads of a {@link ParallelFixArchiveScanner}, it mustn't be
+ * modified whilst a scan is using it.
+ *
+ * @see FixMessagePredicates for filters that can look into the FIX body.
+ */
+public final class FixMessageFrameFilter
+{
+    private static final int TEMPLATE_ID_OFFSET = MessageHeaderDecoder.templateIdEncodingOffset();
+    private static final int SESSION_OFFSET =
+        MessageHeaderDecoder.ENCODED_LENGTH + FixMessageDecoder.sessionEncodingOffset();
+    private static final int MESSAGE_TYPE_OFFSET =
+        MessageHeaderDecoder.ENCODED_LENGTH + FixMessageDecoder.messageTypeEncodingOffset();
+    private static final int TIMESTAMP_OFFSET =
+        MessageHeaderDecoder.ENCODED_LENGTH + FixMessageDecoder.timestampEncodingOffset();
+
+    private boolean filterSession = false;
+    private long sessionId;
+    private IntHashSet messageTypes;
+    private long beginTimestampInclusive = Long.MIN_VALUE;
+    private long endTimestampExclusive = Long.MAX_VALUE;
+
+    /**
+     * Only pass messages whose assigned session id field is equal to the given parameter.
+     *
+     * @param sessionId the surrogate session id key.
+     * @return this
+     */
+    public FixMessageFrameFilter sessionId(final long sessionId)
+    {
+        this.filterSession = true;
+        this.sessionId = sessionId;
+        return this;
+    }
+
+    /**
+     * Only pass messages of one of these fix message types.
+     *
+     * @param messageTypes the fix message type strings that you see in the message.
+     * @return this
+     */
+    public FixMessageFrameFilter messageTypes(final String... messageTypes)
+    {
+        return messageTypes(Stream.of(messageTypes).mapToInt(GenerationUtil::packMessageType).toArray());
+    }
+
+    /**
+     * Only pass messages of one of these fix message types.
+     *
+     * @param messageTypes the fix message types encoded as packed ints.
+     * @return this
+     */
+    public FixMessageFrameFilter messageTypes(final int... messageTypes)
+    {
+        final IntHashSet hashSet = new IntHashSet();
+        IntStream.of(messageTypes).forEach(hashSet::add);
+        this.messageTypes = hashSet;
+        return this;
+    }
+
+    /**
+     * Only pass messages whose timestamp is between these begin and end times.
+     *
+     * @param beginTimestampInclusive the earliest timestamp of a message to pass.
+     * @param endTimestampExclusive the timestamp after the latest message to pass.
+     * @return this
+     */
+    public FixMessageFrameFilter between(final long beginTimestampInclusive, final long endTimestampExclusive)
+    {
+        this.beginTimestampInclusive = beginTimestampInclusive;
+        this.endTimestampExclusive = endTimestampExclusive;
+        return this;
+    }
+
+    /**
+     * Test an archived fragment.
+     *
+     * @param buffer the buffer containing the fragment.
+     * @param offset the offset of the message header of the fragment within the buffer.
+     * @return true if the fragment is a FixMessage that passes the filter, false otherwise.
+     */
+    public boolean test(final DirectBuffer buffer, final int offset)
+    {
+        if ((buffer.getShort(offset + TEMPLATE_ID_OFFSET, LITTLE_ENDIAN) & 0xFFFF) != FixMessageDecoder.TEMPLATE_ID)
+        {
+            return false;
+        }
+
+        if (filterSession && buffer.getLong(offset + SESSION_OFFSET, LITTLE_ENDIAN) != sessionId)
+        {
+            return false;
+        }
+
+        if (messageTypes != null && !messageTypes.contains(buffer.getInt(offset + MESSAGE_TYPE_OFFSET, LITTLE_ENDIAN)))
+        {
+            return false;
+        }
+
+        final long timestamp = buffer.getLong(offset + TIMESTAMP_OFFSET, LITTLE_ENDIAN);
+        return timestamp >= beginTimestampInclusive && timestamp < endTimestampExclusive;
+    }
+}
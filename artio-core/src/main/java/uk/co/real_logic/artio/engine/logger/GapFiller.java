@@ -89,7 +89,7 @@ public class GapFiller implements ProtocolHandler, Agent
             final long sentPosition = publication.saveMessage(
                 encoder.buffer(), encodedOffset, encodedLength,
                 libraryId, SequenceResetDecoder.MESSAGE_TYPE, sessionId, sequenceIndex, connectionId,
-                MessageStatus.OK);
+                MessageStatus.OK, beginSeqNo);
 
             if (Pressure.isBackPressured(sentPosition))
             {
@@ -19,6 +19,7 @@ import org.agrona.ErrorHandler;
 import org.agrona.collections.Int2IntHashMap;
 import org.agrona.concurrent.AtomicBuffer;
 import uk.co.real_logic.artio.engine.ChecksumFramer;
+import uk.co.real_logic.artio.engine.SectorFramer;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
 import uk.co.real_logic.artio.storage.messages.IndexedPositionDecoder;
@@ -83,7 +84,14 @@ class IndexedPositionWriter
         }
     }
 
-    void indexedUpTo(final int aeronSessionId, final long position)
+    /**
+     * Record the position that an aeron session has been indexed up to.
+     *
+     * @param aeronSessionId the aeron session that has been indexed.
+     * @param position the position that it has been indexed up to.
+     * @return the offset of the record that was written or {@link SectorFramer#OUT_OF_SPACE}.
+     */
+    int indexedUpTo(final int aeronSessionId, final long position)
     {
         final Int2IntHashMap recordOffsets = this.recordOffsets;
 
@@ -99,12 +107,12 @@ class IndexedPositionWriter
             while (true)
             {
                 offset = checksumFramer.claim(offset, RECORD_LENGTH);
-                if (position == OUT_OF_SPACE)
+                if (offset == OUT_OF_SPACE)
                 {
                     errorHandler.onError(new IllegalStateException(String.format(
                         "Unable to record new session (%d), indexed position buffer full",
                         aeronSessionId)));
-                    return;
+                    return OUT_OF_SPACE;
                 }
 
                 decoder.wrap(buffer, offset, actingBlockLength, actingVersion);
@@ -115,7 +123,7 @@ class IndexedPositionWriter
 
                     recordOffsets.put(aeronSessionId, offset);
                     putPosition(position, buffer, offset);
-                    return;
+                    return offset;
                 }
 
                 offset += RECORD_LENGTH;
@@ -124,6 +132,7 @@ class IndexedPositionWriter
         else
         {
             putPosition(position, buffer, offset);
+            return offset;
         }
     }
 
@@ -134,7 +143,7 @@ class IndexedPositionWriter
 
     void updateChecksums()
     {
-        checksumFramer.updateChecksums();
+        checksumFramer.updateDirtyChecksums();
     }
 
     AtomicBuffer buffer()
@@ -145,5 +154,6 @@ class IndexedPositionWriter
     private void putPosition(final long position, final AtomicBuffer buffer, final int offset)
     {
         buffer.putLongVolatile(offset + POSITION_OFFSET, position);
+        checksumFramer.markDirty(offset);
     }
 }
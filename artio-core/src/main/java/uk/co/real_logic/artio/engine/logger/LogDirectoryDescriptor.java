@@ -19,6 +19,7 @@ import uk.co.real_logic.artio.replication.StreamIdentifier;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class LogDirectoryDescriptor
@@ -28,12 +29,14 @@ public class LogDirectoryDescriptor
     private final String logFileDir;
     private final String logFileFormat;
     private final String metaDataLogFileFormat;
+    private final String pooledTermFileFormat;
 
     public LogDirectoryDescriptor(final String logFileDir)
     {
         this.logFileDir = logFileDir;
         logFileFormat = logFileDir + File.separator + "archive_%s_%d_%d_%d.log";
         metaDataLogFileFormat = logFileDir + File.separator + "meta-data_%s_%d_%d.log";
+        pooledTermFileFormat = logFileDir + File.separator + "pooled-term_%s_%d_%d.tmp";
     }
 
     public File logFile(final StreamIdentifier stream, final int sessionId, final int termId)
@@ -46,6 +49,20 @@ public class LogDirectoryDescriptor
         return new File(String.format(metaDataLogFileFormat, stream.canonicalForm(), stream.streamId(), sessionId));
     }
 
+    public File pooledTermFile(final StreamIdentifier stream, final int poolFileId)
+    {
+        return new File(String.format(
+            pooledTermFileFormat, stream.canonicalForm(), stream.streamId(), poolFileId));
+    }
+
+    public List<File> listPooledTermFiles(final StreamIdentifier stream)
+    {
+        final String prefix = String.format("pooled-term_%s_%d_", stream.canonicalForm(), stream.streamId());
+        final File logFileDir = new File(this.logFileDir);
+        final File[] files = logFileDir.listFiles(file -> file.getName().startsWith(prefix));
+        return files == null ? Collections.emptyList() : Arrays.asList(files);
+    }
+
     public List<File> listLogFiles(final StreamIdentifier stream)
     {
         final String prefix = String.format("archive_%s_%d", stream.canonicalForm(), stream.streamId());
@@ -53,10 +70,19 @@ public class LogDirectoryDescriptor
         return Arrays.asList(logFileDir.listFiles(file -> file.getName().startsWith(prefix)));
     }
 
+    public static int computeSessionId(final File logFile)
+    {
+        final String logFileName = logFile.getName();
+        final int endOfSessionId = logFileName.lastIndexOf('_');
+        final int startOfSessionId = logFileName.lastIndexOf('_', endOfSessionId - 1) + 1;
+
+        return Integer.parseInt(logFileName.substring(startOfSessionId, endOfSessionId));
+    }
+
     public static int computeTermId(final File logFile)
     {
         final String logFileName = logFile.getName();
-        final int startOfTermId = logFileName.lastIndexOf('-');
+        final int startOfTermId = logFileName.lastIndexOf('_') + 1;
         final int endOfTermId = logFileName.length() - EXTENSION_LENGTH;
 
         return Integer.parseInt(logFileName.substring(startOfTermId, endOfTermId));
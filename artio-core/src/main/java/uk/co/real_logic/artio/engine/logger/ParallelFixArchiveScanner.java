@@ -0,0 +1,289 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import io.aeron.logbuffer.LogBufferDescriptor;
+import io.aeron.logbuffer.TermReader;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.IoUtil;
+import org.agrona.collections.IntArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.engine.logger.FixArchiveScanner.MessageType;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+
+/**
+ * Scan the archive for fix messages, scanning different term files on different threads of a fork/join pool.
+ *
+ * Messages are tested against a {@link FixMessageFrameFilter} on the scanning threads, and only the ones that pass
+ * are copied out of the archive. The {@link FixMessageConsumer} is always invoked on the thread that calls
+ * {@link #scan(String, MessageType, FixMessageFrameFilter, FixMessageConsumer, ErrorHandler, boolean)}, so it
+ * doesn't need to be thread safe, and can be combined with {@link FixMessagePredicates} to filter on the FIX body.
+ *
+ * The number of term files being scanned or waiting to be consumed at any one time is bounded by twice the pool's
+ * parallelism, so the memory used holding matching messages depends upon how selective the filter is.
+ *
+ * The {@link Header} passed to the consumer gives the term id, term offset and position that the message had in the
+ * archive, as it does for {@link FixArchiveScanner}, although its buffer is a copy of the matching frames.
+ *
+ * @see FixArchiveScanner for scanning on a single thread.
+ */
+public class ParallelFixArchiveScanner
+{
+    // Term ids wrap, so they're ordered by the sign of their difference rather than by their value.
+    private static final Comparator<File> POSITION_ORDER = Comparator
+        .comparingInt(LogDirectoryDescriptor::computeSessionId)
+        .thenComparing((left, right) ->
+            Integer.signum(LogDirectoryDescriptor.computeTermId(left) - LogDirectoryDescriptor.computeTermId(right)));
+
+    private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+    private final FixMessageDecoder fixMessage = new FixMessageDecoder();
+
+    private final LogDirectoryDescriptor directoryDescriptor;
+    private final ForkJoinPool pool;
+    private final int maxTermFilesInFlight;
+
+    public ParallelFixArchiveScanner(final String logFileDir)
+    {
+        this(logFileDir, ForkJoinPool.commonPool());
+    }
+
+    public ParallelFixArchiveScanner(final String logFileDir, final ForkJoinPool pool)
+    {
+        this.directoryDescriptor = new LogDirectoryDescriptor(logFileDir);
+        this.pool = pool;
+        this.maxTermFilesInFlight = pool.getParallelism() * 2;
+    }
+
+    /**
+     * Scan the archive for the fix messages that pass a filter.
+     *
+     * @param aeronChannel the channel that the engine archived messages from.
+     * @param messageType whether to scan sent or received messages.
+     * @param filter the filter applied to messages on the scanning threads.
+     * @param handler the consumer of the messages that pass the filter.
+     * @param errorHandler the handler of errors encountered whilst reading the archive.
+     * @param inPositionOrder true to consume the messages of each Aeron session in the order of their position in
+     *                        the archive, false to consume the messages of each term file as soon as it has been
+     *                        scanned. Messages from the same term file are always consumed in position order.
+     *
+     * If the calling thread is interrupted, or the pool stops accepting scans, then the scan stops, the term files
+     * still being scanned are cancelled and the error handler is passed the exception.
+     */
+    public void scan(
+        final String aeronChannel,
+        final MessageType messageType,
+        final FixMessageFrameFilter filter,
+        final FixMessageConsumer handler,
+        final ErrorHandler errorHandler,
+        final boolean inPositionOrder)
+    {
+        final List<File> logFiles = new ArrayList<>(
+            directoryDescriptor.listLogFiles(FixArchiveScanner.streamId(aeronChannel, messageType)));
+        if (inPositionOrder)
+        {
+            logFiles.sort(POSITION_ORDER);
+        }
+
+        final ExecutorCompletionService<TermFileScan> completionService = new ExecutorCompletionService<>(pool);
+        final ArrayDeque<Future<TermFileScan>> inFlight = new ArrayDeque<>();
+        int nextLogFile = 0;
+        try
+        {
+            while (nextLogFile < logFiles.size() || !inFlight.isEmpty())
+            {
+                while (nextLogFile < logFiles.size() && inFlight.size() < maxTermFilesInFlight)
+                {
+                    final TermFileScan termFileScan = new TermFileScan(logFiles.get(nextLogFile++), filter);
+                    inFlight.add(inPositionOrder ? pool.submit(termFileScan) : completionService.submit(termFileScan));
+                }
+
+                final Future<TermFileScan> scanned;
+                if (inPositionOrder)
+                {
+                    scanned = inFlight.remove();
+                }
+                else
+                {
+                    scanned = completionService.take();
+                    inFlight.remove(scanned);
+                }
+
+                onScanned(scanned, handler, errorHandler);
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            inFlight.forEach((future) -> future.cancel(true));
+            errorHandler.onError(e);
+        }
+        catch (final RejectedExecutionException e)
+        {
+            inFlight.forEach((future) -> future.cancel(true));
+            errorHandler.onError(e);
+        }
+    }
+
+    private void onScanned(
+        final Future<TermFileScan> scanned, final FixMessageConsumer handler, final ErrorHandler errorHandler)
+        throws InterruptedException
+    {
+        final TermFileScan termFileScan;
+        try
+        {
+            termFileScan = scanned.get();
+        }
+        catch (final ExecutionException e)
+        {
+            errorHandler.onError(e.getCause());
+            return;
+        }
+        catch (final CancellationException e)
+        {
+            errorHandler.onError(e);
+            return;
+        }
+
+        termFileScan.errors.forEach(errorHandler::onError);
+
+        final ArchivedFrameHeader header = termFileScan.matchHeader;
+        final ExpandableArrayBuffer matches = termFileScan.matches;
+        final IntArrayList termOffsets = termFileScan.termOffsets;
+        final int matchCount = termOffsets.size();
+        int frameOffset = 0;
+        for (int i = 0; i < matchCount; i++)
+        {
+            header.buffer(matches);
+            header.offset(frameOffset);
+            header.termOffset(termOffsets.getInt(i));
+            final int frameLength = header.frameLength();
+
+            final int messageOffset = frameOffset + HEADER_LENGTH;
+            messageHeader.wrap(matches, messageOffset);
+            final int offset = messageOffset + MessageHeaderDecoder.ENCODED_LENGTH;
+            fixMessage.wrap(matches, offset, messageHeader.blockLength(), messageHeader.version());
+
+            handler.onMessage(fixMessage, matches, offset, frameLength - HEADER_LENGTH, header);
+
+            frameOffset += BitUtil.align(frameLength, FRAME_ALIGNMENT);
+        }
+    }
+
+    private static final class TermFileScan implements Callable<TermFileScan>, FragmentHandler
+    {
+        private final List<Throwable> errors = new ArrayList<>();
+        private final ExpandableArrayBuffer matches = new ExpandableArrayBuffer();
+        private final IntArrayList termOffsets = new IntArrayList();
+        private final File logFile;
+        private final FixMessageFrameFilter filter;
+
+        private ArchivedFrameHeader matchHeader;
+        private int matchesLength;
+
+        TermFileScan(final File logFile, final FixMessageFrameFilter filter)
+        {
+            this.logFile = logFile;
+            this.filter = filter;
+        }
+
+        public TermFileScan call()
+        {
+            final MappedByteBuffer byteBuffer = LoggerUtil.mapExistingFile(logFile);
+            try
+            {
+                if (byteBuffer.capacity() > 0)
+                {
+                    final UnsafeBuffer termBuffer = new UnsafeBuffer(byteBuffer);
+                    final int initialTermId = LogBufferDescriptor.initialTermId(termBuffer);
+                    final Header header = new Header(initialTermId, termBuffer.capacity());
+                    matchHeader = new ArchivedFrameHeader(initialTermId, termBuffer.capacity());
+                    TermReader.read(
+                        termBuffer,
+                        0,
+                        this,
+                        Integer.MAX_VALUE,
+                        header,
+                        errors::add);
+                }
+            }
+            finally
+            {
+                IoUtil.unmap(byteBuffer);
+            }
+
+            return this;
+        }
+
+        public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+            if (filter.test(buffer, offset))
+            {
+                final int frameLength = length + HEADER_LENGTH;
+                matches.putBytes(matchesLength, buffer, header.offset(), frameLength);
+                matchesLength += BitUtil.align(frameLength, FRAME_ALIGNMENT);
+                termOffsets.addInt(header.termOffset());
+            }
+        }
+    }
+
+    /**
+     * A header over a frame that has been copied out of the archive, which reports the frame's term offset in the
+     * archive rather than its offset within the copy. The term id is read from the copied frame itself, so the
+     * position is also the one that the frame had in the archive.
+     */
+    private static final class ArchivedFrameHeader extends Header
+    {
+        private int termOffset;
+
+        ArchivedFrameHeader(final int initialTermId, final int termLength)
+        {
+            super(initialTermId, termLength);
+        }
+
+        void termOffset(final int termOffset)
+        {
+            this.termOffset = termOffset;
+        }
+
+        public int termOffset()
+        {
+            return termOffset;
+        }
+    }
+}
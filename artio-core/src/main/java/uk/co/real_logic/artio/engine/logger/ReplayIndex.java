@@ -51,6 +51,10 @@ import static uk.co.real_logic.artio.messages.MessageStatus.OK;
  * Head position counter
  * Tail position counter
  * Multiple ReplayIndexRecord entries
+ *
+ * Each record stores the position of the start of the run of records, sorted by sequence index and sequence
+ * number, that it belongs to. This lets {@link ReplayQuery} binary search each run rather than scanning the
+ * whole buffer.
  */
 public class ReplayIndex implements Index
 {
@@ -71,6 +75,9 @@ public class ReplayIndex implements Index
     private final int indexFileSize;
     private final BufferFactory bufferFactory;
     private final AtomicBuffer positionBuffer;
+    private final int checksumFlushInterval;
+
+    private int recordsSinceChecksumFlush;
 
     public ReplayIndex(
         final String logFileDir,
@@ -80,6 +87,7 @@ public class ReplayIndex implements Index
         final int cacheSetSize,
         final BufferFactory bufferFactory,
         final AtomicBuffer positionBuffer,
+        final int checksumFlushInterval,
         final ErrorHandler errorHandler)
     {
         this.logFileDir = logFileDir;
@@ -88,6 +96,7 @@ public class ReplayIndex implements Index
         checkIndexFileSize(indexFileSize);
         this.bufferFactory = bufferFactory;
         this.positionBuffer = positionBuffer;
+        this.checksumFlushInterval = checksumFlushInterval;
         fixSessionIdToIndex = new Long2ObjectCache<>(cacheNumSets, cacheSetSize, SessionIndex::close);
         final String replayPositionPath = replayPositionPath(logFileDir, requiredStreamId);
         positionWriter = new IndexedPositionWriter(
@@ -120,13 +129,17 @@ public class ReplayIndex implements Index
             {
                 offset += actingBlockLength + 2;
 
-                asciiBuffer.wrap(srcBuffer);
-                fixHeader.decode(asciiBuffer, offset, messageFrame.bodyLength());
+                int sequenceNumber = messageFrame.msgSeqNum();
+                if (sequenceNumber == FixMessageDecoder.msgSeqNumNullValue())
+                {
+                    asciiBuffer.wrap(srcBuffer);
+                    fixHeader.decode(asciiBuffer, offset, messageFrame.bodyLength());
+                    sequenceNumber = fixHeader.msgSeqNum();
+                }
 
                 final int alignedLength = BitUtil.align(srcLength, FrameDescriptor.FRAME_ALIGNMENT);
                 final long beginPosition = endPosition - alignedLength;
 
-                final int sequenceNumber = fixHeader.msgSeqNum();
                 final int sequenceIndex = messageFrame.sequenceIndex();
                 final long fixSessionId = messageFrame.session();
 
@@ -155,6 +168,11 @@ public class ReplayIndex implements Index
         private final AtomicBuffer buffer;
         private final int capacity;
 
+        private boolean hasLastRecord = false;
+        private int lastSequenceNumber;
+        private int lastSequenceIndex;
+        private long runStartPosition;
+
         private SessionIndex(final long fixSessionId)
         {
             final File logFile = logFile(logFileDir, fixSessionId, requiredStreamId);
@@ -174,10 +192,9 @@ public class ReplayIndex implements Index
             }
             else
             {
-                // Reset the positions in order to avoid wraps at the start.
-                final int resetPosition = offset(beginChange(buffer), capacity);
-                beginChangeOrdered(buffer, resetPosition);
-                endChangeOrdered(buffer, resetPosition);
+                // Roll back any record that was claimed but not committed before a restart. Positions are
+                // otherwise left alone so that the run start positions of existing records remain valid.
+                beginChangeOrdered(buffer, endChangeVolatile(buffer));
             }
         }
 
@@ -197,16 +214,32 @@ public class ReplayIndex implements Index
 
             final int offset = offset(beginChangePosition, capacity);
 
+            // Out of order records, for example possdup messages received in response to a resend request,
+            // start a new run.
+            if (!hasLastRecord || sequenceIndex < lastSequenceIndex ||
+                (sequenceIndex == lastSequenceIndex && sequenceNumber < lastSequenceNumber))
+            {
+                runStartPosition = beginChangePosition;
+                hasLastRecord = true;
+            }
+            lastSequenceIndex = sequenceIndex;
+            lastSequenceNumber = sequenceNumber;
+
             replayIndexRecord
                 .wrap(buffer, offset)
                 .streamId(streamId)
                 .aeronSessionId(aeronSessionId)
                 .position(beginPosition)
                 .sequenceNumber(sequenceNumber)
-                .sequenceIndex(sequenceIndex);
+                .sequenceIndex(sequenceIndex)
+                .runStartPosition(runStartPosition);
 
             positionWriter.indexedUpTo(aeronSessionId, endPosition);
-            positionWriter.updateChecksums();
+            if (++recordsSinceChecksumFlush >= checksumFlushInterval)
+            {
+                positionWriter.updateChecksums();
+                recordsSinceChecksumFlush = 0;
+            }
 
             endChangeOrdered(buffer, changePosition);
         }
@@ -99,6 +99,10 @@ public class ReplayQuery implements AutoCloseable
         private final UnsafeBuffer buffer;
         private final int capacity;
 
+        private int recordSequenceIndex;
+        private int recordSequenceNumber;
+        private long recordRunStartPosition;
+
         private SessionQuery(final long sessionId)
         {
             wrappedBuffer = indexBufferFactory.map(logFile(logFileDir, sessionId, requiredStreamId));
@@ -126,12 +130,20 @@ public class ReplayQuery implements AutoCloseable
 
             // positions on a monotonically increasing scale
             long iteratorPosition = beginChangeVolatile(buffer);
+            long oldestPosition = 0;
             // First iteration around you need to start at 0
             if (iteratorPosition < capacity)
             {
                 iteratorPosition = 0;
             }
+            else
+            {
+                oldestPosition = iteratorPosition - capacity;
+            }
             long stopIteratingPosition = iteratorPosition + capacity;
+            iteratorPosition += seek(
+                oldestPosition, actingBlockLength, actingVersion, beginSequenceNumber, beginSequenceIndex) -
+                oldestPosition;
 
             while (iteratorPosition != stopIteratingPosition)
             {
@@ -203,6 +215,89 @@ public class ReplayQuery implements AutoCloseable
             return count;
         }
 
+        /**
+         * Find the position of the first record that can be in the query's range. Each run of records sorted by
+         * sequence is binary searched, walking back from the most recent run, so out of order records that are
+         * earlier in the buffer are still found.
+         *
+         * @return the position to start scanning from, or oldestPosition if the index can't be searched.
+         */
+        private long seek(
+            final long oldestPosition,
+            final int actingBlockLength,
+            final int actingVersion,
+            final int beginSequenceNumber,
+            final int beginSequenceIndex)
+        {
+            // Files written before run start positions were recorded have to be scanned.
+            if (actingVersion < ReplayIndexRecordDecoder.runStartPositionSinceVersion())
+            {
+                return oldestPosition;
+            }
+
+            final long endPosition = endChangeVolatile(buffer);
+            long startPosition = endPosition;
+            long runEndPosition = endPosition;
+            while (runEndPosition > oldestPosition)
+            {
+                final long lastRecordPosition = runEndPosition - RECORD_LENGTH;
+                if (!readRecord(lastRecordPosition, actingBlockLength, actingVersion))
+                {
+                    return oldestPosition;
+                }
+
+                final long runStartPosition = Math.max(oldestPosition, recordRunStartPosition);
+                if (runStartPosition > lastRecordPosition ||
+                    (lastRecordPosition - runStartPosition) % RECORD_LENGTH != 0)
+                {
+                    return oldestPosition;
+                }
+
+                long low = runStartPosition;
+                long high = runEndPosition;
+                while (low < high)
+                {
+                    final long middle = low + (((high - low) / RECORD_LENGTH) >> 1) * RECORD_LENGTH;
+                    if (!readRecord(middle, actingBlockLength, actingVersion))
+                    {
+                        return oldestPosition;
+                    }
+
+                    if (recordSequenceIndex < beginSequenceIndex ||
+                        (recordSequenceIndex == beginSequenceIndex && recordSequenceNumber < beginSequenceNumber))
+                    {
+                        low = middle + RECORD_LENGTH;
+                    }
+                    else
+                    {
+                        high = middle;
+                    }
+                }
+
+                if (low < runEndPosition)
+                {
+                    startPosition = low;
+                }
+
+                runEndPosition = runStartPosition;
+            }
+
+            return startPosition;
+        }
+
+        // returns false if the writer has lapped the record, making it invalid
+        private boolean readRecord(final long position, final int actingBlockLength, final int actingVersion)
+        {
+            indexRecord.wrap(buffer, offset(position, capacity), actingBlockLength, actingVersion);
+            recordSequenceIndex = indexRecord.sequenceIndex();
+            recordSequenceNumber = indexRecord.sequenceNumber();
+            recordRunStartPosition = indexRecord.runStartPosition();
+
+            UNSAFE.loadFence(); // LoadLoad required so previous loads don't move past version check below.
+
+            return beginChangeVolatile(buffer) <= position + capacity;
+        }
+
         public void close()
         {
             if (wrappedBuffer instanceof MappedByteBuffer)
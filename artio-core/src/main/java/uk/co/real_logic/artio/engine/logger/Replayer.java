@@ -24,9 +24,12 @@ import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.collections.IntHashSet;
+import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.EpochClock;
 import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.Pressure;
 import uk.co.real_logic.artio.builder.Encoder;
 import uk.co.real_logic.artio.decoder.*;
@@ -38,6 +41,8 @@ import uk.co.real_logic.artio.replication.ClusterableSubscription;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
+import java.util.ArrayDeque;
+
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
@@ -49,6 +54,12 @@ import static uk.co.real_logic.artio.messages.MessageStatus.OK;
  * This agent subscribes to the stream of incoming fix data messages. It parses
  * Resend Request messages and searches the log, using the replay index to find
  * relevant messages to resend.
+ *
+ * Resend requests are queued and replayed in batches of at most replayBatchSize messages, taking turns
+ * between the queued requests, so that a large resend for one session doesn't hold up resends for the others.
+ * Resend requests for the same session are replayed one after the other rather than taking turns, so that their
+ * messages aren't interleaved. At most replayQueueCapacity resend requests are queued, after which the replayer
+ * stops reading its subscription until some of them have been replayed.
  */
 public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Agent
 {
@@ -83,6 +94,11 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
     // Used in onMessage and onFragment
     private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
 
+    private final ArrayDeque<ResendReplay> queuedReplays = new ArrayDeque<>();
+    private final ArrayDeque<ResendReplay> freeReplays = new ArrayDeque<>();
+    // The last resend request queued for each session, later ones wait for earlier ones to complete.
+    private final Long2ObjectHashMap<ResendReplay> sessionIdToLastReplay = new Long2ObjectHashMap<>();
+
     private final ExclusiveBufferClaim bufferClaim;
     private final PossDupEnabler possDupEnabler;
     private final ProtocolSubscription protocolSubscription = ProtocolSubscription.of(this);
@@ -95,15 +111,17 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
     private final int maxClaimAttempts;
     private final ClusterableSubscription subscription;
     private final String agentNamePrefix;
-
-    private int currentMessageOffset;
-    private int currentMessageLength;
-
-    private int beginGapFillSeqNum = NONE;
-    private int lastSeqNo = NONE;
-    private long connectionId;
-    private long sessionId;
-    private int sequenceIndex;
+    private final NanoClock nanoClock;
+    private final int replayBatchSize;
+    private final int replayQueueCapacity;
+    private final AtomicCounter replayQueueDepth;
+    private final AtomicCounter lastReplayLatencyInNs;
+
+    // The resend request that is currently being replayed.
+    private ResendReplay replay;
+    private int queuedReplayCount;
+    private int remainingInBatch;
+    private boolean batchComplete;
     private boolean backpressured;
 
     public Replayer(
@@ -115,7 +133,12 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
         final int maxClaimAttempts,
         final ClusterableSubscription subscription,
         final String agentNamePrefix,
-        final EpochClock clock)
+        final EpochClock clock,
+        final NanoClock nanoClock,
+        final int replayBatchSize,
+        final int replayQueueCapacity,
+        final AtomicCounter replayQueueDepth,
+        final AtomicCounter lastReplayLatencyInNs)
     {
         this.replayQuery = replayQuery;
         this.publication = publication;
@@ -125,6 +148,11 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
         this.maxClaimAttempts = maxClaimAttempts;
         this.subscription = subscription;
         this.agentNamePrefix = agentNamePrefix;
+        this.nanoClock = nanoClock;
+        this.replayBatchSize = replayBatchSize;
+        this.replayQueueCapacity = replayQueueCapacity;
+        this.replayQueueDepth = replayQueueDepth;
+        this.lastReplayLatencyInNs = lastReplayLatencyInNs;
 
         possDupEnabler = new PossDupEnabler(
             bufferClaim,
@@ -141,7 +169,7 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
         final int frameOffset = offset + MessageHeaderEncoder.ENCODED_LENGTH;
         fixMessageEncoder
             .wrap(buffer, frameOffset)
-            .connection(connectionId);
+            .connection(replay.connectionId);
     }
 
     public Action onMessage(
@@ -159,95 +187,165 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
     {
         if (messageType == ResendRequestDecoder.MESSAGE_TYPE && status == OK)
         {
+            if (queuedReplayCount >= replayQueueCapacity)
+            {
+                // Leave the resend request on the subscription until there's room to queue it.
+                return ABORT;
+            }
+
             final int limit = Math.min(length, srcBuffer.capacity() - srcOffset);
 
             asciiBuffer.wrap(srcBuffer);
-            currentMessageOffset = srcOffset;
-            currentMessageLength = limit;
             resendRequest.decode(asciiBuffer, srcOffset, limit);
 
-            final int beginSeqNo;
-            if (backpressured)
+            final int beginSeqNo = resendRequest.beginSeqNo();
+            final int endSeqNo = resendRequest.endSeqNo();
+            if (endSeqNo != MOST_RECENT_MESSAGE && endSeqNo < beginSeqNo)
             {
-                if (beginGapFillSeqNum != NONE)
-                {
-                    beginSeqNo = beginGapFillSeqNum;
-                }
-                else
-                {
-                    beginSeqNo = lastSeqNo + 1;
-                }
+                onIllegalState(
+                    "[%s] Error in resend request, endSeqNo (%d) < beginSeqNo (%d)",
+                    asciiBuffer.getAscii(srcOffset, limit), endSeqNo, beginSeqNo);
+                return CONTINUE;
+            }
+
+            final ResendReplay replay = freeReplays.isEmpty() ? new ResendReplay() : freeReplays.pollFirst();
+            replay.init(
+                srcBuffer, srcOffset, limit, connectionId, sessionId, sequenceIndex, beginSeqNo, endSeqNo);
+            replay.queuedTimeInNs = nanoClock.nanoTime();
+
+            final ResendReplay lastReplayForSession = sessionIdToLastReplay.put(sessionId, replay);
+            if (lastReplayForSession == null)
+            {
+                queuedReplays.addLast(replay);
             }
             else
             {
-                beginSeqNo = resendRequest.beginSeqNo();
+                lastReplayForSession.nextForSession = replay;
             }
+            queuedReplayCount++;
+            replayQueueDepth.setOrdered(queuedReplayCount);
+        }
 
-            final int endSeqNo = resendRequest.endSeqNo();
-            if (endSeqNo != MOST_RECENT_MESSAGE && endSeqNo < beginSeqNo)
+        return CONTINUE;
+    }
+
+    private int replayQueuedResendRequests()
+    {
+        int work = 0;
+        backpressured = false;
+
+        // Each queued resend request gets at most one batch per duty cycle.
+        for (int i = queuedReplays.size(); i > 0 && !backpressured; i--)
+        {
+            final ResendReplay replay = queuedReplays.pollFirst();
+            if (replayBatch(replay))
             {
-                onIllegalState(
-                    "[%s] Error in resend request, endSeqNo (%d) < beginSeqNo (%d)",
-                    message(), endSeqNo, beginSeqNo);
-                return CONTINUE;
+                lastReplayLatencyInNs.setOrdered(nanoClock.nanoTime() - replay.queuedTimeInNs);
+                onReplayComplete(replay);
+            }
+            else
+            {
+                queuedReplays.addLast(replay);
             }
 
-            this.connectionId = connectionId;
-            this.sessionId = sessionId;
-            this.sequenceIndex = sequenceIndex;
-            this.lastSeqNo = beginSeqNo - 1;
+            work++;
+        }
+
+        replayQueueDepth.setOrdered(queuedReplayCount);
 
-            backpressured = false;
-            final int count = replayQuery.query(
+        return work;
+    }
+
+    private void onReplayComplete(final ResendReplay replay)
+    {
+        final ResendReplay nextForSession = replay.nextForSession;
+        if (nextForSession == null)
+        {
+            sessionIdToLastReplay.remove(replay.sessionId);
+        }
+        else
+        {
+            replay.nextForSession = null;
+            queuedReplays.addLast(nextForSession);
+        }
+
+        queuedReplayCount--;
+        freeReplays.addLast(replay);
+    }
+
+    // returns true if the resend request has been completely replayed
+    private boolean replayBatch(final ResendReplay replay)
+    {
+        this.replay = replay;
+        resendRequest.decode(replay.request, 0, replay.requestLength);
+
+        // Any pending gap fill is kept on the replay, so the query resumes after the last message seen.
+        final int beginSeqNo = replay.lastSeqNo + 1;
+        final int endSeqNo = replay.endSeqNo;
+        final int sequenceIndex = replay.sequenceIndex;
+
+        remainingInBatch = replayBatchSize;
+        batchComplete = false;
+        if (endSeqNo == MOST_RECENT_MESSAGE || beginSeqNo <= endSeqNo)
+        {
+            replay.count += replayQuery.query(
                 assembler,
-                sessionId,
+                replay.sessionId,
                 beginSeqNo,
                 sequenceIndex,
                 endSeqNo,
                 sequenceIndex);
+        }
 
-            if (backpressured)
-            {
-                return ABORT;
-            }
+        if (backpressured || batchComplete)
+        {
+            return false;
+        }
 
-            if (beginGapFillSeqNum != NONE)
+        if (replay.beginGapFillSeqNum != NONE)
+        {
+            final Action action = sendGapFill(replay.beginGapFillSeqNum, endSeqNo);
+            if (action == ABORT)
             {
-                final Action action = sendGapFill(beginGapFillSeqNum, endSeqNo);
-                if (action == ABORT)
-                {
-                    backpressured = true;
-                    return action;
-                }
+                backpressured = true;
+                return false;
             }
+        }
 
-            if (endSeqNo != MOST_RECENT_MESSAGE)
+        if (endSeqNo != MOST_RECENT_MESSAGE)
+        {
+            final int count = replay.count;
+            final int expectedCount = endSeqNo - replay.beginSeqNo + 1;
+            if (count != expectedCount)
             {
-                final int expectedCount = endSeqNo - beginSeqNo + 1;
-                if (count != expectedCount)
+                if (count == 0)
                 {
-                    if (count == 0)
+                    final Action action = sendGapFill(replay.beginSeqNo, endSeqNo + 1);
+                    if (action == ABORT)
                     {
-                        final Action action = sendGapFill(beginSeqNo, endSeqNo + 1);
-                        if (action == ABORT)
-                        {
-                            return action;
-                        }
+                        backpressured = true;
+                        return false;
                     }
-
-                    onIllegalState(
-                        "[%s] Error in resend request, count(%d) < expectedCount (%d)",
-                        message(), count, expectedCount);
                 }
+
+                onIllegalState(
+                    "[%s] Error in resend request, count(%d) < expectedCount (%d)",
+                    message(), count, expectedCount);
             }
         }
 
-        return CONTINUE;
+        return true;
     }
 
     public Action onFragment(
         final DirectBuffer srcBuffer, final int srcOffset, final int srcLength, final Header header)
     {
+        if (remainingInBatch == 0)
+        {
+            batchComplete = true;
+            return ABORT;
+        }
+
         messageHeader.wrap(srcBuffer, srcOffset);
         final int actingBlockLength = messageHeader.blockLength();
         final int offset = srcOffset + MessageHeaderDecoder.ENCODED_LENGTH;
@@ -258,32 +356,40 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
             actingBlockLength,
             messageHeader.version());
 
-        final int messageOffset = srcOffset + MESSAGE_FRAME_BLOCK_LENGTH;
-        final int messageLength = srcLength - MESSAGE_FRAME_BLOCK_LENGTH;
+        // Archived frames may have been written under an older schema version with a shorter block.
+        final int messageOffset = offset + actingBlockLength + FixMessageDecoder.bodyHeaderLength();
+        final int messageLength = srcLength - (messageOffset - srcOffset);
+
+        int msgSeqNum = fixMessage.msgSeqNum();
+        if (msgSeqNum == FixMessageDecoder.msgSeqNumNullValue())
+        {
+            asciiBuffer.wrap(srcBuffer);
+            fixHeader.decode(asciiBuffer, messageOffset, messageLength);
+            msgSeqNum = fixHeader.msgSeqNum();
+        }
 
-        asciiBuffer.wrap(srcBuffer);
-        fixHeader.decode(asciiBuffer, messageOffset, messageLength);
-        final int msgSeqNum = fixHeader.msgSeqNum();
+        final ResendReplay replay = this.replay;
 
         if (ADMIN_MESSAGE_TYPES.contains(fixMessage.messageType()))
         {
-            if (beginGapFillSeqNum == NONE)
+            if (replay.beginGapFillSeqNum == NONE)
             {
-                beginGapFillSeqNum = lastSeqNo + 1;
+                replay.beginGapFillSeqNum = replay.lastSeqNo + 1;
             }
 
-            lastSeqNo = msgSeqNum;
+            replay.lastSeqNo = msgSeqNum;
+            remainingInBatch--;
             return CONTINUE;
         }
         else
         {
-            if (beginGapFillSeqNum != NONE)
+            if (replay.beginGapFillSeqNum != NONE)
             {
-                sendGapFill(beginGapFillSeqNum, msgSeqNum);
+                sendGapFill(replay.beginGapFillSeqNum, msgSeqNum);
             }
-            else if (msgSeqNum > lastSeqNo + 1)
+            else if (msgSeqNum > replay.lastSeqNo + 1)
             {
-                sendGapFill(lastSeqNo, msgSeqNum);
+                sendGapFill(replay.lastSeqNo, msgSeqNum);
             }
 
             final Action action = possDupEnabler.enablePossDupFlag(
@@ -294,7 +400,8 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
             }
             else
             {
-                lastSeqNo = msgSeqNum;
+                replay.lastSeqNo = msgSeqNum;
+                remainingInBatch--;
             }
 
             return action;
@@ -316,16 +423,17 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
                 .wrapAndApplyHeader(destBuffer, destOffset, messageHeaderEncoder)
                 .libraryId(ENGINE_LIBRARY_ID)
                 .messageType(SequenceResetDecoder.MESSAGE_TYPE)
-                .session(this.sessionId)
-                .sequenceIndex(this.sequenceIndex)
-                .connection(this.connectionId)
+                .session(replay.sessionId)
+                .sequenceIndex(replay.sequenceIndex)
+                .connection(replay.connectionId)
                 .timestamp(0)
                 .status(MessageStatus.OK)
+                .msgSeqNum(msgSeqNo)
                 .putBody(gapFillEncoder.buffer(), gapFillOffset, gapFillLength);
 
             bufferClaim.commit();
 
-            this.beginGapFillSeqNum = NONE;
+            replay.beginGapFillSeqNum = NONE;
 
             return CONTINUE;
         }
@@ -353,7 +461,7 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
 
     private String message()
     {
-        return asciiBuffer.getAscii(currentMessageOffset, currentMessageLength);
+        return replay.request.getAscii(0, replay.requestLength);
     }
 
     private boolean claimBuffer(final int newLength)
@@ -379,9 +487,9 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
         return false;
     }
 
-    public int doWork() throws Exception
+    public int doWork()
     {
-        return subscription.poll(protocolSubscription, POLL_LIMIT);
+        return subscription.poll(protocolSubscription, POLL_LIMIT) + replayQueuedResendRequests();
     }
 
     public void onClose()
@@ -394,4 +502,52 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
     {
         return agentNamePrefix + "Replayer";
     }
+
+    private static final class ResendReplay
+    {
+        private final MutableAsciiBuffer request = new MutableAsciiBuffer(new byte[0]);
+        private int requestLength;
+
+        private long connectionId;
+        private long sessionId;
+        private int sequenceIndex;
+        private int beginSeqNo;
+        private int endSeqNo;
+        private long queuedTimeInNs;
+
+        private int lastSeqNo;
+        private int beginGapFillSeqNum;
+        private int count;
+
+        private ResendReplay nextForSession;
+
+        private void init(
+            final DirectBuffer srcBuffer,
+            final int srcOffset,
+            final int length,
+            final long connectionId,
+            final long sessionId,
+            final int sequenceIndex,
+            final int beginSeqNo,
+            final int endSeqNo)
+        {
+            // The resend request is copied as gap fills are encoded from its header.
+            if (request.capacity() < length)
+            {
+                request.wrap(new byte[length]);
+            }
+            request.putBytes(0, srcBuffer, srcOffset, length);
+            requestLength = length;
+
+            this.connectionId = connectionId;
+            this.sessionId = sessionId;
+            this.sequenceIndex = sequenceIndex;
+            this.beginSeqNo = beginSeqNo;
+            this.endSeqNo = endSeqNo;
+
+            lastSeqNo = beginSeqNo - 1;
+            beginGapFillSeqNum = NONE;
+            count = 0;
+        }
+    }
 }
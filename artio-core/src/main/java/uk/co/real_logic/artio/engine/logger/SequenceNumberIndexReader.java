@@ -16,6 +16,7 @@
 package uk.co.real_logic.artio.engine.logger;
 
 import org.agrona.ErrorHandler;
+import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.AtomicBuffer;
 import uk.co.real_logic.artio.engine.SectorFramer;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
@@ -25,13 +26,17 @@ import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder;
 import static uk.co.real_logic.artio.engine.SectorFramer.OUT_OF_SPACE;
 import static uk.co.real_logic.artio.engine.SessionInfo.UNK_SESSION;
 import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor.*;
+import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexWriter.SEQUENCE_NUMBER_OFFSET;
 import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.BLOCK_LENGTH;
 import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.SCHEMA_VERSION;
 
 public class SequenceNumberIndexReader
 {
+    private static final long MISSING_RECORD = -1L;
+
     private final MessageHeaderDecoder fileHeaderDecoder = new MessageHeaderDecoder();
     private final LastKnownSequenceNumberDecoder lastKnownDecoder = new LastKnownSequenceNumberDecoder();
+    private final Long2LongHashMap recordOffsets = new Long2LongHashMap(MISSING_RECORD);
     private final AtomicBuffer inMemoryBuffer;
     private final SectorFramer sectorFramer;
     private final IndexedPositionReader positions;
@@ -49,20 +54,49 @@ public class SequenceNumberIndexReader
 
     public int lastKnownSequenceNumber(final long sessionId)
     {
+        final int position = (int)recordOffsets.get(sessionId);
+        if (position != MISSING_RECORD)
+        {
+            final int sequenceNumber = inMemoryBuffer.getIntVolatile(position + SEQUENCE_NUMBER_OFFSET);
+            lastKnownDecoder.wrap(inMemoryBuffer, position, BLOCK_LENGTH, SCHEMA_VERSION);
+            if (sequenceNumber != 0 && lastKnownDecoder.sessionId() == sessionId)
+            {
+                return sequenceNumber;
+            }
+        }
+
+        return scanRecords(sessionId);
+    }
+
+    /**
+     * Records are never moved once written, so their offsets are cached. A miss re-scans every record, since
+     * the index may have been reset by the writer, caching the offsets as it goes.
+     */
+    private int scanRecords(final long sessionId)
+    {
+        int sequenceNumberOfSession = UNK_SESSION;
         int position = SequenceNumberIndexDescriptor.HEADER_SIZE;
         while (true)
         {
             position = sectorFramer.claim(position, RECORD_SIZE);
             if (position == OUT_OF_SPACE)
             {
-                return UNK_SESSION;
+                return sequenceNumberOfSession;
             }
 
-            lastKnownDecoder.wrap(inMemoryBuffer, position, BLOCK_LENGTH, SCHEMA_VERSION);
+            // Records are allocated contiguously by the writer, so an empty one is the end of the index.
+            final int sequenceNumber = inMemoryBuffer.getIntVolatile(position + SEQUENCE_NUMBER_OFFSET);
+            if (sequenceNumber == 0)
+            {
+                return sequenceNumberOfSession;
+            }
 
-            if (lastKnownDecoder.sessionId() == sessionId)
+            lastKnownDecoder.wrap(inMemoryBuffer, position, BLOCK_LENGTH, SCHEMA_VERSION);
+            final long recordSessionId = lastKnownDecoder.sessionId();
+            recordOffsets.put(recordSessionId, position);
+            if (recordSessionId == sessionId)
             {
-                return lastKnownDecoder.sequenceNumber();
+                sequenceNumberOfSession = sequenceNumber;
             }
 
             position += RECORD_SIZE;
@@ -23,6 +23,7 @@ import org.agrona.concurrent.AtomicBuffer;
 import uk.co.real_logic.artio.decoder.HeaderDecoder;
 import uk.co.real_logic.artio.engine.ChecksumFramer;
 import uk.co.real_logic.artio.engine.MappedFile;
+import uk.co.real_logic.artio.engine.SectorBitSet;
 import uk.co.real_logic.artio.messages.*;
 import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberDecoder;
 import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder;
@@ -31,6 +32,7 @@ import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.io.File;
 
+import static uk.co.real_logic.artio.engine.SectorBitSet.NO_SECTOR;
 import static uk.co.real_logic.artio.engine.SectorFramer.*;
 import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor.*;
 import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.SCHEMA_VERSION;
@@ -38,6 +40,10 @@ import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEnc
 /**
  * Writes updates into an in-memory buffer. This buffer is then flushed down to disk. A passing place
  * file is used to ensure that there's a recoverable option if it fails.
+ * <p>
+ * The index file and the writable file are flipped after each flush, so the writable file is always one flush
+ * behind the index file. Only the sectors that have changed over the last two flushes are copied into it, rather
+ * than the whole buffer.
  */
 public class SequenceNumberIndexWriter implements Index
 {
@@ -69,6 +75,8 @@ public class SequenceNumberIndexWriter implements Index
     private final int streamId;
     private final int indexedPositionsOffset;
     private final IndexedPositionWriter positions;
+    private final SectorBitSet changedSectors;
+    private final SectorBitSet unsavedSectors;
 
     private MappedFile writableFile;
     private MappedFile indexFile;
@@ -92,6 +100,12 @@ public class SequenceNumberIndexWriter implements Index
         passingPlacePath = passingPath(indexFilePath);
         writableFile = MappedFile.map(writablePath, fileCapacity);
 
+        final int sectorCount = (fileCapacity + SECTOR_SIZE - 1) / SECTOR_SIZE;
+        changedSectors = new SectorBitSet(sectorCount);
+        // Nothing is known about the contents of the writable file at startup
+        unsavedSectors = new SectorBitSet(sectorCount);
+        unsavedSectors.addAll();
+
         // TODO: Fsync parent directory
         indexedPositionsOffset = positionTableOffset(fileCapacity);
         checksumFramer = new ChecksumFramer(
@@ -99,6 +113,7 @@ public class SequenceNumberIndexWriter implements Index
         try
         {
             initialiseBuffer();
+            checksumFramer.markAllDirty();
             positions = new IndexedPositionWriter(
                 positionsBuffer(inMemoryBuffer, indexedPositionsOffset),
                 errorHandler,
@@ -141,10 +156,14 @@ public class SequenceNumberIndexWriter implements Index
 
                 offset += actingBlockLength + 2;
 
-                asciiBuffer.wrap(buffer);
-                fixHeader.decode(asciiBuffer, offset, messageFrame.bodyLength());
+                int msgSeqNum = messageFrame.msgSeqNum();
+                if (msgSeqNum == FixMessageDecoder.msgSeqNumNullValue())
+                {
+                    asciiBuffer.wrap(buffer);
+                    fixHeader.decode(asciiBuffer, offset, messageFrame.bodyLength());
+                    msgSeqNum = fixHeader.msgSeqNum();
+                }
 
-                final int msgSeqNum = fixHeader.msgSeqNum();
                 final long sessionId = messageFrame.session();
 
                 saveRecord(msgSeqNum, sessionId);
@@ -165,13 +184,20 @@ public class SequenceNumberIndexWriter implements Index
         }
 
         checkTermRoll(buffer, srcOffset, endPosition, length);
-        positions.indexedUpTo(aeronSessionId, endPosition);
+        final int positionOffset = positions.indexedUpTo(aeronSessionId, endPosition);
+        if (positionOffset != OUT_OF_SPACE)
+        {
+            changedSectors.addOffset(indexedPositionsOffset + positionOffset);
+        }
     }
 
     void resetSequenceNumbers()
     {
+        recordOffsets.clear();
         inMemoryBuffer.setMemory(0, indexedPositionsOffset, (byte)0);
         initialiseBlankBuffer();
+        checksumFramer.markAllDirty();
+        changedSectors.addAll();
     }
 
     private void checkTermRoll(final DirectBuffer buffer, final int offset, final long endPosition, final int length)
@@ -191,7 +217,7 @@ public class SequenceNumberIndexWriter implements Index
 
     private void updateFile()
     {
-        checksumFramer.updateChecksums();
+        checksumFramer.updateDirtyChecksums();
         positions.updateChecksums();
         saveFile();
         flipFiles();
@@ -199,8 +225,24 @@ public class SequenceNumberIndexWriter implements Index
 
     private void saveFile()
     {
-        writableFile.buffer().putBytes(0, inMemoryBuffer, 0, fileCapacity);
+        final SectorBitSet unsavedSectors = this.unsavedSectors;
+        final SectorBitSet changedSectors = this.changedSectors;
+        final AtomicBuffer writableBuffer = writableFile.buffer();
+        final int fileCapacity = this.fileCapacity;
+
+        unsavedSectors.addAll(changedSectors);
+        int sector = unsavedSectors.nextSector(0);
+        while (sector != NO_SECTOR)
+        {
+            final int offset = sector * SECTOR_SIZE;
+            writableBuffer.putBytes(offset, inMemoryBuffer, offset, Math.min(SECTOR_SIZE, fileCapacity - offset));
+            sector = unsavedSectors.nextSector(sector + 1);
+        }
         writableFile.force();
+
+        // After the flip the new writable file is missing the changes that have just been saved.
+        unsavedSectors.copyFrom(changedSectors);
+        changedSectors.clear();
     }
 
     private void flipFiles()
@@ -406,5 +448,7 @@ public class SequenceNumberIndexWriter implements Index
         final int value)
     {
         inMemoryBuffer.putIntOrdered(recordOffset + SEQUENCE_NUMBER_OFFSET, value);
+        checksumFramer.markDirty(recordOffset);
+        changedSectors.addOffset(recordOffset);
     }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.LangUtil;
+import uk.co.real_logic.artio.engine.ByteBufferUtil;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+
+/**
+ * Keeps a small number of created and sized term files ready in the log directory, so that when an
+ * {@link Archiver} rolls onto a new term it renames one of them rather than creating and sizing a file in the
+ * middle of archiving. The pool is topped up, a file at a time, when the archiver is otherwise idle.
+ *
+ * Pre-touching writes zeros through the whole of each pooled file, so that the file system has allocated all of
+ * its blocks before archiving into it.
+ */
+class TermFilePool implements AutoCloseable
+{
+    private static final int UNKNOWN_TERM_LENGTH = -1;
+    private static final int PRE_TOUCH_CHUNK_LENGTH = 64 * 1024;
+
+    private final ArrayDeque<File> pooledFiles = new ArrayDeque<>();
+    private final LogDirectoryDescriptor directoryDescriptor;
+    private final StreamIdentifier streamId;
+    private final int capacity;
+    private final ByteBuffer zeros;
+
+    private int termLength = UNKNOWN_TERM_LENGTH;
+    private int nextPoolFileId = 0;
+
+    TermFilePool(
+        final LogDirectoryDescriptor directoryDescriptor,
+        final StreamIdentifier streamId,
+        final int capacity,
+        final boolean preTouch)
+    {
+        this.directoryDescriptor = directoryDescriptor;
+        this.streamId = streamId;
+        this.capacity = capacity;
+        this.zeros = preTouch ? ByteBuffer.allocateDirect(PRE_TOUCH_CHUNK_LENGTH) : null;
+
+        // Files left behind by a previous run may not be the right length.
+        directoryDescriptor.listPooledTermFiles(streamId).forEach(File::delete);
+    }
+
+    /**
+     * Sets the length of the term files to pool, the pool is emptied if it changes.
+     *
+     * @param termLength the length of the term files to pool.
+     */
+    void termLength(final int termLength)
+    {
+        if (this.termLength != termLength)
+        {
+            close();
+            this.termLength = termLength;
+        }
+    }
+
+    /**
+     * Moves a pooled file to the location of a new term file.
+     *
+     * @param location where the new term file should be.
+     * @param termLength the length of the new term file.
+     * @return true if a pooled file has been moved to the location, false if the term file needs creating.
+     */
+    boolean claim(final File location, final int termLength)
+    {
+        if (termLength != this.termLength)
+        {
+            return false;
+        }
+
+        final File pooledFile = pooledFiles.poll();
+        if (pooledFile == null)
+        {
+            return false;
+        }
+
+        if (!pooledFile.renameTo(location))
+        {
+            pooledFile.delete();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Creates a term file for the pool if it isn't full.
+     *
+     * @return 1 if a file was created, 0 otherwise.
+     */
+    int topUp()
+    {
+        if (termLength == UNKNOWN_TERM_LENGTH || pooledFiles.size() >= capacity)
+        {
+            return 0;
+        }
+
+        final File pooledFile = directoryDescriptor.pooledTermFile(streamId, nextPoolFileId++);
+        try (RandomAccessFile file = new RandomAccessFile(pooledFile, "rw"))
+        {
+            file.setLength(termLength);
+            if (zeros != null)
+            {
+                preTouch(file.getChannel());
+            }
+        }
+        catch (final IOException ex)
+        {
+            pooledFile.delete();
+            LangUtil.rethrowUnchecked(ex);
+        }
+
+        pooledFiles.add(pooledFile);
+        return 1;
+    }
+
+    private void preTouch(final FileChannel channel) throws IOException
+    {
+        final ByteBuffer zeros = this.zeros;
+        long position = 0;
+        while (position < termLength)
+        {
+            ByteBufferUtil.limit(zeros, (int)Math.min(PRE_TOUCH_CHUNK_LENGTH, termLength - position));
+            ByteBufferUtil.position(zeros, 0);
+            while (zeros.hasRemaining())
+            {
+                position += channel.write(zeros, position);
+            }
+        }
+        channel.force(false);
+    }
+
+    int size()
+    {
+        return pooledFiles.size();
+    }
+
+    public void close()
+    {
+        File pooledFile;
+        while ((pooledFile = pooledFiles.poll()) != null)
+        {
+            pooledFile.delete();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import java.io.File;
+
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * Layout of the sparse time index of a stream's archive.
+ *
+ * The file is an append only sequence of fixed length records, each of which holds the timestamp of a
+ * FixMessage, the position of the start of that message in the archive and the Aeron session id that it was
+ * archived under. Records for an Aeron session are in increasing position order, and a record is only written
+ * once the interval since the last record of the same Aeron session has passed.
+ */
+final class TimeIndexDescriptor
+{
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int POSITION_OFFSET = TIMESTAMP_OFFSET + SIZE_OF_LONG;
+    static final int AERON_SESSION_ID_OFFSET = POSITION_OFFSET + SIZE_OF_LONG;
+    static final int RECORD_LENGTH = 24;
+
+    private TimeIndexDescriptor()
+    {
+    }
+
+    static File timeIndexFile(final String logFileDir, final int streamId)
+    {
+        return new File(logFileDir + File.separator + "time-index-" + streamId);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static uk.co.real_logic.artio.engine.logger.TimeIndexDescriptor.*;
+
+/**
+ * Works out which positions of each Aeron session of an archive hold the messages in a time range, using the
+ * records written by {@link TimeIndexWriter}.
+ *
+ * Timestamps are assumed to increase with position within an Aeron session, which holds for the messages of a
+ * single publication stamped from one nano clock.
+ */
+class TimeIndexReader
+{
+    static final long END_OF_ARCHIVE = Long.MAX_VALUE;
+
+    @FunctionalInterface
+    interface RangeHandler
+    {
+        void onRange(int aeronSessionId, long beginPosition, long endPosition);
+    }
+
+    private final Int2ObjectHashMap<SessionRange> aeronSessionIdToRange = new Int2ObjectHashMap<>();
+
+    TimeIndexReader(final File file, final long beginTimestampInclusive, final long endTimestampExclusive)
+    {
+        final MappedByteBuffer byteBuffer = LoggerUtil.mapExistingFile(file);
+        try
+        {
+            final UnsafeBuffer buffer = new UnsafeBuffer(byteBuffer);
+            final int length = buffer.capacity() - (buffer.capacity() % RECORD_LENGTH);
+            for (int offset = 0; offset < length; offset += RECORD_LENGTH)
+            {
+                final long timestamp = buffer.getLong(offset + TIMESTAMP_OFFSET);
+                final long position = buffer.getLong(offset + POSITION_OFFSET);
+                final int aeronSessionId = buffer.getInt(offset + AERON_SESSION_ID_OFFSET);
+
+                SessionRange range = aeronSessionIdToRange.get(aeronSessionId);
+                if (range == null)
+                {
+                    range = new SessionRange(position);
+                    aeronSessionIdToRange.put(aeronSessionId, range);
+                }
+
+                if (timestamp < beginTimestampInclusive)
+                {
+                    range.beginPosition = position;
+                }
+                else if (timestamp >= endTimestampExclusive && range.endPosition == END_OF_ARCHIVE)
+                {
+                    range.endPosition = position;
+                }
+            }
+        }
+        finally
+        {
+            IoUtil.unmap(byteBuffer);
+        }
+    }
+
+    /**
+     * Find out whether the positions of a time range can be worked out for an Aeron session.
+     *
+     * @param aeronSessionId the Aeron session to check.
+     * @return false if the Aeron session has to be scanned in full.
+     */
+    boolean canSeek(final int aeronSessionId)
+    {
+        final SessionRange range = aeronSessionIdToRange.get(aeronSessionId);
+        return range != null && range.beginPosition != SessionRange.UNKNOWN_POSITION;
+    }
+
+    void forEachRange(final RangeHandler handler)
+    {
+        aeronSessionIdToRange.forEach((aeronSessionId, range) ->
+        {
+            if (range.beginPosition != SessionRange.UNKNOWN_POSITION && range.beginPosition < range.endPosition)
+            {
+                handler.onRange(aeronSessionId, range.beginPosition, range.endPosition);
+            }
+        });
+    }
+
+    private static final class SessionRange
+    {
+        private static final long UNKNOWN_POSITION = -1;
+
+        private long beginPosition;
+        private long endPosition = END_OF_ARCHIVE;
+
+        private SessionRange(final long firstPosition)
+        {
+            // If indexing started with the session's first message then nothing comes before the first record,
+            // otherwise messages before it are only found by scanning the whole session.
+            beginPosition = firstPosition == HEADER_LENGTH ? firstPosition : UNKNOWN_POSITION;
+        }
+    }
+}
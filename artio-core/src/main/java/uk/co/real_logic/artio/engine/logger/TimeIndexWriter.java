@@ -0,0 +1,197 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.FrameDescriptor;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.LangUtil;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.engine.ByteBufferUtil;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static uk.co.real_logic.artio.engine.logger.TimeIndexDescriptor.*;
+
+/**
+ * Builds a sparse index from the timestamps of archived FixMessages to their positions, so that
+ * {@link FixArchiveScanner} can seek to a time range rather than scanning the whole archive.
+ *
+ * Records are buffered and appended to the file when the buffer fills up or on the next duty cycle. The index is
+ * only a hint to where a time range starts and ends, so records lost in a crash make queries read more of the
+ * archive but don't make them miss messages.
+ */
+public class TimeIndexWriter implements Index
+{
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final int BUFFERED_RECORDS = 128;
+
+    private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+    private final FixMessageDecoder fixMessage = new FixMessageDecoder();
+    private final Long2LongHashMap aeronSessionIdToNextTimestamp = new Long2LongHashMap(NO_TIMESTAMP);
+    private final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(BUFFERED_RECORDS * RECORD_LENGTH);
+    private final UnsafeBuffer buffer = new UnsafeBuffer(byteBuffer);
+
+    private final int requiredStreamId;
+    private final long intervalInNs;
+    private final ErrorHandler errorHandler;
+    private final FileChannel fileChannel;
+
+    private int bufferedLength = 0;
+
+    public TimeIndexWriter(
+        final String logFileDir,
+        final int requiredStreamId,
+        final long intervalInNs,
+        final ErrorHandler errorHandler)
+    {
+        this.requiredStreamId = requiredStreamId;
+        this.intervalInNs = intervalInNs;
+        this.errorHandler = errorHandler;
+        fileChannel = open(timeIndexFile(logFileDir, requiredStreamId));
+    }
+
+    private static FileChannel open(final File file)
+    {
+        final File parentDir = file.getParentFile();
+        IoUtil.ensureDirectoryExists(parentDir, parentDir.getAbsolutePath());
+        try
+        {
+            final FileChannel fileChannel = FileChannel.open(file.toPath(), CREATE, WRITE);
+            // Drop a record that was only partly written before a crash so that later records stay aligned.
+            final long size = fileChannel.size();
+            final long alignedSize = size - (size % RECORD_LENGTH);
+            fileChannel.truncate(alignedSize);
+            fileChannel.position(alignedSize);
+            return fileChannel;
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+            return null;
+        }
+    }
+
+    public void indexRecord(
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int srcLength,
+        final int streamId,
+        final int aeronSessionId,
+        final long endPosition)
+    {
+        if (streamId != requiredStreamId)
+        {
+            return;
+        }
+
+        int offset = srcOffset;
+        messageHeader.wrap(srcBuffer, offset);
+        if (messageHeader.templateId() == FixMessageDecoder.TEMPLATE_ID)
+        {
+            offset += messageHeader.encodedLength();
+            fixMessage.wrap(srcBuffer, offset, messageHeader.blockLength(), messageHeader.version());
+
+            final long timestamp = fixMessage.timestamp();
+            final long nextTimestamp = aeronSessionIdToNextTimestamp.get(aeronSessionId);
+            if (nextTimestamp == NO_TIMESTAMP || timestamp >= nextTimestamp)
+            {
+                final int alignedLength = BitUtil.align(srcLength, FrameDescriptor.FRAME_ALIGNMENT);
+                final long beginPosition = endPosition - alignedLength;
+
+                appendRecord(timestamp, beginPosition, aeronSessionId);
+                aeronSessionIdToNextTimestamp.put(aeronSessionId, timestamp + intervalInNs);
+            }
+        }
+    }
+
+    private void appendRecord(final long timestamp, final long position, final int aeronSessionId)
+    {
+        if (bufferedLength == byteBuffer.capacity())
+        {
+            flush();
+        }
+
+        final int offset = bufferedLength;
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        buffer.putLong(offset + POSITION_OFFSET, position);
+        buffer.putInt(offset + AERON_SESSION_ID_OFFSET, aeronSessionId);
+        bufferedLength += RECORD_LENGTH;
+    }
+
+    public int doWork()
+    {
+        return flush();
+    }
+
+    private int flush()
+    {
+        final int length = bufferedLength;
+        if (length == 0)
+        {
+            return 0;
+        }
+
+        bufferedLength = 0;
+        ByteBufferUtil.limit(byteBuffer, length);
+        ByteBufferUtil.position(byteBuffer, 0);
+        try
+        {
+            while (byteBuffer.hasRemaining())
+            {
+                fileChannel.write(byteBuffer);
+            }
+        }
+        catch (final IOException ex)
+        {
+            errorHandler.onError(ex);
+        }
+        finally
+        {
+            byteBuffer.clear();
+        }
+
+        return length / RECORD_LENGTH;
+    }
+
+    public void close()
+    {
+        flush();
+        try
+        {
+            fileChannel.close();
+        }
+        catch (final IOException ex)
+        {
+            errorHandler.onError(ex);
+        }
+    }
+
+    public void readLastPosition(final IndexedPositionConsumer consumer)
+    {
+        // Nothing to catch up on: messages archived while the engine was down only make the index sparser.
+    }
+}
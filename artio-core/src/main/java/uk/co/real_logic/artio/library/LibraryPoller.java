@@ -35,6 +35,7 @@ import uk.co.real_logic.artio.protocol.*;
 import uk.co.real_logic.artio.session.*;
 import uk.co.real_logic.artio.timing.LibraryTimers;
 import uk.co.real_logic.artio.timing.Timer;
+import uk.co.real_logic.artio.timing.TimerWheel;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 import uk.co.real_logic.artio.validation.AuthenticationStrategy;
 import uk.co.real_logic.artio.validation.MessageValidationStrategy;
@@ -79,6 +80,10 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
     private static final long NO_CORRELATION_ID = 0;
 
+    // Sessions are polled when their heartbeat or timeout deadlines expire, most of these are seconds away.
+    private static final long SESSION_TIMER_TICK_IN_MS = 8;
+    private static final int SESSION_TIMER_TICKS_PER_WHEEL = 512;
+
     private final Long2ObjectHashMap<SessionSubscriber> connectionIdToSession = new Long2ObjectHashMap<>();
     private Session[] sessions = new Session[0];
     private final List<Session> unmodifiableSessions = new AbstractList<Session>()
@@ -115,6 +120,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     private final LibraryTransport transport;
     private final FixLibrary fixLibrary;
     private final Runnable onDisconnectFunc = this::onDisconnect;
+    private final TimerWheel sessionTimerWheel;
 
     /**
      * Correlation Id is initialised to a random number to reduce the chance of correlation id collision.
@@ -159,6 +165,13 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         this.sentPositionHandler = configuration.sentPositionHandler();
         this.clock = clock;
         this.enginesAreClustered = configuration.libraryAeronChannels().size() > 1;
+        sessionTimerWheel = new TimerWheel(SESSION_TIMER_TICK_IN_MS, SESSION_TIMER_TICKS_PER_WHEEL, clock.time());
+
+        // Messages for other libraries are dropped before they get reassembled.
+        outboundSubscription = new LibraryFragmentFilter(
+            libraryId,
+            new ControlledFragmentAssembler(
+                ProtocolSubscription.of(this, new LibraryProtocolSubscription(this))));
     }
 
     boolean isConnected()
@@ -213,6 +226,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     void disableSession(final Session session)
     {
         sessions = ArrayUtil.remove(sessions, session);
+        accessor.timerWheel(session, null);
         accessor.disable(session);
     }
 
@@ -508,16 +522,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
     private int pollSessions(final long timeInMs)
     {
-        final Session[] sessions = this.sessions;
-        int total = 0;
-
-        for (int i = 0, size = sessions.length; i < size; i++)
-        {
-            final Session session = sessions[i];
-            total += session.poll(timeInMs);
-        }
-
-        return total;
+        return sessionTimerWheel.expireTimeouts(timeInMs);
     }
 
     private long timeInMs()
@@ -558,9 +563,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     //                     BEGIN EVENT HANDLERS
     // -----------------------------------------------------------------------
 
-    private final ControlledFragmentHandler outboundSubscription =
-        new ControlledFragmentAssembler(
-            ProtocolSubscription.of(this, new LibraryProtocolSubscription(this)));
+    private final ControlledFragmentHandler outboundSubscription;
 
     public Action onManageSession(
         final int libraryId,
@@ -734,6 +737,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                     final Session session = subscriber.session();
                     session.close();
                     sessions = ArrayUtil.remove(sessions, session);
+                    accessor.timerWheel(session, null);
                 }
 
                 return action;
@@ -845,6 +849,32 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         return CONTINUE;
     }
 
+    public Action onAvailableSessions(
+        final int libraryId, final AvailableSessionsDecoder.SessionsDecoder sessionsDecoder)
+    {
+        if (libraryId == ENGINE_LIBRARY_ID || libraryId == this.libraryId)
+        {
+            while (sessionsDecoder.hasNext())
+            {
+                sessionsDecoder.next();
+                sessionExistsHandler.onSessionExists(
+                    fixLibrary,
+                    sessionsDecoder.session(),
+                    sessionsDecoder.localCompId(),
+                    sessionsDecoder.localSubId(),
+                    sessionsDecoder.localLocationId(),
+                    sessionsDecoder.remoteCompId(),
+                    sessionsDecoder.remoteSubId(),
+                    sessionsDecoder.remoteLocationId(),
+                    sessionsDecoder.lastSentSequenceNumber(),
+                    sessionsDecoder.lastReceivedSequenceNumber(),
+                    sessionsDecoder.sequenceIndex());
+            }
+        }
+
+        return CONTINUE;
+    }
+
     public Action onControlNotification(final int libraryId, final SessionsDecoder sessionsDecoder)
     {
         // TODO(Nick): Reorganise this as it is confusing.
@@ -891,6 +921,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                     session.close();
                     // TODO(Nick): Maybe we shouldn't be creating a lot of arrays and batch this up?
                     sessions = ArrayUtil.remove(sessions, i);
+                    accessor.timerWheel(session, null);
                     size--;
                 }
                 else
@@ -962,6 +993,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         final SessionSubscriber subscriber = new SessionSubscriber(parser, session, receiveTimer, sessionTimer);
         connectionIdToSession.put(connectionId, subscriber);
         sessions = ArrayUtil.add(sessions, session);
+        accessor.timerWheel(session, sessionTimerWheel);
     }
 
     private Session initiateSession(
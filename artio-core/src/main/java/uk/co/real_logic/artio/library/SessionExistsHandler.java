@@ -48,4 +48,50 @@ public interface SessionExistsHandler
         String remoteCompId,
         String remoteSubId,
         String remoteLocationId);
+
+    /**
+     * Invoked instead of {@link #onSessionExists(FixLibrary, long, String, String, String, String, String, String)}
+     * when the engine also knows the sequence state of the session, for example when it has acquired the sessions
+     * of a library that timed out. The last received sequence number can be passed to
+     * {@link FixLibrary#requestSession(long, int, int, long)} in order to catch up on the messages that have been
+     * received since. Either sequence number is {@link uk.co.real_logic.artio.engine.SessionInfo#UNK_SESSION} if
+     * it isn't known.
+     *
+     * By default this delegates to the method without the sequence state.
+     *
+     * @param library the library object that this callback is associated with
+     * @param surrogateId the identifying number of the session that now exists.
+     * @param localCompId the compId for the local party in the logon message (eg targetCompId if acceptor).
+     * @param localSubId the subId for the local party in the logon message (eg targetSubId if acceptor).
+     * @param localLocationId the locationId for the local party in the logon message (eg targetLocationId if acceptor)
+     * @param remoteCompId the compId for the local party in the logon message (eg senderCompId if acceptor).
+     * @param remoteSubId the subId for the local party in the logon message (eg senderSubId if acceptor).
+     * @param remoteLocationId the locationId for the local party in the logon message (eg senderLocationId if acceptor)
+     * @param lastSentSequenceNumber the last sequence number that was sent on the session.
+     * @param lastReceivedSequenceNumber the last sequence number that was received on the session.
+     * @param sequenceIndex the sequence index of the session.
+     */
+    default void onSessionExists(
+        FixLibrary library,
+        long surrogateId,
+        String localCompId,
+        String localSubId,
+        String localLocationId,
+        String remoteCompId,
+        String remoteSubId,
+        String remoteLocationId,
+        int lastSentSequenceNumber,
+        int lastReceivedSequenceNumber,
+        int sequenceIndex)
+    {
+        onSessionExists(
+            library,
+            surrogateId,
+            localCompId,
+            localSubId,
+            localLocationId,
+            remoteCompId,
+            remoteSubId,
+            remoteLocationId);
+    }
 }
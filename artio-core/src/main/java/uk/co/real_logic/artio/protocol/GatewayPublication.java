@@ -25,6 +25,7 @@ import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.engine.SessionInfo;
 import uk.co.real_logic.artio.messages.*;
 import uk.co.real_logic.artio.messages.ControlNotificationEncoder.SessionsEncoder;
+import uk.co.real_logic.artio.session.CompositeKey;
 import uk.co.real_logic.artio.replication.ClusterablePublication;
 
 import java.util.List;
@@ -71,6 +72,11 @@ public class GatewayPublication extends ClaimablePublication
         InitiateConnectionEncoder.BLOCK_LENGTH + InitiateConnectionDecoder.hostHeaderLength() * 9;
     private static final int CONTROL_NOTIFICATION_LENGTH = HEADER_LENGTH + ControlNotificationEncoder.BLOCK_LENGTH +
         GroupSizeEncodingEncoder.ENCODED_LENGTH;
+    public static final int AVAILABLE_SESSIONS_LENGTH = HEADER_LENGTH + AvailableSessionsEncoder.BLOCK_LENGTH +
+        GroupSizeEncodingEncoder.ENCODED_LENGTH;
+    private static final int AVAILABLE_SESSION_BLOCK_LENGTH =
+        AvailableSessionsEncoder.SessionsEncoder.sbeBlockLength() +
+        AvailableSessionsEncoder.SessionsEncoder.localCompIdHeaderLength() * 6;
 
     private final ManageSessionEncoder manageSessionEncoder = new ManageSessionEncoder();
     private final InitiateConnectionEncoder initiateConnection = new InitiateConnectionEncoder();
@@ -89,6 +95,7 @@ public class GatewayPublication extends ClaimablePublication
     private final ResetSessionIdsEncoder resetSessionIds = new ResetSessionIdsEncoder();
     private final NotLeaderEncoder notLeader = new NotLeaderEncoder();
     private final ControlNotificationEncoder controlNotification = new ControlNotificationEncoder();
+    private final AvailableSessionsEncoder availableSessions = new AvailableSessionsEncoder();
     private final LibraryTimeoutEncoder libraryTimeout = new LibraryTimeoutEncoder();
     private final ResetSequenceNumberEncoder resetSequenceNumber = new ResetSequenceNumberEncoder();
     private final ResetLibrarySequenceNumberEncoder resetLibrarySequenceNumber =
@@ -121,7 +128,8 @@ public class GatewayPublication extends ClaimablePublication
         final long sessionId,
         final int sequenceIndex,
         final long connectionId,
-        final MessageStatus status)
+        final MessageStatus status,
+        final int msgSeqNum)
     {
         final ExclusiveBufferClaim bufferClaim = this.bufferClaim;
         final long timestamp = nanoClock.nanoTime();
@@ -156,6 +164,7 @@ public class GatewayPublication extends ClaimablePublication
             .connection(connectionId)
             .timestamp(timestamp)
             .status(status)
+            .msgSeqNum(msgSeqNum)
             .putBody(srcBuffer, srcFragmentOffset, srcFragmentLength);
 
         if (!fragmented)
@@ -753,6 +762,82 @@ public class GatewayPublication extends ClaimablePublication
         return position;
     }
 
+    /**
+     * Gets the number of bytes that a session takes up within an available sessions message.
+     *
+     * @param sessionKey the key of the session.
+     * @return the number of bytes that the session takes up.
+     */
+    public static int availableSessionLength(final CompositeKey sessionKey)
+    {
+        return AVAILABLE_SESSION_BLOCK_LENGTH +
+            utf8Length(sessionKey.localCompId()) +
+            utf8Length(sessionKey.localSubId()) +
+            utf8Length(sessionKey.localLocationId()) +
+            utf8Length(sessionKey.remoteCompId()) +
+            utf8Length(sessionKey.remoteSubId()) +
+            utf8Length(sessionKey.remoteLocationId());
+    }
+
+    public long saveAvailableSessions(
+        final int libraryId,
+        final List<? extends SessionInfo> sessions,
+        final int[] lastSentSequenceNumbers,
+        final int[] lastReceivedSequenceNumbers,
+        final int[] sequenceIndices,
+        final int fromIndex,
+        final int toIndex)
+    {
+        int length = AVAILABLE_SESSIONS_LENGTH;
+        for (int i = fromIndex; i < toIndex; i++)
+        {
+            length += availableSessionLength(sessions.get(i).sessionKey());
+        }
+
+        final long position = claim(length);
+        if (position < 0)
+        {
+            return position;
+        }
+
+        final MutableDirectBuffer buffer = bufferClaim.buffer();
+        final int offset = bufferClaim.offset();
+
+        availableSessions.wrapAndApplyHeader(buffer, offset, header).libraryId(libraryId);
+
+        final AvailableSessionsEncoder.SessionsEncoder sessionsEncoder =
+            availableSessions.sessionsCount(toIndex - fromIndex);
+        for (int i = fromIndex; i < toIndex; i++)
+        {
+            final SessionInfo session = sessions.get(i);
+            final CompositeKey sessionKey = session.sessionKey();
+            final byte[] localCompIdBytes = bytes(sessionKey.localCompId());
+            final byte[] localSubIdBytes = bytes(sessionKey.localSubId());
+            final byte[] localLocationIdBytes = bytes(sessionKey.localLocationId());
+            final byte[] remoteCompIdBytes = bytes(sessionKey.remoteCompId());
+            final byte[] remoteSubIdBytes = bytes(sessionKey.remoteSubId());
+            final byte[] remoteLocationIdBytes = bytes(sessionKey.remoteLocationId());
+
+            sessionsEncoder.next()
+                .session(session.sessionId())
+                .lastSentSequenceNumber(lastSentSequenceNumbers[i])
+                .lastReceivedSequenceNumber(lastReceivedSequenceNumbers[i])
+                .sequenceIndex(sequenceIndices[i])
+                .putLocalCompId(localCompIdBytes, 0, localCompIdBytes.length)
+                .putLocalSubId(localSubIdBytes, 0, localSubIdBytes.length)
+                .putLocalLocationId(localLocationIdBytes, 0, localLocationIdBytes.length)
+                .putRemoteCompId(remoteCompIdBytes, 0, remoteCompIdBytes.length)
+                .putRemoteSubId(remoteSubIdBytes, 0, remoteSubIdBytes.length)
+                .putRemoteLocationId(remoteLocationIdBytes, 0, remoteLocationIdBytes.length);
+        }
+
+        bufferClaim.commit();
+
+        logSbeMessage(GATEWAY_MESSAGE, availableSessions);
+
+        return position;
+    }
+
     public long saveSlowStatusNotification(final int libraryId, final long connectionId, final SlowStatus status)
     {
         final long position = claim(SLOW_STATUS_NOTIFICATION_LENGTH);
@@ -786,6 +871,11 @@ public class GatewayPublication extends ClaimablePublication
         return dataPublication.position();
     }
 
+    private static int utf8Length(final String value)
+    {
+        return value == null ? 0 : value.getBytes(UTF_8).length;
+    }
+
     private byte[] bytes(final String host)
     {
         if (host == null)
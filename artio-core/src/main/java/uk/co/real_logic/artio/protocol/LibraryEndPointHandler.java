@@ -35,6 +35,8 @@ public interface LibraryEndPointHandler
 
     Action onControlNotification(int libraryId, SessionsDecoder sessions);
 
+    Action onAvailableSessions(int libraryId, AvailableSessionsDecoder.SessionsDecoder sessions);
+
     Action onSlowStatusNotification(int libraryId, long connectionId, boolean hasBecomeSlow);
 
     Action onResetLibrarySequenceNumber(int libraryId, long sessionId);
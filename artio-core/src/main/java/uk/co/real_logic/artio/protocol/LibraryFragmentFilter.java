@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.protocol;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import uk.co.real_logic.artio.messages.DisconnectDecoder;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static io.aeron.logbuffer.FrameDescriptor.BEGIN_FRAG_FLAG;
+
+/**
+ * Drops FIX messages and disconnects that are addressed to other libraries before they are reassembled or
+ * decoded. Every library subscribes to the same inbound stream, so without this each library would pay to
+ * reassemble and dispatch the traffic of all the others.
+ *
+ * Filtering happens on the first fragment of a message, the remaining fragments of a filtered message are
+ * discarded by the downstream fragment assembler as it has no message in progress for them.
+ */
+public final class LibraryFragmentFilter implements ControlledFragmentHandler
+{
+    private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+    private final FixMessageDecoder fixMessage = new FixMessageDecoder();
+    private final DisconnectDecoder disconnect = new DisconnectDecoder();
+
+    private final int libraryId;
+    private final ControlledFragmentHandler delegate;
+
+    public LibraryFragmentFilter(final int libraryId, final ControlledFragmentHandler delegate)
+    {
+        this.libraryId = libraryId;
+        this.delegate = delegate;
+    }
+
+    public Action onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+    {
+        if ((header.flags() & BEGIN_FRAG_FLAG) == BEGIN_FRAG_FLAG && isForOtherLibrary(buffer, offset))
+        {
+            return CONTINUE;
+        }
+
+        return delegate.onFragment(buffer, offset, length, header);
+    }
+
+    private boolean isForOtherLibrary(final DirectBuffer buffer, final int offset)
+    {
+        messageHeader.wrap(buffer, offset);
+
+        final int blockLength = messageHeader.blockLength();
+        final int version = messageHeader.version();
+        final int bodyOffset = offset + MessageHeaderDecoder.ENCODED_LENGTH;
+
+        switch (messageHeader.templateId())
+        {
+            case FixMessageDecoder.TEMPLATE_ID:
+            {
+                fixMessage.wrap(buffer, bodyOffset, blockLength, version);
+                return fixMessage.libraryId() != libraryId;
+            }
+
+            case DisconnectDecoder.TEMPLATE_ID:
+            {
+                disconnect.wrap(buffer, bodyOffset, blockLength, version);
+                return disconnect.libraryId() != libraryId;
+            }
+        }
+
+        return false;
+    }
+}
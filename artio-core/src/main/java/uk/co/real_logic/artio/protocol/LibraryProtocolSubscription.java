@@ -33,6 +33,7 @@ public final class LibraryProtocolSubscription implements ControlledFragmentHand
     private final NewSentPositionDecoder newSentPosition = new NewSentPositionDecoder();
     private final NotLeaderDecoder libraryConnect = new NotLeaderDecoder();
     private final ControlNotificationDecoder controlNotification = new ControlNotificationDecoder();
+    private final AvailableSessionsDecoder availableSessions = new AvailableSessionsDecoder();
     private final SlowStatusNotificationDecoder slowStatusNotification = new SlowStatusNotificationDecoder();
     private final ResetLibrarySequenceNumberDecoder resetLibrarySequenceNumber =
         new ResetLibrarySequenceNumberDecoder();
@@ -96,6 +97,11 @@ public final class LibraryProtocolSubscription implements ControlledFragmentHand
                 return onControlNotification(buffer, offset, blockLength, version);
             }
 
+            case AvailableSessionsDecoder.TEMPLATE_ID:
+            {
+                return onAvailableSessions(buffer, offset, blockLength, version);
+            }
+
             case SlowStatusNotificationDecoder.TEMPLATE_ID:
             {
                 return onSlowStatusNotification(buffer, offset, blockLength, version);
@@ -145,6 +151,25 @@ public final class LibraryProtocolSubscription implements ControlledFragmentHand
             controlNotification.sessions());
     }
 
+    private Action onAvailableSessions(
+        final DirectBuffer buffer,
+        final int offset,
+        final int blockLength,
+        final int version)
+    {
+        availableSessions.wrap(buffer, offset, blockLength, version);
+        final int libraryId = availableSessions.libraryId();
+        final Action action = handler.onApplicationHeartbeat(libraryId);
+        if (action == ABORT)
+        {
+            return action;
+        }
+
+        return handler.onAvailableSessions(
+            libraryId,
+            availableSessions.sessions());
+    }
+
     private Action onSlowStatusNotification(
         final DirectBuffer buffer,
         final int offset,
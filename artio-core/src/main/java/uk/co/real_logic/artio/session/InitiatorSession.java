@@ -159,4 +159,15 @@ public class InitiatorSession extends Session
 
         return actions + super.poll(time);
     }
+
+    protected long nextPollTimeInMs()
+    {
+        // The logon is sent once the session id is known
+        if (state() == SessionState.CONNECTED && id() != UNKNOWN)
+        {
+            return 0;
+        }
+
+        return super.nextPollTimeInMs();
+    }
 }
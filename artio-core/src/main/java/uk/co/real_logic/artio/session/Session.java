@@ -31,6 +31,7 @@ import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
 import uk.co.real_logic.artio.messages.DisconnectReason;
 import uk.co.real_logic.artio.messages.SessionState;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.timing.TimerWheel;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
@@ -143,6 +144,18 @@ public class Session implements AutoCloseable
 
     private int logoutRejectReason = NO_LOGOUT_REJECT_REASON;
 
+    // Null when the session is polled on every duty cycle rather than when its deadlines expire.
+    private TimerWheel timerWheel;
+    private final TimerWheel.Timeout pollTimeout = new TimerWheel.Timeout()
+    {
+        protected int onExpiry(final long timeInMs)
+        {
+            final int actions = poll(timeInMs);
+            schedulePoll();
+            return actions;
+        }
+    };
+
     public Session(
         final int heartbeatIntervalInS,
         final long connectionId,
@@ -401,7 +414,7 @@ public class Session implements AutoCloseable
         final HeaderEncoder header = (HeaderEncoder)encoder.header();
         header
             .msgSeqNum(sentSeqNum)
-            .sendingTime(timestampEncoder.buffer(), timestampEncoder.encode(time()));
+            .sendingTime(timestampEncoder.buffer(), timestampEncoder.update(time()));
 
         if (!header.hasSenderCompID())
         {
@@ -432,7 +445,7 @@ public class Session implements AutoCloseable
         validateCanSendMessage();
 
         final long position = publication.saveMessage(
-            messageBuffer, offset, length, libraryId, messageType, id(), sequenceIndex(), connectionId, OK);
+            messageBuffer, offset, length, libraryId, messageType, id(), sequenceIndex(), connectionId, OK, seqNum);
 
         if (position > 0)
         {
@@ -586,6 +599,58 @@ public class Session implements AutoCloseable
         }
     }
 
+    /**
+     * The earliest time at which {@link #poll(long)} has something to do, in the session's current state.
+     *
+     * @return the time in milliseconds, or {@link TimerWheel#NOT_SCHEDULED} if polling won't do anything until
+     * the session's state changes.
+     */
+    protected long nextPollTimeInMs()
+    {
+        switch (state().value())
+        {
+            case DISCONNECTING_VALUE:
+            case LOGGING_OUT_VALUE:
+            case LOGGING_OUT_AND_DISCONNECTING_VALUE:
+            {
+                return 0;
+            }
+
+            case ACTIVE_VALUE:
+            case AWAITING_RESEND_VALUE:
+            {
+                return Math.min(nextRequiredHeartbeatTimeInMs, nextRequiredInboundMessageTimeInMs);
+            }
+
+            case AWAITING_LOGOUT_VALUE:
+            {
+                return nextRequiredInboundMessageTimeInMs;
+            }
+
+            default:
+            {
+                return TimerWheel.NOT_SCHEDULED;
+            }
+        }
+    }
+
+    /**
+     * Reschedule the session's poll if its next poll time may have moved earlier. Deadlines that move later, for
+     * example when a heartbeat is sent, are left to be picked up when the existing timeout expires.
+     */
+    protected void schedulePoll()
+    {
+        final TimerWheel timerWheel = this.timerWheel;
+        if (timerWheel != null)
+        {
+            final long nextPollTimeInMs = nextPollTimeInMs();
+            if (nextPollTimeInMs < pollTimeout.deadlineInMs())
+            {
+                timerWheel.schedule(pollTimeout, nextPollTimeInMs);
+            }
+        }
+    }
+
     public boolean isActive()
     {
         final SessionState state = this.state;
@@ -1157,6 +1222,7 @@ public class Session implements AutoCloseable
         incNextReceivedInboundMessageTime(time);
         sendingHeartbeatIntervalInMs = (long)(heartbeatIntervalInMs * HEARTBEAT_PAUSE_FACTOR);
         nextRequiredHeartbeatTimeInMs = time + sendingHeartbeatIntervalInMs;
+        schedulePoll();
 
         return this;
     }
@@ -1164,12 +1230,14 @@ public class Session implements AutoCloseable
     protected Session state(final SessionState state)
     {
         this.state = state;
+        schedulePoll();
         return this;
     }
 
     public Session id(final long id)
     {
         this.id = id;
+        schedulePoll();
         return this;
     }
 
@@ -1323,6 +1391,17 @@ public class Session implements AutoCloseable
         close();
     }
 
+    void timerWheel(final TimerWheel timerWheel)
+    {
+        if (this.timerWheel != null)
+        {
+            this.timerWheel.cancel(pollTimeout);
+        }
+
+        this.timerWheel = timerWheel;
+        schedulePoll();
+    }
+
     void libraryConnected(final boolean libraryConnected)
     {
         proxy.libraryConnected(libraryConnected);
@@ -16,6 +16,7 @@
 package uk.co.real_logic.artio.session;
 
 import uk.co.real_logic.artio.library.FixLibrary;
+import uk.co.real_logic.artio.timing.TimerWheel;
 
 /**
  * Encapsulate methods on the Session Object from the outside world whilst allowing them to be
@@ -46,4 +47,9 @@ public class SessionAccessor
     {
         session.disable();
     }
+
+    public void timerWheel(final Session session, final TimerWheel timerWheel)
+    {
+        session.timerWheel(timerWheel);
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.timing;
+
+import org.agrona.BitUtil;
+
+/**
+ * Hashed timer wheel for deadlines that are usually a long way off, such as session heartbeats, so that each
+ * duty cycle only touches the timeouts in the slots that time has moved through rather than every timeout.
+ *
+ * Timeouts are intrusive nodes in a doubly linked list per slot, so scheduling and cancelling don't allocate.
+ * Deadlines more than a rotation away stay in their slot until the wheel has come round enough times. Timeouts
+ * fire on the first call to {@link #expireTimeouts(long)} with a time at or after their deadline.
+ *
+ * Not thread safe, timeouts must be scheduled and expired from the same thread.
+ */
+public final class TimerWheel
+{
+    public static final long NOT_SCHEDULED = Long.MAX_VALUE;
+
+    private final long tickInMs;
+    private final int mask;
+    private final Timeout[] slots;
+
+    private long currentTick;
+
+    public TimerWheel(final long tickInMs, final int ticksPerWheel, final long startTimeInMs)
+    {
+        if (tickInMs < 1)
+        {
+            throw new IllegalArgumentException("tickInMs must be positive: " + tickInMs);
+        }
+
+        if (!BitUtil.isPowerOfTwo(ticksPerWheel))
+        {
+            throw new IllegalArgumentException("ticksPerWheel must be a power of two: " + ticksPerWheel);
+        }
+
+        this.tickInMs = tickInMs;
+        this.mask = ticksPerWheel - 1;
+        this.slots = new Timeout[ticksPerWheel];
+        this.currentTick = startTimeInMs / tickInMs;
+    }
+
+    /**
+     * Schedule a timeout, moving it if it is already scheduled.
+     *
+     * @param timeout the timeout to schedule.
+     * @param deadlineInMs the time at which it should expire, deadlines in the past expire on the next call to
+     *                     {@link #expireTimeouts(long)}.
+     */
+    public void schedule(final Timeout timeout, final long deadlineInMs)
+    {
+        cancel(timeout);
+
+        final long tick = Math.max(deadlineInMs / tickInMs, currentTick);
+        final int slot = (int)(tick & mask);
+        final Timeout head = slots[slot];
+
+        timeout.deadlineInMs = deadlineInMs;
+        timeout.slot = slot;
+        timeout.previous = null;
+        timeout.next = head;
+        if (head != null)
+        {
+            head.previous = timeout;
+        }
+        slots[slot] = timeout;
+    }
+
+    public void cancel(final Timeout timeout)
+    {
+        if (!timeout.isScheduled())
+        {
+            return;
+        }
+
+        final Timeout previous = timeout.previous;
+        final Timeout next = timeout.next;
+        if (previous == null)
+        {
+            slots[timeout.slot] = next;
+        }
+        else
+        {
+            previous.next = next;
+        }
+
+        if (next != null)
+        {
+            next.previous = previous;
+        }
+
+        timeout.previous = null;
+        timeout.next = null;
+        timeout.deadlineInMs = NOT_SCHEDULED;
+    }
+
+    /**
+     * Expire all the timeouts whose deadline is at or before timeInMs.
+     *
+     * @param timeInMs the current time.
+     * @return the amount of work done by the expired timeouts.
+     */
+    public int expireTimeouts(final long timeInMs)
+    {
+        final long firstTick = currentTick;
+        final long nowTick = timeInMs / tickInMs;
+        // Once time has moved on by a whole rotation every slot needs checking, but only once.
+        final long lastTick = Math.min(nowTick, firstTick + mask);
+
+        // Advanced before any timeout expires so that a timeout rescheduled into the past from its expiry is
+        // put into the current tick's slot, which is always checked, rather than one that has already been passed.
+        currentTick = nowTick;
+
+        int work = 0;
+        for (long tick = firstTick; tick <= lastTick; tick++)
+        {
+            work += expireSlot((int)(tick & mask), timeInMs);
+        }
+
+        return work;
+    }
+
+    private int expireSlot(final int slot, final long timeInMs)
+    {
+        int work = 0;
+        Timeout timeout = slots[slot];
+        while (timeout != null)
+        {
+            // Expiring a timeout can reschedule it, but always to the head of a slot, so it isn't revisited here.
+            final Timeout next = timeout.next;
+            if (timeout.deadlineInMs <= timeInMs)
+            {
+                cancel(timeout);
+                work += timeout.onExpiry(timeInMs);
+            }
+            timeout = next;
+        }
+
+        return work;
+    }
+
+    public abstract static class Timeout
+    {
+        private long deadlineInMs = NOT_SCHEDULED;
+        private int slot;
+        private Timeout previous;
+        private Timeout next;
+
+        public boolean isScheduled()
+        {
+            return deadlineInMs != NOT_SCHEDULED;
+        }
+
+        public long deadlineInMs()
+        {
+            return deadlineInMs;
+        }
+
+        /**
+         * Called when the timeout expires, it is no longer scheduled at this point and can be rescheduled.
+         *
+         * @param timeInMs the current time.
+         * @return the amount of work done.
+         */
+        protected abstract int onExpiry(long timeInMs);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.validation;
+
+import uk.co.real_logic.artio.decoder.LogonDecoder;
+
+/**
+ * Determines the priority class that an accepted session's TCP connection is read in. Connections with a higher
+ * priority are read first on each duty cycle, connections with the same priority take turns to be read first.
+ * <p>
+ * Connections are read in the {@link #DEFAULT_PRIORITY} class until their logon has been authenticated.
+ */
+@FunctionalInterface
+public interface ReceivePriorityStrategy
+{
+    int DEFAULT_PRIORITY = 0;
+
+    static ReceivePriorityStrategy samePriority()
+    {
+        return (logon) -> DEFAULT_PRIORITY;
+    }
+
+    int getReceivePriority(LogonDecoder logon);
+}
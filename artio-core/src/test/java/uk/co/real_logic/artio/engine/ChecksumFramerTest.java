@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import uk.co.real_logic.artio.FileSystemCorruptionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.engine.SectorFramer.SECTOR_DATA_LENGTH;
+import static uk.co.real_logic.artio.engine.SectorFramer.SECTOR_SIZE;
+
+public class ChecksumFramerTest
+{
+    private static final int SECTOR_COUNT = 70;
+    private static final int CAPACITY = SECTOR_COUNT * SECTOR_SIZE;
+
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[CAPACITY]);
+    private final ChecksumFramer checksumFramer = new ChecksumFramer(buffer, CAPACITY, errorHandler, 0, "test");
+
+    @Test
+    public void shouldOnlyUpdateChecksumsOfDirtySectors()
+    {
+        checksumFramer.updateChecksums();
+        final int emptySectorChecksum = checksumOf(0);
+
+        writeInSector(1);
+        writeInSector(65);
+        checksumFramer.updateDirtyChecksums();
+
+        assertNotEquals(emptySectorChecksum, checksumOf(1));
+        assertNotEquals(emptySectorChecksum, checksumOf(65));
+
+        buffer.putLong(2 * SECTOR_SIZE, 3);
+        checksumFramer.updateDirtyChecksums();
+
+        assertEquals(emptySectorChecksum, checksumOf(2));
+
+        checksumFramer.markDirty(2 * SECTOR_SIZE);
+        checksumFramer.updateDirtyChecksums();
+
+        assertNotEquals(emptySectorChecksum, checksumOf(2));
+        validatesWithoutErrors();
+    }
+
+    @Test
+    public void shouldUpdateAllSectorsWhenMarkedAllDirty()
+    {
+        writeInSector(0);
+        writeInSector(SECTOR_COUNT - 1);
+
+        checksumFramer.markAllDirty();
+        checksumFramer.updateDirtyChecksums();
+
+        validatesWithoutErrors();
+    }
+
+    @Test
+    public void shouldDetectCorruptionOfSectorAfterUpdatingDirtyChecksums()
+    {
+        checksumFramer.updateChecksums();
+        writeInSector(3);
+        checksumFramer.updateDirtyChecksums();
+
+        buffer.putByte(3 * SECTOR_SIZE + 1, (byte)1);
+        checksumFramer.validateCheckSums();
+
+        verify(errorHandler).onError(any(FileSystemCorruptionException.class));
+    }
+
+    private void writeInSector(final int sector)
+    {
+        final int offset = sector * SECTOR_SIZE;
+        buffer.putLong(offset, sector + 1);
+        checksumFramer.markDirty(offset);
+    }
+
+    private int checksumOf(final int sector)
+    {
+        return buffer.getInt(sector * SECTOR_SIZE + SECTOR_DATA_LENGTH);
+    }
+
+    private void validatesWithoutErrors()
+    {
+        checksumFramer.validateCheckSums();
+        verify(errorHandler, never()).onError(any());
+    }
+}
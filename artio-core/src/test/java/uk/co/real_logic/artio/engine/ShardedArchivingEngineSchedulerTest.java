@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.Timing.assertEventuallyTrue;
+
+public class ShardedArchivingEngineSchedulerTest
+{
+    private final Map<Agent, Thread> agentToThread = new ConcurrentHashMap<>();
+
+    private Agent framer = agent("framer");
+    private Agent archiver = agent("archiver");
+    private Agent indexer = agent("indexer");
+    private Agent replayer = agent("replayer");
+    private EngineConfiguration configuration = mock(EngineConfiguration.class);
+    private ErrorHandler errorHandler = mock(ErrorHandler.class);
+
+    private ShardedArchivingEngineScheduler scheduler;
+
+    @Before
+    public void setUp()
+    {
+        when(configuration.framerIdleStrategy()).thenReturn(new BusySpinIdleStrategy());
+    }
+
+    @After
+    public void tearDown()
+    {
+        if (scheduler != null)
+        {
+            scheduler.close();
+        }
+    }
+
+    @Test
+    public void shouldRunEachArchivingAgentOnItsOwnThread()
+    {
+        launch(new ShardedArchivingEngineScheduler());
+
+        awaitWork();
+
+        assertThat(agentToThread.get(archiver), not(equalTo(agentToThread.get(indexer))));
+        assertThat(agentToThread.get(indexer), not(equalTo(agentToThread.get(replayer))));
+        assertThat(agentToThread.get(archiver), not(equalTo(agentToThread.get(replayer))));
+        assertThat(agentToThread.get(framer), not(equalTo(agentToThread.get(archiver))));
+    }
+
+    @Test
+    public void shouldRunArchivingAgentsInTheSameGroupOnTheSameThread()
+    {
+        launch(new ShardedArchivingEngineScheduler(
+            (agent) -> agent == replayer ? 1 : 0, BusySpinIdleStrategy::new, Thread::new));
+
+        awaitWork();
+
+        assertEquals(agentToThread.get(archiver), agentToThread.get(indexer));
+        assertThat(agentToThread.get(archiver), not(equalTo(agentToThread.get(replayer))));
+    }
+
+    @Test(timeout = 10_000L)
+    public void shouldCloseFramerBeforeArchivingAgents() throws Exception
+    {
+        // Mirrors archiving agents waiting for the framer's completion positions when they close.
+        final AtomicBoolean framerClosed = new AtomicBoolean(false);
+        doAnswer(
+            (inv) ->
+            {
+                framerClosed.set(true);
+                return null;
+            }).when(framer).onClose();
+        doAnswer(
+            (inv) ->
+            {
+                while (!framerClosed.get())
+                {
+                    Thread.yield();
+                }
+                return null;
+            }).when(indexer).onClose();
+
+        launch(new ShardedArchivingEngineScheduler());
+        awaitWork();
+
+        scheduler.close();
+        scheduler = null;
+
+        final InOrder inOrder = inOrder(framer, indexer);
+        inOrder.verify(framer).onClose();
+        inOrder.verify(indexer).onClose();
+        verify(archiver).onClose();
+        verify(replayer).onClose();
+    }
+
+    private void launch(final ShardedArchivingEngineScheduler scheduler)
+    {
+        this.scheduler = scheduler;
+        scheduler.launch(
+            configuration,
+            errorHandler,
+            framer,
+            Arrays.asList(archiver, indexer, replayer),
+            null,
+            null);
+    }
+
+    private void awaitWork()
+    {
+        assertEventuallyTrue(
+            "Failed to invoke agents",
+            () -> agentToThread.size() == 4);
+    }
+
+    private Agent agent(final String roleName)
+    {
+        final Agent agent = mock(Agent.class);
+        when(agent.roleName()).thenReturn(roleName);
+        try
+        {
+            when(agent.doWork()).then(
+                (inv) ->
+                {
+                    agentToThread.putIfAbsent(agent, Thread.currentThread());
+                    return 0;
+                });
+        }
+        catch (final Exception e)
+        {
+            throw new IllegalStateException(e);
+        }
+        return agent;
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import io.aeron.logbuffer.ExclusiveBufferClaim;
+import org.agrona.concurrent.NoOpIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.AvailableSessionsDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.replication.ClusterablePublication;
+import uk.co.real_logic.artio.session.CompositeKey;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.aeron.Publication.BACK_PRESSURED;
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static java.util.Arrays.asList;
+import static org.agrona.BitUtil.align;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.co.real_logic.artio.engine.framer.Continuation.COMPLETE;
+import static uk.co.real_logic.artio.protocol.GatewayPublication.AVAILABLE_SESSIONS_LENGTH;
+
+public class AvailableSessionsNotificationTest
+{
+    private static final int LIBRARY_ID = 7;
+    private static final int SESSIONS_PER_MESSAGE = 3;
+    private static final int LARGE_PAYLOAD_LENGTH = 64 * 1024;
+
+    private final ClusterablePublication dataPublication = mock(ClusterablePublication.class);
+    private final UnsafeBuffer termBuffer = new UnsafeBuffer(new byte[1024 * 1024]);
+    private final List<Integer> messageOffsets = new ArrayList<>();
+    private final List<Integer> messageLengths = new ArrayList<>();
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final AvailableSessionsDecoder availableSessions = new AvailableSessionsDecoder();
+
+    private int claimOffset;
+    private boolean backPressured;
+    private AvailableSessionsNotification notification;
+
+    @Before
+    public void setUp()
+    {
+        when(dataPublication.tryClaim(anyInt(), any())).then(inv ->
+        {
+            if (backPressured)
+            {
+                return BACK_PRESSURED;
+            }
+
+            final int length = inv.getArgument(0);
+            final ExclusiveBufferClaim claim = inv.getArgument(1);
+            claim.wrap(termBuffer, claimOffset, length + HEADER_LENGTH);
+            messageOffsets.add(claimOffset + HEADER_LENGTH);
+            messageLengths.add(length);
+            claimOffset += align(length + HEADER_LENGTH, FRAME_ALIGNMENT);
+
+            return (long)claimOffset;
+        });
+    }
+
+    @Test
+    public void shouldPackSessionsThatFitIntoASingleMessage()
+    {
+        newNotification(LARGE_PAYLOAD_LENGTH, 5);
+
+        final long position = notification.attempt();
+
+        assertThat(position, greaterThan(0L));
+        assertEquals(1, messageOffsets.size());
+        assertSessionIdsInMessage(0, 0, 1, 2, 3, 4);
+        assertEquals(COMPLETE, notification.attempt());
+    }
+
+    @Test
+    public void shouldSplitSessionsAtMaxPayloadLength()
+    {
+        newNotification(payloadLengthFor(SESSIONS_PER_MESSAGE), 7);
+
+        assertEquals(BACK_PRESSURED, notification.attempt());
+        assertEquals(BACK_PRESSURED, notification.attempt());
+        assertThat(notification.attempt(), greaterThan(0L));
+        assertEquals(COMPLETE, notification.attempt());
+
+        assertEquals(3, messageOffsets.size());
+        assertSessionIdsInMessage(0, 0, 1, 2);
+        assertSessionIdsInMessage(1, 3, 4, 5);
+        assertSessionIdsInMessage(2, 6);
+        for (final int length : messageLengths)
+        {
+            assertThat(length, lessThanOrEqualTo(payloadLengthFor(SESSIONS_PER_MESSAGE)));
+        }
+    }
+
+    @Test
+    public void shouldSplitSessionsAtTheGroupCountLimit()
+    {
+        newNotification(LARGE_PAYLOAD_LENGTH, 300);
+
+        assertEquals(BACK_PRESSURED, notification.attempt());
+        assertThat(notification.attempt(), greaterThan(0L));
+
+        assertEquals(2, messageOffsets.size());
+        assertEquals(254, sessionIdsInMessage(0).size());
+        assertEquals(46, sessionIdsInMessage(1).size());
+        assertEquals(254L, (long)sessionIdsInMessage(1).get(0));
+    }
+
+    @Test
+    public void shouldResumeFromTheSameSessionWhenAClaimFails()
+    {
+        newNotification(payloadLengthFor(SESSIONS_PER_MESSAGE), 7);
+
+        assertEquals(BACK_PRESSURED, notification.attempt());
+
+        backPressured = true;
+        assertEquals(BACK_PRESSURED, notification.attempt());
+        assertEquals(1, messageOffsets.size());
+
+        backPressured = false;
+        assertEquals(BACK_PRESSURED, notification.attempt());
+        assertThat(notification.attempt(), greaterThan(0L));
+
+        assertEquals(3, messageOffsets.size());
+        assertSessionIdsInMessage(1, 3, 4, 5);
+        assertSessionIdsInMessage(2, 6);
+    }
+
+    @Test
+    public void shouldSkipSessionsThatHaveNotLoggedOn()
+    {
+        newNotification(LARGE_PAYLOAD_LENGTH, 0);
+        final GatewaySession session = mock(GatewaySession.class);
+        notification.add(session, 1, 1);
+
+        assertTrue(notification.isEmpty());
+        assertEquals(COMPLETE, notification.attempt());
+        assertEquals(0, messageOffsets.size());
+    }
+
+    private void newNotification(final int maxPayloadLength, final int sessionCount)
+    {
+        when(dataPublication.maxPayloadLength()).thenReturn(maxPayloadLength);
+        final GatewayPublication publication = new GatewayPublication(
+            dataPublication, mock(AtomicCounter.class), new NoOpIdleStrategy(), System::nanoTime, 0);
+
+        notification = new AvailableSessionsNotification(publication, LIBRARY_ID, sessionCount);
+        for (int i = 0; i < sessionCount; i++)
+        {
+            final GatewaySession session = mock(GatewaySession.class);
+            when(session.sessionId()).thenReturn((long)i);
+            when(session.sessionKey()).thenReturn(sessionKey(i));
+            when(session.sequenceIndex()).thenReturn(i + 2);
+            notification.add(session, i + 10, i + 20);
+        }
+    }
+
+    private static CompositeKey sessionKey(final int index)
+    {
+        return SessionIdStrategy.senderAndTarget().onInitiateLogon(
+            "local", "", "", String.format("remote%03d", index), "", "");
+    }
+
+    private static int payloadLengthFor(final int sessionCount)
+    {
+        // Each session's remote comp id is padded to the same length, so any session's length will do.
+        return AVAILABLE_SESSIONS_LENGTH + sessionCount * GatewayPublication.availableSessionLength(sessionKey(0));
+    }
+
+    private void assertSessionIdsInMessage(final int messageIndex, final long... sessionIds)
+    {
+        final List<Long> expectedIds = new ArrayList<>();
+        for (final long sessionId : sessionIds)
+        {
+            expectedIds.add(sessionId);
+        }
+
+        assertEquals(expectedIds, sessionIdsInMessage(messageIndex));
+    }
+
+    private List<Long> sessionIdsInMessage(final int messageIndex)
+    {
+        final AvailableSessionsDecoder decoder = wrap(messageIndex);
+        assertEquals(LIBRARY_ID, decoder.libraryId());
+
+        final List<Long> sessionIds = new ArrayList<>();
+        for (final AvailableSessionsDecoder.SessionsDecoder sessions : decoder.sessions())
+        {
+            final long sessionId = sessions.session();
+            final int index = (int)sessionId;
+            assertEquals(index + 10, sessions.lastSentSequenceNumber());
+            assertEquals(index + 20, sessions.lastReceivedSequenceNumber());
+            assertEquals(index + 2, sessions.sequenceIndex());
+            assertEquals(
+                asList("local", "", "", String.format("remote%03d", index), "", ""),
+                asList(
+                    sessions.localCompId(),
+                    sessions.localSubId(),
+                    sessions.localLocationId(),
+                    sessions.remoteCompId(),
+                    sessions.remoteSubId(),
+                    sessions.remoteLocationId()));
+
+            sessionIds.add(sessionId);
+        }
+
+        return sessionIds;
+    }
+
+    private AvailableSessionsDecoder wrap(final int messageIndex)
+    {
+        final int offset = messageOffsets.get(messageIndex);
+        header.wrap(termBuffer, offset);
+        assertEquals(AvailableSessionsDecoder.TEMPLATE_ID, header.templateId());
+
+        return availableSessions.wrap(
+            termBuffer, offset + header.encodedLength(), header.blockLength(), header.version());
+    }
+}
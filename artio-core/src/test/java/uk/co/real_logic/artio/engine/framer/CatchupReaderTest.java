@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ErrorHandler;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.logger.ReplayQuery;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+
+import static io.aeron.Publication.BACK_PRESSURED;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.messages.SessionReplyStatus.MISSING_MESSAGES;
+import static uk.co.real_logic.artio.messages.SessionReplyStatus.OK;
+
+public class CatchupReaderTest
+{
+    private static final int SLICE_SIZE_IN_BYTES = 1024;
+    private static final long CATCHUP_TIMEOUT_IN_MS = 1000;
+    private static final long CONNECTION_ID = 2;
+    private static final int LIBRARY_ID = 3;
+    private static final int SEQUENCE_NUMBER = 5;
+    private static final int SEQUENCE_INDEX = 0;
+    private static final long POSITION = 1024;
+
+    private final ReplayQuery replayQuery = mock(ReplayQuery.class);
+    private final GatewayPublication inboundPublication = mock(GatewayPublication.class);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final GatewaySession session = mock(GatewaySession.class);
+    private final FakeEpochClock clock = new FakeEpochClock();
+
+    private final CatchupReader catchupReader = new CatchupReader(
+        replayQuery, SLICE_SIZE_IN_BYTES, 1, clock, "");
+
+    @Before
+    public void setUp()
+    {
+        when(inboundPublication.saveRequestSessionReply(anyInt(), any(), anyLong())).thenReturn(POSITION);
+    }
+
+    @Test
+    public void shouldHandReadSlicesToTheFramer()
+    {
+        final CatchupReplayer replayer = newReplayer(1);
+
+        assertEquals(BACK_PRESSURED, replayer.attempt());
+        catchupReader.doWork();
+
+        verify(replayQuery).query(any(), anyLong(), eq(SEQUENCE_NUMBER), eq(SEQUENCE_INDEX),
+            eq(SEQUENCE_NUMBER), eq(SEQUENCE_INDEX));
+
+        assertEquals(POSITION, replayer.attempt());
+        verify(inboundPublication).saveRequestSessionReply(LIBRARY_ID, OK, 1);
+        verify(session).play();
+
+        // The replay's slot is freed once the framer has republished its final slice.
+        final CatchupReplayer nextReplayer = newReplayer(2);
+        assertEquals(BACK_PRESSURED, nextReplayer.attempt());
+        catchupReader.doWork();
+
+        assertEquals(POSITION, nextReplayer.attempt());
+        verify(inboundPublication).saveRequestSessionReply(LIBRARY_ID, OK, 2);
+    }
+
+    @Test
+    public void shouldReplyMissingMessagesWhenTheCatchupIsNeverRead()
+    {
+        final CatchupReplayer replayer = newReplayer(1);
+        assertEquals(BACK_PRESSURED, replayer.attempt());
+
+        clock.advanceMilliSeconds(2 * CATCHUP_TIMEOUT_IN_MS + 1);
+
+        assertEquals(POSITION, replayer.attempt());
+        verify(inboundPublication).saveRequestSessionReply(LIBRARY_ID, MISSING_MESSAGES, 1);
+        verify(errorHandler).onError(any());
+
+        catchupReader.doWork();
+
+        verifyNoMoreInteractions(replayQuery);
+    }
+
+    @Test
+    public void shouldReplyMissingMessagesWhenALibraryReturnsAfterItsCatchupWasAbandoned()
+    {
+        final CatchupReplayer replayer = newReplayer(1);
+        assertEquals(BACK_PRESSURED, replayer.attempt());
+        catchupReader.doWork();
+
+        // The library disconnects so the framer stops attempting the replay until after it has been evicted.
+        clock.advanceMilliSeconds(2 * CATCHUP_TIMEOUT_IN_MS + 1);
+        catchupReader.doWork();
+
+        assertEquals(POSITION, replayer.attempt());
+        verify(inboundPublication).saveRequestSessionReply(LIBRARY_ID, MISSING_MESSAGES, 1);
+        verify(inboundPublication, never()).saveRequestSessionReply(LIBRARY_ID, OK, 1);
+    }
+
+    @Test
+    public void shouldEvictReplaysThatTheFramerNeverFinishes()
+    {
+        final CatchupReplayer stuckReplayer = newReplayer(1);
+        assertEquals(BACK_PRESSURED, stuckReplayer.attempt());
+        catchupReader.doWork();
+
+        clock.advanceMilliSeconds(CATCHUP_TIMEOUT_IN_MS);
+        final CatchupReplayer waitingReplayer = newReplayer(2);
+        assertEquals(BACK_PRESSURED, waitingReplayer.attempt());
+        catchupReader.doWork();
+
+        // The only slot is taken by a replay whose slice the framer never republishes.
+        assertEquals(BACK_PRESSURED, waitingReplayer.attempt());
+
+        clock.advanceMilliSeconds(CATCHUP_TIMEOUT_IN_MS + 1);
+        catchupReader.doWork();
+
+        assertEquals(POSITION, waitingReplayer.attempt());
+        verify(inboundPublication).saveRequestSessionReply(LIBRARY_ID, OK, 2);
+    }
+
+    private CatchupReplayer newReplayer(final long correlationId)
+    {
+        return new CatchupReplayer(
+            catchupReader,
+            inboundPublication,
+            errorHandler,
+            correlationId,
+            CONNECTION_ID,
+            LIBRARY_ID,
+            SEQUENCE_NUMBER,
+            SEQUENCE_INDEX,
+            SEQUENCE_NUMBER,
+            SEQUENCE_INDEX,
+            session,
+            CATCHUP_TIMEOUT_IN_MS,
+            clock);
+    }
+}
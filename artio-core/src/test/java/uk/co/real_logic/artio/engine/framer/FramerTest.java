@@ -24,6 +24,7 @@ import org.agrona.LangUtil;
 import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.AgentInvoker;
 import org.agrona.concurrent.QueuedPipe;
+import org.agrona.concurrent.status.AtomicCounter;
 import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
 import org.junit.After;
@@ -37,7 +38,6 @@ import uk.co.real_logic.artio.engine.EngineConfiguration;
 import uk.co.real_logic.artio.engine.EngineDescriptorStore;
 import uk.co.real_logic.artio.engine.SessionInfo;
 import uk.co.real_logic.artio.engine.framer.SubscriptionSlowPeeker.LibrarySlowPeeker;
-import uk.co.real_logic.artio.engine.logger.ReplayQuery;
 import uk.co.real_logic.artio.engine.logger.SequenceNumberIndexReader;
 import uk.co.real_logic.artio.messages.*;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
@@ -104,7 +104,7 @@ public class FramerTest
     private final FakeEpochClock mockClock = new FakeEpochClock();
     private final SequenceNumberIndexReader sentSequenceNumberIndex = mock(SequenceNumberIndexReader.class);
     private final SequenceNumberIndexReader receivedSequenceNumberIndex = mock(SequenceNumberIndexReader.class);
-    private final ReplayQuery replayQuery = mock(ReplayQuery.class);
+    private final CatchupReader catchupReader = mock(CatchupReader.class);
     private final SessionContexts sessionContexts = mock(SessionContexts.class);
     private final GatewaySessions gatewaySessions = mock(GatewaySessions.class);
     private final GatewaySession gatewaySession = mock(GatewaySession.class);
@@ -180,7 +180,7 @@ public class FramerTest
             outboundSlowSubscription,
             replayImage,
             replaySlowImage,
-            replayQuery,
+            catchupReader,
             mock(GatewayPublication.class),
             inboundPublication,
             mock(QueuedPipe.class),
@@ -197,6 +197,7 @@ public class FramerTest
             mock(CompletionPosition.class),
             mock(CompletionPosition.class),
             finalImagePositions,
+            new OutboundBatch(0, 1, mock(AtomicCounter.class), mock(AtomicCounter.class), true),
             mock(AgentInvoker.class));
 
         when(sessionContexts.onLogon(any())).thenReturn(
@@ -467,7 +468,7 @@ public class FramerTest
 
         libraryConnects();
 
-        verifySessionExistsSaved(times(1), LogonStatus.LIBRARY_NOTIFICATION);
+        verifyAvailableSessionsSaved(times(1));
     }
 
     @Test
@@ -487,7 +488,7 @@ public class FramerTest
 
         libraryConnects();
 
-        verifySessionExistsSaved(times(2), LogonStatus.LIBRARY_NOTIFICATION);
+        verifyAvailableSessionsSaved(times(2));
     }
 
     @Test
@@ -761,26 +762,13 @@ public class FramerTest
 
     private void backPressureSaveSessionExists()
     {
-        when(inboundPublication.saveManageSession(eq(LIBRARY_ID),
-            anyLong(),
-            anyLong(),
-            anyInt(),
-            anyInt(),
-            anyLong(),
+        when(inboundPublication.saveAvailableSessions(eq(LIBRARY_ID),
             any(),
             any(),
             any(),
             any(),
             anyInt(),
-            anyLong(),
-            anyInt(),
-            any(),
-            any(),
-            any(),
-            any(),
-            any(),
-            any(),
-            any())).thenReturn(BACK_PRESSURED, POSITION);
+            anyInt())).thenReturn(BACK_PRESSURED, POSITION);
     }
 
     private void verifySessionsAcquired(final SessionState state)
@@ -896,28 +884,15 @@ public class FramerTest
             any());
     }
 
-    private void verifySessionExistsSaved(final VerificationMode times, final LogonStatus status)
+    private void verifyAvailableSessionsSaved(final VerificationMode times)
     {
-        verify(inboundPublication, times).saveManageSession(eq(LIBRARY_ID),
-            eq(connectionId.getValue()),
-            anyLong(),
-            anyInt(),
-            anyInt(),
-            anyLong(),
-            eq(status),
-            any(), // todo(Nick): Should be NOT_SLOW? ,
-            any(),
-            any(),
-            anyInt(),
-            anyLong(),
-            anyInt(),
-            any(),
+        verify(inboundPublication, times).saveAvailableSessions(eq(LIBRARY_ID),
+            argThat(sessions -> sessions.size() == 1 && sessions.get(0) == gatewaySession),
             any(),
             any(),
             any(),
-            any(),
-            any(),
-            any());
+            eq(0),
+            eq(1));
     }
 
     private void aClientSendsData() throws IOException
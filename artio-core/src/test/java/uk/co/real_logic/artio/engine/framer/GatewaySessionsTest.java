@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ErrorHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import uk.co.real_logic.artio.FixCounters;
+import uk.co.real_logic.artio.decoder.LogonDecoder;
+import uk.co.real_logic.artio.engine.logger.SequenceNumberIndexReader;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.session.CompositeKey;
+import uk.co.real_logic.artio.session.SessionCustomisationStrategy;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+import uk.co.real_logic.artio.validation.AuthenticationStrategy;
+import uk.co.real_logic.artio.validation.MessageValidationStrategy;
+import uk.co.real_logic.artio.validation.PersistenceLevel;
+import uk.co.real_logic.artio.validation.ReceivePriorityStrategy;
+import uk.co.real_logic.artio.validation.SessionPersistenceStrategy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class GatewaySessionsTest
+{
+    private static final long CONNECTION_ID = 2;
+    private static final long SESSION_ID = 3;
+    private static final int HEARTBEAT_INTERVAL_IN_S = 10;
+    private static final int SENT_SEQUENCE_NUMBER = 4;
+    private static final int RECEIVED_SEQUENCE_NUMBER = 5;
+    private static final long TIMEOUT_IN_MS = 10_000;
+
+    private final CountDownLatch authenticationCanComplete = new CountDownLatch(1);
+    private final AtomicReference<Thread> authenticationThread = new AtomicReference<>();
+    private final AtomicReference<Thread> resultThread = new AtomicReference<>();
+
+    private final SessionIdStrategy sessionIdStrategy = mock(SessionIdStrategy.class);
+    private final SessionContexts sessionContexts = mock(SessionContexts.class);
+    private final SessionContext sessionContext = mock(SessionContext.class);
+    private final CompositeKey sessionKey = mock(CompositeKey.class);
+    private final SessionPersistenceStrategy persistenceStrategy = mock(SessionPersistenceStrategy.class);
+    private final SequenceNumberIndexReader sentSequenceNumberIndex = mock(SequenceNumberIndexReader.class);
+    private final SequenceNumberIndexReader receivedSequenceNumberIndex = mock(SequenceNumberIndexReader.class);
+    private final LogonDecoder logon = mock(LogonDecoder.class);
+    private final GatewaySession gatewaySession = mock(GatewaySession.class);
+    private final ReceiverEndPoint receiverEndPoint = mock(ReceiverEndPoint.class);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+
+    private final AuthenticationStrategy authenticationStrategy = (logon) ->
+    {
+        authenticationThread.set(Thread.currentThread());
+        try
+        {
+            return authenticationCanComplete.await(TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
+        }
+        catch (final InterruptedException e)
+        {
+            return false;
+        }
+    };
+
+    private GatewaySessions gatewaySessions;
+
+    @Before
+    public void setUp()
+    {
+        when(sessionIdStrategy.onAcceptLogon(any())).thenReturn(sessionKey);
+        when(sessionContexts.onLogon(sessionKey)).thenReturn(sessionContext);
+        when(sessionContext.sessionId()).thenReturn(SESSION_ID);
+        when(persistenceStrategy.getPersistenceLevel(logon)).thenReturn(PersistenceLevel.REPLICATED);
+        when(sentSequenceNumberIndex.lastKnownSequenceNumber(SESSION_ID)).thenReturn(SENT_SEQUENCE_NUMBER);
+        when(receivedSequenceNumberIndex.lastKnownSequenceNumber(SESSION_ID)).thenReturn(RECEIVED_SEQUENCE_NUMBER);
+        when(logon.heartBtInt()).thenReturn(HEARTBEAT_INTERVAL_IN_S);
+        when(gatewaySession.receiverEndPoint()).thenReturn(receiverEndPoint);
+        doAnswer((inv) ->
+        {
+            resultThread.set(Thread.currentThread());
+            return null;
+        }).when(receiverEndPoint).onAuthenticationResult(any());
+
+        gatewaySessions = new GatewaySessions(
+            new FakeEpochClock(),
+            mock(GatewayPublication.class),
+            sessionIdStrategy,
+            mock(SessionCustomisationStrategy.class),
+            mock(FixCounters.class),
+            authenticationStrategy,
+            mock(MessageValidationStrategy.class),
+            1024,
+            1000,
+            100,
+            errorHandler,
+            sessionContexts,
+            persistenceStrategy,
+            (logon) -> ReceivePriorityStrategy.DEFAULT_PRIORITY,
+            1);
+    }
+
+    @After
+    public void tearDown()
+    {
+        gatewaySessions.close();
+        verifyNoMoreInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldApplyAnAsynchronousAuthenticationOnTheFramerThread()
+    {
+        assertTrue(gatewaySessions.authenticatesAsynchronously());
+        assertTrue(authenticateAndInitiate().isPending());
+
+        assertEquals(0, gatewaySessions.pollAuthentications());
+        verify(receiverEndPoint, never()).onAuthenticationResult(any());
+
+        authenticationCanComplete.countDown();
+        pollUntilAuthenticated();
+
+        assertThat(authenticationThread.get().getName(), startsWith("Authentication-"));
+        assertSame(Thread.currentThread(), resultThread.get());
+
+        final ArgumentCaptor<AuthenticationResult> result = ArgumentCaptor.forClass(AuthenticationResult.class);
+        verify(receiverEndPoint).onAuthenticationResult(result.capture());
+        assertTrue(result.getValue().isValid());
+        assertSame(gatewaySession, result.getValue().session);
+        assertEquals(SENT_SEQUENCE_NUMBER, result.getValue().sentSequenceNumber);
+        assertEquals(RECEIVED_SEQUENCE_NUMBER, result.getValue().receivedSequenceNumber);
+
+        verify(gatewaySession).onLogon(
+            eq(SESSION_ID), eq(sessionContext), eq(sessionKey), any(), any(), eq(HEARTBEAT_INTERVAL_IN_S));
+        verify(sessionContext).onLogon(false);
+        verify(sessionContexts, never()).onDisconnect(anyLong());
+    }
+
+    @Test
+    public void shouldNotAcquireASessionForAConnectionThatDisconnectsWhileAuthenticating()
+    {
+        assertTrue(authenticateAndInitiate().isPending());
+
+        when(receiverEndPoint.hasDisconnected()).thenReturn(true);
+        authenticationCanComplete.countDown();
+        pollUntilAuthenticated();
+
+        verify(receiverEndPoint, never()).onAuthenticationResult(any());
+        verify(gatewaySession, never()).onLogon(anyLong(), any(), any(), any(), any(), anyInt());
+        verify(sessionContext, never()).onLogon(anyBoolean());
+        verify(sessionContexts).onDisconnect(SESSION_ID);
+        assertTrue(gatewaySessions.sessions().isEmpty());
+    }
+
+    private AuthenticationResult authenticateAndInitiate()
+    {
+        return gatewaySessions.authenticateAndInitiate(
+            logon, CONNECTION_ID, sentSequenceNumberIndex, receivedSequenceNumberIndex, gatewaySession);
+    }
+
+    private void pollUntilAuthenticated()
+    {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_IN_MS;
+        while (gatewaySessions.pollAuthentications() == 0)
+        {
+            assertTrue("Authentication never completed", System.currentTimeMillis() < deadline);
+            Thread.yield();
+        }
+    }
+}
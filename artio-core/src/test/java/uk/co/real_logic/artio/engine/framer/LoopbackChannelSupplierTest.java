@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.junit.After;
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.framer.TcpChannelSupplier.InitiatedChannelHandler;
+import uk.co.real_logic.artio.engine.framer.TcpChannelSupplier.NewChannelHandler;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class LoopbackChannelSupplierTest
+{
+    private static final int PIPE_CAPACITY = 64;
+    private static final long TIME_IN_MS = 10L;
+
+    private final NewChannelHandler newChannelHandler = mock(NewChannelHandler.class);
+    private final LoopbackChannelSupplier channelSupplier =
+        new LoopbackChannelSupplier(new EngineConfiguration(), PIPE_CAPACITY);
+
+    @After
+    public void tearDown() throws Exception
+    {
+        channelSupplier.close();
+    }
+
+    @Test
+    public void shouldAcceptConnectionsOnPoll() throws IOException
+    {
+        channelSupplier.connect();
+        channelSupplier.connect();
+
+        assertEquals(2, channelSupplier.pollSelector(TIME_IN_MS, newChannelHandler));
+        verify(newChannelHandler, times(2)).onNewChannel(eq(TIME_IN_MS), any(LoopbackTcpChannel.class));
+
+        assertEquals(0, channelSupplier.pollSelector(TIME_IN_MS, newChannelHandler));
+    }
+
+    @Test
+    public void shouldExchangeBytesInBothDirections() throws IOException
+    {
+        final LoopbackTcpChannel generatorEnd = channelSupplier.connect();
+        final TcpChannel engineEnd = acceptedChannel();
+
+        assertWrites(generatorEnd, "8=FIX.4.4");
+        assertReads(engineEnd, "8=FIX.4.4");
+
+        assertWrites(engineEnd, "35=0");
+        assertReads(generatorEnd, "35=0");
+    }
+
+    @Test
+    public void shouldWrapAroundThePipe() throws IOException
+    {
+        final LoopbackTcpChannel generatorEnd = channelSupplier.connect();
+        final TcpChannel engineEnd = acceptedChannel();
+
+        final String message = "0123456789012345678901234567890123456789";
+        for (int i = 0; i < 5; i++)
+        {
+            assertWrites(generatorEnd, message);
+            assertReads(engineEnd, message);
+        }
+    }
+
+    @Test
+    public void shouldOnlyWriteUpToCapacity() throws IOException
+    {
+        final LoopbackTcpChannel generatorEnd = channelSupplier.connect();
+
+        final ByteBuffer buffer = ByteBuffer.allocate(PIPE_CAPACITY * 2);
+        assertEquals(PIPE_CAPACITY, generatorEnd.write(buffer));
+        assertEquals(PIPE_CAPACITY, buffer.remaining());
+        assertEquals(0, generatorEnd.write(buffer));
+    }
+
+    @Test
+    public void shouldDrainThenSignalEndOfStreamWhenClosed() throws IOException
+    {
+        final LoopbackTcpChannel generatorEnd = channelSupplier.connect();
+        final TcpChannel engineEnd = acceptedChannel();
+
+        assertWrites(generatorEnd, "35=5");
+        generatorEnd.close();
+
+        assertReads(engineEnd, "35=5");
+        assertEquals(LoopbackPipe.END_OF_STREAM, engineEnd.read(ByteBuffer.allocate(PIPE_CAPACITY)));
+    }
+
+    @Test(expected = ClosedChannelException.class)
+    public void shouldNotWriteToAClosedConnection() throws IOException
+    {
+        final LoopbackTcpChannel generatorEnd = channelSupplier.connect();
+        final TcpChannel engineEnd = acceptedChannel();
+
+        engineEnd.close();
+
+        generatorEnd.write(ByteBuffer.allocate(1));
+    }
+
+    @Test
+    public void shouldCompleteInitiatedConnectionsOnPoll() throws IOException
+    {
+        final InitiatedChannelHandler initiatedChannelHandler = mock(InitiatedChannelHandler.class);
+
+        channelSupplier.open(new InetSocketAddress("localhost", 9999), initiatedChannelHandler);
+        verifyNoMoreInteractions(initiatedChannelHandler);
+
+        assertEquals(1, channelSupplier.pollSelector(TIME_IN_MS, newChannelHandler));
+        verify(initiatedChannelHandler).onInitiatedChannel(any(LoopbackTcpChannel.class), isNull());
+        assertNotNull(channelSupplier.pollInitiated());
+        assertNull(channelSupplier.pollInitiated());
+    }
+
+    private TcpChannel acceptedChannel() throws IOException
+    {
+        final TcpChannel[] accepted = new TcpChannel[1];
+        channelSupplier.pollSelector(TIME_IN_MS, (timeInMs, channel) -> accepted[0] = channel);
+        assertNotNull(accepted[0]);
+        return accepted[0];
+    }
+
+    private void assertWrites(final TcpChannel channel, final String value) throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.wrap(value.getBytes(US_ASCII));
+        assertEquals(value.length(), channel.write(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    private void assertReads(final TcpChannel channel, final String expected) throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(PIPE_CAPACITY);
+        assertEquals(expected.length(), channel.read(buffer));
+        assertEquals(expected, new String(buffer.array(), 0, buffer.position(), US_ASCII));
+    }
+}
@@ -59,12 +59,14 @@ public class ReceiverEndPointTest
     private static final long POSITION = 1024L;
     private static final int BUFFER_SIZE = 16 * 1024;
     private static final int SEQUENCE_INDEX = 0;
+    private static final int EG_MESSAGE_SEQ_NUM = 4;
 
     private TcpChannel mockChannel = mock(TcpChannel.class);
     private GatewayPublication libraryPublication = mock(GatewayPublication.class);
     private GatewayPublication clusterablePublication = mock(GatewayPublication.class);
     private SessionContexts mockSessionContexts = mock(SessionContexts.class);
     private AtomicCounter messagesRead = mock(AtomicCounter.class);
+    private AtomicCounter deferredReads = mock(AtomicCounter.class);
     private ErrorHandler errorHandler = mock(ErrorHandler.class);
     private SequenceNumberIndexReader sentSequenceNumbers = mock(SequenceNumberIndexReader.class);
     private SequenceNumberIndexReader receivedSequenceNumbers = mock(SequenceNumberIndexReader.class);
@@ -81,11 +83,7 @@ public class ReceiverEndPointTest
                                                            "", "",
                                                            "INIATOR", "", "");
 
-    private ReceiverEndPoint endPoint = new ReceiverEndPoint(
-        mockChannel, BUFFER_SIZE, libraryPublication, clusterablePublication,
-        CONNECTION_ID, UNKNOWN, SEQUENCE_INDEX, mockSessionContexts,
-        sentSequenceNumbers, receivedSequenceNumbers, messagesRead, framer, errorHandler, LIBRARY_ID,
-        DETERMINE_AT_LOGON, ConnectionType.ACCEPTOR, replicatedConnectionIds, mockGatewaySessions);
+    private ReceiverEndPoint endPoint = newEndPoint(BUFFER_SIZE, 0);
 
     @Before
     public void setUp()
@@ -140,6 +138,63 @@ public class ReceiverEndPointTest
         sessionReceivesOneMessage();
     }
 
+    @Test
+    public void shouldDeferDataBeyondTheReadBudget()
+    {
+        final int readBudget = MSG_LEN - 8;
+        endPoint = newEndPoint(BUFFER_SIZE, readBudget);
+        endPoint.gatewaySession(gatewaySession);
+
+        endpointBufferUpdatedWith(
+            (buffer) ->
+            {
+                assertEquals(readBudget, buffer.remaining());
+                buffer.put(EG_MESSAGE, 0, readBudget);
+                return readBudget;
+            });
+        pollsData(readBudget);
+
+        verify(deferredReads).increment();
+        nothingMoreSaved();
+
+        theEndpointReceivesTheRestOfTheMessage();
+        endPoint.pollForData();
+
+        savesAFramedMessage();
+        verify(deferredReads, times(1)).increment();
+    }
+
+    @Test
+    public void shouldCarryMsgSeqNumInFrame()
+    {
+        theEndpointReceivesACompleteMessage();
+
+        endPoint.pollForData();
+
+        verify(libraryPublication)
+            .saveMessage(
+                anyBuffer(), eq(0), eq(MSG_LEN), eq(LIBRARY_ID),
+                eq(MESSAGE_TYPE), eq(SESSION_ID), eq(SEQUENCE_INDEX), eq(CONNECTION_ID),
+                eq(OK), eq(EG_MESSAGE_SEQ_NUM));
+    }
+
+    @Test
+    public void shouldFrameLogonOnceAuthenticatedAsynchronously()
+    {
+        givenAuthenticationIsAsynchronous();
+
+        theEndpointReceivesACompleteMessage();
+        endPoint.pollForData();
+
+        nothingMoreSaved();
+        pollsData(0);
+
+        endPoint.onAuthenticationResult(authenticationResult);
+
+        savesAFramedMessage();
+        sessionReceivesOneMessage();
+    }
+
     @Test
     public void shouldFrameValidFixMessageWhenBackpressured()
     {
@@ -225,6 +280,37 @@ public class ReceiverEndPointTest
         theEndpointReceivesTheRestOfTheMessage();
         endPoint.pollForData();
 
+        savesTwoFramedMessages(1);
+
+        sessionReceivesTwoMessages();
+    }
+
+    @Test
+    public void shouldReuseTheStartOfTheBufferOnceAllDataIsFramed()
+    {
+        theEndpointReceivesACompleteMessage();
+        endPoint.pollForData();
+
+        theEndpointReceivesACompleteMessage();
+        endPoint.pollForData();
+
+        savesFramedMessages(2, OK, MSG_LEN);
+
+        sessionReceivesTwoMessageAtBufferStart();
+    }
+
+    @Test
+    public void shouldCompactSplitMessageWhenTheEndOfTheBufferIsNear()
+    {
+        endPoint = newEndPoint(2 * MSG_LEN - 4, 0);
+        endPoint.gatewaySession(gatewaySession);
+
+        theEndpointReceivesACompleteAndAnIncompleteMessage();
+        endPoint.pollForData();
+
+        theEndpointReceivesTheRestOfTheMessage();
+        endPoint.pollForData();
+
         savesFramedMessages(2, OK, MSG_LEN);
 
         sessionReceivesTwoMessageAtBufferStart();
@@ -370,10 +456,20 @@ public class ReceiverEndPointTest
     private void firstSaveAttemptIsBackPressured()
     {
         when(libraryPublication
-            .saveMessage(anyBuffer(), anyInt(), anyInt(), anyInt(), anyInt(), anyLong(), anyInt(), anyLong(), any()))
+            .saveMessage(
+                anyBuffer(), anyInt(), anyInt(), anyInt(), anyInt(), anyLong(), anyInt(), anyLong(), any(), anyInt()))
             .thenReturn(BACK_PRESSURED, POSITION);
     }
 
+    private ReceiverEndPoint newEndPoint(final int bufferSize, final int readBudget)
+    {
+        return new ReceiverEndPoint(
+            mockChannel, bufferSize, readBudget, libraryPublication, clusterablePublication,
+            CONNECTION_ID, UNKNOWN, SEQUENCE_INDEX, mockSessionContexts,
+            sentSequenceNumbers, receivedSequenceNumbers, messagesRead, deferredReads, framer, errorHandler,
+            LIBRARY_ID, DETERMINE_AT_LOGON, ConnectionType.ACCEPTOR, replicatedConnectionIds, mockGatewaySessions);
+    }
+
     private AtomicBuffer anyBuffer()
     {
         return any(AtomicBuffer.class);
@@ -396,7 +492,8 @@ public class ReceiverEndPointTest
             .saveMessage(
                 anyBuffer(), eq(0), eq(length), eq(LIBRARY_ID),
                 anyInt(), anyLong(), anyInt(), eq(CONNECTION_ID),
-                eq(INVALID));
+                eq(INVALID),
+                anyInt());
     }
 
     private void assertSavesDisconnect()
@@ -428,7 +525,8 @@ public class ReceiverEndPointTest
             .saveMessage(
                 anyBuffer(), eq(0), eq(msgLen), eq(LIBRARY_ID),
                 eq(MESSAGE_TYPE), eq(SESSION_ID), eq(SEQUENCE_INDEX), eq(CONNECTION_ID),
-                eq(status));
+                eq(status),
+                anyInt());
     }
 
     private void savesTwoFramedMessages(final int firstMessageSaveAttempts)
@@ -444,7 +542,8 @@ public class ReceiverEndPointTest
                    eq(SESSION_ID),
                    eq(SEQUENCE_INDEX),
                    eq(CONNECTION_ID),
-                   eq(OK));
+                   eq(OK),
+                   anyInt());
         inOrder.verify(libraryPublication, times(1))
                .saveMessage(
                    anyBuffer(),
@@ -455,7 +554,8 @@ public class ReceiverEndPointTest
                    eq(SESSION_ID),
                    eq(SEQUENCE_INDEX),
                    eq(CONNECTION_ID),
-                   eq(OK));
+                   eq(OK),
+                   anyInt());
         inOrder.verifyNoMoreInteractions();
     }
 
@@ -559,7 +659,8 @@ public class ReceiverEndPointTest
                 anyLong(),
                 anyInt(),
                 eq(CONNECTION_ID),
-                eq(INVALID_CHECKSUM));
+                eq(INVALID_CHECKSUM),
+                anyInt());
     }
 
     private void sessionReceivesOneMessage()
@@ -604,6 +705,13 @@ public class ReceiverEndPointTest
         verify(libraryPublication, times).saveDisconnect(anyInt(), anyLong(), eq(DisconnectReason.DUPLICATE_SESSION));
     }
 
+    private void givenAuthenticationIsAsynchronous()
+    {
+        when(mockGatewaySessions.authenticatesAsynchronously()).thenReturn(true);
+        when(mockGatewaySessions.authenticateAndInitiate(any(), anyLong(), any(), any(), any())).thenReturn(
+            AuthenticationResult.PENDING);
+    }
+
     private void givenADuplicateSession()
     {
         when(mockGatewaySessions.authenticateAndInitiate(any(), anyLong(), any(), any(), any())).thenReturn(
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.messages.DisconnectReason.APPLICATION_DISCONNECT;
+
+public class ReceiverEndPointsTest
+{
+    private ReceiverEndPoints receiverEndPoints = new ReceiverEndPoints();
+
+    @After
+    public void tearDown()
+    {
+        receiverEndPoints.close();
+    }
+
+    @Test
+    public void shouldPollEveryEndPoint()
+    {
+        final ReceiverEndPoint[] endPoints = new ReceiverEndPoint[3];
+        for (int i = 0; i < endPoints.length; i++)
+        {
+            endPoints[i] = endPoint(i, 10);
+            receiverEndPoints.add(endPoints[i]);
+        }
+
+        assertEquals(10 * endPoints.length, receiverEndPoints.pollEndPoints());
+
+        for (final ReceiverEndPoint endPoint : endPoints)
+        {
+            verify(endPoint).pollForData();
+        }
+    }
+
+    @Test
+    public void shouldOnlyRemoveTheEndPointWithTheConnectionId()
+    {
+        final ReceiverEndPoint kept = endPoint(0, 1);
+        final ReceiverEndPoint removed = endPoint(1, 2);
+        receiverEndPoints.add(kept);
+        receiverEndPoints.add(removed);
+
+        receiverEndPoints.removeConnection(1, APPLICATION_DISCONNECT);
+
+        verify(removed).close(APPLICATION_DISCONNECT);
+        verify(kept, never()).close(APPLICATION_DISCONNECT);
+        assertEquals(1, receiverEndPoints.pollEndPoints());
+    }
+
+    @Test
+    public void shouldPollUnselectableEndPointsAboveTheIterationThreshold()
+    {
+        final int endPointCount = ReceiverEndPoints.POLL_ITERATION_THRESHOLD + 1;
+        for (int i = 0; i < endPointCount; i++)
+        {
+            receiverEndPoints.add(endPoint(i, 1));
+        }
+
+        assertEquals(endPointCount, receiverEndPoints.pollEndPoints());
+    }
+
+    @Test
+    public void shouldRotateWhichEndPointIsPolledFirst()
+    {
+        final ReceiverEndPoint first = endPoint(0, 1);
+        final ReceiverEndPoint second = endPoint(1, 1);
+        receiverEndPoints.add(first);
+        receiverEndPoints.add(second);
+
+        receiverEndPoints.pollEndPoints();
+        receiverEndPoints.pollEndPoints();
+
+        final InOrder inOrder = inOrder(first, second);
+        inOrder.verify(first).pollForData();
+        inOrder.verify(second, times(2)).pollForData();
+        inOrder.verify(first).pollForData();
+    }
+
+    @Test
+    public void shouldPollHigherPriorityEndPointsFirst()
+    {
+        final ReceiverEndPoint lowPriority = endPoint(0, 1);
+        final ReceiverEndPoint highPriority = endPoint(1, 1);
+        receiverEndPoints.add(lowPriority);
+        receiverEndPoints.add(highPriority);
+
+        when(highPriority.receivePriority()).thenReturn(1);
+        receiverEndPoints.onReceivePriorityChanged(highPriority);
+
+        receiverEndPoints.pollEndPoints();
+        receiverEndPoints.pollEndPoints();
+
+        final InOrder inOrder = inOrder(lowPriority, highPriority);
+        inOrder.verify(highPriority).pollForData();
+        inOrder.verify(lowPriority).pollForData();
+        inOrder.verify(highPriority).pollForData();
+        inOrder.verify(lowPriority).pollForData();
+    }
+
+    private ReceiverEndPoint endPoint(final long connectionId, final int bytesRead)
+    {
+        final ReceiverEndPoint endPoint = mock(ReceiverEndPoint.class);
+        when(endPoint.connectionId()).thenReturn(connectionId);
+        when(endPoint.pollForData()).thenReturn(bytesRead);
+        return endPoint;
+    }
+}
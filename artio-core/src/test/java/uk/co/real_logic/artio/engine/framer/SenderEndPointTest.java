@@ -16,25 +16,34 @@
 package uk.co.real_logic.artio.engine.framer;
 
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.ErrorHandler;
 import org.agrona.LangUtil;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.stubbing.Answer;
 import org.mockito.verification.VerificationMode;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS;
 import static uk.co.real_logic.artio.engine.logger.ArchiveDescriptor.alignTerm;
+import static uk.co.real_logic.artio.messages.DisconnectReason.EXCEPTION;
 import static uk.co.real_logic.artio.messages.DisconnectReason.SLOW_CONSUMER;
 import static uk.co.real_logic.artio.protocol.GatewayPublication.FRAME_SIZE;
 
@@ -47,7 +56,7 @@ public class SenderEndPointTest
     private static final long POSITION = 8 * 1024;
     private static final int BODY_LENGTH = 84;
     private static final int LENGTH = FRAME_SIZE + BODY_LENGTH;
-    private static final int FRAGMENT_LENGTH = alignTerm(HEADER_LENGTH + FRAME_SIZE + BODY_LENGTH);
+    private static final int FRAGMENT_LENGTH = alignTerm(LENGTH) + DataHeaderFlyweight.HEADER_LENGTH;
     private static final long BEGIN_POSITION = POSITION - FRAGMENT_LENGTH;
     private static final int MAX_BYTES_IN_BUFFER = 3 * BODY_LENGTH;
 
@@ -60,20 +69,12 @@ public class SenderEndPointTest
     private UnsafeBuffer buffer = new UnsafeBuffer(byteBuffer);
     private BlockablePosition libraryBlockablePosition = mock(BlockablePosition.class);
     private BlockablePosition replayBlockablePosition = mock(BlockablePosition.class);
+    private AtomicCounter batchedWrites = mock(AtomicCounter.class);
+    private AtomicCounter batchedMessages = mock(AtomicCounter.class);
+    private OutboundBatch outboundBatch = new OutboundBatch(1024, 10, batchedWrites, batchedMessages, true);
 
-    private SenderEndPoint endPoint = new SenderEndPoint(
-        CONNECTION_ID,
-        LIBRARY_ID,
-        libraryBlockablePosition,
-        replayBlockablePosition,
-        tcpChannel,
-        bytesInBuffer,
-        invalidLibraryAttempts,
-        errorHandler,
-        framer,
-        MAX_BYTES_IN_BUFFER,
-        DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS,
-        0);
+    private SenderEndPoint endPoint = newEndPoint(false);
+    private SenderEndPoint spillingEndPoint = newEndPoint(true);
 
     @Test
     public void shouldRetrySlowConsumerMessage() throws IOException
@@ -380,6 +381,334 @@ public class SenderEndPointTest
         verifyNoMoreErrors();
     }
 
+    @Test
+    public void shouldWriteBatchedMessagesWithASingleWrite() throws IOException
+    {
+        batchWillWrite(3 * BODY_LENGTH);
+
+        batchOutboundMessage(POSITION);
+        batchOutboundMessage(POSITION + FRAGMENT_LENGTH);
+        batchOutboundMessage(POSITION + 2 * FRAGMENT_LENGTH);
+        writeBatch();
+
+        verify(tcpChannel, times(1)).write(any(ByteBuffer.class));
+        verify(batchedWrites).increment();
+        verify(batchedMessages).addOrdered(3);
+        assertBytesInBuffer(0);
+        verifyDoesNotBlockLibrary();
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldWriteASingleBatchedMessageStraightFromItsBuffer() throws IOException
+    {
+        batchWillWrite(BODY_LENGTH);
+
+        batchOutboundMessage(POSITION);
+        assertTrue(outboundBatch.isReferencingMessage());
+        writeBatch();
+
+        final ArgumentCaptor<ByteBuffer> written = ArgumentCaptor.forClass(ByteBuffer.class);
+        verify(tcpChannel).write(written.capture());
+        assertSame(byteBuffer, written.getValue());
+        verify(batchedMessages).addOrdered(1);
+        verifyDoesNotBlockLibrary();
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldCopyTheFirstBatchedMessageWhenASecondIsBatched() throws IOException
+    {
+        final ByteArrayOutputStream written = recordWrites();
+
+        buffer.setMemory(0, BODY_LENGTH, (byte)'A');
+        buffer.setMemory(BODY_LENGTH, BODY_LENGTH, (byte)'B');
+        assertTrue(endPoint.batchOutboundMessage(LIBRARY_ID, buffer, 0, BODY_LENGTH, POSITION, 0, outboundBatch));
+        assertTrue(endPoint.batchOutboundMessage(
+            LIBRARY_ID, buffer, BODY_LENGTH, BODY_LENGTH, POSITION + FRAGMENT_LENGTH, 0, outboundBatch));
+        assertFalse(outboundBatch.isReferencingMessage());
+        buffer.setMemory(0, BODY_LENGTH, (byte)'C');
+        writeBatch();
+
+        assertArrayEquals(bytes('A', 'B'), written.toByteArray());
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldCopyAReferencedMessageBeforeItsBufferIsReused() throws IOException
+    {
+        final ByteArrayOutputStream written = recordWrites();
+
+        buffer.setMemory(0, BODY_LENGTH, (byte)'A');
+        batchOutboundMessage(POSITION);
+        outboundBatch.copyReferencedMessage();
+        assertFalse(outboundBatch.isReferencingMessage());
+        buffer.setMemory(0, BODY_LENGTH, (byte)'C');
+        writeBatch();
+
+        assertArrayEquals(bytes('A'), written.toByteArray());
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldBecomeSlowConsumerWhenBatchIsPartiallyWritten() throws IOException
+    {
+        final int firstWrites = 41;
+        final int remaining = BODY_LENGTH - firstWrites;
+
+        batchWillWrite(BODY_LENGTH + firstWrites);
+
+        batchOutboundMessage(POSITION - FRAGMENT_LENGTH);
+        batchOutboundMessage(POSITION);
+        batchOutboundMessage(POSITION + FRAGMENT_LENGTH);
+        writeBatch();
+
+        assertBytesInBuffer(remaining + BODY_LENGTH);
+
+        channelWillWrite(remaining);
+        onSlowOutboundMessage();
+        byteBufferWritten();
+        assertBytesInBuffer(BODY_LENGTH);
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldNotBatchMessagesOnceSlowConsumer()
+    {
+        becomeSlowConsumer();
+
+        assertFalse(endPoint.batchOutboundMessage(
+            LIBRARY_ID, buffer, 0, BODY_LENGTH, POSITION, 0, outboundBatch));
+        assertEquals(0, outboundBatch.messageCount());
+    }
+
+    @Test
+    public void shouldSpillBytesThatASlowConsumerHasNotAccepted()
+    {
+        final int firstWrites = 41;
+        final int remaining = BODY_LENGTH - firstWrites;
+
+        channelWillWrite(firstWrites);
+        onSpillingOutboundMessage(POSITION);
+
+        byteBufferWritten();
+        assertBytesInBuffer(remaining);
+        verify(framer).slowStatus(LIBRARY_ID, CONNECTION_ID, true);
+        verifyDoesNotBlockLibrary();
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldWriteSpilledBytesBeforeLaterMessages() throws IOException
+    {
+        final int firstWrites = 41;
+        final int remaining = BODY_LENGTH - firstWrites;
+
+        channelWillWrite(firstWrites);
+        onSpillingOutboundMessage(POSITION);
+
+        when(tcpChannel.write(any(ByteBuffer.class))).thenReturn(remaining, BODY_LENGTH);
+        onSpillingOutboundMessage(POSITION + FRAGMENT_LENGTH);
+
+        verify(tcpChannel, times(3)).write(any(ByteBuffer.class));
+        assertBytesInBuffer(0);
+        verify(framer).slowStatus(LIBRARY_ID, CONNECTION_ID, false);
+        verifyDoesNotBlockLibrary();
+    }
+
+    @Test
+    public void shouldQueueMessagesBehindSpilledBytes() throws IOException
+    {
+        final int firstWrites = 41;
+        final int remaining = BODY_LENGTH - firstWrites;
+
+        channelWillWrite(firstWrites);
+        onSpillingOutboundMessage(POSITION);
+        byteBufferWritten();
+
+        batchWillWrite(0);
+        onSpillingOutboundMessage(POSITION + FRAGMENT_LENGTH);
+
+        byteBufferNotWritten();
+        assertBytesInBuffer(remaining + BODY_LENGTH);
+        verify(framer, times(1)).slowStatus(LIBRARY_ID, CONNECTION_ID, true);
+        verifyDoesNotBlockLibrary();
+    }
+
+    @Test
+    public void shouldDrainSpillBufferWithoutFurtherMessages() throws IOException
+    {
+        final int firstWrites = 41;
+        final int remaining = BODY_LENGTH - firstWrites;
+
+        channelWillWrite(firstWrites);
+        onSpillingOutboundMessage(POSITION);
+
+        batchWillWrite(remaining);
+        assertEquals(remaining, spillingEndPoint.drainSpillBuffer(100));
+
+        assertBytesInBuffer(0);
+        verify(framer).slowStatus(LIBRARY_ID, CONNECTION_ID, false);
+    }
+
+    @Test
+    public void shouldLeaveDisconnectingAfterAFailedDrainToTheCaller() throws IOException
+    {
+        channelWillWrite(41);
+        onSpillingOutboundMessage(POSITION);
+
+        when(tcpChannel.write(any(ByteBuffer.class))).thenThrow(new IOException("Broken pipe"));
+        assertEquals(SenderEndPoint.DRAIN_FAILED, spillingEndPoint.drainSpillBuffer(100));
+
+        verify(errorHandler).onError(any(Exception.class));
+        verify(framer, never()).onDisconnect(LIBRARY_ID, CONNECTION_ID, EXCEPTION);
+    }
+
+    @Test
+    public void shouldDisconnectWhenBacklogOutgrowsSpillBuffer() throws IOException
+    {
+        batchWillWrite(0);
+
+        long position = POSITION;
+        for (int i = 0; i < 3; i++)
+        {
+            onSpillingOutboundMessage(position);
+            position += FRAGMENT_LENGTH;
+        }
+        verifySlowConsumerDisconnect(never());
+        assertBytesInBuffer(MAX_BYTES_IN_BUFFER);
+
+        onSpillingOutboundMessage(position);
+        verifySlowConsumerDisconnect(times(1));
+    }
+
+    @Test
+    public void shouldSpillUnwrittenPartOfABatch() throws IOException
+    {
+        final int firstWrites = 41;
+        final int remaining = BODY_LENGTH - firstWrites;
+
+        batchWillWrite(BODY_LENGTH + firstWrites);
+
+        assertTrue(spillingEndPoint.batchOutboundMessage(
+            LIBRARY_ID, buffer, 0, BODY_LENGTH, POSITION - FRAGMENT_LENGTH, 0, outboundBatch));
+        assertTrue(spillingEndPoint.batchOutboundMessage(
+            LIBRARY_ID, buffer, 0, BODY_LENGTH, POSITION, 0, outboundBatch));
+        assertTrue(spillingEndPoint.batchOutboundMessage(
+            LIBRARY_ID, buffer, 0, BODY_LENGTH, POSITION + FRAGMENT_LENGTH, 0, outboundBatch));
+        outboundBatch.detach();
+        spillingEndPoint.writeBatch(outboundBatch);
+        outboundBatch.reset();
+
+        assertBytesInBuffer(remaining + BODY_LENGTH);
+        verifyDoesNotBlockLibrary();
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldSpillUnwrittenPartOfASingleMessageBatch() throws IOException
+    {
+        final int firstWrites = 41;
+        final int remaining = BODY_LENGTH - firstWrites;
+
+        batchWillWrite(firstWrites);
+
+        buffer.setMemory(BODY_LENGTH, BODY_LENGTH, (byte)'B');
+        assertTrue(spillingEndPoint.batchOutboundMessage(
+            LIBRARY_ID, buffer, BODY_LENGTH, BODY_LENGTH, POSITION, 0, outboundBatch));
+        outboundBatch.detach();
+        spillingEndPoint.writeBatch(outboundBatch);
+        outboundBatch.reset();
+        assertBytesInBuffer(remaining);
+
+        final ByteArrayOutputStream written = recordWrites();
+        assertEquals(remaining, spillingEndPoint.drainSpillBuffer(0));
+        assertArrayEquals(Arrays.copyOf(bytes('B'), remaining), written.toByteArray());
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldNotResendFromTheStreamWhenSpilling() throws IOException
+    {
+        channelWillWrite(0);
+        onSpillingOutboundMessage(POSITION);
+        byteBufferWritten();
+
+        final Action action = spillingEndPoint.onSlowOutboundMessage(
+            buffer, HEADER_LENGTH, LENGTH, POSITION, BODY_LENGTH, LIBRARY_ID, 100);
+
+        assertEquals(CONTINUE, action);
+        byteBufferNotWritten();
+        assertBytesInBuffer(BODY_LENGTH);
+    }
+
+    private SenderEndPoint newEndPoint(final boolean slowConsumerSpill)
+    {
+        return new SenderEndPoint(
+            CONNECTION_ID,
+            LIBRARY_ID,
+            libraryBlockablePosition,
+            replayBlockablePosition,
+            tcpChannel,
+            bytesInBuffer,
+            invalidLibraryAttempts,
+            errorHandler,
+            framer,
+            MAX_BYTES_IN_BUFFER,
+            slowConsumerSpill,
+            DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS,
+            0);
+    }
+
+    private void onSpillingOutboundMessage(final long position)
+    {
+        spillingEndPoint.onOutboundMessage(LIBRARY_ID, buffer, 0, BODY_LENGTH, position, 0);
+    }
+
+    private void batchOutboundMessage(final long position)
+    {
+        assertTrue(endPoint.batchOutboundMessage(
+            LIBRARY_ID, buffer, 0, BODY_LENGTH, position, 0, outboundBatch));
+    }
+
+    private void writeBatch()
+    {
+        outboundBatch.detach();
+        endPoint.writeBatch(outboundBatch);
+        outboundBatch.reset();
+    }
+
+    private void batchWillWrite(final int bytes) throws IOException
+    {
+        when(tcpChannel.write(any(ByteBuffer.class))).thenReturn(bytes);
+    }
+
+    private ByteArrayOutputStream recordWrites() throws IOException
+    {
+        final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        when(tcpChannel.write(any(ByteBuffer.class))).thenAnswer((invocation) ->
+        {
+            final ByteBuffer buffer = invocation.getArgument(0);
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            written.write(bytes, 0, bytes.length);
+            return bytes.length;
+        });
+
+        return written;
+    }
+
+    private static byte[] bytes(final char... messageBytes)
+    {
+        final byte[] bytes = new byte[messageBytes.length * BODY_LENGTH];
+        for (int i = 0; i < messageBytes.length; i++)
+        {
+            Arrays.fill(bytes, i * BODY_LENGTH, (i + 1) * BODY_LENGTH, (byte)messageBytes[i]);
+        }
+
+        return bytes;
+    }
+
     private void byteBufferNotWritten()
     {
         byteBufferWritten(never());
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.co.real_logic.artio.engine.framer.SpillBuffer.INITIAL_CAPACITY;
+
+public class SpillBufferTest
+{
+    private static final int MAX_CAPACITY = 4 * INITIAL_CAPACITY;
+    private static final int LENGTH = INITIAL_CAPACITY / 2 + 1;
+
+    private final UnsafeBuffer srcBuffer = new UnsafeBuffer(new byte[MAX_CAPACITY]);
+    private final TcpChannel channel = mock(TcpChannel.class);
+    private final ByteBuffer written = ByteBuffer.allocate(MAX_CAPACITY);
+    private final SpillBuffer spillBuffer = new SpillBuffer(MAX_CAPACITY);
+
+    @After
+    public void tearDown()
+    {
+        spillBuffer.close();
+    }
+
+    @Test
+    public void shouldOnlyAllocateOnceBytesAreAppended()
+    {
+        assertEquals(0, spillBuffer.capacity());
+
+        append(0);
+
+        assertEquals(INITIAL_CAPACITY, spillBuffer.capacity());
+    }
+
+    @Test
+    public void shouldGrowUpToItsMaximumCapacity()
+    {
+        append(0);
+        append(1);
+        assertEquals(2 * INITIAL_CAPACITY, spillBuffer.capacity());
+
+        append(2);
+        append(3);
+        assertEquals(MAX_CAPACITY, spillBuffer.capacity());
+
+        assertFalse(spillBuffer.append(srcBuffer, 0, MAX_CAPACITY - spillBuffer.size() + 1));
+        assertEquals(4 * LENGTH, spillBuffer.size());
+    }
+
+    @Test
+    public void shouldKeepQueuedBytesInOrderWhenGrowing() throws IOException
+    {
+        append(0);
+        append(1);
+        append(2);
+
+        channelWillAcceptAll();
+        assertEquals(3 * LENGTH, spillBuffer.writeTo(channel));
+
+        for (int i = 0; i < 3 * LENGTH; i++)
+        {
+            assertEquals(srcBuffer.getByte(i), written.get(i));
+        }
+    }
+
+    @Test
+    public void shouldFreeItsMemoryOnceDrained() throws IOException
+    {
+        append(0);
+
+        channelWillAccept(1);
+        assertEquals(1, spillBuffer.writeTo(channel));
+        assertEquals(INITIAL_CAPACITY, spillBuffer.capacity());
+
+        channelWillAcceptAll();
+        assertEquals(LENGTH - 1, spillBuffer.writeTo(channel));
+        assertTrue(spillBuffer.isEmpty());
+        assertEquals(0, spillBuffer.capacity());
+    }
+
+    private void append(final int index)
+    {
+        final int offset = index * LENGTH;
+        for (int i = 0; i < LENGTH; i++)
+        {
+            srcBuffer.putByte(offset + i, (byte)(offset + i));
+        }
+
+        assertTrue(spillBuffer.append(srcBuffer, offset, LENGTH));
+    }
+
+    private void channelWillAccept(final int bytes) throws IOException
+    {
+        when(channel.write(any(ByteBuffer.class))).then(
+            (inv) ->
+            {
+                final ByteBuffer src = inv.getArgument(0);
+                src.limit(src.position() + bytes);
+                final int length = src.remaining();
+                written.put(src);
+                return length;
+            });
+    }
+
+    private void channelWillAcceptAll() throws IOException
+    {
+        when(channel.write(any(ByteBuffer.class))).then(
+            (inv) ->
+            {
+                final ByteBuffer src = inv.getArgument(0);
+                final int length = src.remaining();
+                written.put(src);
+                return length;
+            });
+    }
+}
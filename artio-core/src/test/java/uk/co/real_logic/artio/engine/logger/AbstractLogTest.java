@@ -129,7 +129,7 @@ public class AbstractLogTest
         final int encodedOffset = Encoder.offset(result);
         asciiBuffer = new MutableAsciiBuffer(asciiBuffer, encodedOffset, logEntryLength);
 
-        bufferContainsMessage(sessionId, sequenceIndex, asciiBuffer, messageType);
+        bufferContainsMessage(sessionId, sequenceIndex, asciiBuffer, messageType, sequenceNumber);
     }
 
     protected void bufferContainsMessage(
@@ -137,6 +137,17 @@ public class AbstractLogTest
         final int sequenceIndex,
         final MutableAsciiBuffer asciiBuffer,
         final int messageType)
+    {
+        bufferContainsMessage(
+            sessionId, sequenceIndex, asciiBuffer, messageType, FixMessageEncoder.msgSeqNumNullValue());
+    }
+
+    protected void bufferContainsMessage(
+        final long sessionId,
+        final int sequenceIndex,
+        final MutableAsciiBuffer asciiBuffer,
+        final int messageType,
+        final int msgSeqNum)
     {
         offset = START;
 
@@ -146,6 +157,7 @@ public class AbstractLogTest
             .session(sessionId)
             .connection(CONNECTION_ID)
             .sequenceIndex(sequenceIndex)
+            .msgSeqNum(msgSeqNum)
             .putBody(asciiBuffer, 0, logEntryLength);
 
         offset += MessageHeaderEncoder.ENCODED_LENGTH + messageFrame.sbeBlockLength() + SIZE_OF_LENGTH_FIELD;
@@ -26,7 +26,9 @@ import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
 import org.agrona.IoUtil;
 import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.SystemNanoClock;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -60,6 +62,7 @@ import static java.lang.Integer.min;
 import static java.lang.Integer.numberOfTrailingZeros;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_NAME_PREFIX;
 import static uk.co.real_logic.artio.TestFixtures.cleanupMediaDriver;
@@ -80,9 +83,10 @@ public class ArchiverTest
     private static final int PATCH_VALUE = 44;
     private static final int RESERVED_VALUE = 1;
     private static final String CHANNEL = "aeron:udp?endpoint=localhost:9999";
+    private static final long FLUSH_INTERVAL_IN_NS = 1_000;
     private static final String LOG_FILE_DIR = tmpLogsDirName() + "ArchiverTest-logs";
 
-    @Parameters(name = "{0}")
+    @Parameters(name = "{0} {2}")
     public static Collection<Object[]> data()
     {
         // TODO: enable more comprehensive testing in a CI environment
@@ -93,7 +97,9 @@ public class ArchiverTest
                 Stream.of(
                     //new UnsafeBuffer(ByteBuffer.allocateDirect(size)),
                     new UnsafeBuffer(new byte[size])))
-            .map(buffer -> new Object[]{ buffer.capacity(), buffer })
+            .flatMap(buffer -> Stream
+                .of(ArchiveDurability.values())
+                .map(durability -> new Object[]{ buffer.capacity(), buffer, durability }))
             .collect(Collectors.toList());
     }
 
@@ -106,6 +112,7 @@ public class ArchiverTest
     private final Long2LongHashMap completedPositions = new Long2LongHashMap(CompletionPosition.MISSING_VALUE);
 
     private final int size;
+    private final ArchiveDurability durability;
     private final int endOfFirstMessage;
     private final double fragments;
     private final UnsafeBuffer buffer;
@@ -121,11 +128,13 @@ public class ArchiverTest
 
     private int lastArchivedValue;
     private int work = 0;
+    private long timeInNs = 0;
 
-    public ArchiverTest(final int size, final UnsafeBuffer buffer)
+    public ArchiverTest(final int size, final UnsafeBuffer buffer, final ArchiveDurability durability)
     {
         this.buffer = buffer;
         this.size = size;
+        this.durability = durability;
         writeBuffer = new UnsafeBuffer(new byte[size]);
         fragments = (double)size / MTU_LENGTH;
         endOfFirstMessage = HEADER_LENGTH + alignTerm(size);
@@ -152,6 +161,8 @@ public class ArchiverTest
         archiver = new Archiver(
             metaData, DEFAULT_LOGGER_CACHE_NUM_SETS, DEFAULT_LOGGER_CACHE_SET_SIZE, dataStream, DEFAULT_NAME_PREFIX,
             completionPosition);
+        // Flush every block so that deferred durability modes archive up to the same positions as synchronous
+        archiver.durability(durability, 0, 0, new SystemNanoClock(), mock(AtomicCounter.class));
 
         publication = aeron.addPublication(CHANNEL, STREAM_ID);
         archiver.subscription(aeron.addSubscription(CHANNEL, STREAM_ID));
@@ -204,6 +215,27 @@ public class ArchiverTest
         assertReadsInitialValue(HEADER_LENGTH, endPosition);
     }
 
+    @Test
+    public void shouldOnlyArchiveUpToTheFlushedPositionWhenDeferringDurability()
+    {
+        assumeTrue(durability != ArchiveDurability.SYNCHRONOUS);
+
+        final AtomicCounter unflushedBytes = mock(AtomicCounter.class);
+        archiver.durability(durability, Integer.MAX_VALUE, FLUSH_INTERVAL_IN_NS, () -> timeInNs, unflushedBytes);
+
+        final long endPosition = writeAndArchiveBuffer(INITIAL_VALUE);
+
+        assertPosition(0);
+        verify(unflushedBytes).setOrdered(endPosition);
+        assertReadsInitialValue(HEADER_LENGTH, endPosition);
+
+        timeInNs += FLUSH_INTERVAL_IN_NS;
+        archiver.doWork();
+
+        assertPosition(endPosition);
+        verify(unflushedBytes).setOrdered(0L);
+    }
+
     @Test
     public void shouldReadFilteredDataThatWasWritten()
     {
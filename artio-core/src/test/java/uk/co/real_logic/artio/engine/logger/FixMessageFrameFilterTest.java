@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.messages.MessageStatus;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.packMessageType;
+
+public class FixMessageFrameFilterTest
+{
+    private static final int OFFSET = 8;
+    private static final long SESSION_ID = 1;
+    private static final long OTHER_SESSION_ID = 2;
+    private static final long TIMESTAMP = 1_000;
+
+    private final MessageHeaderEncoder messageHeader = new MessageHeaderEncoder();
+    private final FixMessageEncoder fixMessage = new FixMessageEncoder();
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[256]);
+    private final FixMessageFrameFilter filter = new FixMessageFrameFilter();
+
+    @Test
+    public void shouldPassAnyFixMessageByDefault()
+    {
+        frame(SESSION_ID, "D", TIMESTAMP);
+
+        assertTrue(filter.test(buffer, OFFSET));
+    }
+
+    @Test
+    public void shouldNotPassOtherTemplates()
+    {
+        frame(SESSION_ID, "D", TIMESTAMP);
+        messageHeader.templateId(FixMessageEncoder.TEMPLATE_ID + 1);
+
+        assertFalse(filter.test(buffer, OFFSET));
+    }
+
+    @Test
+    public void shouldFilterBySession()
+    {
+        filter.sessionId(SESSION_ID);
+
+        frame(SESSION_ID, "D", TIMESTAMP);
+        assertTrue(filter.test(buffer, OFFSET));
+
+        frame(OTHER_SESSION_ID, "D", TIMESTAMP);
+        assertFalse(filter.test(buffer, OFFSET));
+    }
+
+    @Test
+    public void shouldFilterByMessageType()
+    {
+        filter.messageTypes("D", "8");
+
+        frame(SESSION_ID, "8", TIMESTAMP);
+        assertTrue(filter.test(buffer, OFFSET));
+
+        frame(SESSION_ID, "0", TIMESTAMP);
+        assertFalse(filter.test(buffer, OFFSET));
+    }
+
+    @Test
+    public void shouldFilterByTimestamp()
+    {
+        filter.between(TIMESTAMP, TIMESTAMP + 1);
+
+        frame(SESSION_ID, "D", TIMESTAMP);
+        assertTrue(filter.test(buffer, OFFSET));
+
+        frame(SESSION_ID, "D", TIMESTAMP - 1);
+        assertFalse(filter.test(buffer, OFFSET));
+
+        frame(SESSION_ID, "D", TIMESTAMP + 1);
+        assertFalse(filter.test(buffer, OFFSET));
+    }
+
+    @Test
+    public void shouldCombineFilters()
+    {
+        filter.sessionId(SESSION_ID).messageTypes("D").between(TIMESTAMP, TIMESTAMP + 1);
+
+        frame(SESSION_ID, "D", TIMESTAMP);
+        assertTrue(filter.test(buffer, OFFSET));
+
+        frame(OTHER_SESSION_ID, "D", TIMESTAMP);
+        assertFalse(filter.test(buffer, OFFSET));
+    }
+
+    private void frame(final long sessionId, final String messageType, final long timestamp)
+    {
+        fixMessage
+            .wrapAndApplyHeader(buffer, OFFSET, messageHeader)
+            .messageType(packMessageType(messageType))
+            .session(sessionId)
+            .timestamp(timestamp)
+            .status(MessageStatus.OK)
+            .putBody(new byte[0], 0, 0);
+    }
+}
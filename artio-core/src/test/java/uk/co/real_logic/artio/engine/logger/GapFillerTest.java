@@ -49,6 +49,6 @@ public class GapFillerTest extends AbstractLogTest
             any(), anyInt(), anyInt(),
             eq(LIBRARY_ID), eq(SequenceResetDecoder.MESSAGE_TYPE),
             eq(SESSION_ID), eq(SEQUENCE_INDEX), eq(CONNECTION_ID),
-            eq(OK));
+            eq(OK), eq(BEGIN_SEQ_NO));
     }
 }
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.FrameDescriptor;
+import io.aeron.logbuffer.Header;
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.BitUtil;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static uk.co.real_logic.artio.engine.logger.FixArchiveScanner.MessageType.SENT;
+
+public class ParallelFixArchiveScannerTest
+{
+    private static final String LOG_FILE_DIR = IoUtil.tmpDirName() + "ParallelFixArchiveScannerTest-logs";
+    private static final String CHANNEL = "aeron:ipc";
+    private static final int TERM_LENGTH = 64 * 1024;
+    private static final int PARALLELISM = 2;
+    private static final int MAX_TERM_FILES_IN_FLIGHT = PARALLELISM * 2;
+    private static final int SESSION_ID = 1;
+    private static final int OTHER_SESSION_ID = 2;
+    private static final int MESSAGES_PER_TERM = 3;
+
+    private final StreamIdentifier streamId = FixArchiveScanner.streamId(CHANNEL, SENT);
+    private final LogDirectoryDescriptor directoryDescriptor = new LogDirectoryDescriptor(LOG_FILE_DIR);
+    private final DataHeaderFlyweight dataHeader = new DataHeaderFlyweight();
+    private final MessageHeaderEncoder messageHeader = new MessageHeaderEncoder();
+    private final FixMessageEncoder fixMessage = new FixMessageEncoder();
+    private final List<Long> timestamps = new ArrayList<>();
+    private final List<Throwable> errors = new ArrayList<>();
+    private final List<Thread> errorThreads = new ArrayList<>();
+
+    private final CountingForkJoinPool pool = new CountingForkJoinPool(PARALLELISM);
+    private long nextTimestamp = 0;
+
+    @Before
+    public void setUp()
+    {
+        final File logFileDir = new File(LOG_FILE_DIR);
+        IoUtil.delete(logFileDir, true);
+        IoUtil.ensureDirectoryExists(logFileDir, LOG_FILE_DIR);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException
+    {
+        pool.shutdownNow();
+        pool.awaitTermination(1, TimeUnit.SECONDS);
+        IoUtil.delete(new File(LOG_FILE_DIR), true);
+    }
+
+    @Test
+    public void shouldConsumeEachSessionsMessagesInPositionOrder()
+    {
+        final List<Long> expectedTimestamps = new ArrayList<>();
+        expectedTimestamps.addAll(writeTerms(SESSION_ID, 10, 4));
+        expectedTimestamps.addAll(writeTerms(OTHER_SESSION_ID, Integer.MAX_VALUE - 1, 4));
+
+        scan(new FixMessageFrameFilter(), true);
+
+        assertNoErrors();
+        assertEquals(expectedTimestamps, timestamps);
+    }
+
+    @Test
+    public void shouldConsumeEveryMessageWhenNotInPositionOrder()
+    {
+        final List<Long> expectedTimestamps = new ArrayList<>();
+        expectedTimestamps.addAll(writeTerms(SESSION_ID, 10, 4));
+        expectedTimestamps.addAll(writeTerms(OTHER_SESSION_ID, Integer.MAX_VALUE - 1, 4));
+
+        final Map<Integer, Long> lastTimestampByTermId = new HashMap<>();
+        new ParallelFixArchiveScanner(LOG_FILE_DIR, pool).scan(
+            CHANNEL,
+            SENT,
+            new FixMessageFrameFilter(),
+            (message, buffer, offset, length, header) ->
+            {
+                final long timestamp = message.timestamp();
+                final Long lastTimestamp = lastTimestampByTermId.put(header.termId(), timestamp);
+                assertTrue("Term file consumed out of order", lastTimestamp == null || lastTimestamp < timestamp);
+                timestamps.add(timestamp);
+            },
+            this::onError,
+            false);
+
+        assertNoErrors();
+        timestamps.sort(Long::compare);
+        assertEquals(expectedTimestamps, timestamps);
+    }
+
+    @Test
+    public void shouldGiveTheConsumerTheArchivedPositionOfEachMessage()
+    {
+        writeTerms(SESSION_ID, 10, 2);
+        writeTerms(OTHER_SESSION_ID, Integer.MAX_VALUE, 2);
+
+        // Skip the first message of the archive so that no copied frame is at its term offset.
+        final FixMessageFrameFilter filter = new FixMessageFrameFilter().between(1, Long.MAX_VALUE);
+        final Map<Long, String> expectedPositions = new HashMap<>();
+        new FixArchiveScanner(LOG_FILE_DIR).scan(
+            CHANNEL,
+            SENT,
+            (message, buffer, offset, length, header) ->
+            {
+                if (message.timestamp() >= 1)
+                {
+                    expectedPositions.put(message.timestamp(), positionOf(header));
+                }
+            },
+            this::onError);
+
+        final Map<Long, String> positions = new HashMap<>();
+        new ParallelFixArchiveScanner(LOG_FILE_DIR, pool).scan(
+            CHANNEL,
+            SENT,
+            filter,
+            (message, buffer, offset, length, header) -> positions.put(message.timestamp(), positionOf(header)),
+            this::onError,
+            true);
+
+        assertNoErrors();
+        assertEquals(4 * MESSAGES_PER_TERM - 1, positions.size());
+        assertEquals(expectedPositions, positions);
+    }
+
+    @Test
+    public void shouldBoundTheTermFilesInFlightInPositionOrder()
+    {
+        shouldBoundTheTermFilesInFlight(true);
+    }
+
+    @Test
+    public void shouldBoundTheTermFilesInFlightWhenNotInPositionOrder()
+    {
+        shouldBoundTheTermFilesInFlight(false);
+    }
+
+    @Test
+    public void shouldReportAnErrorFromAScanningThreadOnTheCallingThread()
+    {
+        final List<Long> expectedTimestamps = writeTerms(SESSION_ID, 0, 2);
+        assertTrue(directoryDescriptor.logFile(streamId, SESSION_ID, 2).mkdir());
+
+        scan(new FixMessageFrameFilter(), true);
+
+        assertEquals(1, errors.size());
+        assertThat(rootCause(errors.get(0)), instanceOf(IOException.class));
+        assertSame(Thread.currentThread(), errorThreads.get(0));
+        assertEquals(expectedTimestamps, timestamps);
+    }
+
+    @Test
+    public void shouldStopAndReportWhenTheCallingThreadIsInterrupted()
+    {
+        writeTerms(SESSION_ID, 0, 8);
+
+        Thread.currentThread().interrupt();
+        scan(new FixMessageFrameFilter(), true);
+
+        assertTrue("Interrupt wasn't restored", Thread.interrupted());
+        assertEquals(1, errors.size());
+        assertThat(errors.get(0), instanceOf(InterruptedException.class));
+        assertEquals(0, timestamps.size());
+    }
+
+    @Test
+    public void shouldStopAndReportWhenThePoolHasBeenShutDown()
+    {
+        writeTerms(SESSION_ID, 0, 2);
+
+        pool.shutdown();
+        scan(new FixMessageFrameFilter(), false);
+
+        assertEquals(1, errors.size());
+        assertThat(errors.get(0), instanceOf(RejectedExecutionException.class));
+        assertEquals(0, timestamps.size());
+    }
+
+    @Test
+    public void shouldStopAndReportWhenThePoolIsShutDownDuringAScan()
+    {
+        final List<Long> expectedTimestamps = writeTerms(SESSION_ID, 0, MAX_TERM_FILES_IN_FLIGHT * 2)
+            .subList(0, MESSAGES_PER_TERM);
+
+        new ParallelFixArchiveScanner(LOG_FILE_DIR, pool).scan(
+            CHANNEL,
+            SENT,
+            new FixMessageFrameFilter(),
+            (message, buffer, offset, length, header) ->
+            {
+                timestamps.add(message.timestamp());
+                pool.shutdownNow();
+            },
+            this::onError,
+            true);
+
+        assertEquals(1, errors.size());
+        assertThat(errors.get(0), instanceOf(RejectedExecutionException.class));
+        assertEquals(expectedTimestamps, timestamps);
+    }
+
+    private void shouldBoundTheTermFilesInFlight(final boolean inPositionOrder)
+    {
+        final int termCount = MAX_TERM_FILES_IN_FLIGHT * 4;
+        writeTerms(SESSION_ID, 0, termCount);
+
+        final AtomicInteger consumedTermFiles = new AtomicInteger();
+        new ParallelFixArchiveScanner(LOG_FILE_DIR, pool).scan(
+            CHANNEL,
+            SENT,
+            new FixMessageFrameFilter(),
+            (message, buffer, offset, length, header) ->
+            {
+                if (header.termOffset() == 0)
+                {
+                    final int inFlight = pool.submittedTasks() - consumedTermFiles.getAndIncrement();
+                    assertThat(inFlight, lessThanOrEqualTo(MAX_TERM_FILES_IN_FLIGHT));
+                }
+                timestamps.add(message.timestamp());
+            },
+            this::onError,
+            inPositionOrder);
+
+        assertNoErrors();
+        assertEquals(termCount, consumedTermFiles.get());
+        assertEquals(termCount, pool.submittedTasks());
+        assertEquals(termCount * MESSAGES_PER_TERM, timestamps.size());
+    }
+
+    private void scan(final FixMessageFrameFilter filter, final boolean inPositionOrder)
+    {
+        new ParallelFixArchiveScanner(LOG_FILE_DIR, pool).scan(
+            CHANNEL,
+            SENT,
+            filter,
+            (message, buffer, offset, length, header) -> timestamps.add(message.timestamp()),
+            this::onError,
+            inPositionOrder);
+    }
+
+    private void onError(final Throwable throwable)
+    {
+        errors.add(throwable);
+        errorThreads.add(Thread.currentThread());
+    }
+
+    private void assertNoErrors()
+    {
+        assertEquals(errors.toString(), 0, errors.size());
+    }
+
+    private static Throwable rootCause(final Throwable throwable)
+    {
+        Throwable cause = throwable;
+        while (cause.getCause() != null)
+        {
+            cause = cause.getCause();
+        }
+
+        return cause;
+    }
+
+    private static String positionOf(final Header header)
+    {
+        return header.termId() + "/" + header.termOffset() + "/" + header.position();
+    }
+
+    // Writes consecutive term files, starting at a term id, and returns the timestamps of their messages in order.
+    private List<Long> writeTerms(final int aeronSessionId, final int initialTermId, final int termCount)
+    {
+        final List<Long> timestamps = new ArrayList<>();
+        for (int i = 0; i < termCount; i++)
+        {
+            final int termId = initialTermId + i;
+            final File logFile = directoryDescriptor.logFile(streamId, aeronSessionId, termId);
+            final MappedByteBuffer byteBuffer = LoggerUtil.mapNewFile(logFile, TERM_LENGTH);
+            try
+            {
+                final UnsafeBuffer termBuffer = new UnsafeBuffer(byteBuffer);
+                int termOffset = 0;
+                for (int j = 0; j < MESSAGES_PER_TERM; j++)
+                {
+                    final long timestamp = nextTimestamp++;
+                    termOffset = writeFrame(termBuffer, termOffset, aeronSessionId, termId, timestamp);
+                    timestamps.add(timestamp);
+                }
+            }
+            finally
+            {
+                IoUtil.unmap(byteBuffer);
+            }
+        }
+
+        return timestamps;
+    }
+
+    private int writeFrame(
+        final UnsafeBuffer termBuffer,
+        final int termOffset,
+        final int aeronSessionId,
+        final int termId,
+        final long timestamp)
+    {
+        final byte[] body = ("35=D\00134=" + timestamp + "\001").getBytes();
+        fixMessage
+            .wrapAndApplyHeader(termBuffer, termOffset + HEADER_LENGTH, messageHeader)
+            .session(timestamp)
+            .timestamp(timestamp)
+            .status(MessageStatus.OK)
+            .putBody(body, 0, body.length);
+        final int frameLength = HEADER_LENGTH + MessageHeaderEncoder.ENCODED_LENGTH + fixMessage.encodedLength();
+
+        dataHeader.wrap(termBuffer, termOffset, HEADER_LENGTH);
+        dataHeader
+            .termOffset(termOffset)
+            .sessionId(aeronSessionId)
+            .streamId(streamId.streamId())
+            .termId(termId)
+            .headerType(DataHeaderFlyweight.HDR_TYPE_DATA)
+            .flags(FrameDescriptor.UNFRAGMENTED)
+            .version(DataHeaderFlyweight.CURRENT_VERSION)
+            .frameLength(frameLength);
+
+        return termOffset + BitUtil.align(frameLength, FRAME_ALIGNMENT);
+    }
+
+    private static final class CountingForkJoinPool extends ForkJoinPool
+    {
+        private final AtomicInteger submittedTasks = new AtomicInteger();
+
+        CountingForkJoinPool(final int parallelism)
+        {
+            super(parallelism);
+        }
+
+        public <T> ForkJoinTask<T> submit(final Callable<T> task)
+        {
+            submittedTasks.incrementAndGet();
+            return super.submit(task);
+        }
+
+        public void execute(final Runnable task)
+        {
+            submittedTasks.incrementAndGet();
+            super.execute(task);
+        }
+
+        int submittedTasks()
+        {
+            return submittedTasks.get();
+        }
+    }
+}
@@ -67,6 +67,7 @@ public class ReplayIndexTest extends AbstractLogTest
             DEFAULT_LOGGER_CACHE_SET_SIZE,
             newBufferFactory,
             replayPositionBuffer,
+            DEFAULT_INDEX_CHECKSUM_FLUSH_INTERVAL,
             errorHandler);
     }
 
@@ -290,6 +291,40 @@ public class ReplayIndexTest extends AbstractLogTest
         verifyMessagesRead(totalMessages + 1);
     }
 
+    @Test
+    public void shouldQueryRecordsIndexedOutOfOrder()
+    {
+        IntStream.of(1, 2, 5, 3, 4, 6).forEach(this::indexExampleMessage);
+
+        final int msgCount = query(3, SEQUENCE_INDEX, MOST_RECENT_MESSAGE, SEQUENCE_INDEX);
+
+        assertEquals(4, msgCount);
+        verifyMessagesRead(4);
+    }
+
+    @Test
+    public void shouldQueryRecordsBeforeAnOutOfOrderRun()
+    {
+        IntStream.of(1, 5, 2, 6).forEach(this::indexExampleMessage);
+
+        final int msgCount = query(3, SEQUENCE_INDEX, MOST_RECENT_MESSAGE, SEQUENCE_INDEX);
+
+        assertEquals(2, msgCount);
+        verifyMessagesRead(2);
+    }
+
+    @Test
+    public void shouldQueryIndexFilesWithoutRunStartPositions()
+    {
+        IntStream.of(1, 5, 2, 6).forEach(this::indexExampleMessage);
+        new MessageHeaderEncoder().wrap(new UnsafeBuffer(indexBuffer), 0).version(0);
+
+        final int msgCount = query(3, SEQUENCE_INDEX, MOST_RECENT_MESSAGE, SEQUENCE_INDEX);
+
+        assertEquals(2, msgCount);
+        verifyMessagesRead(2);
+    }
+
     private OngoingStubbing<Long> whenHandled()
     {
         return when(mockSessionReader.read(anyLong(), any()));
@@ -23,6 +23,8 @@ import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.EpochClock;
 import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.status.AtomicCounter;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -38,6 +40,9 @@ import uk.co.real_logic.artio.fields.UtcTimestampDecoder;
 import uk.co.real_logic.artio.replication.ClusterableSubscription;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -65,12 +70,17 @@ public class ReplayerTest extends AbstractLogTest
             "112=a12345678910123456789101234567891012345\00110=005\001").getBytes(US_ASCII);
 
     private static final int MAX_CLAIM_ATTEMPTS = 100;
+    private static final int REPLAY_BATCH_SIZE = 10;
+    private static final int REPLAY_QUEUE_CAPACITY = 10;
 
     private ReplayQuery replayQuery = mock(ReplayQuery.class);
     private ClusterableSubscription subscription = mock(ClusterableSubscription.class);
     private IdleStrategy idleStrategy = mock(IdleStrategy.class);
     private ErrorHandler errorHandler = mock(ErrorHandler.class);
     private EpochClock clock = mock(EpochClock.class);
+    private NanoClock nanoClock = mock(NanoClock.class);
+    private AtomicCounter replayQueueDepth = mock(AtomicCounter.class);
+    private AtomicCounter lastReplayLatencyInNs = mock(AtomicCounter.class);
     private ArgumentCaptor<ControlledFragmentHandler> handler =
         ArgumentCaptor.forClass(ControlledFragmentHandler.class);
     private Header fragmentHeader = mock(Header.class);
@@ -86,7 +96,19 @@ public class ReplayerTest extends AbstractLogTest
         when(publication.maxPayloadLength()).thenReturn(Configuration.MTU_LENGTH);
         whenReplayQueried().thenReturn(1);
 
-        replayer = new Replayer(
+        replayer = newReplayer(REPLAY_BATCH_SIZE);
+
+        verify(publication).maxPayloadLength();
+    }
+
+    private Replayer newReplayer(final int replayBatchSize)
+    {
+        return newReplayer(replayBatchSize, REPLAY_QUEUE_CAPACITY);
+    }
+
+    private Replayer newReplayer(final int replayBatchSize, final int replayQueueCapacity)
+    {
+        return new Replayer(
             replayQuery,
             publication,
             claim,
@@ -95,9 +117,12 @@ public class ReplayerTest extends AbstractLogTest
             MAX_CLAIM_ATTEMPTS,
             subscription,
             DEFAULT_NAME_PREFIX,
-            clock);
-
-        verify(publication).maxPayloadLength();
+            clock,
+            nanoClock,
+            replayBatchSize,
+            replayQueueCapacity,
+            replayQueueDepth,
+            lastReplayLatencyInNs);
     }
 
     private OngoingStubbing<Integer> whenReplayQueried()
@@ -182,7 +207,7 @@ public class ReplayerTest extends AbstractLogTest
 
         backpressureTryClaim();
 
-        onReplay(endSeqNo, ABORT, inv ->
+        onReplay(endSeqNo, inv ->
         {
             onTestRequest(SEQUENCE_NUMBER);
 
@@ -195,7 +220,12 @@ public class ReplayerTest extends AbstractLogTest
 
         claimedAndNothingMore();
 
-        shouldGapFillOnceForTwoConsecutiveAdminMessages();
+        final int offset = setupCapturingClaim();
+
+        replayer.doWork();
+
+        verifyNoMoreInteractions(replayQuery);
+        assertReSentGapFill(SEQUENCE_NUMBER, endSeqNo, offset, times(1));
     }
 
     @Test
@@ -240,7 +270,7 @@ public class ReplayerTest extends AbstractLogTest
     {
         final int endSeqNo = replayTwoMessages();
 
-        onReplay(endSeqNo, ABORT, inv ->
+        onReplay(endSeqNo, inv ->
         {
             setupCapturingClaim();
 
@@ -258,7 +288,7 @@ public class ReplayerTest extends AbstractLogTest
         verifyClaim();
         reset(publication, claim, replayQuery);
 
-        onReplay(endSeqNo, inv ->
+        onRetry(inv ->
         {
             assertBeginSeqNo(endSeqNo, inv);
 
@@ -277,7 +307,7 @@ public class ReplayerTest extends AbstractLogTest
     {
         final int endSeqNo = replayTwoMessages();
 
-        onReplay(endSeqNo, ABORT, inv ->
+        onReplay(endSeqNo, inv ->
         {
             setupCapturingClaim();
 
@@ -289,7 +319,7 @@ public class ReplayerTest extends AbstractLogTest
 
             onTestRequest(endSeqNo);
 
-            return 1;
+            return 2;
         });
 
         verifyClaim();
@@ -297,15 +327,10 @@ public class ReplayerTest extends AbstractLogTest
 
         final int offset = setupCapturingClaim();
 
-        onReplay(endSeqNo, inv ->
-        {
-            assertBeginSeqNo(endSeqNo, inv);
-
-            onTestRequest(endSeqNo);
-
-            return 1;
-        });
+        // Only the gap fill is retried, the admin message has already been read.
+        replayer.doWork();
 
+        verifyNoMoreInteractions(replayQuery);
         assertReSentGapFill(endSeqNo, endSeqNo, offset, times(1));
     }
 
@@ -339,11 +364,16 @@ public class ReplayerTest extends AbstractLogTest
         whenReplayQueried().thenReturn(0);
 
         final long result = bufferHasResendRequest(endSeqNo);
-        onMessage(ResendRequestDecoder.MESSAGE_TYPE, result, ABORT);
+        onContinuedRequestResendMessage(result);
 
         claimedAndNothingMore();
 
-        shouldGapFillMissingMesages();
+        final int offset = setupCapturingClaim();
+
+        replayer.doWork();
+
+        assertReSentGapFill(SEQUENCE_NUMBER, endSeqNo + 1, offset, times(1));
+        verifyIllegalStateException();
     }
 
     @Test
@@ -372,28 +402,13 @@ public class ReplayerTest extends AbstractLogTest
     @Test
     public void shouldReplayMessageWithExpandingBodyLength()
     {
-        onReplay(END_SEQ_NO, inv ->
-        {
-            bufferContainsMessage(MESSAGE_REQUIRING_LONGER_BODY_LENGTH);
-
-            final int srcLength = fragmentLength();
-            setupCapturingClaim();
-
-            onFragment(srcLength);
-
-            assertHasResentWithPossDupFlag(claimedLength, times(1));
-            hasNotOverwrittenSeperatorChar();
-
-            assertEndsWithValidChecksum(offset + 1);
-
-            return 1;
-        });
+        onReplay(END_SEQ_NO, inv -> replaysMessageWithExpandingBodyLength());
     }
 
     @Test
     public void shouldReplayMessageWithExpandingBodyLengthWhenBackPressured()
     {
-        onReplay(END_SEQ_NO, ABORT, inv ->
+        onReplay(END_SEQ_NO, inv ->
         {
             bufferContainsMessage(MESSAGE_REQUIRING_LONGER_BODY_LENGTH);
 
@@ -403,13 +418,30 @@ public class ReplayerTest extends AbstractLogTest
 
             verifyClaim();
 
-            return 1;
+            return 0;
         });
 
         verifyNoMoreInteractions(publication, claim);
         reset(publication, claim, replayQuery);
 
-        shouldReplayMessageWithExpandingBodyLength();
+        onRetry(inv -> replaysMessageWithExpandingBodyLength());
+    }
+
+    private int replaysMessageWithExpandingBodyLength()
+    {
+        bufferContainsMessage(MESSAGE_REQUIRING_LONGER_BODY_LENGTH);
+
+        final int srcLength = fragmentLength();
+        setupCapturingClaim();
+
+        onFragment(srcLength);
+
+        assertHasResentWithPossDupFlag(claimedLength, times(1));
+        hasNotOverwrittenSeperatorChar();
+
+        assertEndsWithValidChecksum(offset + 1);
+
+        return 1;
     }
 
     @Test
@@ -456,6 +488,105 @@ public class ReplayerTest extends AbstractLogTest
         verifyNoMoreInteractions(replayQuery, publication);
     }
 
+    @Test
+    public void shouldInterleaveBatchesOfConcurrentResendRequests()
+    {
+        replayer = newReplayer(1);
+
+        final int endSeqNo = replayTwoMessages();
+        final List<String> queries = new ArrayList<>();
+        setupCapturingClaim();
+        whenReplayQueried().then(inv ->
+        {
+            final long sessionId = (long)inv.getArguments()[1];
+            final int beginSeqNo = (int)inv.getArguments()[2];
+            queries.add(sessionId + ":" + beginSeqNo);
+
+            onExampleMessage(beginSeqNo);
+            if (beginSeqNo < endSeqNo)
+            {
+                onExampleMessage(beginSeqNo + 1, ABORT);
+            }
+
+            return 1;
+        });
+
+        onResendRequest(SESSION_ID, endSeqNo);
+        onResendRequest(SESSION_ID_2, endSeqNo);
+        verify(replayQueueDepth).setOrdered(2);
+
+        replayer.doWork();
+        replayer.doWork();
+
+        assertEquals(Arrays.asList("1:2", "2:2", "1:3", "2:3"), queries);
+        verify(replayQueueDepth, atLeastOnce()).setOrdered(0);
+        verify(lastReplayLatencyInNs, times(2)).setOrdered(anyLong());
+    }
+
+    @Test
+    public void shouldReplayResendRequestsForTheSameSessionInTurn()
+    {
+        replayer = newReplayer(1);
+
+        final int endSeqNo = replayTwoMessages();
+        final List<String> queries = new ArrayList<>();
+        setupCapturingClaim();
+        whenReplayQueried().then(inv ->
+        {
+            final long sessionId = (long)inv.getArguments()[1];
+            final int beginSeqNo = (int)inv.getArguments()[2];
+            queries.add(sessionId + ":" + beginSeqNo);
+
+            onExampleMessage(beginSeqNo);
+            if (beginSeqNo < endSeqNo)
+            {
+                onExampleMessage(beginSeqNo + 1, ABORT);
+            }
+
+            return 1;
+        });
+
+        onResendRequest(SESSION_ID, endSeqNo);
+        onResendRequest(SESSION_ID, endSeqNo);
+        verify(replayQueueDepth).setOrdered(2);
+
+        for (int i = 0; i < 4; i++)
+        {
+            replayer.doWork();
+        }
+
+        assertEquals(Arrays.asList("1:2", "1:3", "1:2", "1:3"), queries);
+        verify(replayQueueDepth, atLeastOnce()).setOrdered(0);
+        verify(lastReplayLatencyInNs, times(2)).setOrdered(anyLong());
+    }
+
+    @Test
+    public void shouldStopReadingResendRequestsWhenTheQueueIsFull()
+    {
+        replayer = newReplayer(REPLAY_BATCH_SIZE, 1);
+
+        final long result = bufferHasResendRequest(END_SEQ_NO);
+        onMessage(ResendRequestDecoder.MESSAGE_TYPE, SESSION_ID, result, CONTINUE);
+        onMessage(ResendRequestDecoder.MESSAGE_TYPE, SESSION_ID_2, result, ABORT);
+
+        replayer.doWork();
+
+        onMessage(ResendRequestDecoder.MESSAGE_TYPE, SESSION_ID_2, result, CONTINUE);
+    }
+
+    @Test
+    public void shouldRecordReplayLatency()
+    {
+        when(nanoClock.nanoTime()).thenReturn(10L, 25L);
+
+        final long result = bufferHasResendRequest(END_SEQ_NO);
+        onContinuedRequestResendMessage(result);
+
+        verify(replayQueueDepth).setOrdered(1);
+        verify(replayQueueDepth).setOrdered(0);
+        verify(lastReplayLatencyInNs).setOrdered(15L);
+    }
+
     @After
     public void shouldHaveNoMoreErrors()
     {
@@ -517,7 +648,17 @@ public class ReplayerTest extends AbstractLogTest
 
     private void onReplay(final int endSeqNo, final Answer<?> answer)
     {
-        onReplay(endSeqNo, Action.CONTINUE, answer);
+        whenReplayQueried().then(answer);
+
+        final long result = bufferHasResendRequest(endSeqNo);
+        onContinuedRequestResendMessage(result);
+    }
+
+    private void onRetry(final Answer<?> answer)
+    {
+        whenReplayQueried().then(answer);
+
+        replayer.doWork();
     }
 
     private void onFragment(final int length, final Action expectedAction)
@@ -528,17 +669,6 @@ public class ReplayerTest extends AbstractLogTest
         assertEquals(expectedAction, action);
     }
 
-    private void onReplay(
-        final int endSeqNo,
-        final Action expectedAction,
-        final Answer<?> answer)
-    {
-        whenReplayQueried().then(answer);
-
-        final long result = bufferHasResendRequest(endSeqNo);
-        onMessage(ResendRequestDecoder.MESSAGE_TYPE, result, expectedAction);
-    }
-
     private void verifyIllegalStateException()
     {
         verify(errorHandler).onError(any(IllegalStateException.class));
@@ -631,15 +761,29 @@ public class ReplayerTest extends AbstractLogTest
     private void onContinuedRequestResendMessage(final long result)
     {
         onMessage(ResendRequestDecoder.MESSAGE_TYPE, result, CONTINUE);
+
+        replayer.doWork();
+    }
+
+    private void onResendRequest(final long sessionId, final int endSeqNo)
+    {
+        final long result = bufferHasResendRequest(endSeqNo);
+        onMessage(ResendRequestDecoder.MESSAGE_TYPE, sessionId, result, CONTINUE);
     }
 
     private void onMessage(final int messageType, final long result, final Action expectedAction)
+    {
+        onMessage(messageType, SESSION_ID, result, expectedAction);
+    }
+
+    private void onMessage(
+        final int messageType, final long sessionId, final long result, final Action expectedAction)
     {
         final int length = Encoder.length(result);
         final int offset = Encoder.offset(result);
         final Action action = replayer.onMessage(
             buffer, offset, length,
-            LIBRARY_ID, CONNECTION_ID, SESSION_ID, SEQUENCE_INDEX, messageType, 0L, OK, 0L);
+            LIBRARY_ID, CONNECTION_ID, sessionId, SEQUENCE_INDEX, messageType, 0L, OK, 0L);
         assertEquals(expectedAction, action);
     }
 
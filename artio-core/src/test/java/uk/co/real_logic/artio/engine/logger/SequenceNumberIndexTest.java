@@ -29,10 +29,12 @@ import org.mockito.Mockito;
 import uk.co.real_logic.artio.FileSystemCorruptionException;
 import uk.co.real_logic.artio.engine.MappedFile;
 import uk.co.real_logic.artio.engine.SessionInfo;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
 
 import java.io.File;
 
 import static org.agrona.IoUtil.deleteIfExists;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
@@ -104,6 +106,45 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         assertLastKnownSequenceNumberIs(SESSION_ID, updatedSequenceNumber);
     }
 
+    @Test
+    public void shouldDecodeSequenceNumberOfMessagesFramedWithoutOne()
+    {
+        bufferContainsExampleMessage(true);
+        messageFrame.msgSeqNum(FixMessageEncoder.msgSeqNumNullValue());
+        indexRecord(alignedEndPosition());
+
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+    }
+
+    @Test
+    public void shouldReadUpdatedSequenceNumberOfPreviouslyReadSession()
+    {
+        final int updatedSequenceNumber = 8;
+
+        indexFixMessage();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+
+        bufferContainsExampleMessage(true, SESSION_ID, updatedSequenceNumber, SEQUENCE_INDEX);
+        indexRecord(alignedEndPosition() + fragmentLength());
+
+        assertLastKnownSequenceNumberIs(SESSION_ID, updatedSequenceNumber);
+    }
+
+    @Test
+    public void shouldNotReadSessionsThatWereReadBeforeAReset()
+    {
+        indexFixMessage();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+
+        writer.resetSequenceNumbers();
+
+        bufferContainsExampleMessage(true, SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+        indexRecord(alignedEndPosition() + fragmentLength());
+
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SEQUENCE_NUMBER);
+        assertUnknownSession();
+    }
+
     @Test
     public void shouldValidateBufferItReadsFrom()
     {
@@ -217,6 +258,39 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         }
     }
 
+    @Test
+    public void shouldKeepIndexFileCompleteWhenOnlySavingChangedSectors()
+    {
+        final int recordsOverlappingABlock = SECTOR_SIZE / RECORD_SIZE + 1;
+        int position = alignedEndPosition();
+        for (int round = 0; round < 6; round++)
+        {
+            // Each round moves a different set of sessions on and rolls the term.
+            final int firstSession = round % 2 == 0 ? 1 : recordsOverlappingABlock / 2;
+            for (int sessionId = firstSession; sessionId <= recordsOverlappingABlock; sessionId += 3)
+            {
+                bufferContainsExampleMessage(true, sessionId, round + 1, SEQUENCE_INDEX);
+                position += buffer.capacity();
+                indexRecord(position);
+            }
+
+            assertIndexFileMatchesSequenceNumbers();
+        }
+    }
+
+    private void assertIndexFileMatchesSequenceNumbers()
+    {
+        final int sequenceNumbersLength = positionTableOffset(BUFFER_SIZE);
+        try (MappedFile mappedFile = newIndexFile())
+        {
+            final byte[] expected = new byte[sequenceNumbersLength];
+            final byte[] saved = new byte[sequenceNumbersLength];
+            inMemoryBuffer.getBytes(0, expected);
+            mappedFile.buffer().getBytes(0, saved);
+            assertArrayEquals(expected, saved);
+        }
+    }
+
     @Test
     public void shouldAlignMessagesAndNotOverlapCheckSums()
     {
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TermFilePoolTest
+{
+    private static final String LOG_FILE_DIR = IoUtil.tmpDirName() + "TermFilePoolTest-logs";
+    private static final int TERM_LENGTH = 64 * 1024;
+    private static final int CAPACITY = 2;
+
+    private final StreamIdentifier streamId = new StreamIdentifier("aeron:ipc", 1);
+    private final LogDirectoryDescriptor directoryDescriptor = new LogDirectoryDescriptor(LOG_FILE_DIR);
+    private final File termFile = directoryDescriptor.logFile(streamId, 1, 0);
+
+    private TermFilePool pool;
+
+    @Before
+    public void setUp()
+    {
+        final File logFileDir = new File(LOG_FILE_DIR);
+        IoUtil.delete(logFileDir, true);
+        IoUtil.ensureDirectoryExists(logFileDir, LOG_FILE_DIR);
+    }
+
+    @After
+    public void tearDown()
+    {
+        pool.close();
+        IoUtil.delete(new File(LOG_FILE_DIR), true);
+    }
+
+    @Test
+    public void shouldNotCreateFilesUntilTermLengthIsKnown()
+    {
+        newPool(false);
+
+        assertEquals(0, pool.topUp());
+        assertFalse(pool.claim(termFile, TERM_LENGTH));
+    }
+
+    @Test
+    public void shouldTopUpToCapacity()
+    {
+        newPool(false);
+        pool.termLength(TERM_LENGTH);
+
+        assertEquals(1, pool.topUp());
+        assertEquals(1, pool.topUp());
+        assertEquals(0, pool.topUp());
+
+        assertEquals(CAPACITY, pool.size());
+        assertEquals(CAPACITY, directoryDescriptor.listPooledTermFiles(streamId).size());
+    }
+
+    @Test
+    public void shouldMovePooledFileToTermFile()
+    {
+        newPool(true);
+        pool.termLength(TERM_LENGTH);
+        pool.topUp();
+
+        assertTrue(pool.claim(termFile, TERM_LENGTH));
+
+        assertTrue(termFile.exists());
+        assertEquals(TERM_LENGTH, termFile.length());
+        assertEquals(0, pool.size());
+        assertTrue(directoryDescriptor.listPooledTermFiles(streamId).isEmpty());
+    }
+
+    @Test
+    public void shouldNotClaimPooledFileOfADifferentLength()
+    {
+        newPool(false);
+        pool.termLength(TERM_LENGTH);
+        pool.topUp();
+
+        assertFalse(pool.claim(termFile, TERM_LENGTH * 2));
+
+        assertFalse(termFile.exists());
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void shouldDeletePooledFilesWhenClosed()
+    {
+        newPool(false);
+        pool.termLength(TERM_LENGTH);
+        pool.topUp();
+
+        pool.close();
+
+        assertTrue(directoryDescriptor.listPooledTermFiles(streamId).isEmpty());
+    }
+
+    @Test
+    public void shouldDeletePooledFilesLeftByAPreviousRun()
+    {
+        newPool(false);
+        pool.termLength(TERM_LENGTH);
+        pool.topUp();
+
+        newPool(false);
+
+        assertTrue(directoryDescriptor.listPooledTermFiles(streamId).isEmpty());
+    }
+
+    private void newPool(final boolean preTouch)
+    {
+        pool = new TermFilePool(directoryDescriptor, streamId, CAPACITY, preTouch);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOG_FILE_DIR;
+import static uk.co.real_logic.artio.engine.logger.TimeIndexReader.END_OF_ARCHIVE;
+
+public class TimeIndexTest extends AbstractLogTest
+{
+    private static final int DATA_LENGTH = 96;
+    private static final int FRAME_LENGTH = HEADER_LENGTH + DATA_LENGTH;
+    private static final int OTHER_AERON_SESSION_ID = AERON_SESSION_ID + 1;
+
+    private final File indexFile = TimeIndexDescriptor.timeIndexFile(DEFAULT_LOG_FILE_DIR, STREAM_ID);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final List<Long> ranges = new ArrayList<>();
+
+    private TimeIndexWriter writer;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.deleteIfExists(indexFile);
+    }
+
+    @After
+    public void tearDown()
+    {
+        IoUtil.deleteIfExists(indexFile);
+        verifyNoMoreInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldSeekToTheRecordsAroundARange()
+    {
+        newWriter(10);
+        indexMessages(AERON_SESSION_ID, 0, 10, 20, 30, 40);
+        writer.close();
+
+        query(AERON_SESSION_ID, 25, 35);
+
+        assertEquals(asList((long)AERON_SESSION_ID, beginPosition(2), beginPosition(4)), ranges);
+    }
+
+    @Test
+    public void shouldOnlyIndexOncePerInterval()
+    {
+        newWriter(100);
+        indexMessages(AERON_SESSION_ID, 0, 10, 20, 30, 40);
+        writer.close();
+
+        assertEquals(TimeIndexDescriptor.RECORD_LENGTH, indexFile.length());
+
+        query(AERON_SESSION_ID, 25, 35);
+
+        assertEquals(asList((long)AERON_SESSION_ID, beginPosition(0), END_OF_ARCHIVE), ranges);
+    }
+
+    @Test
+    public void shouldIndexAeronSessionsSeparately()
+    {
+        newWriter(10);
+        indexMessages(AERON_SESSION_ID, 0, 10);
+        indexMessages(OTHER_AERON_SESSION_ID, 0, 10);
+        writer.close();
+
+        final TimeIndexReader reader = new TimeIndexReader(indexFile, 5, 10);
+        reader.forEachRange(this::onRange);
+
+        assertEquals(6, ranges.size());
+    }
+
+    @Test
+    public void shouldNotSeekInAnAeronSessionIndexedPartWayThrough()
+    {
+        newWriter(10);
+        indexMessage(OTHER_AERON_SESSION_ID, 1, 30);
+        writer.close();
+
+        final TimeIndexReader reader = new TimeIndexReader(indexFile, 25, 35);
+        reader.forEachRange(this::onRange);
+
+        assertFalse(reader.canSeek(OTHER_AERON_SESSION_ID));
+        assertTrue(ranges.isEmpty());
+    }
+
+    @Test
+    public void shouldAppendToAnExistingIndex()
+    {
+        newWriter(10);
+        indexMessages(AERON_SESSION_ID, 0, 10);
+        writer.close();
+
+        newWriter(10);
+        indexMessage(AERON_SESSION_ID, 2, 20);
+        writer.close();
+
+        final TimeIndexReader reader = new TimeIndexReader(indexFile, 15, 25);
+        reader.forEachRange(this::onRange);
+
+        assertTrue(reader.canSeek(AERON_SESSION_ID));
+        assertEquals(asList((long)AERON_SESSION_ID, beginPosition(1), END_OF_ARCHIVE), ranges);
+    }
+
+    private void newWriter(final long intervalInNs)
+    {
+        writer = new TimeIndexWriter(DEFAULT_LOG_FILE_DIR, STREAM_ID, intervalInNs, errorHandler);
+    }
+
+    private void indexMessages(final int aeronSessionId, final long... timestamps)
+    {
+        for (int i = 0; i < timestamps.length; i++)
+        {
+            indexMessage(aeronSessionId, i, timestamps[i]);
+        }
+    }
+
+    private void indexMessage(final int aeronSessionId, final int index, final long timestamp)
+    {
+        messageFrame
+            .wrapAndApplyHeader(buffer, START, header)
+            .timestamp(timestamp);
+
+        writer.indexRecord(
+            buffer, START, DATA_LENGTH, STREAM_ID, aeronSessionId, beginPosition(index) + DATA_LENGTH);
+    }
+
+    private void query(final int aeronSessionId, final long begin, final long end)
+    {
+        final TimeIndexReader reader = new TimeIndexReader(indexFile, begin, end);
+        assertTrue(reader.canSeek(aeronSessionId));
+        reader.forEachRange(this::onRange);
+    }
+
+    private void onRange(final int aeronSessionId, final long beginPosition, final long endPosition)
+    {
+        ranges.add((long)aeronSessionId);
+        ranges.add(beginPosition);
+        ranges.add(endPosition);
+    }
+
+    private static long beginPosition(final int index)
+    {
+        return HEADER_LENGTH + (long)index * FRAME_LENGTH;
+    }
+}
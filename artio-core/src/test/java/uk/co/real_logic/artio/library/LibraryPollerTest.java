@@ -16,6 +16,7 @@
 package uk.co.real_logic.artio.library;
 
 import io.aeron.Subscription;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.junit.Before;
 import org.junit.Test;
@@ -26,6 +27,8 @@ import org.mockito.stubbing.OngoingStubbing;
 import org.mockito.verification.VerificationMode;
 import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.engine.framer.FakeEpochClock;
+import uk.co.real_logic.artio.messages.AvailableSessionsDecoder;
+import uk.co.real_logic.artio.messages.AvailableSessionsEncoder;
 import uk.co.real_logic.artio.messages.ControlNotificationDecoder.SessionsDecoder;
 import uk.co.real_logic.artio.messages.LogonStatus;
 import uk.co.real_logic.artio.messages.SlowStatus;
@@ -71,6 +74,7 @@ public class LibraryPollerTest
     private LibraryConnectHandler connectHandler = mock(LibraryConnectHandler.class);
     private SessionHandler sessionHandler = mock(SessionHandler.class);
     private SessionAcquireHandler sessionAcquireHandler = mock(SessionAcquireHandler.class);
+    private SessionExistsHandler sessionExistsHandler = mock(SessionExistsHandler.class);
     private GatewayPublication outboundPublication = mock(GatewayPublication.class);
     private Subscription inboundSubscription = mock(Subscription.class);
     private LibraryTransport transport = mock(LibraryTransport.class);
@@ -225,6 +229,39 @@ public class LibraryPollerTest
         doesNotAttemptConnectTo(LEADER_CHANNEL);
     }
 
+    @Test
+    public void shouldNotifyClientOfEachAvailableSession()
+    {
+        connectToSingleEngine();
+
+        library.onAvailableSessions(libraryId(), availableSessions(SESSION_ID, OTHER_SESSION_ID));
+
+        verifySessionExists(SESSION_ID);
+        verifySessionExists(OTHER_SESSION_ID);
+        verifyNoMoreInteractions(sessionExistsHandler);
+    }
+
+    @Test
+    public void shouldNotifyClientOfSessionsAvailableToAllLibraries()
+    {
+        connectToSingleEngine();
+
+        library.onAvailableSessions(ENGINE_LIBRARY_ID, availableSessions(SESSION_ID));
+
+        verifySessionExists(SESSION_ID);
+        verifyNoMoreInteractions(sessionExistsHandler);
+    }
+
+    @Test
+    public void shouldNotNotifyClientOfSessionsAvailableToOtherLibraries()
+    {
+        connectToSingleEngine();
+
+        library.onAvailableSessions(libraryId() + 1, availableSessions(SESSION_ID));
+
+        verifyNoMoreInteractions(sessionExistsHandler);
+    }
+
     private void sendsLibraryConnect(final VerificationMode times)
     {
         verify(outboundPublication, times)
@@ -374,6 +411,7 @@ public class LibraryPollerTest
             new LibraryConfiguration()
                 .libraryAeronChannels(libraryAeronChannels)
                 .sessionAcquireHandler(sessionAcquireHandler)
+                .sessionExistsHandler(sessionExistsHandler)
                 .libraryConnectHandler(connectHandler),
             new LibraryTimers(clock::time),
             counters,
@@ -411,6 +449,49 @@ public class LibraryPollerTest
             address);
     }
 
+    private AvailableSessionsDecoder.SessionsDecoder availableSessions(final long... sessionIds)
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[1024]);
+        final AvailableSessionsEncoder encoder = new AvailableSessionsEncoder().wrap(buffer, 0);
+        final AvailableSessionsEncoder.SessionsEncoder sessionsEncoder = encoder
+            .libraryId(libraryId())
+            .sessionsCount(sessionIds.length);
+        for (final long sessionId : sessionIds)
+        {
+            sessionsEncoder.next()
+                .session(sessionId)
+                .lastSentSequenceNumber(LAST_SENT_SEQUENCE_NUMBER)
+                .lastReceivedSequenceNumber(LAST_RECEIVED_SEQUENCE_NUMBER + 1)
+                .sequenceIndex(SEQUENCE_INDEX)
+                .localCompId("local" + sessionId)
+                .localSubId("")
+                .localLocationId("")
+                .remoteCompId("remote" + sessionId)
+                .remoteSubId("sub")
+                .remoteLocationId("");
+        }
+
+        return new AvailableSessionsDecoder()
+            .wrap(buffer, 0, AvailableSessionsEncoder.BLOCK_LENGTH, AvailableSessionsEncoder.SCHEMA_VERSION)
+            .sessions();
+    }
+
+    private void verifySessionExists(final long sessionId)
+    {
+        verify(sessionExistsHandler).onSessionExists(
+            fixLibrary,
+            sessionId,
+            "local" + sessionId,
+            "",
+            "",
+            "remote" + sessionId,
+            "sub",
+            "",
+            LAST_SENT_SEQUENCE_NUMBER,
+            LAST_RECEIVED_SEQUENCE_NUMBER + 1,
+            SEQUENCE_INDEX);
+    }
+
     private SessionsDecoder hasOtherSessionId()
     {
         final SessionsDecoder sessionsDecoder = mock(SessionsDecoder.class);
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.protocol;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.ApplicationHeartbeatEncoder;
+import uk.co.real_logic.artio.messages.DisconnectEncoder;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static io.aeron.logbuffer.FrameDescriptor.END_FRAG_FLAG;
+import static io.aeron.logbuffer.FrameDescriptor.UNFRAGMENTED;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class LibraryFragmentFilterTest
+{
+    private static final int LIBRARY_ID = 3;
+    private static final int OTHER_LIBRARY_ID = 4;
+    private static final int OFFSET = 8;
+    private static final int LENGTH = 64;
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[256]);
+    private final MessageHeaderEncoder messageHeader = new MessageHeaderEncoder();
+    private final ControlledFragmentHandler delegate = mock(ControlledFragmentHandler.class);
+    private final Header header = mock(Header.class);
+
+    private final LibraryFragmentFilter filter = new LibraryFragmentFilter(LIBRARY_ID, delegate);
+
+    @Before
+    public void setUp()
+    {
+        when(header.flags()).thenReturn(UNFRAGMENTED);
+        when(delegate.onFragment(any(), anyInt(), anyInt(), any())).thenReturn(CONTINUE);
+    }
+
+    @Test
+    public void shouldPassOnFixMessagesForThisLibrary()
+    {
+        fixMessageFor(LIBRARY_ID);
+
+        assertPassedOn();
+    }
+
+    @Test
+    public void shouldDropFixMessagesForOtherLibraries()
+    {
+        fixMessageFor(OTHER_LIBRARY_ID);
+
+        assertDropped();
+    }
+
+    @Test
+    public void shouldDropDisconnectsForOtherLibraries()
+    {
+        new DisconnectEncoder()
+            .wrapAndApplyHeader(buffer, OFFSET, messageHeader)
+            .libraryId(OTHER_LIBRARY_ID);
+
+        assertDropped();
+    }
+
+    @Test
+    public void shouldPassOnControlMessagesForOtherLibraries()
+    {
+        new ApplicationHeartbeatEncoder()
+            .wrapAndApplyHeader(buffer, OFFSET, messageHeader)
+            .libraryId(OTHER_LIBRARY_ID);
+
+        assertPassedOn();
+    }
+
+    @Test
+    public void shouldPassOnContinuationFragments()
+    {
+        when(header.flags()).thenReturn(END_FRAG_FLAG);
+        fixMessageFor(OTHER_LIBRARY_ID);
+
+        assertPassedOn();
+    }
+
+    private void fixMessageFor(final int libraryId)
+    {
+        new FixMessageEncoder()
+            .wrapAndApplyHeader(buffer, OFFSET, messageHeader)
+            .libraryId(libraryId);
+    }
+
+    private void assertPassedOn()
+    {
+        assertEquals(CONTINUE, filter.onFragment(buffer, OFFSET, LENGTH, header));
+
+        verify(delegate).onFragment(buffer, OFFSET, LENGTH, header);
+    }
+
+    private void assertDropped()
+    {
+        assertEquals(CONTINUE, filter.onFragment(buffer, OFFSET, LENGTH, header));
+
+        verifyNoMoreInteractions(delegate);
+    }
+}
@@ -28,6 +28,7 @@ import uk.co.real_logic.artio.decoder.SequenceResetDecoder;
 import uk.co.real_logic.artio.engine.framer.FakeEpochClock;
 import uk.co.real_logic.artio.messages.SessionState;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.timing.TimerWheel;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import static io.aeron.Publication.BACK_PRESSURED;
@@ -98,7 +99,8 @@ public abstract class AbstractSessionTest
             anyLong(),
             anyInt(),
             anyLong(),
-            any()
+            any(),
+            anyInt()
         )).thenReturn(POSITION);
     }
 
@@ -263,6 +265,42 @@ public abstract class AbstractSessionTest
         heartbeatSentAfterInterval(3, 4, true);
     }
 
+    @Test
+    public void shouldSendHeartbeatWhenTimerWheelReachesInterval()
+    {
+        final TimerWheel timerWheel = new TimerWheel(1, 16, fakeClock.time());
+        session().timerWheel(timerWheel);
+
+        readyForLogon();
+        onLogon(1);
+        final int sentMsgSeqNo = nextMsgSeqNum();
+
+        timerWheel.expireTimeouts(fakeClock.time());
+        verify(mockProxy, never()).heartbeat(anyInt(), anyInt());
+
+        fakeClock.advanceSeconds(HEARTBEAT_INTERVAL);
+        timerWheel.expireTimeouts(fakeClock.time());
+
+        verify(mockProxy).heartbeat(sentMsgSeqNo, SEQUENCE_INDEX);
+    }
+
+    @Test
+    public void shouldRetryBackPressuredLogoutOnNextTimerWheelExpiry()
+    {
+        final TimerWheel timerWheel = new TimerWheel(1, 16, fakeClock.time());
+        session().timerWheel(timerWheel);
+        givenActive();
+        backPressureLogout();
+
+        session().startLogout();
+        assertState(LOGGING_OUT);
+
+        timerWheel.expireTimeouts(fakeClock.time());
+
+        verify(mockProxy, times(2)).logout(anyInt(), eq(SEQUENCE_INDEX));
+        assertState(AWAITING_LOGOUT);
+    }
+
     @Test
     public void shouldReplyToValidLogout()
     {
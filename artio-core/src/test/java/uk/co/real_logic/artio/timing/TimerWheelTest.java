@@ -0,0 +1,184 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.timing;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimerWheelTest
+{
+    private static final long TICK_IN_MS = 10;
+    private static final int TICKS_PER_WHEEL = 8;
+    private static final long ROTATION_IN_MS = TICK_IN_MS * TICKS_PER_WHEEL;
+    private static final long START_TIME = 1000;
+
+    private final TimerWheel timerWheel = new TimerWheel(TICK_IN_MS, TICKS_PER_WHEEL, START_TIME);
+    private final CountingTimeout timeout = new CountingTimeout();
+
+    @Test
+    public void shouldExpireTimeoutAtDeadline()
+    {
+        timerWheel.schedule(timeout, START_TIME + 25);
+
+        assertEquals(0, timerWheel.expireTimeouts(START_TIME + 24));
+        assertEquals(0, timeout.expiries);
+
+        assertEquals(1, timerWheel.expireTimeouts(START_TIME + 25));
+        assertEquals(1, timeout.expiries);
+        assertFalse(timeout.isScheduled());
+    }
+
+    @Test
+    public void shouldExpireTimeoutWithinTheCurrentTick()
+    {
+        timerWheel.schedule(timeout, START_TIME + 3);
+
+        timerWheel.expireTimeouts(START_TIME + 1);
+        assertEquals(0, timeout.expiries);
+
+        timerWheel.expireTimeouts(START_TIME + 3);
+        assertEquals(1, timeout.expiries);
+    }
+
+    @Test
+    public void shouldExpireDeadlinesMoreThanARotationAway()
+    {
+        final long deadline = START_TIME + 3 * ROTATION_IN_MS + 5;
+        timerWheel.schedule(timeout, deadline);
+
+        for (long time = START_TIME; time < deadline; time += TICK_IN_MS / 2)
+        {
+            timerWheel.expireTimeouts(time);
+        }
+        assertEquals(0, timeout.expiries);
+
+        timerWheel.expireTimeouts(deadline);
+        assertEquals(1, timeout.expiries);
+    }
+
+    @Test
+    public void shouldExpireAllDueTimeoutsAfterAPause()
+    {
+        final CountingTimeout otherTimeout = new CountingTimeout();
+        timerWheel.schedule(timeout, START_TIME + 15);
+        timerWheel.schedule(otherTimeout, START_TIME + ROTATION_IN_MS - 5);
+
+        assertEquals(2, timerWheel.expireTimeouts(START_TIME + 10 * ROTATION_IN_MS));
+
+        assertEquals(1, timeout.expiries);
+        assertEquals(1, otherTimeout.expiries);
+    }
+
+    @Test
+    public void shouldExpireDeadlinesInThePastOnNextExpiry()
+    {
+        timerWheel.expireTimeouts(START_TIME + 50);
+
+        timerWheel.schedule(timeout, 0);
+
+        assertEquals(1, timerWheel.expireTimeouts(START_TIME + 50));
+    }
+
+    @Test
+    public void shouldNotExpireCancelledTimeouts()
+    {
+        timerWheel.schedule(timeout, START_TIME + 5);
+        timerWheel.cancel(timeout);
+
+        assertEquals(0, timerWheel.expireTimeouts(START_TIME + ROTATION_IN_MS));
+        assertFalse(timeout.isScheduled());
+    }
+
+    @Test
+    public void shouldMoveRescheduledTimeouts()
+    {
+        final CountingTimeout otherTimeout = new CountingTimeout();
+        timerWheel.schedule(otherTimeout, START_TIME + 45);
+        timerWheel.schedule(timeout, START_TIME + 45);
+
+        timerWheel.schedule(timeout, START_TIME + 15);
+        assertEquals(START_TIME + 15, timeout.deadlineInMs());
+
+        assertEquals(1, timerWheel.expireTimeouts(START_TIME + 20));
+        assertEquals(1, timeout.expiries);
+
+        assertEquals(1, timerWheel.expireTimeouts(START_TIME + 50));
+        assertEquals(1, timeout.expiries);
+        assertEquals(1, otherTimeout.expiries);
+    }
+
+    @Test
+    public void shouldAllowTimeoutsToRescheduleThemselves()
+    {
+        timeout.rescheduleAfterInMs = 30;
+        timerWheel.schedule(timeout, START_TIME + 10);
+
+        timerWheel.expireTimeouts(START_TIME + 10);
+        assertEquals(1, timeout.expiries);
+        assertTrue(timeout.isScheduled());
+        assertEquals(START_TIME + 40, timeout.deadlineInMs());
+
+        timerWheel.expireTimeouts(START_TIME + 40);
+        assertEquals(2, timeout.expiries);
+    }
+
+    @Test
+    public void shouldExpireTimeoutsRescheduledIntoThePastFromTheirExpiry()
+    {
+        timeout.rescheduleAtInMs = START_TIME + 15;
+        timerWheel.schedule(timeout, START_TIME + 35);
+
+        timerWheel.expireTimeouts(START_TIME + 55);
+        timerWheel.expireTimeouts(START_TIME + 55);
+
+        assertEquals(2, timeout.expiries);
+        assertFalse(timeout.isScheduled());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldValidateTicksPerWheel()
+    {
+        new TimerWheel(TICK_IN_MS, 10, START_TIME);
+    }
+
+    private final class CountingTimeout extends TimerWheel.Timeout
+    {
+        private int expiries;
+        private long rescheduleAfterInMs;
+        private long rescheduleAtInMs;
+
+        protected int onExpiry(final long timeInMs)
+        {
+            expiries++;
+
+            if (rescheduleAfterInMs > 0)
+            {
+                timerWheel.schedule(this, timeInMs + rescheduleAfterInMs);
+            }
+            else if (rescheduleAtInMs > 0)
+            {
+                final long deadlineInMs = rescheduleAtInMs;
+                rescheduleAtInMs = 0;
+                timerWheel.schedule(this, deadlineInMs);
+            }
+
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.TestData.NEW_ORDER_SINGLE;
+
+/**
+ * Measures the scanning and checksum operations that the framer performs on every received message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AsciiBufferBenchmark
+{
+    private static final byte START_OF_HEADER = 0x01;
+    private static final byte MISSING_BYTE = '~';
+
+    private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[NEW_ORDER_SINGLE.capacity()]);
+
+    // deliberately not static/final
+    private int end;
+
+    @Setup
+    public void setup()
+    {
+        buffer.putBytes(0, NEW_ORDER_SINGLE, 0, NEW_ORDER_SINGLE.capacity());
+        end = buffer.capacity() - 1;
+    }
+
+    @Benchmark
+    public int scanForSeparator()
+    {
+        return buffer.scan(0, end, START_OF_HEADER);
+    }
+
+    @Benchmark
+    public int scanWholeMessage()
+    {
+        return buffer.scan(0, end, MISSING_BYTE);
+    }
+
+    @Benchmark
+    public int computeChecksum()
+    {
+        return buffer.computeChecksum(0, end);
+    }
+}
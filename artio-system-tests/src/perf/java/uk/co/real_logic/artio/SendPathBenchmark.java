@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.builder.LogonEncoder;
+import uk.co.real_logic.artio.decoder.LogonDecoder;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * Splits the cost of sending a message from a session into encoding the FIX message and framing it, which copies
+ * the encoded message into the claimed buffer as GatewayPublication does. {@link #encodeInPlace(Blackhole)}
+ * instead encodes straight into a claim sized for the largest message and writes the frame in front of wherever
+ * the encoder put the message, which is the cost of framing without the copy. Run with -prof gc to see allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SendPathBenchmark
+{
+    private static final int FRAMED_BODY_OFFSET =
+        MessageHeaderEncoder.ENCODED_LENGTH + GatewayPublication.FRAME_SIZE;
+    private static final int BODY_LENGTH_OFFSET = MessageHeaderEncoder.ENCODED_LENGTH + FixMessageEncoder.BLOCK_LENGTH;
+
+    private final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+    private final LogonEncoder logonEncoder = new LogonEncoder();
+    private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[8 * 1024]);
+    private final UnsafeBuffer claimBuffer = new UnsafeBuffer(new byte[8 * 1024]);
+    private final MutableAsciiBuffer inPlaceClaimBuffer = new MutableAsciiBuffer(new byte[8 * 1024]);
+    private final MessageHeaderEncoder header = new MessageHeaderEncoder();
+    private final FixMessageEncoder fixMessage = new FixMessageEncoder();
+
+    // deliberately not static/final
+    private int sequenceNumber = 10;
+    private long sessionId = 1;
+    private long connectionId = 2;
+    private int libraryId = 3;
+    private char[] password = "password".toCharArray();
+    private char[] username = "username".toCharArray();
+
+    @Setup
+    public void setup()
+    {
+        logonEncoder
+            .encryptMethod(0)
+            .header()
+            .senderCompID("ABC_DEFG01")
+            .targetCompID("CCG");
+    }
+
+    @Benchmark
+    public long encode()
+    {
+        return encodeLogon(buffer, 0);
+    }
+
+    @Benchmark
+    public void encodeAndFrame(final Blackhole bh)
+    {
+        final long result = encodeLogon(buffer, 0);
+
+        fixMessage
+            .wrapAndApplyHeader(claimBuffer, 0, header)
+            .libraryId(libraryId)
+            .messageType(LogonDecoder.MESSAGE_TYPE)
+            .session(sessionId)
+            .sequenceIndex(0)
+            .connection(connectionId)
+            .timestamp(System.nanoTime())
+            .status(MessageStatus.OK)
+            .msgSeqNum(sequenceNumber)
+            .putBody(buffer, Encoder.offset(result), Encoder.length(result));
+
+        bh.consume(claimBuffer);
+    }
+
+    @Benchmark
+    public void encodeInPlace(final Blackhole bh)
+    {
+        final MutableAsciiBuffer claimBuffer = this.inPlaceClaimBuffer;
+        final long result = encodeLogon(claimBuffer, FRAMED_BODY_OFFSET);
+        final int bodyLength = Encoder.length(result);
+        final int frameOffset = Encoder.offset(result) - FRAMED_BODY_OFFSET;
+
+        fixMessage
+            .wrapAndApplyHeader(claimBuffer, frameOffset, header)
+            .libraryId(libraryId)
+            .messageType(LogonDecoder.MESSAGE_TYPE)
+            .session(sessionId)
+            .sequenceIndex(0)
+            .connection(connectionId)
+            .timestamp(System.nanoTime())
+            .status(MessageStatus.OK)
+            .msgSeqNum(sequenceNumber);
+        claimBuffer.putShort(frameOffset + BODY_LENGTH_OFFSET, (short)bodyLength, LITTLE_ENDIAN);
+
+        bh.consume(claimBuffer);
+    }
+
+    private long encodeLogon(final MutableAsciiBuffer buffer, final int offset)
+    {
+        final UtcTimestampEncoder timestampEncoder = this.timestampEncoder;
+
+        logonEncoder
+            .password(password)
+            .username(username)
+            .maxMessageSize(512)
+            .heartBtInt(10)
+            .header()
+            .msgSeqNum(sequenceNumber)
+            .sendingTime(timestampEncoder.buffer(), timestampEncoder.update(System.currentTimeMillis()));
+
+        return logonEncoder.encode(buffer, offset);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.timing.TimerWheel;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the duty cycle cost of checking every session's heartbeat deadline, as the library used to, against
+ * expiring the sessions' timeouts on a timer wheel, as the session count grows. Each invocation is a duty cycle
+ * 1ms after the previous one. The sessions are stand-ins that only check a heartbeat deadline, since real
+ * sessions need a publication and proxy to be constructed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SessionPollBenchmark
+{
+    private static final long HEARTBEAT_INTERVAL_IN_MS = 30_000;
+    private static final long TICK_IN_MS = 8;
+    private static final int TICKS_PER_WHEEL = 512;
+
+    @Param({"100", "1000", "5000", "20000"})
+    private int sessionCount;
+
+    private BenchmarkSession[] sessions;
+    private TimerWheel timerWheel;
+    private long timeInMs;
+
+    @Setup
+    public void setup()
+    {
+        timeInMs = 0;
+        timerWheel = new TimerWheel(TICK_IN_MS, TICKS_PER_WHEEL, timeInMs);
+        sessions = new BenchmarkSession[sessionCount];
+
+        // Spread the deadlines out as sessions don't all logon at the same time.
+        final Random random = new Random(7);
+        for (int i = 0; i < sessionCount; i++)
+        {
+            final BenchmarkSession session = new BenchmarkSession();
+            session.nextHeartbeatTimeInMs = random.nextInt((int)HEARTBEAT_INTERVAL_IN_MS);
+            timerWheel.schedule(session, session.nextHeartbeatTimeInMs);
+            sessions[i] = session;
+        }
+    }
+
+    @Benchmark
+    public int pollAllSessions()
+    {
+        final long timeInMs = ++this.timeInMs;
+        final BenchmarkSession[] sessions = this.sessions;
+
+        int work = 0;
+        for (int i = 0, size = sessions.length; i < size; i++)
+        {
+            work += sessions[i].poll(timeInMs);
+        }
+
+        return work;
+    }
+
+    @Benchmark
+    public int expireTimerWheel()
+    {
+        return timerWheel.expireTimeouts(++timeInMs);
+    }
+
+    private final class BenchmarkSession extends TimerWheel.Timeout
+    {
+        private long nextHeartbeatTimeInMs;
+
+        int poll(final long timeInMs)
+        {
+            if (timeInMs >= nextHeartbeatTimeInMs)
+            {
+                nextHeartbeatTimeInMs = timeInMs + HEARTBEAT_INTERVAL_IN_MS;
+                return 1;
+            }
+
+            return 0;
+        }
+
+        protected int onExpiry(final long timeInMs)
+        {
+            final int work = poll(timeInMs);
+            timerWheel.schedule(this, nextHeartbeatTimeInMs);
+            return work;
+        }
+    }
+}
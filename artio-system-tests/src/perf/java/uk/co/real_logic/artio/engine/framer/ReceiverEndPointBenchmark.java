@@ -0,0 +1,257 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import io.aeron.Aeron;
+import io.aeron.ExclusivePublication;
+import io.aeron.Subscription;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import io.aeron.logbuffer.FragmentHandler;
+import org.agrona.CloseHelper;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.SystemNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersManager;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.builder.HeartbeatEncoder;
+import uk.co.real_logic.artio.engine.MappedFile;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.messages.ConnectionType;
+import uk.co.real_logic.artio.messages.SequenceNumberType;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.replication.ClusterablePublication;
+import uk.co.real_logic.artio.session.CompositeKey;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_SESSION_ID_BUFFER_SIZE;
+
+/**
+ * Measures the cost of reading and framing inbound messages in the receiver end point, from a fake channel whose
+ * reads usually end part way through a message, so that the cost of keeping the partial message in the buffer shows
+ * up. Framed messages are saved to an IPC publication that's drained after every poll.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReceiverEndPointBenchmark
+{
+    private static final String CHANNEL = "aeron:ipc";
+    private static final int STREAM_ID = 1;
+    private static final long CONNECTION_ID = 1;
+    private static final int LIBRARY_ID = 2;
+    private static final int MESSAGES_IN_STREAM = 64;
+
+    @Param({"16384", "1048576"})
+    int receiverBufferSize;
+
+    @Param({"1000", "8000"})
+    int readSize;
+
+    private final FragmentHandler drainHandler = (buffer, offset, length, header) -> {};
+
+    private File tempDir;
+    private MediaDriver mediaDriver;
+    private Aeron aeron;
+    private Subscription subscription;
+    private MappedFile sessionIdFile;
+    private ReceiverEndPoint endPoint;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        tempDir = Files.createTempDirectory("receiver-end-point-benchmark").toFile();
+        final String aeronDirectoryName = new File(tempDir, "aeron").getAbsolutePath();
+
+        mediaDriver = MediaDriver.launch(new MediaDriver.Context()
+            .aeronDirectoryName(aeronDirectoryName)
+            .threadingMode(ThreadingMode.SHARED)
+            .dirDeleteOnStart(true));
+        aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(aeronDirectoryName));
+
+        final CountersManager countersManager = new CountersManager(
+            new UnsafeBuffer(ByteBuffer.allocateDirect(16 * 1024)),
+            new UnsafeBuffer(ByteBuffer.allocateDirect(1024)));
+
+        subscription = aeron.addSubscription(CHANNEL, STREAM_ID);
+        final ExclusivePublication dataPublication = aeron.addExclusivePublication(CHANNEL, STREAM_ID);
+        final GatewayPublication publication = new GatewayPublication(
+            ClusterablePublication.solo(dataPublication),
+            countersManager.newCounter("Failed offer to inbound publication"),
+            new BusySpinIdleStrategy(),
+            new SystemNanoClock(),
+            1);
+
+        final ErrorHandler errorHandler = Throwable::printStackTrace;
+        sessionIdFile = MappedFile.map(new File(tempDir, "session-ids"), DEFAULT_SESSION_ID_BUFFER_SIZE);
+        final SessionIdStrategy sessionIdStrategy = SessionIdStrategy.senderAndTarget();
+        final SessionContexts sessionContexts = new SessionContexts(sessionIdFile, sessionIdStrategy, errorHandler);
+        final CompositeKey sessionKey = sessionIdStrategy.onInitiateLogon("sender", "", "", "target", "", "");
+        final SessionContext sessionContext = sessionContexts.onLogon(sessionKey);
+
+        // The session is already logged on, so nothing that authenticates a logon is needed.
+        final GatewaySessions gatewaySessions = new GatewaySessions(
+            null, null, null, null, null, null, null, 0, 0, 0, errorHandler, sessionContexts, null, null, 0);
+
+        endPoint = new ReceiverEndPoint(
+            new FakeTcpChannel(encodeMessages(), readSize),
+            receiverBufferSize,
+            0,
+            publication,
+            publication,
+            CONNECTION_ID,
+            sessionContext.sessionId(),
+            sessionContext.sequenceIndex(),
+            sessionContexts,
+            null,
+            null,
+            countersManager.newCounter("Messages Read"),
+            countersManager.newCounter("Reads deferred by the read budget"),
+            null,
+            errorHandler,
+            LIBRARY_ID,
+            SequenceNumberType.TRANSIENT,
+            ConnectionType.INITIATOR,
+            new LongHashSet(),
+            gatewaySessions);
+
+        endPoint.gatewaySession(new GatewaySession(
+            CONNECTION_ID, sessionContext, "fake", ConnectionType.INITIATOR, sessionKey, endPoint, null, null));
+
+        while (!dataPublication.isConnected())
+        {
+            Thread.yield();
+        }
+    }
+
+    @Benchmark
+    public int pollForData()
+    {
+        final int bytesReceived = endPoint.pollForData();
+
+        while (subscription.poll(drainHandler, Integer.MAX_VALUE) > 0)
+        {
+            // Drain so that the end point never sees back pressure.
+        }
+
+        return bytesReceived;
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        CloseHelper.close(sessionIdFile);
+        CloseHelper.close(aeron);
+        CloseHelper.close(mediaDriver);
+        IoUtil.delete(tempDir, true);
+    }
+
+    private static byte[] encodeMessages()
+    {
+        final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+        final int timestampLength = timestampEncoder.encode(System.currentTimeMillis());
+        final HeartbeatEncoder heartbeat = new HeartbeatEncoder();
+        final MutableAsciiBuffer asciiBuffer = new MutableAsciiBuffer(new byte[1024]);
+
+        heartbeat
+            .header()
+            .senderCompID("sender")
+            .targetCompID("target")
+            .sendingTime(timestampEncoder.buffer(), timestampLength)
+            .msgSeqNum(1);
+
+        final long result = heartbeat.encode(asciiBuffer, 0);
+        final int offset = Encoder.offset(result);
+        final int length = Encoder.length(result);
+
+        final byte[] messages = new byte[length * MESSAGES_IN_STREAM];
+        for (int i = 0; i < MESSAGES_IN_STREAM; i++)
+        {
+            asciiBuffer.getBytes(offset, messages, i * length, length);
+        }
+
+        return messages;
+    }
+
+    /**
+     * Replays the same stream of messages over and over again, in reads of at most a fixed size.
+     */
+    private static final class FakeTcpChannel extends TcpChannel
+    {
+        private final byte[] stream;
+        private final int readSize;
+
+        private int streamOffset = 0;
+
+        FakeTcpChannel(final byte[] stream, final int readSize)
+        {
+            super("fake");
+            this.stream = stream;
+            this.readSize = readSize;
+        }
+
+        public SelectionKey register(final Selector sel, final int ops, final Object att)
+        {
+            return null;
+        }
+
+        public int write(final ByteBuffer src)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        public int read(final ByteBuffer dst)
+        {
+            final byte[] stream = this.stream;
+            final int toRead = Math.min(dst.remaining(), readSize);
+
+            int remaining = toRead;
+            while (remaining > 0)
+            {
+                final int length = Math.min(remaining, stream.length - streamOffset);
+                dst.put(stream, streamOffset, length);
+                remaining -= length;
+                streamOffset += length;
+                if (streamOffset == stream.length)
+                {
+                    streamOffset = 0;
+                }
+            }
+
+            return toRead;
+        }
+
+        public void close()
+        {
+        }
+    }
+}
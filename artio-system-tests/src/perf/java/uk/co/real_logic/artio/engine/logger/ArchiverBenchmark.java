@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Aeron;
+import io.aeron.Image;
+import io.aeron.Publication;
+import io.aeron.Subscription;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import org.agrona.CloseHelper;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.SystemNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersManager;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.engine.CompletionPosition;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_NAME_PREFIX;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.*;
+
+/**
+ * Measures the throughput of the archiver for each {@link ArchiveDurability}, archiving messages published over
+ * IPC into term files in a temporary directory. The difference between modes depends upon the storage device that
+ * the temporary directory is on, so run it against the device that will hold the archive.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ArchiverBenchmark
+{
+    private static final String CHANNEL = "aeron:ipc";
+    private static final int STREAM_ID = 1;
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"SYNCHRONOUS", "PERIODIC", "MAPPED"})
+    ArchiveDurability durability;
+
+    @Param({"256", "1024"})
+    int messageSize;
+
+    private File tempDir;
+    private MediaDriver mediaDriver;
+    private Aeron aeron;
+    private Publication publication;
+    private Subscription subscription;
+    private Archiver archiver;
+    private UnsafeBuffer buffer;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        tempDir = Files.createTempDirectory("archiver-benchmark").toFile();
+        final String aeronDirectoryName = new File(tempDir, "aeron").getAbsolutePath();
+        final String logFileDir = new File(tempDir, "logs").getAbsolutePath();
+
+        mediaDriver = MediaDriver.launch(new MediaDriver.Context()
+            .aeronDirectoryName(aeronDirectoryName)
+            .threadingMode(ThreadingMode.SHARED)
+            .dirDeleteOnStart(true));
+        aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(aeronDirectoryName));
+
+        final CountersManager countersManager = new CountersManager(
+            new UnsafeBuffer(ByteBuffer.allocateDirect(16 * 1024)),
+            new UnsafeBuffer(ByteBuffer.allocateDirect(1024)));
+        final CompletionPosition completionPosition = new CompletionPosition();
+        completionPosition.completeDuringStartup();
+
+        archiver = new Archiver(
+            LoggerUtil.newArchiveMetaData(logFileDir),
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            new StreamIdentifier(CHANNEL, STREAM_ID),
+            DEFAULT_NAME_PREFIX,
+            completionPosition)
+            .durability(
+                durability,
+                DEFAULT_ARCHIVE_MAX_UNFLUSHED_BYTES,
+                MILLISECONDS.toNanos(DEFAULT_ARCHIVE_FLUSH_INTERVAL_IN_MS),
+                new SystemNanoClock(),
+                countersManager.newCounter("Unflushed archive bytes"));
+
+        publication = aeron.addPublication(CHANNEL, STREAM_ID);
+        subscription = aeron.addSubscription(CHANNEL, STREAM_ID);
+        archiver.subscription(subscription);
+
+        buffer = new UnsafeBuffer(new byte[messageSize]);
+    }
+
+    /**
+     * Publishes a batch of messages and waits until the archiver has written all of them, without waiting for them
+     * to be flushed.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void archive()
+    {
+        long endPosition = 0;
+        for (int i = 0; i < BATCH_SIZE; i++)
+        {
+            while ((endPosition = publication.offer(buffer, 0, messageSize)) < 0)
+            {
+                archiver.doWork();
+            }
+        }
+
+        Image image;
+        while ((image = subscription.imageBySessionId(publication.sessionId())) == null)
+        {
+            Thread.yield();
+        }
+
+        while (image.position() < endPosition)
+        {
+            archiver.doWork();
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        archiver.onClose();
+        CloseHelper.close(publication);
+        CloseHelper.close(aeron);
+        CloseHelper.close(mediaDriver);
+        IoUtil.delete(tempDir, true);
+    }
+}
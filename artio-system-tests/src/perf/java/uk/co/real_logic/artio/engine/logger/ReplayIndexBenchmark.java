@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.BitUtil;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.builder.HeartbeatEncoder;
+import uk.co.real_logic.artio.decoder.HeartbeatDecoder;
+import uk.co.real_logic.artio.engine.ChecksumFramer;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.*;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.REPLAY_POSITION_BUFFER_SIZE;
+
+/**
+ * Measures the cost of indexing a message into the replay index for different checksum flush intervals, alongside
+ * the cost of checksumming the whole indexed position buffer, which used to be paid for every indexed message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReplayIndexBenchmark
+{
+    private static final long SESSION_ID = 1;
+    private static final int SEQUENCE_INDEX = 0;
+    private static final int AERON_SESSION_ID = 42;
+
+    @Param({"1", "64"})
+    int checksumFlushInterval;
+
+    private final UnsafeBuffer frameBuffer = new UnsafeBuffer(new byte[1024]);
+    private final UnsafeBuffer positionBuffer = new UnsafeBuffer(new byte[REPLAY_POSITION_BUFFER_SIZE]);
+
+    private File logFileDir;
+    private ReplayIndex replayIndex;
+    private ChecksumFramer checksumFramer;
+    private int frameLength;
+    private int alignedFrameLength;
+    private long endPosition;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        logFileDir = Files.createTempDirectory("replay-index-benchmark").toFile();
+
+        replayIndex = new ReplayIndex(
+            logFileDir.getAbsolutePath(),
+            OUTBOUND_LIBRARY_STREAM,
+            DEFAULT_REPLAY_INDEX_FILE_SIZE,
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            LoggerUtil::map,
+            positionBuffer,
+            checksumFlushInterval,
+            Throwable::printStackTrace);
+
+        checksumFramer = new ChecksumFramer(
+            positionBuffer, positionBuffer.capacity(), Throwable::printStackTrace, 0, "benchmark");
+
+        encodeMessage();
+    }
+
+    private void encodeMessage()
+    {
+        final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+        final int timestampLength = timestampEncoder.encode(System.currentTimeMillis());
+        final HeartbeatEncoder heartbeat = new HeartbeatEncoder();
+        final MutableAsciiBuffer asciiBuffer = new MutableAsciiBuffer(new byte[1024]);
+
+        heartbeat
+            .header()
+            .senderCompID("sender")
+            .targetCompID("target")
+            .sendingTime(timestampEncoder.buffer(), timestampLength)
+            .msgSeqNum(1);
+
+        final long result = heartbeat.encode(asciiBuffer, 0);
+        final FixMessageEncoder fixMessage = new FixMessageEncoder();
+        fixMessage
+            .wrapAndApplyHeader(frameBuffer, 0, new MessageHeaderEncoder())
+            .messageType(HeartbeatDecoder.MESSAGE_TYPE)
+            .session(SESSION_ID)
+            .sequenceIndex(SEQUENCE_INDEX)
+            .status(MessageStatus.OK)
+            .msgSeqNum(1)
+            .putBody(asciiBuffer, Encoder.offset(result), Encoder.length(result));
+
+        frameLength = MessageHeaderEncoder.ENCODED_LENGTH + fixMessage.encodedLength();
+        alignedFrameLength = BitUtil.align(frameLength, FRAME_ALIGNMENT);
+    }
+
+    @Benchmark
+    public long indexRecord()
+    {
+        endPosition += alignedFrameLength;
+        replayIndex.indexRecord(
+            frameBuffer, 0, frameLength, OUTBOUND_LIBRARY_STREAM, AERON_SESSION_ID, endPosition);
+        return endPosition;
+    }
+
+    @Benchmark
+    public void updateAllChecksums()
+    {
+        checksumFramer.updateChecksums();
+    }
+
+    @Benchmark
+    public void updateDirtyChecksums()
+    {
+        checksumFramer.markDirty(IndexedPositionWriter.HEADER_LENGTH);
+        checksumFramer.updateDirtyChecksums();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        replayIndex.close();
+        IoUtil.delete(logFileDir, true);
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import org.agrona.BitUtil;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.NoOpIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.builder.HeartbeatEncoder;
+import uk.co.real_logic.artio.decoder.HeartbeatDecoder;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.*;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
+import static uk.co.real_logic.artio.engine.logger.Replayer.MOST_RECENT_MESSAGE;
+
+/**
+ * Compares seeking through the replay index to the linear scan used for index files that were written without
+ * run start positions, for resend requests of different sizes against a full index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReplayQueryBenchmark
+{
+    private static final long SESSION_ID = 1;
+    private static final int SEQUENCE_INDEX = 0;
+    private static final int AERON_SESSION_ID = 42;
+    private static final int TERM_LENGTH = 64 * 1024;
+    private static final int MESSAGE_COUNT = recordCapacity(DEFAULT_REPLAY_INDEX_FILE_SIZE) / RECORD_LENGTH;
+
+    @Param({"seek", "linear"})
+    String mode;
+
+    @Param({"10", "1000"})
+    int resendSize;
+
+    private final ControlledFragmentHandler handler = (buffer, offset, length, header) -> CONTINUE;
+
+    private File logFileDir;
+    private ReplayIndex replayIndex;
+    private ReplayQuery replayQuery;
+    private int beginSequenceNumber;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        logFileDir = Files.createTempDirectory("replay-query-benchmark").toFile();
+        final String logFileDirPath = logFileDir.getAbsolutePath();
+
+        replayIndex = new ReplayIndex(
+            logFileDirPath,
+            OUTBOUND_LIBRARY_STREAM,
+            DEFAULT_REPLAY_INDEX_FILE_SIZE,
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            LoggerUtil::map,
+            new UnsafeBuffer(new byte[REPLAY_POSITION_BUFFER_SIZE]),
+            DEFAULT_INDEX_CHECKSUM_FLUSH_INTERVAL,
+            Throwable::printStackTrace);
+
+        indexMessages();
+
+        if ("linear".equals(mode))
+        {
+            // Index files written without run start positions are scanned from the oldest record
+            final MappedByteBuffer indexBuffer =
+                LoggerUtil.mapExistingFile(logFile(logFileDirPath, SESSION_ID, OUTBOUND_LIBRARY_STREAM));
+            new MessageHeaderEncoder().wrap(new UnsafeBuffer(indexBuffer), 0).version(0);
+            IoUtil.unmap(indexBuffer);
+        }
+
+        replayQuery = new ReplayQuery(
+            logFileDirPath,
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            LoggerUtil::mapExistingFile,
+            new StubArchiveReader(logFileDirPath),
+            OUTBOUND_LIBRARY_STREAM,
+            new NoOpIdleStrategy());
+
+        beginSequenceNumber = MESSAGE_COUNT - resendSize + 1;
+    }
+
+    private void indexMessages()
+    {
+        final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+        final int timestampLength = timestampEncoder.encode(System.currentTimeMillis());
+        final HeartbeatEncoder heartbeat = new HeartbeatEncoder();
+        final MutableAsciiBuffer asciiBuffer = new MutableAsciiBuffer(new byte[1024]);
+        final UnsafeBuffer frameBuffer = new UnsafeBuffer(new byte[1024]);
+        final MessageHeaderEncoder header = new MessageHeaderEncoder();
+        final FixMessageEncoder fixMessage = new FixMessageEncoder();
+
+        heartbeat
+            .header()
+            .senderCompID("sender")
+            .targetCompID("target")
+            .sendingTime(timestampEncoder.buffer(), timestampLength);
+
+        long endPosition = 0;
+        for (int sequenceNumber = 1; sequenceNumber <= MESSAGE_COUNT; sequenceNumber++)
+        {
+            heartbeat.header().msgSeqNum(sequenceNumber);
+            final long result = heartbeat.encode(asciiBuffer, 0);
+            final int length = Encoder.length(result);
+
+            fixMessage
+                .wrapAndApplyHeader(frameBuffer, 0, header)
+                .messageType(HeartbeatDecoder.MESSAGE_TYPE)
+                .session(SESSION_ID)
+                .sequenceIndex(SEQUENCE_INDEX)
+                .status(MessageStatus.OK)
+                .msgSeqNum(sequenceNumber)
+                .putBody(asciiBuffer, Encoder.offset(result), length);
+
+            final int frameLength = MessageHeaderEncoder.ENCODED_LENGTH + fixMessage.encodedLength();
+            endPosition += BitUtil.align(frameLength, FRAME_ALIGNMENT);
+
+            replayIndex.indexRecord(
+                frameBuffer, 0, frameLength, OUTBOUND_LIBRARY_STREAM, AERON_SESSION_ID, endPosition);
+        }
+    }
+
+    @Benchmark
+    public int query()
+    {
+        return replayQuery.query(
+            handler, SESSION_ID, beginSequenceNumber, SEQUENCE_INDEX, MOST_RECENT_MESSAGE, SEQUENCE_INDEX);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        replayQuery.close();
+        replayIndex.close();
+        IoUtil.delete(logFileDir, true);
+    }
+
+    // Avoids reading an archive so that only the cost of the index is measured.
+    private static final class StubArchiveReader extends ArchiveReader
+    {
+        private final SessionReader sessionReader = new StubSessionReader();
+
+        StubArchiveReader(final String logFileDir)
+        {
+            super(
+                new ArchiveMetaData(new LogDirectoryDescriptor(logFileDir)),
+                DEFAULT_LOGGER_CACHE_NUM_SETS,
+                DEFAULT_LOGGER_CACHE_SET_SIZE,
+                new StreamIdentifier("aeron:ipc", OUTBOUND_LIBRARY_STREAM),
+                0);
+        }
+
+        public SessionReader session(final int aeronSessionId)
+        {
+            return sessionReader;
+        }
+
+        private final class StubSessionReader extends SessionReader
+        {
+            StubSessionReader()
+            {
+                super(AERON_SESSION_ID, 0, TERM_LENGTH);
+            }
+
+            public long read(final long initialPosition, final ControlledFragmentHandler handler)
+            {
+                return initialPosition + FRAME_ALIGNMENT;
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.engine.logger.FixArchiveScanner.MessageType;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.replication.ReservedValue;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static io.aeron.protocol.DataHeaderFlyweight.*;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
+
+/**
+ * Compares scanning an archive for the messages of a time range with and without the time index. Writes an
+ * archive of the given size in MB out of fixed length frames, so make sure that there's room for it in the
+ * temporary directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TimeRangeScanBenchmark
+{
+    private static final String CHANNEL = "aeron:ipc";
+    private static final int AERON_SESSION_ID = 42;
+    private static final int INITIAL_TERM_ID = 0;
+    private static final int TERM_LENGTH = 64 * 1024 * 1024;
+    private static final int FRAME_LENGTH = 256;
+    private static final int DATA_LENGTH = FRAME_LENGTH - HEADER_LENGTH;
+    private static final long TIMESTAMP_STEP_IN_NS = MICROSECONDS.toNanos(1);
+    private static final long TIME_INDEX_INTERVAL_IN_NS = MILLISECONDS.toNanos(1);
+    private static final long RANGE_IN_NS = MILLISECONDS.toNanos(1);
+
+    @Param({"1024", "4096"})
+    int archiveSizeInMb;
+
+    @Param({"indexed", "full"})
+    String mode;
+
+    private File logFileDir;
+    private FixArchiveScanner scanner;
+    private long beginTimestamp;
+    private long endTimestamp;
+    private int messagesInRange;
+
+    private final FixMessageConsumer handler = (message, buffer, offset, length, header) -> messagesInRange++;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        logFileDir = Files.createTempDirectory("time-range-scan-benchmark").toFile();
+        final String logFileDirPath = logFileDir.getAbsolutePath();
+
+        final long messageCount = (long)archiveSizeInMb * 1024 * 1024 / FRAME_LENGTH;
+        writeArchive(logFileDirPath, messageCount);
+
+        if ("full".equals(mode))
+        {
+            IoUtil.delete(TimeIndexDescriptor.timeIndexFile(logFileDirPath, OUTBOUND_LIBRARY_STREAM), false);
+        }
+
+        beginTimestamp = (messageCount / 2) * TIMESTAMP_STEP_IN_NS;
+        endTimestamp = beginTimestamp + RANGE_IN_NS;
+        scanner = new FixArchiveScanner(logFileDirPath);
+    }
+
+    private void writeArchive(final String logFileDirPath, final long messageCount)
+    {
+        final StreamIdentifier streamId = new StreamIdentifier(CHANNEL, OUTBOUND_LIBRARY_STREAM);
+        final LogDirectoryDescriptor directoryDescriptor = new LogDirectoryDescriptor(logFileDirPath);
+        final ArchiveMetaData metaData = new ArchiveMetaData(directoryDescriptor);
+        metaData.write(streamId, AERON_SESSION_ID, INITIAL_TERM_ID, TERM_LENGTH);
+        metaData.close();
+
+        final TimeIndexWriter timeIndex = new TimeIndexWriter(
+            logFileDirPath, OUTBOUND_LIBRARY_STREAM, TIME_INDEX_INTERVAL_IN_NS, Throwable::printStackTrace);
+        final UnsafeBuffer dataBuffer = new UnsafeBuffer(new byte[DATA_LENGTH]);
+        final MessageHeaderEncoder header = new MessageHeaderEncoder();
+        final FixMessageEncoder fixMessage = new FixMessageEncoder();
+        final int bodyLength = DATA_LENGTH - MessageHeaderEncoder.ENCODED_LENGTH - FixMessageEncoder.BLOCK_LENGTH -
+            FixMessageEncoder.bodyHeaderLength();
+        final byte[] body = new byte[bodyLength];
+        final CRC32 checksum = new CRC32();
+
+        final UnsafeBuffer termBuffer = new UnsafeBuffer(0, 0);
+        final int messagesPerTerm = TERM_LENGTH / FRAME_LENGTH;
+        for (long message = 0; message < messageCount; message++)
+        {
+            final int termId = INITIAL_TERM_ID + (int)(message / messagesPerTerm);
+            final int termOffset = (int)(message % messagesPerTerm) * FRAME_LENGTH;
+            if (termOffset == 0)
+            {
+                unmap(termBuffer);
+                termBuffer.wrap(LoggerUtil.mapNewFile(
+                    directoryDescriptor.logFile(streamId, AERON_SESSION_ID, termId), TERM_LENGTH));
+            }
+
+            final long timestamp = message * TIMESTAMP_STEP_IN_NS;
+            fixMessage
+                .wrapAndApplyHeader(dataBuffer, 0, header)
+                .messageType(0)
+                .session(1)
+                .sequenceIndex(0)
+                .timestamp(timestamp)
+                .status(MessageStatus.OK)
+                .putBody(body, 0, bodyLength);
+
+            checksum.reset();
+            checksum.update(dataBuffer.byteArray(), 0, DATA_LENGTH);
+
+            termBuffer.putInt(termOffset + FRAME_LENGTH_FIELD_OFFSET, FRAME_LENGTH);
+            termBuffer.putByte(termOffset + VERSION_FIELD_OFFSET, CURRENT_VERSION);
+            termBuffer.putByte(termOffset + FLAGS_FIELD_OFFSET, (byte)BEGIN_AND_END_FLAGS);
+            termBuffer.putShort(termOffset + TYPE_FIELD_OFFSET, (short)HDR_TYPE_DATA);
+            termBuffer.putInt(termOffset + TERM_OFFSET_FIELD_OFFSET, termOffset);
+            termBuffer.putInt(termOffset + SESSION_ID_FIELD_OFFSET, AERON_SESSION_ID);
+            termBuffer.putInt(termOffset + STREAM_ID_FIELD_OFFSET, OUTBOUND_LIBRARY_STREAM);
+            termBuffer.putInt(termOffset + TERM_ID_FIELD_OFFSET, termId);
+            termBuffer.putLong(
+                termOffset + RESERVED_VALUE_OFFSET, ReservedValue.ofChecksum((int)checksum.getValue()));
+            termBuffer.putBytes(termOffset + HEADER_LENGTH, dataBuffer, 0, DATA_LENGTH);
+
+            final long endPosition = message * FRAME_LENGTH + FRAME_LENGTH;
+            timeIndex.indexRecord(
+                dataBuffer, 0, DATA_LENGTH, OUTBOUND_LIBRARY_STREAM, AERON_SESSION_ID, endPosition);
+        }
+
+        unmap(termBuffer);
+        timeIndex.close();
+    }
+
+    private static void unmap(final UnsafeBuffer termBuffer)
+    {
+        if (termBuffer.byteBuffer() != null)
+        {
+            IoUtil.unmap((MappedByteBuffer)termBuffer.byteBuffer());
+        }
+    }
+
+    @Benchmark
+    public int scan()
+    {
+        messagesInRange = 0;
+        scanner.scan(CHANNEL, MessageType.SENT, handler, Throwable::printStackTrace, beginTimestamp, endTimestamp);
+        return messagesInRange;
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        IoUtil.delete(logFileDir, true);
+    }
+}
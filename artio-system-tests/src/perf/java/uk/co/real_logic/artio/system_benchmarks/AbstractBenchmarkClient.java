@@ -21,12 +21,14 @@ import uk.co.real_logic.artio.builder.LogonEncoder;
 import uk.co.real_logic.artio.builder.TestRequestEncoder;
 import uk.co.real_logic.artio.decoder.LogonDecoder;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
+import uk.co.real_logic.artio.engine.framer.LoopbackChannelSupplier;
 import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
 import java.nio.channels.SocketChannel;
 import java.util.concurrent.locks.LockSupport;
 
@@ -50,8 +52,15 @@ public abstract class AbstractBenchmarkClient
     protected final MutableAsciiBuffer readFlyweight =
         new MutableAsciiBuffer(readBuffer);
 
+    private static volatile LoopbackChannelSupplier loopbackChannelSupplier;
+
     protected boolean lastWasSep;
 
+    static void connectViaLoopback(final LoopbackChannelSupplier channelSupplier)
+    {
+        loopbackChannelSupplier = channelSupplier;
+    }
+
     protected TestRequestEncoder setupTestRequest()
     {
         return setupTestRequest(INITIATOR_ID);
@@ -65,12 +74,12 @@ public abstract class AbstractBenchmarkClient
         return testRequest;
     }
 
-    protected void logon(final SocketChannel socketChannel) throws IOException
+    protected void logon(final ByteChannel socketChannel) throws IOException
     {
         logon(socketChannel, INITIATOR_ID, 10);
     }
 
-    protected LogonDecoder logon(final SocketChannel socketChannel, final String initiatorId, final int heartBtInt)
+    protected LogonDecoder logon(final ByteChannel socketChannel, final String initiatorId, final int heartBtInt)
         throws IOException
     {
         final LogonEncoder logon = new LogonEncoder();
@@ -96,7 +105,7 @@ public abstract class AbstractBenchmarkClient
             .targetCompID(ACCEPTOR_ID);
     }
 
-    protected void write(final SocketChannel socketChannel, final long result) throws IOException
+    protected void write(final ByteChannel socketChannel, final long result) throws IOException
     {
         final int offset = Encoder.offset(result);
         final int length = Encoder.length(result);
@@ -112,7 +121,7 @@ public abstract class AbstractBenchmarkClient
         // System.out.println(writeFlyweight.getAscii(0, amount));
     }
 
-    protected int read(final SocketChannel socketChannel) throws IOException
+    protected int read(final ByteChannel socketChannel) throws IOException
     {
         readBuffer.clear();
         int length;
@@ -129,7 +138,18 @@ public abstract class AbstractBenchmarkClient
         LockSupport.parkNanos(SECONDS.toNanos(1));
     }
 
-    protected SocketChannel open() throws IOException
+    protected ByteChannel open() throws IOException
+    {
+        final LoopbackChannelSupplier loopbackChannelSupplier = AbstractBenchmarkClient.loopbackChannelSupplier;
+        if (loopbackChannelSupplier != null)
+        {
+            return loopbackChannelSupplier.connect();
+        }
+
+        return openTcp();
+    }
+
+    protected SocketChannel openTcp() throws IOException
     {
         final SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress(HOST, PORT));
         socketChannel.configureBlocking(false);
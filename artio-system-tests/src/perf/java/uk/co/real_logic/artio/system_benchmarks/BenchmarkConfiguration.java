@@ -37,6 +37,9 @@ public final class BenchmarkConfiguration
     public static final int MAX_MESSAGES_IN_FLIGHT = Integer.getInteger("fix.benchmark.max_messages_in_flight", 20);
     public static final int SEND_RATE_PER_SECOND = Integer.getInteger("fix.benchmark.send_rate_sec", 1_000);
     public static final int NUMBER_OF_SESSIONS = Integer.getInteger("fix.benchmark.num_sessions", 1);
+    public static final int AUTHENTICATION_DELAY_IN_US = Integer.getInteger("fix.benchmark.auth_delay_us", 0);
+    public static final int LOGON_STORM_SIZE = Integer.getInteger("fix.benchmark.logon_storm_size", 1_000);
+    public static final int LOGON_STORMS = Integer.getInteger("fix.benchmark.logon_storms", 5);
 
     static IdleStrategy idleStrategy()
     {
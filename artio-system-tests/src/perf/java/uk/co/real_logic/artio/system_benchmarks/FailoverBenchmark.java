@@ -0,0 +1,244 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_benchmarks;
+
+import io.aeron.driver.MediaDriver;
+import org.agrona.concurrent.IdleStrategy;
+import uk.co.real_logic.artio.Reply;
+import uk.co.real_logic.artio.builder.TestRequestEncoder;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.FixEngine;
+import uk.co.real_logic.artio.engine.framer.LoopbackChannelSupplier;
+import uk.co.real_logic.artio.library.FixLibrary;
+import uk.co.real_logic.artio.library.LibraryConfiguration;
+import uk.co.real_logic.artio.library.SessionExistsHandler;
+import uk.co.real_logic.artio.messages.SessionReplyStatus;
+
+import java.io.IOException;
+import java.nio.channels.ByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static uk.co.real_logic.artio.library.FixLibrary.NO_MESSAGE_REPLAY;
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.INITIATOR_ID;
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.idleStrategy;
+import static uk.co.real_logic.artio.system_benchmarks.FixBenchmarkServer.*;
+
+/**
+ * Measures how long a replacement library takes to take over the sessions of a library that has timed out.
+ *
+ * fix.benchmark.failover_sessions sessions log on over in-memory pipes and are acquired by a library, then each
+ * sends fix.benchmark.failover_messages test requests. The library then stops polling as if its process had died.
+ * The engine times it out after fix.benchmark.failover_timeout_ms and a second library requests every session that
+ * it is notified of, catching up on all the messages that were received on the session. The time reported runs from
+ * the first library stopping until every request has been replied to, so it includes the library timeout.
+ */
+public final class FailoverBenchmark extends AbstractBenchmarkClient
+{
+    private static final int SESSIONS = Integer.getInteger("fix.benchmark.failover_sessions", 2_000);
+    private static final int MESSAGES_PER_SESSION = Integer.getInteger("fix.benchmark.failover_messages", 10);
+    private static final long LIBRARY_TIMEOUT_IN_MS = Long.getLong("fix.benchmark.failover_timeout_ms", 1_000);
+    private static final long REQUEST_TIMEOUT_IN_MS = 60_000;
+    private static final int FRAGMENT_LIMIT = 10;
+
+    public static void main(final String[] args) throws Exception
+    {
+        final EngineConfiguration configuration = engineConfiguration()
+            .logInboundMessages(true)
+            .replyTimeoutInMs(LIBRARY_TIMEOUT_IN_MS);
+        final LoopbackChannelSupplier channelSupplier = new LoopbackChannelSupplier(configuration);
+        configuration.channelSupplierFactory((config) -> channelSupplier);
+        connectViaLoopback(channelSupplier);
+
+        try (MediaDriver mediaDriver = newMediaDriver();
+             FixEngine engine = FixEngine.launch(configuration))
+        {
+            new FailoverBenchmark().runBenchmark();
+        }
+    }
+
+    private final IdleStrategy idleStrategy = idleStrategy();
+    private final AtomicInteger acquiredSessions = new AtomicInteger();
+    private final List<Reply<SessionReplyStatus>> takeoverRequests = new ArrayList<>();
+
+    private volatile boolean failingLibraryRunning = true;
+
+    public void runBenchmark() throws Exception
+    {
+        final FixLibrary failingLibrary = connect(libraryConfiguration()
+            .replyTimeoutInMs(LIBRARY_TIMEOUT_IN_MS)
+            .sessionAcquireHandler((session, isSlow) ->
+            {
+                acquiredSessions.incrementAndGet();
+                return new BenchmarkSessionHandler();
+            }));
+
+        final Thread failingLibraryPoller = new Thread(
+            () ->
+            {
+                final IdleStrategy idleStrategy = idleStrategy();
+                while (failingLibraryRunning)
+                {
+                    idleStrategy.idle(failingLibrary.poll(FRAGMENT_LIMIT));
+                }
+            },
+            "FailingLibraryPoller");
+        failingLibraryPoller.start();
+
+        final ByteChannel[] channels = logonSessions();
+        while (acquiredSessions.get() < SESSIONS)
+        {
+            Thread.yield();
+        }
+        System.out.printf("%d sessions acquired by the first library%n", SESSIONS);
+
+        sendTestRequests(channels);
+
+        failingLibraryRunning = false;
+        failingLibraryPoller.join();
+        final long startTime = System.nanoTime();
+
+        try (FixLibrary takeoverLibrary = connect(libraryConfiguration()
+            .replyTimeoutInMs(LIBRARY_TIMEOUT_IN_MS)
+            .sessionExistsHandler(new TakeoverHandler())))
+        {
+            while (takeoverRequests.size() < SESSIONS || !allRepliesComplete())
+            {
+                idleStrategy.idle(takeoverLibrary.poll(FRAGMENT_LIMIT));
+            }
+
+            final long durationInMs = NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            System.out.printf(
+                "%d sessions taken over in %d ms, including a library timeout of %d ms%n",
+                SESSIONS,
+                durationInMs,
+                LIBRARY_TIMEOUT_IN_MS);
+            printFailedRequests();
+        }
+        finally
+        {
+            failingLibrary.close();
+            for (final ByteChannel channel : channels)
+            {
+                channel.close();
+            }
+        }
+    }
+
+    private FixLibrary connect(final LibraryConfiguration configuration)
+    {
+        final FixLibrary library = FixLibrary.connect(configuration);
+        while (!library.isConnected())
+        {
+            idleStrategy.idle(library.poll(FRAGMENT_LIMIT));
+        }
+
+        return library;
+    }
+
+    private ByteChannel[] logonSessions() throws IOException
+    {
+        final ByteChannel[] channels = new ByteChannel[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++)
+        {
+            channels[i] = open();
+            logon(channels[i], INITIATOR_ID + i, 10);
+        }
+
+        return channels;
+    }
+
+    private void sendTestRequests(final ByteChannel[] channels) throws IOException
+    {
+        for (int i = 0; i < SESSIONS; i++)
+        {
+            final TestRequestEncoder testRequest = setupTestRequest(INITIATOR_ID + i);
+            for (int j = 0; j < MESSAGES_PER_SESSION; j++)
+            {
+                // The logon was sequence number 1
+                write(channels[i], encode(testRequest, testRequest.header(), j + 2));
+                read(channels[i]);
+            }
+        }
+    }
+
+    private boolean allRepliesComplete()
+    {
+        final List<Reply<SessionReplyStatus>> takeoverRequests = this.takeoverRequests;
+        for (int i = 0, size = takeoverRequests.size(); i < size; i++)
+        {
+            if (takeoverRequests.get(i).isExecuting())
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void printFailedRequests()
+    {
+        int failed = 0;
+        for (final Reply<SessionReplyStatus> request : takeoverRequests)
+        {
+            if (request.resultIfPresent() != SessionReplyStatus.OK)
+            {
+                failed++;
+            }
+        }
+
+        if (failed > 0)
+        {
+            System.out.printf("%d sessions weren't taken over cleanly%n", failed);
+        }
+    }
+
+    private final class TakeoverHandler implements SessionExistsHandler
+    {
+        public void onSessionExists(
+            final FixLibrary library,
+            final long surrogateId,
+            final String localCompId,
+            final String localSubId,
+            final String localLocationId,
+            final String remoteCompId,
+            final String remoteSubId,
+            final String remoteLocationId)
+        {
+            takeoverRequests.add(library.requestSession(
+                surrogateId, NO_MESSAGE_REPLAY, NO_MESSAGE_REPLAY, REQUEST_TIMEOUT_IN_MS));
+        }
+
+        public void onSessionExists(
+            final FixLibrary library,
+            final long surrogateId,
+            final String localCompId,
+            final String localSubId,
+            final String localLocationId,
+            final String remoteCompId,
+            final String remoteSubId,
+            final String remoteLocationId,
+            final int lastSentSequenceNumber,
+            final int lastReceivedSequenceNumber,
+            final int sequenceIndex)
+        {
+            // Catch up on everything received in the current sequence index.
+            takeoverRequests.add(library.requestSession(surrogateId, 1, sequenceIndex, REQUEST_TIMEOUT_IN_MS));
+        }
+    }
+}
@@ -33,6 +33,10 @@ public final class FixBenchmarkClient
         {
             RepeatConnectionBenchmarkClient.main(args);
         }
+        else if (TYPE.equalsIgnoreCase("logon-storm"))
+        {
+            LogonStormBenchmarkClient.main(args);
+        }
         else
         {
             LatencyBenchmarkClient.main(args);
@@ -26,43 +26,51 @@ import uk.co.real_logic.artio.library.FixLibrary;
 import uk.co.real_logic.artio.library.LibraryConfiguration;
 
 import java.io.File;
+import java.util.concurrent.locks.LockSupport;
 
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.*;
 
 public final class FixBenchmarkServer
 {
     public static void main(final String[] args)
     {
-        final EngineConfiguration configuration = engineConfiguration();
+        final EngineConfiguration configuration = engineConfiguration()
+            .bindTo("localhost", BenchmarkConfiguration.PORT);
 
         try (MediaDriver mediaDriver = newMediaDriver();
              FixEngine engine = FixEngine.launch(configuration);
              FixLibrary library = FixLibrary.connect(libraryConfiguration()))
         {
-            final IdleStrategy idleStrategy = idleStrategy();
-            System.out.printf("Using %s idle strategy%n", idleStrategy.getClass().getSimpleName());
-            while (true)
-            {
-                final boolean notConnected = !library.isConnected();
+            pollLibrary(library);
+        }
+    }
 
-                idleStrategy.idle(library.poll(10));
+    static void pollLibrary(final FixLibrary library)
+    {
+        final IdleStrategy idleStrategy = idleStrategy();
+        System.out.printf("Using %s idle strategy%n", idleStrategy.getClass().getSimpleName());
+        while (true)
+        {
+            final boolean notConnected = !library.isConnected();
 
-                if (notConnected && library.isConnected())
-                {
-                    System.out.println("Connected");
-                    break;
-                }
-            }
+            idleStrategy.idle(library.poll(10));
 
-            while (true)
+            if (notConnected && library.isConnected())
             {
-                idleStrategy.idle(library.poll(10));
+                System.out.println("Connected");
+                break;
             }
         }
+
+        while (true)
+        {
+            idleStrategy.idle(library.poll(10));
+        }
     }
 
-    private static MediaDriver newMediaDriver()
+    static MediaDriver newMediaDriver()
     {
         final MediaDriver.Context context = new MediaDriver.Context()
             .dirDeleteOnStart(true)
@@ -71,7 +79,7 @@ public final class FixBenchmarkServer
         return MediaDriver.launch(context);
     }
 
-    private static EngineConfiguration engineConfiguration()
+    static EngineConfiguration engineConfiguration()
     {
         final String acceptorLogs = "acceptor_logs";
         final File dir = new File(acceptorLogs);
@@ -82,10 +90,19 @@ public final class FixBenchmarkServer
 
         final EngineConfiguration configuration = new EngineConfiguration();
         configuration.printAeronStreamIdentifiers(true);
-        setupAuthentication(configuration);
+        configuration.authenticationStrategy(
+            (logon) ->
+            {
+                if (AUTHENTICATION_DELAY_IN_US > 0)
+                {
+                    // Stands in for an authentication strategy that hashes passwords or looks up entitlements.
+                    LockSupport.parkNanos(MICROSECONDS.toNanos(AUTHENTICATION_DELAY_IN_US));
+                }
+
+                return !REJECT_LOGON;
+            });
 
         return configuration
-            .bindTo("localhost", BenchmarkConfiguration.PORT)
             .libraryAeronChannel(AERON_CHANNEL)
             .logFileDir(acceptorLogs)
             .logInboundMessages(LOG_INBOUND_MESSAGES)
@@ -93,7 +110,7 @@ public final class FixBenchmarkServer
             .framerIdleStrategy(idleStrategy());
     }
 
-    private static LibraryConfiguration libraryConfiguration()
+    static LibraryConfiguration libraryConfiguration()
     {
         final LibraryConfiguration configuration = new LibraryConfiguration();
         configuration.printAeronStreamIdentifiers(true);
@@ -23,7 +23,7 @@ import uk.co.real_logic.artio.timing.HistogramLogReader;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.io.IOException;
-import java.nio.channels.SocketChannel;
+import java.nio.channels.ByteChannel;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
@@ -44,9 +44,9 @@ public final class LatencyUnderLoadBenchmarkClient extends AbstractBenchmarkClie
 
     private final class ReaderThread extends Thread
     {
-        private final SocketChannel socketChannel;
+        private final ByteChannel socketChannel;
 
-        ReaderThread(final SocketChannel socketChannel)
+        ReaderThread(final ByteChannel socketChannel)
         {
             this.socketChannel = socketChannel;
         }
@@ -55,7 +55,7 @@ public final class LatencyUnderLoadBenchmarkClient extends AbstractBenchmarkClie
         {
             final Histogram histogram = new Histogram(3);
             final long scaleToMicros = TimeUnit.MICROSECONDS.toNanos(1);
-            final SocketChannel socketChannel = this.socketChannel;
+            final ByteChannel socketChannel = this.socketChannel;
             final MutableAsciiBuffer readFlyweight = LatencyUnderLoadBenchmarkClient.this.readFlyweight;
             final long[] sendTimes = LatencyUnderLoadBenchmarkClient.this.sendTimes;
 
@@ -99,7 +99,7 @@ public final class LatencyUnderLoadBenchmarkClient extends AbstractBenchmarkClie
         final long pauseInNs = getPauseInNs();
         System.out.println(pauseInNs);
 
-        try (SocketChannel socketChannel = open())
+        try (ByteChannel socketChannel = open())
         {
             final ReaderThread readerThread = new ReaderThread(socketChannel);
             readerThread.start();
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_benchmarks;
+
+import uk.co.real_logic.artio.builder.LogonEncoder;
+
+import java.io.IOException;
+import java.nio.channels.ByteChannel;
+
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.*;
+
+/**
+ * Connects {@link BenchmarkConfiguration#LOGON_STORM_SIZE} sessions at once and measures how long it takes for all
+ * of them to get a reply to their logon. Run the server with fix.benchmark.auth_delay_us to simulate a slow
+ * authentication strategy and fix.core.authentication_threads to authenticate off the framer thread.
+ */
+public final class LogonStormBenchmarkClient extends AbstractBenchmarkClient
+{
+    public static void main(final String[] args) throws IOException
+    {
+        new LogonStormBenchmarkClient().runBenchmark();
+    }
+
+    public void runBenchmark() throws IOException
+    {
+        for (int storm = 0; storm < LOGON_STORMS; storm++)
+        {
+            final ByteChannel[] channels = new ByteChannel[LOGON_STORM_SIZE];
+            for (int i = 0; i < LOGON_STORM_SIZE; i++)
+            {
+                channels[i] = open();
+            }
+
+            final long startTime = System.currentTimeMillis();
+            sendLogons(channels, storm);
+            awaitLogonReplies(channels);
+            printThroughput(startTime, LOGON_STORM_SIZE);
+
+            for (final ByteChannel channel : channels)
+            {
+                channel.close();
+            }
+
+            parkAfterWarmup();
+        }
+    }
+
+    private void sendLogons(final ByteChannel[] channels, final int storm) throws IOException
+    {
+        final LogonEncoder logon = new LogonEncoder();
+        logon.heartBtInt(10);
+
+        for (int i = 0; i < channels.length; i++)
+        {
+            // Each storm uses new sessions so that it doesn't race the disconnects of the previous one.
+            setupHeader(INITIATOR_ID + "-" + storm + "-" + i, logon.header()).msgSeqNum(1);
+            timestampEncoder.encode(System.currentTimeMillis());
+
+            write(channels[i], logon.encode(writeFlyweight, 0));
+        }
+    }
+
+    private void awaitLogonReplies(final ByteChannel[] channels) throws IOException
+    {
+        final boolean[] replied = new boolean[channels.length];
+        int remaining = channels.length;
+        while (remaining > 0)
+        {
+            for (int i = 0; i < channels.length; i++)
+            {
+                if (!replied[i])
+                {
+                    readBuffer.clear();
+                    // A rejected logon disconnects, which counts as a reply too.
+                    if (channels[i].read(readBuffer) != 0)
+                    {
+                        replied[i] = true;
+                        remaining--;
+                    }
+                }
+            }
+        }
+    }
+}
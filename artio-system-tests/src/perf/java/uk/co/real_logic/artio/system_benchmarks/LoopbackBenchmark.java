@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_benchmarks;
+
+import io.aeron.driver.MediaDriver;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.FixEngine;
+import uk.co.real_logic.artio.engine.framer.LoopbackChannelSupplier;
+import uk.co.real_logic.artio.library.FixLibrary;
+
+import static uk.co.real_logic.artio.system_benchmarks.FixBenchmarkServer.*;
+
+/**
+ * Runs the benchmark server and client in one process, connected over in-memory pipes rather than TCP, in order
+ * to measure the engine's own overhead without the kernel's network stack.
+ *
+ * The client is picked with fix.benchmark.type in the same way as {@link FixBenchmarkClient}, apart from
+ * many-connections which needs non-blocking sockets and so still connects over TCP.
+ */
+public final class LoopbackBenchmark
+{
+    public static void main(final String[] args) throws Exception
+    {
+        final EngineConfiguration configuration = engineConfiguration();
+        final LoopbackChannelSupplier channelSupplier = new LoopbackChannelSupplier(configuration);
+        configuration.channelSupplierFactory((config) -> channelSupplier);
+        AbstractBenchmarkClient.connectViaLoopback(channelSupplier);
+
+        try (MediaDriver mediaDriver = newMediaDriver();
+             FixEngine engine = FixEngine.launch(configuration);
+             FixLibrary library = FixLibrary.connect(libraryConfiguration()))
+        {
+            final Thread libraryPoller = new Thread(() -> pollLibrary(library), "LibraryPoller");
+            libraryPoller.setDaemon(true);
+            libraryPoller.start();
+
+            FixBenchmarkClient.main(args);
+        }
+    }
+}
@@ -37,7 +37,7 @@ public final class ManyConnectionsBenchmarkClient extends AbstractBenchmarkClien
         {
             final String initiatorId = INITIATOR_ID + i;
 
-            try (SocketChannel socketChannel = open())
+            try (SocketChannel socketChannel = openTcp())
             {
                 logon(socketChannel, initiatorId, 10);
 
@@ -19,7 +19,7 @@ import uk.co.real_logic.artio.builder.HeaderEncoder;
 import uk.co.real_logic.artio.builder.TestRequestEncoder;
 
 import java.io.IOException;
-import java.nio.channels.SocketChannel;
+import java.nio.channels.ByteChannel;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -102,7 +102,7 @@ public final class ThroughputBenchmarkClient extends AbstractBenchmarkClient
     private final class BenchmarkSession implements AutoCloseable
     {
         private final AtomicInteger totalMessagesReceived = new AtomicInteger(INITIAL_SEQ_NO);
-        private final SocketChannel socketChannel;
+        private final ByteChannel socketChannel;
         private final TestRequestEncoder testRequest;
         private final HeaderEncoder header;
 